@@ -66,6 +66,9 @@ dependencies {
     testImplementation(libs.logback) {
         because("implementation: a test directly uses logback.classic classes")
     }
+    testImplementation(libs.netty.all) {
+        because("network tests use netty channels directly")
+    }
 
 
     // Test lib dependencies
@@ -0,0 +1,192 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.integrationenvironment;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.UncheckedTimeoutException;
+import gnu.trove.list.TLongList;
+import gnu.trove.list.array.TLongArrayList;
+import org.joml.Vector3f;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.engine.context.Context;
+import org.terasology.engine.core.TerasologyEngine;
+import org.terasology.engine.core.Time;
+import org.terasology.engine.input.BindAxisEvent;
+import org.terasology.engine.input.binds.movement.ForwardsMovementAxis;
+import org.terasology.engine.input.binds.movement.StrafeMovementAxis;
+import org.terasology.engine.logic.players.LocalPlayer;
+import org.terasology.engine.network.NetworkSystem;
+import org.terasology.engine.world.chunks.ChunkProvider;
+import org.terasology.engine.world.chunks.Chunks;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Puts a host under the load of several scripted clients, to measure how the server scales without recruiting players.
+ * <p>
+ * The clients are headless engines connected to the host over loopback. Each client walks forwards and changes its
+ * strafing direction every few seconds, so its local player system sends a steady stream of
+ * {@link org.terasology.engine.logic.characters.CharacterMoveInputEvent}s and the host has to stream chunks as the
+ * client moves through the world.
+ * <pre><code>
+ *     NetworkLoadGenerator generator = new NetworkLoadGenerator(engines, mainLoop);
+ *     generator.addClients(4);
+ *     NetworkLoadReport report = generator.run(10_000);
+ * </code></pre>
+ * Requires the host to have a {@link org.terasology.engine.network.NetworkMode} that accepts connections. Network
+ * settings such as {@code org.terasology.highThroughputNetwork} can be compared by running with the system property set.
+ */
+public class NetworkLoadGenerator {
+    private static final Logger logger = LoggerFactory.getLogger(NetworkLoadGenerator.class);
+
+    private static final long DIRECTION_CHANGE_MS = 4000;
+
+    private final Engines engines;
+    private final MainLoop mainLoop;
+    private final List<ScriptedClient> clients = Lists.newArrayList();
+
+    public NetworkLoadGenerator(Engines engines, MainLoop mainLoop) {
+        this.engines = engines;
+        this.mainLoop = mainLoop;
+    }
+
+    /**
+     * Creates clients and connects them to the host.
+     */
+    public void addClients(int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            Context context = engines.createClient(mainLoop);
+            clients.add(new ScriptedClient(context, clients.size()));
+        }
+    }
+
+    /**
+     * Ticks all engines while the clients move around.
+     *
+     * @param gameTimeMs how long to apply the load, in game time of the host
+     * @return the measurements of this run
+     */
+    public NetworkLoadReport run(long gameTimeMs) {
+        Time hostTime = engines.getHostContext().get(Time.class);
+        NetworkSystem hostNetwork = engines.getHostContext().get(NetworkSystem.class);
+        TLongList tickTimes = new TLongArrayList();
+        long outgoingBytes = 0;
+
+        // discard the traffic of connecting the clients
+        hostNetwork.getOutgoingBytesDelta();
+        long startGameTime = hostTime.getGameTimeInMs();
+        long startRealTime = System.currentTimeMillis();
+        for (ScriptedClient client : clients) {
+            client.start();
+        }
+
+        while (hostTime.getGameTimeInMs() - startGameTime < gameTimeMs) {
+            for (TerasologyEngine engine : engines.getEngines()) {
+                long tickStart = System.nanoTime();
+                boolean keepRunning = engine.tick();
+                if (engine == engines.host) {
+                    tickTimes.add(System.nanoTime() - tickStart);
+                    if (!keepRunning) {
+                        throw new RuntimeException("Host has shut down: " + engines.host.getStatus());
+                    }
+                }
+            }
+            outgoingBytes += hostNetwork.getOutgoingBytesDelta();
+            for (ScriptedClient client : clients) {
+                client.update();
+            }
+
+            if (System.currentTimeMillis() - startRealTime > mainLoop.getSafetyTimeoutMs()) {
+                throw new UncheckedTimeoutException("MTE Safety timeout exceeded. See setSafetyTimeoutMs()");
+            }
+        }
+
+        TLongList chunkLatencies = new TLongArrayList();
+        for (ScriptedClient client : clients) {
+            client.stop();
+            chunkLatencies.addAll(client.chunkLatencies);
+        }
+        NetworkLoadReport report = new NetworkLoadReport(clients.size(), hostTime.getGameTimeInMs() - startGameTime,
+                tickTimes.toArray(), outgoingBytes, chunkLatencies.toArray());
+        logger.info("Network load: {}", report);
+        return report;
+    }
+
+    private static final class ScriptedClient {
+        private final int index;
+        private final LocalPlayer localPlayer;
+        private final ChunkProvider chunkProvider;
+        private final Time time;
+        private final Map<Vector3ic, Long> pendingChunks = Maps.newHashMap();
+        private final TLongList chunkLatencies = new TLongArrayList();
+        private Vector3i currentChunk;
+        private float strafe;
+
+        private ScriptedClient(Context context, int index) {
+            this.index = index;
+            this.localPlayer = context.get(LocalPlayer.class);
+            this.chunkProvider = context.get(ChunkProvider.class);
+            this.time = context.get(Time.class);
+        }
+
+        private void start() {
+            move(new ForwardsMovementAxis(), "engine:forwardsMovement", 1);
+        }
+
+        private void stop() {
+            move(new ForwardsMovementAxis(), "engine:forwardsMovement", 0);
+            move(new StrafeMovementAxis(), "engine:strafe", 0);
+            strafe = 0;
+        }
+
+        private void update() {
+            if (!localPlayer.isValid()) {
+                return;
+            }
+            long now = time.getGameTimeInMs();
+            float newStrafe = (now / DIRECTION_CHANGE_MS + index) % 2 == 0 ? 1 : -1;
+            if (newStrafe != strafe) {
+                move(new StrafeMovementAxis(), "engine:strafe", newStrafe);
+                strafe = newStrafe;
+            }
+
+            Vector3i chunk = Chunks.toChunkPos(localPlayer.getPosition(new Vector3f()), new Vector3i());
+            if (!chunk.equals(currentChunk)) {
+                currentChunk = chunk;
+                pendingChunks.putIfAbsent(chunk, now);
+            }
+            Iterator<Map.Entry<Vector3ic, Long>> iterator = pendingChunks.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Vector3ic, Long> entry = iterator.next();
+                if (isAreaReady(entry.getKey())) {
+                    chunkLatencies.add(now - entry.getValue());
+                    iterator.remove();
+                }
+            }
+        }
+
+        private boolean isAreaReady(Vector3ic center) {
+            Vector3i pos = new Vector3i();
+            for (int x = -1; x <= 1; x++) {
+                for (int z = -1; z <= 1; z++) {
+                    if (!chunkProvider.isChunkReady(pos.set(center).add(x, 0, z))) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private void move(BindAxisEvent event, String axisId, float value) {
+            event.prepare(axisId, value, time.getGameDelta());
+            localPlayer.getClientEntity().send(event);
+        }
+    }
+}
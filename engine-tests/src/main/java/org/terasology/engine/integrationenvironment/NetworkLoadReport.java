@@ -0,0 +1,92 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.integrationenvironment;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The measurements of a {@link NetworkLoadGenerator} run.
+ */
+public class NetworkLoadReport {
+    private final int clientCount;
+    private final long gameTimeMs;
+    private final long[] tickTimesNs;
+    private final long outgoingBytes;
+    private final long[] chunkLatenciesMs;
+
+    NetworkLoadReport(int clientCount, long gameTimeMs, long[] tickTimesNs, long outgoingBytes, long[] chunkLatenciesMs) {
+        this.clientCount = clientCount;
+        this.gameTimeMs = gameTimeMs;
+        this.tickTimesNs = tickTimesNs.clone();
+        this.outgoingBytes = outgoingBytes;
+        this.chunkLatenciesMs = chunkLatenciesMs.clone();
+        Arrays.sort(this.tickTimesNs);
+        Arrays.sort(this.chunkLatenciesMs);
+    }
+
+    public int getClientCount() {
+        return clientCount;
+    }
+
+    /**
+     * @return the game time the load was applied for
+     */
+    public long getGameTimeMs() {
+        return gameTimeMs;
+    }
+
+    public int getTickCount() {
+        return tickTimesNs.length;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the real time the host took for a tick at the given percentile, in milliseconds
+     */
+    public double getTickTimeMs(double percentile) {
+        return percentile(tickTimesNs, percentile) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return the bytes the host sent per connected client and second of game time
+     */
+    public double getBytesPerClientPerSecond() {
+        if (clientCount == 0 || gameTimeMs == 0) {
+            return 0;
+        }
+        return outgoingBytes * 1000.0 / gameTimeMs / clientCount;
+    }
+
+    public int getChunkDeliveryCount() {
+        return chunkLatenciesMs.length;
+    }
+
+    /**
+     * The chunk delivery latency is the game time a client waited after entering a chunk until that chunk and its
+     * horizontal neighbours were loaded.
+     *
+     * @param percentile between 0 and 100
+     * @return the chunk delivery latency at the given percentile, in milliseconds
+     */
+    public long getChunkLatencyMs(double percentile) {
+        return percentile(chunkLatenciesMs, percentile);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d clients for %d ms: tick p50 %.2f ms, p95 %.2f ms, p99 %.2f ms over %d ticks; "
+                        + "%.0f bytes/client/s; chunk latency p50 %d ms, p95 %d ms, max %d ms over %d deliveries",
+                clientCount, gameTimeMs, getTickTimeMs(50), getTickTimeMs(95), getTickTimeMs(99), getTickCount(),
+                getBytesPerClientPerSecond(), getChunkLatencyMs(50), getChunkLatencyMs(95), getChunkLatencyMs(100),
+                getChunkDeliveryCount());
+    }
+}
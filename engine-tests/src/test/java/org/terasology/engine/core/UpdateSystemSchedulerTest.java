@@ -0,0 +1,113 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.core;
+
+import com.google.common.collect.Lists;
+import org.junit.jupiter.api.Test;
+import org.terasology.engine.entitySystem.systems.BaseComponentSystem;
+import org.terasology.engine.entitySystem.systems.UpdateSchedule;
+import org.terasology.engine.entitySystem.systems.UpdateSubscriberSystem;
+import org.terasology.unittest.stubs.IntegerComponent;
+import org.terasology.unittest.stubs.StringComponent;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class UpdateSystemSchedulerTest {
+
+    @Test
+    public void testIndependentSystemsShareWave() {
+        UpdateSubscriberSystem readsInteger = new ReadsIntegerSystem();
+        UpdateSubscriberSystem writesString = new WritesStringSystem();
+
+        List<List<UpdateSubscriberSystem>> waves =
+                UpdateSystemScheduler.planWaves(Arrays.asList(readsInteger, writesString));
+
+        assertEquals(Collections.singletonList(Arrays.asList(readsInteger, writesString)), waves);
+    }
+
+    @Test
+    public void testConflictingSystemsKeepRegistrationOrder() {
+        UpdateSubscriberSystem writesInteger = new WritesIntegerSystem();
+        UpdateSubscriberSystem readsInteger = new ReadsIntegerSystem();
+
+        List<List<UpdateSubscriberSystem>> waves =
+                UpdateSystemScheduler.planWaves(Arrays.asList(writesInteger, readsInteger));
+
+        assertEquals(Arrays.asList(Collections.singletonList(writesInteger), Collections.singletonList(readsInteger)),
+                waves);
+    }
+
+    @Test
+    public void testUnannotatedSystemsRunAlone() {
+        UpdateSubscriberSystem readsInteger = new ReadsIntegerSystem();
+        UpdateSubscriberSystem unannotated = new UnannotatedSystem();
+        UpdateSubscriberSystem writesString = new WritesStringSystem();
+
+        List<List<UpdateSubscriberSystem>> waves =
+                UpdateSystemScheduler.planWaves(Arrays.asList(readsInteger, unannotated, writesString));
+
+        assertEquals(3, waves.size());
+        assertEquals(Collections.singletonList(unannotated), waves.get(1));
+    }
+
+    @Test
+    public void testDeclaredOrderingOverridesRegistrationOrder() {
+        UpdateSubscriberSystem afterWriter = new AfterWritesStringSystem();
+        UpdateSubscriberSystem writesString = new WritesStringSystem();
+
+        List<List<UpdateSubscriberSystem>> waves =
+                UpdateSystemScheduler.planWaves(Arrays.asList(afterWriter, writesString));
+
+        assertEquals(Arrays.asList(Collections.singletonList(writesString), Collections.singletonList(afterWriter)),
+                waves);
+    }
+
+    @Test
+    public void testUpdatesAllSystemsConcurrently() {
+        UpdateSystemScheduler scheduler = new UpdateSystemScheduler(new ForkJoinPool(2));
+        List<UpdateSubscriberSystem> systems = Lists.newArrayList(new ReadsIntegerSystem(), new WritesStringSystem(),
+                new UnannotatedSystem());
+
+        scheduler.update(systems, 0.1f);
+        scheduler.update(systems, 0.1f);
+        scheduler.shutdown();
+
+        for (UpdateSubscriberSystem system : systems) {
+            assertEquals(2, ((CountingSystem) system).updates.get());
+        }
+    }
+
+    private abstract static class CountingSystem extends BaseComponentSystem implements UpdateSubscriberSystem {
+        final AtomicInteger updates = new AtomicInteger();
+
+        @Override
+        public void update(float delta) {
+            updates.incrementAndGet();
+        }
+    }
+
+    @UpdateSchedule(reads = IntegerComponent.class)
+    private static class ReadsIntegerSystem extends CountingSystem {
+    }
+
+    @UpdateSchedule(writes = IntegerComponent.class)
+    private static class WritesIntegerSystem extends CountingSystem {
+    }
+
+    @UpdateSchedule(writes = StringComponent.class)
+    private static class WritesStringSystem extends CountingSystem {
+    }
+
+    @UpdateSchedule(reads = IntegerComponent.class, after = WritesStringSystem.class)
+    private static class AfterWritesStringSystem extends CountingSystem {
+    }
+
+    private static class UnannotatedSystem extends CountingSystem {
+    }
+}
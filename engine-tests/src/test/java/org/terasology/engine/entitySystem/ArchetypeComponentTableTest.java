@@ -0,0 +1,141 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.entitySystem;
+
+import gnu.trove.iterator.TLongIterator;
+import gnu.trove.iterator.TLongObjectIterator;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+import org.junit.jupiter.api.Test;
+import org.terasology.engine.entitySystem.entity.internal.ArchetypeComponentTable;
+import org.terasology.engine.entitySystem.entity.internal.ComponentTable;
+import org.terasology.engine.entitySystem.entity.internal.MapComponentTable;
+import org.terasology.gestalt.entitysystem.component.Component;
+import org.terasology.unittest.stubs.IntegerComponent;
+import org.terasology.unittest.stubs.StringComponent;
+
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ArchetypeComponentTableTest {
+
+    private final ArchetypeComponentTable table = new ArchetypeComponentTable();
+
+    @Test
+    public void testPutAndGet() {
+        IntegerComponent integer = new IntegerComponent(1);
+        StringComponent string = new StringComponent("a");
+        assertNull(table.put(1, integer));
+        assertNull(table.put(1, string));
+
+        assertSame(integer, table.get(1, IntegerComponent.class));
+        assertSame(string, table.get(1, StringComponent.class));
+        assertEquals(1, table.numEntities());
+    }
+
+    @Test
+    public void testPutReplacesComponent() {
+        IntegerComponent first = new IntegerComponent(1);
+        IntegerComponent second = new IntegerComponent(2);
+        table.put(1, first);
+
+        assertSame(first, table.put(1, second));
+        assertSame(second, table.get(1, IntegerComponent.class));
+        assertEquals(1, table.getArchetypeCount());
+    }
+
+    @Test
+    public void testRemoveComponentKeepsOthers() {
+        StringComponent string = new StringComponent("a");
+        table.put(1, new IntegerComponent(1));
+        table.put(1, string);
+        table.put(2, new IntegerComponent(2));
+
+        assertTrue(table.remove(1, IntegerComponent.class) instanceof IntegerComponent);
+        assertNull(table.get(1, IntegerComponent.class));
+        assertSame(string, table.get(1, StringComponent.class));
+        assertEquals(1, table.getComponentCount(IntegerComponent.class));
+    }
+
+    @Test
+    public void testRemovingLastComponentRemovesEntity() {
+        table.put(1, new IntegerComponent(1));
+        table.remove(1, IntegerComponent.class);
+
+        assertEquals(0, table.numEntities());
+        assertFalse(table.entityIdIterator().hasNext());
+    }
+
+    @Test
+    public void testEntitiesWithSkipsEntitiesChangedDuringIteration() {
+        for (long id = 1; id <= 10; id++) {
+            table.put(id, new IntegerComponent((int) id));
+        }
+        TLongIterator iterator = table.entityIdIterator(new Class[]{IntegerComponent.class});
+        table.remove(5, IntegerComponent.class);
+        table.put(6, new StringComponent("moved"));
+
+        TLongSet found = new TLongHashSet();
+        while (iterator.hasNext()) {
+            found.add(iterator.next());
+        }
+        assertEquals(9, found.size());
+        assertFalse(found.contains(5));
+        assertTrue(found.contains(6));
+    }
+
+    @Test
+    public void testMatchesMapComponentTable() {
+        ComponentTable reference = new MapComponentTable();
+        Random random = new Random(0);
+        for (int i = 0; i < 10000; i++) {
+            long id = random.nextInt(100);
+            switch (random.nextInt(4)) {
+                case 0:
+                    Component integer = new IntegerComponent(i);
+                    assertSame(reference.put(id, integer), table.put(id, integer));
+                    break;
+                case 1:
+                    Component string = new StringComponent(Integer.toString(i));
+                    assertSame(reference.put(id, string), table.put(id, string));
+                    break;
+                case 2:
+                    assertSame(reference.remove(id, IntegerComponent.class), table.remove(id, IntegerComponent.class));
+                    break;
+                default:
+                    assertSame(reference.remove(id, StringComponent.class), table.remove(id, StringComponent.class));
+                    break;
+            }
+        }
+
+        assertEquals(reference.numEntities(), table.numEntities());
+        for (long id = 0; id < 100; id++) {
+            assertEquals(new HashSet<>(reference.getComponentsInNewList(id)), new HashSet<>(table.getComponentsInNewList(id)));
+        }
+        assertEquals(collectIds(reference.entityIdIterator(new Class[]{IntegerComponent.class, StringComponent.class})),
+                collectIds(table.entityIdIterator(new Class[]{IntegerComponent.class, StringComponent.class})));
+
+        TLongObjectIterator<IntegerComponent> components = table.componentIterator(IntegerComponent.class);
+        int count = 0;
+        while (components.hasNext()) {
+            components.advance();
+            assertSame(reference.get(components.key(), IntegerComponent.class), components.value());
+            count++;
+        }
+        assertEquals(reference.getComponentCount(IntegerComponent.class), count);
+    }
+
+    private static TLongSet collectIds(TLongIterator iterator) {
+        TLongSet ids = new TLongHashSet();
+        while (iterator.hasNext()) {
+            ids.add(iterator.next());
+        }
+        return ids;
+    }
+}
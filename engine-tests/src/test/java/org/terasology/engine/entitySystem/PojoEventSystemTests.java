@@ -9,7 +9,9 @@
 import org.terasology.engine.context.internal.ContextImpl;
 import org.terasology.engine.entitySystem.entity.EntityRef;
 import org.terasology.engine.entitySystem.entity.internal.PojoEntityManager;
+import org.terasology.engine.entitySystem.entity.lifecycleEvents.OnChangedComponent;
 import org.terasology.engine.entitySystem.event.AbstractConsumableEvent;
+import org.terasology.engine.entitySystem.event.ComponentAccess;
 import org.terasology.engine.entitySystem.event.EventPriority;
 import org.terasology.engine.entitySystem.event.Priority;
 import org.terasology.engine.entitySystem.event.internal.EventReceiver;
@@ -26,6 +28,7 @@
 import org.terasology.persistence.typeHandling.TypeHandlerLibrary;
 import org.terasology.unittest.stubs.IntegerComponent;
 import org.terasology.unittest.stubs.StringComponent;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.List;
 
@@ -108,6 +111,99 @@ public void testSendEventToEntityComponent() {
         assertEquals(entity, handler.receivedList.get(0).entity);
     }
 
+    @Test
+    public void testReceiveEventAfterComponentsChanged() {
+        entity.addComponent(new StringComponent());
+
+        TestCompoundComponentEventHandler handler = new TestCompoundComponentEventHandler();
+        eventSystem.registerEventHandler(handler);
+
+        eventSystem.send(entity, new TestEvent());
+        assertEquals(0, handler.receivedList.size());
+
+        entity.addComponent(new IntegerComponent());
+        eventSystem.send(entity, new TestEvent());
+        assertEquals(1, handler.receivedList.size());
+
+        entity.removeComponent(IntegerComponent.class);
+        eventSystem.send(entity, new TestEvent());
+        assertEquals(1, handler.receivedList.size());
+    }
+
+    @Test
+    public void testReceiveEventWhenRegisteredAfterFirstSend() {
+        entity.addComponent(new StringComponent());
+        eventSystem.send(entity, new TestEvent());
+
+        TestEventHandler handler = new TestEventHandler();
+        eventSystem.registerEventHandler(handler);
+        eventSystem.send(entity, new TestEvent());
+
+        assertEquals(1, handler.receivedList.size());
+    }
+
+    @Test
+    public void testDeclaredWritesAreSavedOnSynchronousSend() {
+        TestCountingEventHandler handler = new TestCountingEventHandler();
+        eventSystem.registerEventHandler(handler);
+        entity.addComponent(new IntegerComponent());
+
+        entity.send(new TestEvent());
+        entity.send(new TestEvent());
+
+        assertEquals(2, entity.getComponent(IntegerComponent.class).value);
+        assertEquals(2, handler.changedEvents);
+    }
+
+    @Test
+    public void testDeclaredWritesAreSavedForQueuedEventsWithoutParallelDispatch() throws InterruptedException {
+        TestCountingEventHandler handler = new TestCountingEventHandler();
+        eventSystem.registerEventHandler(handler);
+        List<EntityRef> entities = sendQueuedEvents(10);
+
+        eventSystem.process();
+
+        for (EntityRef target : entities) {
+            assertEquals(2, target.getComponent(IntegerComponent.class).value);
+        }
+        assertEquals(20, handler.changedEvents);
+    }
+
+    @Test
+    public void testParallelDispatchOfQueuedEvents() throws InterruptedException {
+        eventSystem.setParallelDispatchScheduler(Schedulers.parallel());
+        TestCountingEventHandler handler = new TestCountingEventHandler();
+        eventSystem.registerEventHandler(handler);
+        List<EntityRef> entities = sendQueuedEvents(10);
+
+        eventSystem.process();
+
+        for (EntityRef target : entities) {
+            assertEquals(2, target.getComponent(IntegerComponent.class).value);
+        }
+        // the written components are saved once per entity after the batch
+        assertEquals(10, handler.changedEvents);
+    }
+
+    /**
+     * Sends two events to each of the new entities from another thread, so they are queued.
+     */
+    private List<EntityRef> sendQueuedEvents(int entityCount) throws InterruptedException {
+        List<EntityRef> entities = Lists.newArrayList();
+        for (int i = 0; i < entityCount; i++) {
+            entities.add(entityManager.create(new IntegerComponent()));
+        }
+        Thread sender = new Thread(() -> {
+            for (EntityRef target : entities) {
+                target.send(new TestEvent());
+                target.send(new TestEvent());
+            }
+        });
+        sender.start();
+        sender.join();
+        return entities;
+    }
+
     @Test
     public void testNoReceiveEventWhenMissingComponents() {
         entity.addComponent(new StringComponent());
@@ -314,6 +410,21 @@ public Received(TestEvent event, EntityRef entity) {
         }
     }
 
+    public static class TestCountingEventHandler extends BaseComponentSystem {
+        int changedEvents;
+
+        @ComponentAccess(writes = IntegerComponent.class)
+        @ReceiveEvent
+        public void handleEvent(TestEvent event, EntityRef entity, IntegerComponent component) {
+            component.value++;
+        }
+
+        @ReceiveEvent(components = IntegerComponent.class)
+        public void onChanged(OnChangedComponent event, EntityRef entity) {
+            changedEvents++;
+        }
+    }
+
     public static class TestEventReceiver implements EventReceiver<TestEvent> {
         List<Event> eventList = Lists.newArrayList();
 
@@ -0,0 +1,30 @@
+// Copyright 2022 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.integrationenvironment;
+
+import org.junit.jupiter.api.Test;
+import org.terasology.engine.integrationenvironment.jupiter.IntegrationEnvironment;
+import org.terasology.engine.network.NetworkMode;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@IntegrationEnvironment(networkMode = NetworkMode.LISTEN_SERVER)
+public class NetworkLoadGeneratorTest {
+
+    @Test
+    public void testReportsLoadOfScriptedClients(Engines engines, MainLoop mainLoop) throws IOException {
+        mainLoop.setSafetyTimeoutMs(60_000);
+        NetworkLoadGenerator generator = new NetworkLoadGenerator(engines, mainLoop);
+        generator.addClients(2);
+
+        NetworkLoadReport report = generator.run(3000);
+
+        assertEquals(2, report.getClientCount());
+        assertTrue(report.getTickCount() > 0);
+        assertTrue(report.getTickTimeMs(50) <= report.getTickTimeMs(99));
+        assertTrue(report.getBytesPerClientPerSecond() > 0);
+    }
+}
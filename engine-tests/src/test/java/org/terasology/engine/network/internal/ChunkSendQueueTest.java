@@ -0,0 +1,149 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.network.internal;
+
+import com.google.common.collect.Lists;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.terasology.engine.world.chunks.Chunk;
+import org.terasology.engine.world.chunks.Chunks;
+import org.terasology.protobuf.EntityData;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ChunkSendQueueTest {
+    private final ChunkEncodingCache encodingCache = new ChunkEncodingCache(1);
+
+    @AfterEach
+    public void shutdown() {
+        encodingCache.shutdown();
+    }
+
+    @Test
+    public void testSendsNearestChunksFirst() throws InterruptedException {
+        ChunkSendQueue queue = new ChunkSendQueue();
+        for (int x : new int[]{5, -1, 3, 8}) {
+            Chunk chunk = mockChunk(x);
+            queue.add(chunk.getPosition(), chunk);
+            awaitEncoded(chunk);
+        }
+        queue.setCenter(new Vector3i(0, 0, 0));
+
+        List<Vector3ic> sent = Lists.newArrayList();
+        queue.poll(encodingCache, Integer.MAX_VALUE, (pos, store) -> {
+            assertEquals(pos.x(), store.getX());
+            sent.add(pos);
+        });
+
+        assertEquals(Lists.newArrayList(new Vector3i(-1, 0, 0), new Vector3i(3, 0, 0), new Vector3i(5, 0, 0),
+                new Vector3i(8, 0, 0)), sent);
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testStopsOnceBudgetIsUsed() throws InterruptedException {
+        ChunkSendQueue queue = new ChunkSendQueue();
+        for (int x = 0; x < 3; x++) {
+            Chunk chunk = mockChunk(x);
+            queue.add(chunk.getPosition(), chunk);
+            awaitEncoded(chunk);
+        }
+
+        int bytes = queue.poll(encodingCache, 1, (pos, store) -> { });
+
+        assertTrue(bytes > 0);
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    public void testSkipsRemovedChunks() throws InterruptedException {
+        ChunkSendQueue queue = new ChunkSendQueue();
+        Chunk removed = mockChunk(0);
+        Chunk kept = mockChunk(1);
+        queue.add(removed.getPosition(), removed);
+        queue.add(kept.getPosition(), kept);
+        awaitEncoded(kept);
+
+        assertTrue(queue.remove(removed.getPosition()));
+        assertFalse(queue.remove(removed.getPosition()));
+
+        List<Vector3ic> sent = Lists.newArrayList();
+        queue.poll(encodingCache, Integer.MAX_VALUE, (pos, store) -> sent.add(pos));
+        assertEquals(Lists.newArrayList(kept.getPosition()), sent);
+    }
+
+    @Test
+    public void testEncodingIsSharedUntilChunkChanges() throws InterruptedException {
+        Chunk chunk = mockChunk(2);
+        EntityData.ChunkStore first = awaitEncoded(chunk);
+        assertSame(first, encodingCache.getEncoded(chunk));
+        assertEquals(1, encodingCache.getReusedCount());
+
+        encodingCache.onExtraDataChanged(0, new Vector3i(2 * Chunks.SIZE_X + 1, 3, 4), 1, 0);
+        awaitEncoded(chunk);
+
+        verify(chunk, times(2)).encode();
+        assertEquals(2, encodingCache.getEncodedCount());
+    }
+
+    @Test
+    public void testEncodingIsDroppedWhenChunkUnloads() throws InterruptedException {
+        Chunk chunk = mockChunk(3);
+        awaitEncoded(chunk);
+
+        encodingCache.chunkUnloaded(chunk.getPosition());
+        awaitEncoded(chunk);
+
+        verify(chunk, times(2)).copyForEncoding();
+        assertEquals(2, encodingCache.getEncodedCount());
+    }
+
+    @Test
+    public void testEncodingIsDroppedWhenVersionChanges() throws InterruptedException {
+        Chunk chunk = mockChunk(4);
+        EntityData.ChunkStore first = awaitEncoded(chunk);
+        assertSame(first, encodingCache.getEncoded(chunk));
+
+        // e.g. changed without notifying the world listeners
+        when(chunk.getChangeVersion()).thenReturn(1);
+        awaitEncoded(chunk);
+
+        verify(chunk, times(2)).copyForEncoding();
+        assertEquals(2, encodingCache.getEncodedCount());
+    }
+
+    private EntityData.ChunkStore awaitEncoded(Chunk chunk) throws InterruptedException {
+        for (int i = 0; i < 5000; i++) {
+            EntityData.ChunkStore store = encodingCache.getEncoded(chunk);
+            if (store != null) {
+                return store;
+            }
+            Thread.sleep(1);
+        }
+        EntityData.ChunkStore store = encodingCache.getEncoded(chunk);
+        assertNotNull(store, "chunk was not encoded");
+        return store;
+    }
+
+    private static Chunk mockChunk(int x) {
+        Chunk chunk = mock(Chunk.class);
+        when(chunk.getPosition()).thenReturn(new Vector3i(x, 0, 0));
+        when(chunk.encode()).thenAnswer(invocation -> EntityData.ChunkStore.newBuilder().setX(x).setY(0).setZ(0));
+        when(chunk.copyForEncoding()).thenAnswer(invocation ->
+                (Supplier<EntityData.ChunkStore.Builder>) chunk::encode);
+        return chunk;
+    }
+}
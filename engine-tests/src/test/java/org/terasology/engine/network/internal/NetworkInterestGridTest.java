@@ -0,0 +1,102 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.network.internal;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.SetMultimap;
+import org.joml.Vector3f;
+import org.joml.Vector3i;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.terasology.engine.world.chunks.Chunks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NetworkInterestGridTest {
+    private static final Vector3i EXTENTS = new Vector3i(1, 1, 1);
+
+    private final SetMultimap<String, Integer> relevant = HashMultimap.create();
+    private NetworkInterestGrid<String> grid;
+
+    @BeforeEach
+    public void setup() {
+        relevant.clear();
+        grid = new NetworkInterestGrid<>(new NetworkInterestGrid.Listener<String>() {
+            @Override
+            public void onEnter(String subscriber, int netId) {
+                assertTrue(relevant.put(subscriber, netId), "entered twice");
+            }
+
+            @Override
+            public void onLeave(String subscriber, int netId) {
+                assertTrue(relevant.remove(subscriber, netId), "left without entering");
+            }
+        });
+    }
+
+    @Test
+    public void testEntityEntersNearbySubscribersOnly() {
+        grid.updateSubscriber("near", new Vector3i(0, 0, 0), EXTENTS);
+        grid.updateSubscriber("far", new Vector3i(10, 0, 0), EXTENTS);
+
+        grid.updateEntity(1, chunkCenter(1, 0, 0));
+
+        assertTrue(relevant.containsEntry("near", 1));
+        assertFalse(relevant.containsKey("far"));
+        assertEquals(1, grid.getSubscribers(1).size());
+        assertTrue(grid.getSubscribers(1).contains("near"));
+    }
+
+    @Test
+    public void testMovingEntityChangesSubscribers() {
+        grid.updateSubscriber("a", new Vector3i(0, 0, 0), EXTENTS);
+        grid.updateSubscriber("b", new Vector3i(3, 0, 0), EXTENTS);
+        grid.updateEntity(1, chunkCenter(1, 0, 0));
+
+        grid.updateEntity(1, chunkCenter(2, 0, 0));
+        assertTrue(relevant.containsEntry("b", 1));
+        assertFalse(relevant.containsEntry("a", 1));
+
+        grid.updateEntity(1, chunkCenter(20, 0, 0));
+        assertTrue(relevant.isEmpty());
+        assertTrue(grid.getSubscribers(1).isEmpty());
+        assertTrue(grid.contains(1));
+    }
+
+    @Test
+    public void testMovingSubscriberChangesEntities() {
+        grid.updateEntity(1, chunkCenter(0, 0, 0));
+        grid.updateEntity(2, chunkCenter(5, 0, 0));
+        grid.updateSubscriber("a", new Vector3i(0, 0, 0), EXTENTS);
+        assertTrue(relevant.containsEntry("a", 1));
+
+        grid.updateSubscriber("a", new Vector3i(4, 0, 0), EXTENTS);
+        assertFalse(relevant.containsEntry("a", 1));
+        assertTrue(relevant.containsEntry("a", 2));
+
+        grid.removeSubscriber("a");
+        assertEquals(0, grid.getSubscriberCount());
+        assertTrue(grid.getSubscribers(2).isEmpty());
+    }
+
+    @Test
+    public void testRemovingAndReleasingEntities() {
+        grid.updateSubscriber("a", new Vector3i(0, 0, 0), EXTENTS);
+        grid.updateEntity(1, chunkCenter(0, 0, 0));
+        grid.updateEntity(2, chunkCenter(0, 0, 0));
+
+        grid.removeEntity(1);
+        assertFalse(relevant.containsEntry("a", 1));
+
+        assertTrue(grid.releaseEntity(2).contains("a"));
+        assertTrue(relevant.containsEntry("a", 2));
+        assertFalse(grid.contains(2));
+        assertEquals(0, grid.getEntityCount());
+    }
+
+    private static Vector3f chunkCenter(int x, int y, int z) {
+        return new Vector3f((x + 0.5f) * Chunks.SIZE_X, (y + 0.5f) * Chunks.SIZE_Y, (z + 0.5f) * Chunks.SIZE_Z);
+    }
+}
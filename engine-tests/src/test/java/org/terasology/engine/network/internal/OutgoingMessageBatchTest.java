@@ -0,0 +1,82 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.network.internal;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Test;
+import org.terasology.protobuf.NetData;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class OutgoingMessageBatchTest {
+
+    @Test
+    public void testMessagesAreWrittenOnFlush() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        OutgoingMessageBatch batch = new OutgoingMessageBatch();
+
+        batch.add(channel, "message");
+        channel.runPendingTasks();
+        assertNull(channel.readOutbound());
+        assertEquals(1, batch.size());
+
+        batch.flush();
+        channel.runPendingTasks();
+        assertEquals("message", channel.readOutbound());
+        assertEquals(0, batch.size());
+    }
+
+    @Test
+    public void testKeepsOrderPerChannel() {
+        EmbeddedChannel first = new EmbeddedChannel();
+        EmbeddedChannel second = new EmbeddedChannel();
+        OutgoingMessageBatch batch = new OutgoingMessageBatch();
+
+        batch.add(first, "a");
+        batch.add(second, "b");
+        batch.add(first, "c");
+        batch.flush();
+        first.runPendingTasks();
+        second.runPendingTasks();
+
+        assertEquals("a", first.readOutbound());
+        assertEquals("c", first.readOutbound());
+        assertNull(first.readOutbound());
+        assertEquals("b", second.readOutbound());
+    }
+
+    @Test
+    public void testSingleChannelIsFlushed() {
+        EmbeddedChannel first = new EmbeddedChannel();
+        EmbeddedChannel second = new EmbeddedChannel();
+        OutgoingMessageBatch batch = new OutgoingMessageBatch();
+
+        batch.add(first, "a");
+        batch.add(second, "b");
+        batch.flush(first);
+        first.runPendingTasks();
+        second.runPendingTasks();
+
+        assertEquals("a", first.readOutbound());
+        assertNull(second.readOutbound());
+        assertEquals(1, batch.size());
+    }
+
+    @Test
+    public void testSentBytesAreCountedWhenWritten() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        OutgoingMessageBatch batch = new OutgoingMessageBatch();
+        AtomicInteger sentBytes = new AtomicInteger();
+        NetData.NetMessage message = NetData.NetMessage.newBuilder().setTime(1234).build();
+
+        batch.add(channel, message, sentBytes);
+        assertEquals(0, sentBytes.get());
+
+        batch.flush();
+        channel.runPendingTasks();
+        assertEquals(message.getSerializedSize(), sentBytes.get());
+    }
+}
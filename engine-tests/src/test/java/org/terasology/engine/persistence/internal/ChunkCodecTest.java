@@ -0,0 +1,118 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.persistence.internal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ChunkCodecTest {
+
+    @ParameterizedTest
+    @EnumSource(ChunkCodec.class)
+    public void testRoundTrip(ChunkCodec codec) throws IOException {
+        byte[] data = createData();
+        assertArrayEquals(data, ChunkCodec.decompress(codec.compress(data)));
+    }
+
+    @ParameterizedTest
+    @EnumSource(ChunkCodec.class)
+    public void testRoundTripOfRandomData(ChunkCodec codec) throws IOException {
+        Random random = new Random(42);
+        for (int length : new int[]{0, 1, Short.MAX_VALUE, Short.MAX_VALUE + 1, 65536, 300000}) {
+            byte[] data = new byte[length];
+            random.nextBytes(data);
+            assertArrayEquals(data, ChunkCodec.decompress(codec.compress(data)), "length " + length);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(ChunkCodec.class)
+    public void testRoundTripOfMixedData(ChunkCodec codec) throws IOException {
+        // runs of repeated block ids broken up by random bytes, like the block data of a chunk
+        Random random = new Random(7);
+        byte[] data = new byte[200000];
+        int i = 0;
+        while (i < data.length) {
+            int end = Math.min(data.length, i + random.nextInt(5000));
+            byte value = (byte) random.nextInt(4);
+            while (i < end) {
+                data[i++] = random.nextInt(50) == 0 ? (byte) random.nextInt() : value;
+            }
+        }
+        assertArrayEquals(data, ChunkCodec.decompress(codec.compress(data)));
+    }
+
+    @Test
+    public void testTruncatedSnappyData() {
+        byte[] compressed = ChunkCodec.SNAPPY.compress(createData());
+        byte[] truncated = Arrays.copyOf(compressed, compressed.length / 2);
+        assertThrows(IOException.class, () -> ChunkCodec.decompress(truncated));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = ChunkCodec.class, names = {"SNAPPY", "DEFLATE"})
+    public void testTruncatedLength(ChunkCodec codec) {
+        byte[] compressed = codec.compress(createData());
+        byte[] truncated = Arrays.copyOf(compressed, 4);
+        assertThrows(IOException.class, () -> ChunkCodec.decompress(truncated));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = ChunkCodec.class, names = {"SNAPPY", "DEFLATE"})
+    public void testCorruptLength(ChunkCodec codec) {
+        for (byte lengthByte : new byte[]{(byte) 0x80, (byte) 0x7F}) {
+            byte[] corrupt = codec.compress(createData());
+            // the first byte of the uncompressed length, after the marker and the codec id
+            corrupt[2] = lengthByte;
+            assertThrows(IOException.class, () -> ChunkCodec.decompress(corrupt));
+        }
+    }
+
+    @Test
+    public void testUnknownConfiguredCodecFallsBackToGzip() {
+        String previous = System.setProperty(ChunkCodec.CHUNK_CODEC_PROPERTY, "snapy");
+        try {
+            assertEquals(ChunkCodec.GZIP, ChunkCodec.getConfigured());
+        } finally {
+            if (previous == null) {
+                System.clearProperty(ChunkCodec.CHUNK_CODEC_PROPERTY);
+            } else {
+                System.setProperty(ChunkCodec.CHUNK_CODEC_PROPERTY, previous);
+            }
+        }
+    }
+
+    @Test
+    public void testDecompressPlainGzip() throws IOException {
+        byte[] data = createData();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(baos)) {
+            gzipOut.write(data);
+        }
+        assertArrayEquals(data, ChunkCodec.decompress(baos.toByteArray()));
+    }
+
+    @Test
+    public void testUnknownCompression() {
+        assertThrows(IOException.class, () -> ChunkCodec.decompress(new byte[]{1, 2, 3}));
+    }
+
+    private static byte[] createData() {
+        byte[] data = new byte[100000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 7 == 0 ? i : i / 1000);
+        }
+        return data;
+    }
+}
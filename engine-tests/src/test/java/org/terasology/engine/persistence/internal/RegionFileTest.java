@@ -0,0 +1,130 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.persistence.internal;
+
+import com.google.common.collect.ImmutableMap;
+import org.joml.Vector3i;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RegionFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testEmptySlotReturnsNull() throws IOException {
+        try (RegionFile regionFile = RegionFile.open(tempDir.resolve("test.region"))) {
+            assertNull(regionFile.read(0));
+            assertEquals(0, regionFile.getChunkCount());
+        }
+    }
+
+    @Test
+    public void testChunksSurviveReopening() throws IOException {
+        Path path = tempDir.resolve("test.region");
+        byte[] small = payload(100, 1);
+        byte[] large = payload(3 * RegionFile.SECTOR_SIZE + 7, 2);
+        try (RegionFile regionFile = RegionFile.open(path)) {
+            regionFile.write(5, small);
+            regionFile.write(RegionFile.CHUNKS_PER_REGION - 1, large);
+            assertArrayEquals(small, regionFile.read(5));
+        }
+        try (RegionFile regionFile = RegionFile.open(path)) {
+            assertArrayEquals(small, regionFile.read(5));
+            assertArrayEquals(large, regionFile.read(RegionFile.CHUNKS_PER_REGION - 1));
+            assertNull(regionFile.read(6));
+            assertEquals(2, regionFile.getChunkCount());
+        }
+    }
+
+    @Test
+    public void testRewritingChunksDoesNotAffectOthers() throws IOException {
+        Path path = tempDir.resolve("test.region");
+        byte[] neighbour = payload(RegionFile.SECTOR_SIZE, 3);
+        try (RegionFile regionFile = RegionFile.open(path)) {
+            regionFile.write(0, payload(RegionFile.SECTOR_SIZE, 4));
+            regionFile.write(1, neighbour);
+            long sizeBefore = Files.size(path);
+
+            byte[] grown = payload(2 * RegionFile.SECTOR_SIZE, 5);
+            regionFile.write(0, grown);
+            byte[] shrunk = payload(10, 6);
+            regionFile.write(0, shrunk);
+            // the shrunk chunk stays in the sectors it grew into, its first sector gets reused by the next chunk
+            regionFile.write(2, payload(RegionFile.SECTOR_SIZE, 7));
+            assertEquals(sizeBefore + 2 * RegionFile.SECTOR_SIZE, Files.size(path));
+
+            assertArrayEquals(shrunk, regionFile.read(0));
+            assertArrayEquals(neighbour, regionFile.read(1));
+        }
+    }
+
+    @Test
+    public void testConvertChunkZipsAndFiles() throws IOException {
+        StoragePathProvider storagePathProvider = new StoragePathProvider(tempDir);
+        Files.createDirectories(storagePathProvider.getWorldPath());
+        Vector3i zippedChunkPos = new Vector3i(-1, 33, 2);
+        Vector3i fileChunkPos = new Vector3i(4, -40, 0);
+        byte[] zippedChunk = payload(500, 8);
+        byte[] fileChunk = payload(700, 9);
+
+        Path chunkZipPath = storagePathProvider.getChunkZipPath(storagePathProvider.getChunkZipPosition(zippedChunkPos));
+        try (FileSystem zip = FileSystems.newFileSystem(URI.create("jar:" + chunkZipPath.toUri()),
+                ImmutableMap.of("create", "true"))) {
+            Files.write(zip.getPath(storagePathProvider.getChunkFilename(zippedChunkPos)), zippedChunk);
+        }
+        Files.write(storagePathProvider.getChunkPath(fileChunkPos), fileChunk);
+
+        ChunkRegionStore chunkRegionStore = new ChunkRegionStore(storagePathProvider);
+        assertFalse(ChunkRegionStore.hasRegionFiles(storagePathProvider));
+        assertEquals(2, ChunkRegionConverter.convert(storagePathProvider, chunkRegionStore));
+        assertTrue(Files.exists(chunkZipPath));
+        assertTrue(Files.exists(storagePathProvider.getChunkPath(fileChunkPos)));
+        assertArrayEquals(zippedChunk, chunkRegionStore.loadChunk(zippedChunkPos));
+        assertArrayEquals(fileChunk, chunkRegionStore.loadChunk(fileChunkPos));
+        assertTrue(Files.isRegularFile(storagePathProvider.getChunkRegionPath(
+                storagePathProvider.getChunkRegionPosition(fileChunkPos))));
+        assertTrue(ChunkRegionStore.hasRegionFiles(storagePathProvider));
+
+        assertEquals(0, ChunkRegionConverter.convert(storagePathProvider, chunkRegionStore));
+        chunkRegionStore.close();
+    }
+
+    @Test
+    public void testConversionKeepsNewerRegionChunks() throws IOException {
+        StoragePathProvider storagePathProvider = new StoragePathProvider(tempDir);
+        Files.createDirectories(storagePathProvider.getWorldPath());
+        Vector3i chunkPos = new Vector3i(3, 1, -7);
+        byte[] newerChunk = payload(300, 10);
+        Files.write(storagePathProvider.getChunkPath(chunkPos), payload(200, 11));
+
+        ChunkRegionStore chunkRegionStore = new ChunkRegionStore(storagePathProvider);
+        // e.g. a conversion got interrupted and the game saved the chunk into the region file before it ran again
+        chunkRegionStore.storeChunk(chunkPos, newerChunk);
+        assertEquals(0, ChunkRegionConverter.convert(storagePathProvider, chunkRegionStore));
+        assertArrayEquals(newerChunk, chunkRegionStore.loadChunk(chunkPos));
+        chunkRegionStore.close();
+    }
+
+    private static byte[] payload(int length, int seed) {
+        byte[] data = new byte[length];
+        Arrays.fill(data, (byte) seed);
+        data[length - 1] = (byte) (seed + 1);
+        return data;
+    }
+}
@@ -50,6 +50,8 @@
 import org.terasology.unittest.stubs.EntityRefComponent;
 import org.terasology.unittest.stubs.StringComponent;
 
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 
@@ -58,6 +60,7 @@
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -266,6 +269,75 @@ public void testChunkSurvivesStorageSaveAndRestore(
         assertEquals(testBlock2, restored.getChunk().getBlock(0, 4, 2));
     }
 
+    @Test
+    public void testFailedSaveIsWrittenBySecondSave(
+            ReadWriteStorageManager esm, BlockManager blockManager, ExtraBlockDataManager extraDataManager,
+            Context context) throws Exception {
+        Vector3i unloadedChunkPos = new Vector3i(CHUNK_POS).add(1, 0, 0);
+        ChunkImpl unloadedChunk = new ChunkImpl(unloadedChunkPos, blockManager, extraDataManager);
+        unloadedChunk.setBlock(0, 0, 0, testBlock2);
+        unloadedChunk.markReady();
+        esm.deactivateChunk(unloadedChunk);
+        ChunkImpl chunk = new ChunkImpl(CHUNK_POS, blockManager, extraDataManager);
+        chunk.setBlock(0, 0, 0, testBlock);
+        chunk.markReady();
+        ChunkProvider chunkProvider = mock(ChunkProvider.class);
+        when(chunkProvider.getAllChunks()).thenReturn(List.of(chunk));
+        CoreRegistry.put(ChunkProvider.class, chunkProvider);
+
+        // a save refuses to run while there are unmerged changes
+        Path unmergedChangesPath = esm.getStoragePathProvider().getUnmergedChangesPath();
+        Files.createDirectories(unmergedChangesPath);
+        esm.waitForCompletionOfPreviousSaveAndStartSaving();
+        assertThrows(UncheckedIOException.class, esm::finishSavingAndShutdown);
+        assertTrue(chunk.hasUnsavedChanges());
+
+        Files.delete(unmergedChangesPath);
+        esm.waitForCompletionOfPreviousSaveAndStartSaving();
+        esm.finishSavingAndShutdown();
+        assertFalse(chunk.hasUnsavedChanges());
+
+        EntitySystemSetupUtil.addReflectionBasedLibraries(context);
+        EntitySystemSetupUtil.addEntityManagementRelatedClasses(context);
+        EngineEntityManager newEntityManager = context.get(EngineEntityManager.class);
+        StorageManager newSM = new ReadWriteStorageManager(savePath, moduleEnvironment, newEntityManager, blockManager,
+                extraDataManager, esm.isStoreChunksInZips(), recordAndReplaySerializer, recordAndReplayUtils,
+                recordAndReplayCurrentStatus);
+        newSM.loadGlobalStore();
+
+        assertEquals(testBlock, newSM.loadChunkStore(CHUNK_POS).getChunk().getBlock(0, 0, 0));
+        assertEquals(testBlock2, newSM.loadChunkStore(unloadedChunkPos).getChunk().getBlock(0, 0, 0));
+    }
+
+    @Test
+    public void testRegionFilesAreUsedWithoutProperty(
+            ReadWriteStorageManager esm, BlockManager blockManager, ExtraBlockDataManager extraDataManager,
+            Context context) throws Exception {
+        esm.setStoreChunksInRegionFiles(true);
+        Chunk chunk = new ChunkImpl(CHUNK_POS, blockManager, extraDataManager);
+        chunk.setBlock(0, 0, 0, testBlock);
+        chunk.markReady();
+        ChunkProvider chunkProvider = mock(ChunkProvider.class);
+        when(chunkProvider.getAllChunks()).thenReturn(List.of(chunk));
+        CoreRegistry.put(ChunkProvider.class, chunkProvider);
+
+        esm.waitForCompletionOfPreviousSaveAndStartSaving();
+        esm.finishSavingAndShutdown();
+
+        EntitySystemSetupUtil.addReflectionBasedLibraries(context);
+        EntitySystemSetupUtil.addEntityManagementRelatedClasses(context);
+        EngineEntityManager newEntityManager = context.get(EngineEntityManager.class);
+        ReadWriteStorageManager newSM = new ReadWriteStorageManager(savePath, moduleEnvironment, newEntityManager,
+                blockManager, extraDataManager, esm.isStoreChunksInZips(), recordAndReplaySerializer,
+                recordAndReplayUtils, recordAndReplayCurrentStatus);
+        newSM.loadGlobalStore();
+
+        assertTrue(newSM.isStoreChunksInRegionFiles());
+        ChunkStore restored = newSM.loadChunkStore(CHUNK_POS);
+        assertNotNull(restored);
+        assertEquals(testBlock, restored.getChunk().getBlock(0, 0, 0));
+    }
+
     @Test
     public void testEntitySurvivesStorageInChunkStore(
             ReadWriteStorageManager esm, BlockManager blockManager, ExtraBlockDataManager extraDataManager,
@@ -0,0 +1,272 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.persistence.serializers;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.terasology.engine.context.Context;
+import org.terasology.engine.context.internal.ContextImpl;
+import org.terasology.engine.core.bootstrap.EntitySystemSetupUtil;
+import org.terasology.engine.core.module.ModuleManager;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.entity.internal.EngineEntityManager;
+import org.terasology.engine.logic.location.LocationComponent;
+import org.terasology.engine.network.NetworkMode;
+import org.terasology.engine.network.NetworkSystem;
+import org.terasology.engine.network.Replicate;
+import org.terasology.engine.network.serialization.ServerComponentFieldCheck;
+import org.terasology.engine.recording.RecordAndReplayCurrentStatus;
+import org.terasology.engine.registry.CoreRegistry;
+import org.terasology.engine.telemetry.GamePlayStatsComponent;
+import org.terasology.engine.testUtil.ModuleManagerFactory;
+import org.terasology.gestalt.assets.ResourceUrn;
+import org.terasology.gestalt.entitysystem.component.Component;
+import org.terasology.persistence.typeHandling.TypeHandlerLibrary;
+import org.terasology.protobuf.EntityData;
+
+import java.util.Collections;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class NetworkEntitySerializerTest {
+    private static final Set<Class<? extends Component>> NONE = Collections.emptySet();
+    private static final Set<Class<? extends Component>> DELTA = ImmutableSet.of(DeltaComponent.class);
+
+    private static Context context;
+    private EngineEntityManager entityManager;
+    private NetworkEntitySerializer serializer;
+
+    @BeforeAll
+    public static void setupClass() throws Exception {
+        context = new ContextImpl();
+        CoreRegistry.setContext(context);
+        context.put(RecordAndReplayCurrentStatus.class, new RecordAndReplayCurrentStatus());
+        context.put(ModuleManager.class, ModuleManagerFactory.create());
+    }
+
+    @BeforeEach
+    public void setup() {
+        NetworkSystem networkSystem = mock(NetworkSystem.class);
+        when(networkSystem.getMode()).thenReturn(NetworkMode.NONE);
+        context.put(NetworkSystem.class, networkSystem);
+
+        EntitySystemSetupUtil.addReflectionBasedLibraries(context);
+        EntitySystemSetupUtil.addEntityManagementRelatedClasses(context);
+        entityManager = context.get(EngineEntityManager.class);
+        entityManager.getComponentLibrary().register(new ResourceUrn("test", "delta"), DeltaComponent.class);
+        entityManager.getComponentLibrary().register(new ResourceUrn("test", "full"), FullComponent.class);
+        entityManager.getComponentLibrary().register(new ResourceUrn("engine", "gamePlayStats"),
+                GamePlayStatsComponent.class);
+        serializer = new NetworkEntitySerializer(entityManager, entityManager.getComponentLibrary(),
+                context.get(TypeHandlerLibrary.class));
+        serializer.setIdMapping(ImmutableMap.of(DeltaComponent.class, 1, FullComponent.class, 2,
+                LocationComponent.class, 3, GamePlayStatsComponent.class, 4));
+    }
+
+    @Test
+    public void testDeltaComponentOnlySendsChangedFields() {
+        DeltaComponent component = new DeltaComponent();
+        EntityRef entity = entityManager.create(component);
+        NetworkEntitySnapshot snapshot = new NetworkEntitySnapshot();
+
+        snapshot.setSequence(1);
+        EntityData.PackedEntity first = serializeChanges(entity, DELTA, snapshot);
+        assertEquals(3, first.getFieldValueCount());
+        snapshot.acknowledge(1);
+
+        component.count = 5;
+        entity.saveComponent(component);
+        snapshot.setSequence(2);
+        EntityData.PackedEntity second = serializeChanges(entity, DELTA, snapshot);
+        assertEquals(1, second.getFieldValueCount());
+        assertEquals(5, second.getFieldValue(0).getInteger(0));
+        assertTrue(snapshot.takeSavedBytes() > 0);
+        snapshot.acknowledge(2);
+
+        snapshot.setSequence(3);
+        assertNull(serializeChanges(entity, DELTA, snapshot));
+    }
+
+    @Test
+    public void testUnacknowledgedFieldsAreSentAgain() {
+        EntityRef entity = entityManager.create(new DeltaComponent());
+        NetworkEntitySnapshot snapshot = new NetworkEntitySnapshot();
+
+        snapshot.setSequence(1);
+        serializeChanges(entity, DELTA, snapshot);
+        snapshot.setSequence(2);
+        EntityData.PackedEntity second = serializeChanges(entity, DELTA, snapshot);
+
+        assertEquals(3, second.getFieldValueCount());
+    }
+
+    @Test
+    public void testFieldChangedBackWhileInFlightIsSent() {
+        DeltaComponent component = new DeltaComponent();
+        EntityRef entity = entityManager.create(component);
+        NetworkEntitySnapshot snapshot = new NetworkEntitySnapshot();
+        snapshot.setSequence(1);
+        serializeChanges(entity, DELTA, snapshot);
+        snapshot.acknowledge(1);
+
+        component.count = 5;
+        entity.saveComponent(component);
+        snapshot.setSequence(2);
+        serializeChanges(entity, DELTA, snapshot);
+        // the client may not have received the update to 5 yet, or may already have applied it
+        component.count = 0;
+        entity.saveComponent(component);
+        snapshot.setSequence(3);
+        EntityData.PackedEntity third = serializeChanges(entity, DELTA, snapshot);
+
+        assertEquals(1, third.getFieldValueCount());
+        assertEquals(0, third.getFieldValue(0).getInteger(0));
+    }
+
+    @Test
+    public void testGamePlayStatsOnlySendChangedStats() {
+        GamePlayStatsComponent stats = new GamePlayStatsComponent();
+        stats.blockPlacedMap.put("engine:stone", 12);
+        EntityRef entity = entityManager.create(stats);
+        NetworkEntitySnapshot snapshot = new NetworkEntitySnapshot();
+        Set<Class<? extends Component>> changed = ImmutableSet.of(GamePlayStatsComponent.class);
+        snapshot.setSequence(1);
+        EntityData.PackedEntity first = serializeChanges(entity, changed, snapshot);
+        snapshot.acknowledge(1);
+
+        stats.playTimeMinute += 1.5f;
+        entity.saveComponent(stats);
+        snapshot.setSequence(2);
+        EntityData.PackedEntity second = serializeChanges(entity, changed, snapshot);
+
+        assertEquals(5, first.getFieldValueCount());
+        assertEquals(1, second.getFieldValueCount());
+        assertEquals(1500, second.getFieldValue(0).getInteger(0));
+    }
+
+    @Test
+    public void testOtherComponentsAreSentInFull() {
+        EntityRef entity = entityManager.create(new FullComponent());
+        NetworkEntitySnapshot snapshot = new NetworkEntitySnapshot();
+
+        serializeChanges(entity, ImmutableSet.of(FullComponent.class), snapshot);
+        EntityData.PackedEntity second = serializeChanges(entity, ImmutableSet.of(FullComponent.class), snapshot);
+
+        assertEquals(2, second.getFieldValueCount());
+        assertEquals(0, snapshot.takeSavedBytes());
+    }
+
+    @Test
+    public void testPredictedLocationIsSentInFull() {
+        LocationComponent location = new LocationComponent(new Vector3f(1, 2, 3));
+        EntityRef entity = entityManager.create(location);
+        NetworkEntitySnapshot snapshot = new NetworkEntitySnapshot();
+        Set<Class<? extends Component>> changed = ImmutableSet.of(LocationComponent.class);
+
+        EntityData.PackedEntity first = serializeChanges(entity, changed, snapshot);
+        location.setLocalPosition(new Vector3f(4, 5, 6));
+        entity.saveComponent(location);
+        EntityData.PackedEntity second = serializeChanges(entity, changed, snapshot);
+
+        assertFalse(entityManager.getComponentLibrary().getMetadata(LocationComponent.class).isDeltaReplicated());
+        assertEquals(first.getFieldValueCount(), second.getFieldValueCount());
+        assertEquals(0, snapshot.takeSavedBytes());
+    }
+
+    @Test
+    public void testRemovedComponentIsSentInFullWhenAddedAgain() {
+        EntityRef entity = entityManager.create(new DeltaComponent());
+        NetworkEntitySnapshot snapshot = new NetworkEntitySnapshot();
+        serializeChanges(entity, DELTA, snapshot);
+
+        serializer.serialize(entity, NONE, NONE, DELTA, new ServerComponentFieldCheck(false, false), snapshot);
+        EntityData.PackedEntity added = serializer.serialize(entity, DELTA, NONE, NONE,
+                new ServerComponentFieldCheck(false, false), snapshot);
+
+        assertEquals(3, added.getFieldValueCount());
+    }
+
+    @Test
+    public void testQuantizedFieldIsSentAsIntegers() {
+        DeltaComponent component = new DeltaComponent();
+        component.position.set(1.234f, -5.678f, 100f);
+        EntityRef entity = entityManager.create(component);
+
+        EntityData.PackedEntity data = serializeChanges(entity, DELTA, new NetworkEntitySnapshot());
+        assertTrue(data.getFieldValueList().stream().allMatch(value -> value.getFloatCount() == 0));
+        assertTrue(data.getFieldValueList().stream().anyMatch(value -> value.getIntegerList().contains(-568)));
+
+        EntityRef target = entityManager.create(new DeltaComponent());
+        serializer.deserializeOnto(target, data);
+        Vector3f received = target.getComponent(DeltaComponent.class).position;
+        assertEquals(1.23f, received.x, 0.0001f);
+        assertEquals(-5.68f, received.y, 0.0001f);
+        assertEquals(100f, received.z, 0.0001f);
+    }
+
+    @Test
+    public void testCachedFieldsAreSharedBetweenClients() {
+        NetworkSerializationCache cache = new NetworkSerializationCache();
+        serializer.setSerializationCache(cache);
+        FullComponent component = new FullComponent();
+        EntityRef entity = entityManager.create(component);
+
+        EntityData.PackedEntity first = serializeChanges(entity, ImmutableSet.of(FullComponent.class), null);
+        EntityData.PackedEntity second = serializeChanges(entity, ImmutableSet.of(FullComponent.class), null);
+        assertSame(first.getFieldValue(0), second.getFieldValue(0));
+        assertEquals(0.5f, cache.takeHitRate());
+
+        component.count = 3;
+        entity.saveComponent(component);
+        cache.invalidate(entity.getId(), FullComponent.class);
+        EntityData.PackedEntity changed = serializeChanges(entity, ImmutableSet.of(FullComponent.class), null);
+        assertTrue(changed.getFieldValueList().stream().anyMatch(value -> value.getIntegerList().contains(3)));
+        assertEquals(0f, cache.takeHitRate());
+    }
+
+    private EntityData.PackedEntity serializeChanges(EntityRef entity, Set<Class<? extends Component>> changed,
+                                                     NetworkEntitySnapshot snapshot) {
+        return serializer.serialize(entity, NONE, changed, NONE, new ServerComponentFieldCheck(false, false), snapshot);
+    }
+
+    @Replicate(delta = true)
+    public static class DeltaComponent implements Component<DeltaComponent> {
+        @Replicate
+        public int count;
+        @Replicate
+        public String name = "test";
+        @Replicate(precision = 0.01f)
+        public Vector3f position = new Vector3f();
+
+        @Override
+        public void copyFrom(DeltaComponent other) {
+            this.count = other.count;
+            this.name = other.name;
+            this.position.set(other.position);
+        }
+    }
+
+    public static class FullComponent implements Component<FullComponent> {
+        @Replicate
+        public int count;
+        @Replicate
+        public String name = "test";
+
+        @Override
+        public void copyFrom(FullComponent other) {
+            this.count = other.count;
+            this.name = other.name;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.engine.rendering.primitives;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.terasology.joml.test.VectorAssert;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ChunkMeshCacheTest {
+    private static final HashCode CONTENT_VERSION = Hashing.murmur3_128().hashInt(1);
+
+    @TempDir
+    Path directory;
+
+    private static ChunkMesh createMesh() {
+        ChunkMesh mesh = new ChunkMeshImpl();
+        ChunkMesh.VertexElements elements = mesh.getVertexElements(ChunkMesh.RenderType.OPAQUE);
+        elements.position.put(new Vector3f(0, 1, 0));
+        elements.position.put(new Vector3f(1, 1, 0));
+        elements.position.put(new Vector3f(1, 1, 1));
+        elements.indices.putAll(0, 1, 2);
+        elements.vertexCount = 3;
+        return mesh;
+    }
+
+    private static HashCode key(int value) {
+        return Hashing.murmur3_128().hashInt(value);
+    }
+
+    @Test
+    public void testStoredMeshIsLoaded() throws IOException {
+        ChunkMeshCache cache = new ChunkMeshCache(directory, Long.MAX_VALUE, CONTENT_VERSION);
+        cache.store(key(42), createMesh());
+
+        ChunkMesh mesh = cache.load(key(42));
+
+        assertNotNull(mesh);
+        ChunkMesh.VertexElements elements = mesh.getVertexElements(ChunkMesh.RenderType.OPAQUE);
+        assertEquals(3, elements.vertexCount);
+        assertEquals(3, elements.position.elements());
+        VectorAssert.assertEquals(new Vector3f(1, 1, 0), elements.position.get(1, new Vector3f()), 0.0001f);
+        assertEquals(3, elements.indices.indices());
+        assertEquals(0, mesh.getVertexElements(ChunkMesh.RenderType.TRANSLUCENT).vertexCount);
+    }
+
+    @Test
+    public void testUnknownHashIsNotLoaded() throws IOException {
+        ChunkMeshCache cache = new ChunkMeshCache(directory, Long.MAX_VALUE, CONTENT_VERSION);
+        cache.store(key(42), createMesh());
+
+        assertNull(cache.load(key(43)));
+    }
+
+    @Test
+    public void testMeshesAreKeptAcrossInstances() throws IOException {
+        new ChunkMeshCache(directory, Long.MAX_VALUE, CONTENT_VERSION).store(key(42), createMesh());
+
+        ChunkMeshCache cache = new ChunkMeshCache(directory, Long.MAX_VALUE, CONTENT_VERSION);
+
+        assertNotNull(cache.load(key(42)));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedMeshIsEvicted() throws IOException {
+        ChunkMeshCache sizing = new ChunkMeshCache(directory.resolve("sizing"), Long.MAX_VALUE, CONTENT_VERSION);
+        sizing.store(key(0), createMesh());
+        long meshBytes = sizing.getTotalBytes();
+
+        ChunkMeshCache cache = new ChunkMeshCache(directory.resolve("cache"), 2 * meshBytes, CONTENT_VERSION);
+        cache.store(key(1), createMesh());
+        cache.store(key(2), createMesh());
+        cache.load(key(1));
+        cache.store(key(3), createMesh());
+
+        assertEquals(2 * meshBytes, cache.getTotalBytes());
+        assertNotNull(cache.load(key(1)));
+        assertNull(cache.load(key(2)));
+        assertNotNull(cache.load(key(3)));
+    }
+
+    @Test
+    public void testMeshesOfOlderFormatsAreDeleted() throws IOException {
+        Path oldFile = directory.resolve(Long.toHexString(42) + ".mesh");
+        Files.write(oldFile, new byte[16]);
+
+        ChunkMeshCache cache = new ChunkMeshCache(directory, Long.MAX_VALUE, CONTENT_VERSION);
+
+        assertFalse(Files.exists(oldFile));
+        assertEquals(0, cache.getTotalBytes());
+    }
+}
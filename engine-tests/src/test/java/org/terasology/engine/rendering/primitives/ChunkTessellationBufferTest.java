@@ -0,0 +1,164 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.rendering.primitives;
+
+import com.google.common.collect.Maps;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.joml.Quaternionf;
+import org.joml.Vector2f;
+import org.joml.Vector2fc;
+import org.joml.Vector3f;
+import org.junit.jupiter.api.Test;
+import org.terasology.engine.world.block.BlockAppearance;
+import org.terasology.engine.world.block.BlockPart;
+import org.terasology.engine.world.block.BlockUri;
+import org.terasology.engine.world.block.shapes.BlockMeshPart;
+import org.terasology.engine.world.chunks.Chunks;
+import org.terasology.engine.world.internal.ChunkViewCore;
+import org.terasology.gestalt.assets.ResourceUrn;
+import org.terasology.nui.Color;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Compares the meshes tessellated from the buffer with the meshes generated block by block from the chunk view the
+ * buffer was copied from, which have to be the same vertex for vertex.
+ */
+public class ChunkTessellationBufferTest {
+    private final TessellationFixtures fixtures = new TessellationFixtures();
+
+    @Test
+    public void testSolidMeshIsUnchanged() {
+        assertSameMesh(fixtures.solid());
+    }
+
+    @Test
+    public void testCheckerboardMeshIsUnchanged() {
+        assertSameMesh(fixtures.checkerboard());
+    }
+
+    @Test
+    public void testMixedTransparencyMeshIsUnchanged() {
+        assertSameMesh(fixtures.mixedTransparency());
+    }
+
+    @Test
+    public void testLiquidMeshIsUnchanged() {
+        assertSameMesh(fixtures.liquids());
+    }
+
+    @Test
+    public void testBufferReadsLikeView() {
+        ChunkViewCore view = fixtures.mixedTransparency();
+        ChunkTessellationBuffer buffer = new ChunkTessellationBuffer();
+        buffer.copy(view);
+
+        for (int y = -2; y <= Chunks.SIZE_Y + 1; y++) {
+            for (int z = -2; z <= Chunks.SIZE_Z + 1; z++) {
+                for (int x = -2; x <= Chunks.SIZE_X + 1; x++) {
+                    assertSame(view.getBlock(x, y, z), buffer.getBlock(x, y, z));
+                    assertEquals(view.getSunlight(x, y, z), buffer.getSunlight(x, y, z));
+                    assertEquals(view.getLight(x, y, z), buffer.getLight(x, y, z));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testContentHashCoversExtraData() {
+        ChunkViewCore view = fixtures.solid();
+        HashCode before = contentHash(view);
+
+        view.setExtraData(0, Chunks.SIZE_X, 10, 10, 1);
+
+        assertNotEquals(before, contentHash(view));
+    }
+
+    @Test
+    public void testContentHashCoversFullBlockUri() {
+        ChunkViewCore view = fixtures.solid();
+        // both uris have the same String.hashCode
+        fixtures.stone.setUri(new BlockUri(new ResourceUrn("engine", "Aa")));
+        HashCode first = contentHash(view);
+        fixtures.stone.setUri(new BlockUri(new ResourceUrn("engine", "BB")));
+
+        assertNotEquals(first, contentHash(view));
+    }
+
+    @Test
+    public void testContentHashCoversBlockShape() {
+        ChunkViewCore view = fixtures.solid();
+        HashCode before = contentHash(view);
+
+        BlockAppearance appearance = fixtures.stone.getPrimaryAppearance();
+        Map<BlockPart, BlockMeshPart> parts = Maps.newEnumMap(BlockPart.class);
+        Map<BlockPart, Vector2fc> atlasPositions = Maps.newEnumMap(BlockPart.class);
+        for (BlockPart part : BlockPart.allParts()) {
+            if (appearance.getPart(part) != null) {
+                parts.put(part, appearance.getPart(part).rotate(new Quaternionf().rotateY((float) Math.PI)));
+                atlasPositions.put(part, appearance.getTextureAtlasPos(part));
+            }
+        }
+        fixtures.stone.setPrimaryAppearance(new BlockAppearance(parts, atlasPositions));
+
+        assertNotEquals(before, contentHash(view));
+    }
+
+    @Test
+    public void testContentHashCoversColorOffsets() {
+        ChunkViewCore view = fixtures.solid();
+        HashCode before = contentHash(view);
+
+        fixtures.stone.setColorOffset(BlockPart.TOP, new Color(0x80ff80ff));
+
+        assertNotEquals(before, contentHash(view));
+    }
+
+    private static HashCode contentHash(ChunkViewCore view) {
+        ChunkTessellationBuffer buffer = new ChunkTessellationBuffer();
+        buffer.copy(view);
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        buffer.hashContent(hasher, TessellationFixtures.EXTRA_DATA_SLOTS);
+        buffer.release();
+        return hasher.hash();
+    }
+
+    private static void assertSameMesh(ChunkViewCore view) {
+        ChunkMesh expected = TessellationFixtures.generatePerBlock(view);
+        ChunkTessellationBuffer buffer = new ChunkTessellationBuffer();
+        buffer.copy(view);
+        ChunkMesh actual = new ChunkMeshImpl();
+        for (int y = 0; y < Chunks.SIZE_Y; y++) {
+            for (int z = 0; z < Chunks.SIZE_Z; z++) {
+                for (int x = 0; x < Chunks.SIZE_X; x++) {
+                    buffer.generateBlockMesh(actual, buffer.getBlock(x, y, z), x, y, z);
+                }
+            }
+        }
+        buffer.release();
+
+        for (ChunkMesh.RenderType type : ChunkMesh.RenderType.values()) {
+            ChunkMesh.VertexElements expectedElements = expected.getVertexElements(type);
+            ChunkMesh.VertexElements actualElements = actual.getVertexElements(type);
+            assertEquals(expectedElements.vertexCount, actualElements.vertexCount);
+            assertEquals(expectedElements.indices.indices(), actualElements.indices.indices());
+            assertEquals(TessellationFixtures.positions(expected, type), TessellationFixtures.positions(actual, type));
+            for (int i = 0; i < expectedElements.vertexCount; i++) {
+                assertEquals(expectedElements.normals.get(i, new Vector3f()),
+                        actualElements.normals.get(i, new Vector3f()));
+                assertEquals(expectedElements.uv0.get(i, new Vector2f()), actualElements.uv0.get(i, new Vector2f()));
+                assertEquals(expectedElements.color.get(i, new Color()).rgba(),
+                        actualElements.color.get(i, new Color()).rgba());
+                assertEquals(expectedElements.sunlight.get(i), actualElements.sunlight.get(i));
+                assertEquals(expectedElements.blockLight.get(i), actualElements.blockLight.get(i));
+                assertEquals(expectedElements.ambientOcclusion.get(i), actualElements.ambientOcclusion.get(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.rendering.primitives;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.joml.Vector2f;
+import org.joml.Vector3f;
+import org.joml.Vector3i;
+import org.junit.jupiter.api.Test;
+import org.terasology.engine.math.Side;
+import org.terasology.engine.world.chunks.Chunks;
+import org.terasology.engine.world.internal.ChunkViewCore;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the meshes of the greedy mesher with the meshes generated block by block: both have to cover the same
+ * block faces with the same lighting, while the greedy mesher may use fewer quads for them.
+ */
+public class GreedyChunkMesherTest {
+    private final TessellationFixtures fixtures = new TessellationFixtures();
+
+    @Test
+    public void testSolidFacesAreMerged() {
+        ChunkViewCore view = fixtures.solid();
+        ChunkMesh perBlock = TessellationFixtures.generatePerBlock(view);
+        ChunkMesh greedy = generateGreedy(view);
+
+        assertSameSurface(perBlock, greedy);
+        assertTrue(quadCount(greedy) < quadCount(perBlock) / 100);
+    }
+
+    @Test
+    public void testCheckerboardHasNothingToMerge() {
+        ChunkViewCore view = fixtures.checkerboard();
+        ChunkMesh perBlock = TessellationFixtures.generatePerBlock(view);
+        ChunkMesh greedy = generateGreedy(view);
+
+        assertSameSurface(perBlock, greedy);
+        assertEquals(Chunks.SIZE_X * Chunks.SIZE_Y * Chunks.SIZE_Z / 2 * 6, quadCount(perBlock));
+        assertEquals(quadCount(perBlock), quadCount(greedy));
+    }
+
+    @Test
+    public void testTranslucentBlocksAreTessellatedPerBlock() {
+        ChunkViewCore view = fixtures.mixedTransparency();
+        ChunkMesh perBlock = TessellationFixtures.generatePerBlock(view);
+        ChunkMesh greedy = generateGreedy(view);
+
+        assertSameSurface(perBlock, greedy);
+        assertTrue(perBlock.getVertexElements(ChunkMesh.RenderType.TRANSLUCENT).vertexCount > 0);
+        assertTrue(quadCount(greedy) < quadCount(perBlock));
+    }
+
+    @Test
+    public void testLiquidsAreTessellatedPerBlock() {
+        ChunkViewCore view = fixtures.liquids();
+        ChunkMesh perBlock = TessellationFixtures.generatePerBlock(view);
+        ChunkMesh greedy = generateGreedy(view);
+
+        assertSameSurface(perBlock, greedy);
+        assertTrue(perBlock.getVertexElements(ChunkMesh.RenderType.WATER_AND_ICE).vertexCount > 0);
+        assertTrue(quadCount(greedy) < quadCount(perBlock));
+    }
+
+    @Test
+    public void testFacesWithoutUniformTextureAreNotMerged() {
+        for (Side side : Side.allSides()) {
+            fixtures.stone.setUniformTexture(side, false);
+        }
+        ChunkViewCore view = fixtures.solid();
+        ChunkMesh perBlock = TessellationFixtures.generatePerBlock(view);
+        ChunkMesh greedy = generateGreedy(view);
+
+        assertSameSurface(perBlock, greedy);
+        assertEquals(quadCount(perBlock), quadCount(greedy));
+    }
+
+    @Test
+    public void testMergedQuadsStayWithinTheirAtlasTile() {
+        ChunkMesh greedy = generateGreedy(fixtures.solid());
+
+        ChunkMesh.VertexElements elements = greedy.getVertexElements(ChunkMesh.RenderType.OPAQUE);
+        Vector2f texCoord = new Vector2f();
+        for (int i = 0; i < elements.vertexCount; i++) {
+            elements.uv0.get(i, texCoord);
+            assertTrue(texCoord.x >= 0 && texCoord.x <= TessellationFixtures.ATLAS_TILE_SIZE
+                    && texCoord.y >= 0 && texCoord.y <= TessellationFixtures.ATLAS_TILE_SIZE, texCoord::toString);
+        }
+    }
+
+    private static ChunkMesh generateGreedy(ChunkViewCore view) {
+        ChunkTessellationBuffer buffer = new ChunkTessellationBuffer();
+        buffer.copy(view);
+        ChunkMesh mesh = new ChunkMeshImpl();
+        new GreedyChunkMesher(buffer, mesh, Chunks.SIZE_Y).generate();
+        buffer.release();
+        return mesh;
+    }
+
+    /**
+     * Asserts that the meshes cover the same block faces with the same lighting, that the opaque quads of the greedy
+     * mesh only have corners where the block faces have them, and that everything else is tessellated unchanged.
+     */
+    private static void assertSameSurface(ChunkMesh perBlock, ChunkMesh greedy) {
+        for (ChunkMesh.RenderType type : ChunkMesh.RenderType.values()) {
+            if (type != ChunkMesh.RenderType.OPAQUE) {
+                assertEquals(TessellationFixtures.positions(perBlock, type),
+                        TessellationFixtures.positions(greedy, type));
+            }
+        }
+        assertEquals(blockFaces(perBlock), blockFaces(greedy));
+        Set<Vector3f> corners = Sets.newHashSet(TessellationFixtures.positions(perBlock, ChunkMesh.RenderType.OPAQUE));
+        assertTrue(corners.containsAll(TessellationFixtures.positions(greedy, ChunkMesh.RenderType.OPAQUE)));
+    }
+
+    private static int quadCount(ChunkMesh mesh) {
+        int vertices = 0;
+        for (ChunkMesh.RenderType type : ChunkMesh.RenderType.values()) {
+            vertices += mesh.getVertexElements(type).vertexCount;
+        }
+        return vertices / 4;
+    }
+
+    /**
+     * Splits the opaque quads of the mesh into the block faces they cover.
+     *
+     * @return the lighting of the vertices of each block face, keyed by the doubled center and the normal of the face
+     */
+    private static Map<List<Integer>, List<Float>> blockFaces(ChunkMesh mesh) {
+        ChunkMesh.VertexElements elements = mesh.getVertexElements(ChunkMesh.RenderType.OPAQUE);
+        Map<List<Integer>, List<Float>> faces = Maps.newHashMap();
+        Vector3f position = new Vector3f();
+        Vector3f normal = new Vector3f();
+        for (int quad = 0; quad < elements.vertexCount; quad += 4) {
+            Vector3f min = new Vector3f(Float.POSITIVE_INFINITY);
+            Vector3f max = new Vector3f(Float.NEGATIVE_INFINITY);
+            List<Float> sunlight = Lists.newArrayList();
+            List<Float> blockLight = Lists.newArrayList();
+            List<Float> ambientOcclusion = Lists.newArrayList();
+            for (int i = quad; i < quad + 4; i++) {
+                elements.position.get(i, position);
+                min.min(position);
+                max.max(position);
+                sunlight.add(elements.sunlight.get(i));
+                blockLight.add(elements.blockLight.get(i));
+                ambientOcclusion.add(elements.ambientOcclusion.get(i));
+            }
+            Collections.sort(sunlight);
+            Collections.sort(blockLight);
+            Collections.sort(ambientOcclusion);
+            List<Float> lighting = ImmutableList.<Float>builder()
+                    .addAll(sunlight).addAll(blockLight).addAll(ambientOcclusion).build();
+
+            Vector3i direction = new Vector3i(Math.round(elements.normals.get(quad, normal).x),
+                    Math.round(normal.y), Math.round(normal.z));
+            int d = direction.x != 0 ? 0 : direction.y != 0 ? 1 : 2;
+            int u = (d + 1) % 3;
+            int v = (d + 2) % 3;
+            Vector3i center = new Vector3i();
+            center.setComponent(d, Math.round(2 * min.get(d)));
+            for (int i = Math.round(min.get(u) * 2); i < Math.round(max.get(u) * 2); i += 2) {
+                for (int j = Math.round(min.get(v) * 2); j < Math.round(max.get(v) * 2); j += 2) {
+                    center.setComponent(u, i + 1);
+                    center.setComponent(v, j + 1);
+                    List<Integer> key = ImmutableList.of(center.x, center.y, center.z,
+                            direction.x, direction.y, direction.z);
+                    assertNull(faces.put(key, lighting), "Block face is covered twice");
+                }
+            }
+        }
+        return faces;
+    }
+}
@@ -0,0 +1,233 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.rendering.primitives;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.joml.Vector2f;
+import org.joml.Vector3f;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.terasology.engine.math.Side;
+import org.terasology.engine.world.block.Block;
+import org.terasology.engine.world.block.BlockAppearance;
+import org.terasology.engine.world.block.BlockManager;
+import org.terasology.engine.world.block.BlockPart;
+import org.terasology.engine.world.block.BlockRegion;
+import org.terasology.engine.world.block.BlockUri;
+import org.terasology.engine.world.block.shapes.BlockMeshPart;
+import org.terasology.engine.world.chunks.Chunk;
+import org.terasology.engine.world.chunks.Chunks;
+import org.terasology.engine.world.chunks.blockdata.TeraArray;
+import org.terasology.engine.world.chunks.blockdata.TeraDenseArray16Bit;
+import org.terasology.engine.world.chunks.internal.ChunkImpl;
+import org.terasology.engine.world.internal.ChunkViewCore;
+import org.terasology.engine.world.internal.ChunkViewCoreImpl;
+import org.terasology.gestalt.assets.ResourceUrn;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Chunk views of cube blocks built without an asset manager, which the tessellation tests mesh in different ways and
+ * compare. The textures of all blocks are uniform.
+ */
+final class TessellationFixtures {
+    /**
+     * The number of extra-data fields of the chunks, which are all 0.
+     */
+    static final int EXTRA_DATA_SLOTS = 1;
+
+    /**
+     * The size of the atlas tiles of the blocks, which are all in the top row of the atlas.
+     */
+    static final float ATLAS_TILE_SIZE = 0.0625f;
+
+    final Block air = createBlock(0, "air", null);
+    final Block stone = createBlock(1, "stone", new Vector2f(0, 0));
+    final Block dirt = createBlock(2, "dirt", new Vector2f(ATLAS_TILE_SIZE, 0));
+    final Block grass = createBlock(3, "grass", new Vector2f(2 * ATLAS_TILE_SIZE, 0));
+    final Block glass = createBlock(4, "glass", new Vector2f(3 * ATLAS_TILE_SIZE, 0));
+    final Block water = createBlock(5, "water", new Vector2f(4 * ATLAS_TILE_SIZE, 0));
+
+    private final BlockManager blockManager = mock(BlockManager.class);
+
+    TessellationFixtures() {
+        air.setTranslucent(true);
+        air.setShadowCasting(false);
+        grass.setGrass(true);
+        glass.setTranslucent(true);
+        water.setTranslucent(true);
+        water.setLiquid(true);
+        water.setWater(true);
+        for (Side side : Side.allSides()) {
+            water.setLowLiquidMesh(side, createFace(side));
+            water.setTopLiquidMesh(side, createFace(side));
+        }
+        for (Block block : Lists.newArrayList(air, stone, dirt, grass, glass, water)) {
+            when(blockManager.getBlock(block.getId())).thenReturn(block);
+        }
+    }
+
+    /**
+     * @return a box of stone in the middle of the chunk, surrounded by lit air
+     */
+    ChunkViewCore solid() {
+        return createView((x, y, z) -> x >= 4 && x < 28 && y >= 4 && y < 60 && z >= 4 && z < 28 ? stone : air);
+    }
+
+    /**
+     * @return a chunk of alternating stone and air, in which no two faces are adjacent
+     */
+    ChunkViewCore checkerboard() {
+        return createView((x, y, z) -> isInCenterChunk(x, y, z) && Math.floorMod(x + y + z, 2) == 0 ? stone : air);
+    }
+
+    /**
+     * @return layered terrain with glass on top and inside of it, and a block light source in a cave
+     */
+    ChunkViewCore mixedTransparency() {
+        ChunkViewCore view = createView((x, y, z) -> {
+            if (y < 24) {
+                boolean pillar = Math.floorMod(x, 8) == 0 && Math.floorMod(z, 8) == 0 && y >= 10;
+                boolean cave = x >= 12 && x < 20 && z >= 12 && z < 20 && y >= 16 && y < 20;
+                return pillar ? glass : cave ? air : stone;
+            }
+            if (y < 28) {
+                return Math.floorMod(x / 4 + z / 4, 2) == 0 ? dirt : stone;
+            }
+            if (y == 28) {
+                return grass;
+            }
+            return y == 29 && Math.floorMod(x / 4 + z / 4, 2) == 0 ? glass : air;
+        });
+        view.setLight(new Vector3i(15, 17, 15), Chunks.MAX_LIGHT);
+        view.setLight(new Vector3i(16, 17, 15), (byte) (Chunks.MAX_LIGHT - 1));
+        return view;
+    }
+
+    /**
+     * @return a pool of water in a stone basin, open to the sky
+     */
+    ChunkViewCore liquids() {
+        return createView((x, y, z) -> {
+            boolean basin = x >= 2 && x < 30 && z >= 2 && z < 30 && y >= 20;
+            return y < 20 || y < 28 && !basin ? stone : basin && y < 27 ? water : air;
+        });
+    }
+
+    private static boolean isInCenterChunk(int x, int y, int z) {
+        return x >= 0 && x < Chunks.SIZE_X && y >= 0 && y < Chunks.SIZE_Y && z >= 0 && z < Chunks.SIZE_Z;
+    }
+
+    /**
+     * @return a view of the chunk at the origin and its neighbours, as the chunk mesh worker gets it, with sunlight in
+     *         all translucent blocks
+     */
+    private ChunkViewCore createView(BlockPattern pattern) {
+        BlockRegion region = new BlockRegion(0, 0, 0).expand(1, 1, 1);
+        Chunk[] chunks = new Chunk[region.volume()];
+        for (Vector3ic chunkPos : region) {
+            TeraArray[] extraData = new TeraArray[EXTRA_DATA_SLOTS];
+            for (int i = 0; i < extraData.length; i++) {
+                extraData[i] = new TeraDenseArray16Bit(Chunks.SIZE_X, Chunks.SIZE_Y, Chunks.SIZE_Z);
+            }
+            Chunk chunk = new ChunkImpl(chunkPos, new TeraDenseArray16Bit(Chunks.SIZE_X, Chunks.SIZE_Y, Chunks.SIZE_Z),
+                    extraData, blockManager);
+            for (int y = 0; y < Chunks.SIZE_Y; y++) {
+                for (int z = 0; z < Chunks.SIZE_Z; z++) {
+                    for (int x = 0; x < Chunks.SIZE_X; x++) {
+                        Block block = pattern.get(chunkPos.x() * Chunks.SIZE_X + x, chunkPos.y() * Chunks.SIZE_Y + y,
+                                chunkPos.z() * Chunks.SIZE_Z + z);
+                        chunk.setBlock(x, y, z, block);
+                        chunk.setSunlight(x, y, z, block.isTranslucent() ? Chunks.MAX_SUNLIGHT : 0);
+                    }
+                }
+            }
+            int index = (chunkPos.x() - region.minX()) + region.getSizeX()
+                    * ((chunkPos.z() - region.minZ()) + region.getSizeZ() * (chunkPos.y() - region.minY()));
+            chunks[index] = chunk;
+        }
+        return new ChunkViewCoreImpl(chunks, region, new Vector3i(1, 1, 1), air);
+    }
+
+    /**
+     * Tessellates the chunk of the view block by block, through the mesh generators of the blocks.
+     */
+    static ChunkMesh generatePerBlock(ChunkViewCore view) {
+        ChunkMesh mesh = new ChunkMeshImpl();
+        for (int y = 0; y < Chunks.SIZE_Y; y++) {
+            for (int z = 0; z < Chunks.SIZE_Z; z++) {
+                for (int x = 0; x < Chunks.SIZE_X; x++) {
+                    Block block = view.getBlock(x, y, z);
+                    block.getMeshGenerator().generateChunkMesh(view, mesh, x, y, z);
+                }
+            }
+        }
+        return mesh;
+    }
+
+    /**
+     * @return the positions of the vertices of the mesh, in the order they were added
+     */
+    static List<Vector3f> positions(ChunkMesh mesh, ChunkMesh.RenderType type) {
+        ChunkMesh.VertexElements elements = mesh.getVertexElements(type);
+        List<Vector3f> positions = Lists.newArrayListWithCapacity(elements.vertexCount);
+        for (int i = 0; i < elements.vertexCount; i++) {
+            positions.add(elements.position.get(i, new Vector3f()));
+        }
+        return positions;
+    }
+
+    private static Block createBlock(int id, String name, Vector2f atlasPos) {
+        Block block = new Block();
+        block.setId((short) id);
+        block.setUri(new BlockUri(new ResourceUrn("engine", name)));
+        if (atlasPos != null) {
+            Map<BlockPart, BlockMeshPart> parts = Maps.newEnumMap(BlockPart.class);
+            Map<BlockPart, Vector2f> atlasPositions = Maps.newEnumMap(BlockPart.class);
+            for (Side side : Side.allSides()) {
+                BlockPart part = BlockPart.fromSide(side);
+                parts.put(part, createFace(side).mapTexCoords(atlasPos, ATLAS_TILE_SIZE, 1));
+                atlasPositions.put(part, atlasPos);
+                block.setFullSide(side, true);
+                block.setUniformTexture(side, true);
+            }
+            block.setPrimaryAppearance(new BlockAppearance(parts, atlasPositions));
+        }
+        block.setMeshGenerator(new BlockMeshGeneratorSingleShape(block));
+        return block;
+    }
+
+    /**
+     * Creates the face of a unit cube on the given side, wound counter-clockwise when seen from outside.
+     */
+    private static BlockMeshPart createFace(Side side) {
+        Vector3ic direction = side.direction();
+        int d = direction.x() != 0 ? 0 : direction.y() != 0 ? 1 : 2;
+        int u = (d + 1) % 3;
+        int v = (d + 2) % 3;
+        float[][] corners = direction.get(d) > 0
+                ? new float[][]{{-0.5f, -0.5f}, {0.5f, -0.5f}, {0.5f, 0.5f}, {-0.5f, 0.5f}}
+                : new float[][]{{-0.5f, -0.5f}, {-0.5f, 0.5f}, {0.5f, 0.5f}, {0.5f, -0.5f}};
+        Vector3f[] vertices = new Vector3f[4];
+        Vector3f[] normals = new Vector3f[4];
+        Vector2f[] texCoords = new Vector2f[4];
+        for (int i = 0; i < 4; i++) {
+            vertices[i] = new Vector3f();
+            vertices[i].setComponent(d, 0.5f * direction.get(d));
+            vertices[i].setComponent(u, corners[i][0]);
+            vertices[i].setComponent(v, corners[i][1]);
+            normals[i] = new Vector3f(direction);
+            texCoords[i] = new Vector2f(corners[i][0] + 0.5f, corners[i][1] + 0.5f);
+        }
+        return new BlockMeshPart(vertices, normals, texCoords, new int[]{0, 1, 2, 0, 2, 3});
+    }
+
+    private interface BlockPattern {
+        Block get(int x, int y, int z);
+    }
+}
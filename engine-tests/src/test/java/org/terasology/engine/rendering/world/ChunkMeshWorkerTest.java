@@ -3,6 +3,7 @@
 
 package org.terasology.engine.rendering.world;
 
+import com.google.common.collect.Maps;
 import org.joml.Vector3i;
 import org.joml.Vector3ic;
 import org.junit.jupiter.api.Disabled;
@@ -23,11 +24,14 @@
 import java.time.Duration;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
 
 import static com.google.common.truth.Truth.assertThat;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
 public class ChunkMeshWorkerTest {
@@ -238,6 +242,74 @@ void testWorkIsPrioritized() {
         // assert the next one through the gate is the one closest *now*
     }
 
+    @Test
+    void testUploadsAreCappedPerUpdate() {
+        var chunk1 = newDirtyChunk(position0);
+        var chunk2 = newDirtyChunk(new Vector3i(position0).add(1, 0, 0));
+        var scheduler = VirtualTimeScheduler.create();
+        var cappedWorker = new ChunkMeshWorker(ChunkMeshWorkerTest::alwaysCreateMesh, comparator, chunk -> true,
+                scheduler, scheduler, 2, 1);
+        var completed = cappedWorker.getCompletedChunks().subscribeWith(TestSubscriber.create());
+
+        cappedWorker.add(chunk1);
+        cappedWorker.add(chunk2);
+        cappedWorker.update();
+        scheduler.advanceTimeBy(EXPECTED_DURATION);
+        assertThat(completed.getReceivedOnNext()).containsExactly(chunk1);
+
+        cappedWorker.update();
+        scheduler.advanceTimeBy(EXPECTED_DURATION);
+        assertThat(completed.getReceivedOnNext()).containsExactly(chunk1, chunk2).inOrder();
+    }
+
+    @Test
+    void testVisibleChunksArePrioritized() {
+        var hiddenChunk = newDirtyChunk(position0);
+        var visibleChunk = newDirtyChunk(new Vector3i(position0).add(100, 0, 0));
+        var scheduler = VirtualTimeScheduler.create();
+        var limitedWorker = new ChunkMeshWorker(ChunkMeshWorkerTest::alwaysCreateMesh, comparator,
+                chunk -> chunk == visibleChunk, scheduler, scheduler, 1, 16);
+        var completed = limitedWorker.getCompletedChunks().subscribeWith(TestSubscriber.create());
+
+        limitedWorker.add(hiddenChunk);
+        limitedWorker.add(visibleChunk);
+        limitedWorker.update();
+        scheduler.advanceTimeBy(EXPECTED_DURATION);
+        assertThat(completed.getReceivedOnNext()).containsExactly(visibleChunk);
+
+        limitedWorker.update();
+        scheduler.advanceTimeBy(EXPECTED_DURATION);
+        assertThat(completed.getReceivedOnNext()).containsExactly(visibleChunk, hiddenChunk).inOrder();
+    }
+
+    @Test
+    void testMeshOfRemovedChunkIsDiscarded() {
+        var chunk1 = newDirtyChunk(position0);
+        var chunk2 = newDirtyChunk(new Vector3i(position0).add(1, 0, 0));
+        Map<Chunk, ChunkMesh> meshes = Maps.newConcurrentMap();
+        var scheduler = VirtualTimeScheduler.create();
+        var cappedWorker = new ChunkMeshWorker(chunk -> {
+            chunk.setDirty(false);
+            ChunkMesh mesh = mock(ChunkMesh.class);
+            meshes.put(chunk, mesh);
+            return Mono.just(Tuples.of(chunk, mesh));
+        }, comparator, chunk -> true, scheduler, scheduler, 2, 1);
+        var completed = cappedWorker.getCompletedChunks().subscribeWith(TestSubscriber.create());
+
+        cappedWorker.add(chunk1);
+        cappedWorker.add(chunk2);
+        cappedWorker.update();
+        scheduler.advanceTimeBy(EXPECTED_DURATION);
+        // the mesh of the second chunk is built, but waits for the next update to be uploaded
+        cappedWorker.remove(chunk2);
+        cappedWorker.update();
+        scheduler.advanceTimeBy(EXPECTED_DURATION);
+
+        assertThat(completed.getReceivedOnNext()).containsExactly(chunk1);
+        verify(meshes.get(chunk2), never()).updateMesh();
+        verify(meshes.get(chunk2)).discardData();
+    }
+
     @Test
     @Disabled("TODO")
     void testWorkerStopsWhenShutDown() {
@@ -0,0 +1,172 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.world.chunks.blockdata;
+
+import org.junit.jupiter.api.Test;
+import org.terasology.engine.world.chunks.deflate.TeraStandardDeflator;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TeraPaletteArrayTest {
+    private static final int SIZE_X = 16;
+    private static final int SIZE_Y = 64;
+    private static final int SIZE_Z = 16;
+
+    @Test
+    public void testGrowsWithDistinctValues() {
+        TeraPaletteArray array = new TeraPaletteArray(SIZE_X, SIZE_Y, SIZE_Z);
+        assertEquals(0, array.getBitsPerEntry());
+
+        int[] expectedBits = {1, 2, 4, 4, 8, 8, 8, 8, 16};
+        int[] distinctValues = {2, 3, 5, 16, 17, 100, 255, 256, 257};
+        for (int i = 0; i < distinctValues.length; i++) {
+            for (int value = 0; value < distinctValues[i]; value++) {
+                array.set(value % SIZE_X, value / SIZE_X, 0, value);
+            }
+            assertEquals(expectedBits[i], array.getBitsPerEntry());
+        }
+        for (int value = 0; value < 257; value++) {
+            assertEquals(value, array.get(value % SIZE_X, value / SIZE_X, 0));
+        }
+        assertEquals(0, array.get(0, 0, 1));
+    }
+
+    @Test
+    public void testConcurrentWritersKeepAllValues() throws InterruptedException {
+        TeraPaletteArray array = new TeraPaletteArray(SIZE_X, SIZE_Y, SIZE_Z);
+        int threadCount = 4;
+        int size = SIZE_X * SIZE_Y * SIZE_Z;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                // neighbouring elements share a long, and the values make the palette grow up to 16 bits
+                for (int pos = thread; pos < size; pos += threadCount) {
+                    array.set(pos % SIZE_X, pos / (SIZE_X * SIZE_Z), pos / SIZE_X % SIZE_Z, expectedValue(pos));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(16, array.getBitsPerEntry());
+        for (int pos = 0; pos < size; pos++) {
+            assertEquals(expectedValue(pos), array.get(pos % SIZE_X, pos / (SIZE_X * SIZE_Z), pos / SIZE_X % SIZE_Z));
+        }
+    }
+
+    private static int expectedValue(int pos) {
+        return pos % 4 * 100 + pos / 4 % 100;
+    }
+
+    @Test
+    public void testMatchesDenseArray() {
+        Random random = new Random(7);
+        TeraArray dense = new TeraDenseArray16Bit(SIZE_X, SIZE_Y, SIZE_Z);
+        TeraArray palette = new TeraPaletteArray(SIZE_X, SIZE_Y, SIZE_Z);
+        for (int i = 0; i < 20000; i++) {
+            int x = random.nextInt(SIZE_X);
+            int y = random.nextInt(SIZE_Y);
+            int z = random.nextInt(SIZE_Z);
+            // mostly few distinct values, occasionally negative and large ones to exercise the direct mode
+            int value = random.nextInt(40) == 0 ? (short) random.nextInt() : random.nextInt(12);
+            assertEquals(dense.set(x, y, z, value), palette.set(x, y, z, value));
+        }
+        assertEquals(dense.set(1, 2, 3, 5, 4), palette.set(1, 2, 3, 5, 4));
+        assertEquals(16, ((TeraPaletteArray) palette).getBitsPerEntry());
+        assertArraysEqual(dense, palette);
+    }
+
+    @Test
+    public void testSetWithExpectedValue() {
+        TeraArray array = new TeraPaletteArray(SIZE_X, SIZE_Y, SIZE_Z, (short) 3);
+        assertFalse(array.set(0, 0, 0, 5, 4));
+        assertEquals(3, array.get(0, 0, 0));
+        assertTrue(array.set(0, 0, 0, 5, 3));
+        assertEquals(5, array.get(0, 0, 0));
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        TeraArray array = new TeraPaletteArray(SIZE_X, SIZE_Y, SIZE_Z);
+        array.set(1, 1, 1, 4);
+        TeraArray copy = array.copy();
+        copy.set(1, 1, 1, 9);
+        copy.set(2, 2, 2, 10);
+        assertEquals(4, array.get(1, 1, 1));
+        assertEquals(0, array.get(2, 2, 2));
+        assertEquals(9, copy.get(1, 1, 1));
+    }
+
+    @Test
+    public void testSerializationRoundTrip() {
+        TeraPaletteArray array = new TeraPaletteArray(SIZE_X, SIZE_Y, SIZE_Z);
+        for (int i = 0; i < 40; i++) {
+            array.set(i % SIZE_X, i % SIZE_Y, i % SIZE_Z, i * 1000);
+        }
+        TeraPaletteArray.SerializationHandler handler = new TeraPaletteArray.SerializationHandler();
+        ByteBuffer buffer = handler.serialize(array);
+        buffer.rewind();
+        TeraPaletteArray result = handler.deserialize(buffer);
+
+        assertEquals(array.getBitsPerEntry(), result.getBitsPerEntry());
+        assertArraysEqual(array, result);
+    }
+
+    @Test
+    public void testDeflatorPicksPaletteArray() {
+        short[] data = new short[SIZE_X * SIZE_Y * SIZE_Z];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (short) (i % 5 + 1);
+        }
+        TeraArray dense = new TeraDenseArray16Bit(SIZE_X, SIZE_Y, SIZE_Z, data);
+        TeraArray deflated = new TeraStandardDeflator().deflate(dense);
+
+        assertTrue(deflated instanceof TeraPaletteArray);
+        assertEquals(4, ((TeraPaletteArray) deflated).getBitsPerEntry());
+        assertTrue(deflated.getEstimatedMemoryConsumptionInBytes() * 3 < dense.getEstimatedMemoryConsumptionInBytes());
+        assertArraysEqual(dense, deflated);
+    }
+
+    @Test
+    public void testDeflatorShrinksPaletteArray() {
+        TeraPaletteArray array = new TeraPaletteArray(SIZE_X, SIZE_Y, SIZE_Z);
+        for (int value = 1; value <= 20; value++) {
+            array.set(0, 0, 0, value);
+        }
+        assertEquals(8, array.getBitsPerEntry());
+
+        TeraArray deflated = new TeraStandardDeflator().deflate(array);
+
+        assertEquals(1, ((TeraPaletteArray) deflated).getBitsPerEntry());
+        assertEquals(2, ((TeraPaletteArray) deflated).getPaletteSize());
+        assertArraysEqual(array, deflated);
+    }
+
+    private static void assertArraysEqual(TeraArray expected, TeraArray actual) {
+        for (int y = 0; y < SIZE_Y; y++) {
+            for (int z = 0; z < SIZE_Z; z++) {
+                for (int x = 0; x < SIZE_X; x++) {
+                    assertEquals(expected.get(x, y, z), actual.get(x, y, z));
+                }
+            }
+        }
+    }
+}
@@ -31,10 +31,12 @@
 import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -164,6 +166,137 @@ void multiRequirementsChunksWillGeneratedSuccess() throws ExecutionException, In
                 "Chunk after processing must have equals position, probably pipeline lost you chunk");
     }
 
+    @Test
+    void stageMetricsCountWaitingAndCompletedChunks() throws ExecutionException, InterruptedException,
+            TimeoutException {
+        Vector3i positionToGenerate = new Vector3i(0, 0, 0);
+        pipeline = new ChunkProcessingPipeline(0, (p) -> null, (o1, o2) -> 0);
+        pipeline.addStage(ChunkTaskProvider.create("dummy task", (c) -> c));
+        pipeline.addStage(ChunkTaskProvider.createMulti(
+                "flat merging task",
+                (chunks) -> chunks.stream()
+                        .filter((c) -> c.getPosition().equals(positionToGenerate)).findFirst() // return central chunk.
+                        .get(),
+                this::getNearChunkPositions));
+
+        Future<Chunk> chunkFuture = pipeline.invokeGeneratorTask(positionToGenerate,
+                () -> createChunkAt(positionToGenerate));
+        Thread.sleep(500);
+
+        List<ChunkStageMetrics> metrics = pipeline.getStageMetrics();
+        Assertions.assertEquals(3, metrics.size(), "Metrics must contain the generation and both stages");
+        Assertions.assertEquals(1, metrics.get(1).getCompletedCount());
+        Assertions.assertEquals(1, metrics.get(2).getWaitingCount(), "Chunk must wait for its neighbors");
+
+        getNearChunkPositions(positionToGenerate).stream()
+                .filter((p) -> !p.equals(positionToGenerate))
+                .forEach((p) -> pipeline.invokeGeneratorTask(new Vector3i(p), () -> createChunkAt(p)));
+        chunkFuture.get(1, TimeUnit.SECONDS);
+
+        metrics = pipeline.getStageMetrics();
+        Assertions.assertEquals(9, metrics.get(0).getCompletedCount());
+        Assertions.assertTrue(metrics.get(2).getCompletedCount() >= 1);
+    }
+
+    @Test
+    void writingTasksWithOverlappingRequirementsDontRunTogether() throws ExecutionException, InterruptedException,
+            TimeoutException {
+        Map<Vector3ic, Chunk> chunkCache = getNearChunkPositions(new Vector3i(), 3)
+                .stream()
+                .map(this::createChunkAt)
+                .collect(Collectors.toMap(
+                        ChunkImpl::getPosition,
+                        Function.identity()
+                ));
+        Set<Vector3ic> running = Sets.newHashSet();
+        AtomicReference<String> overlap = new AtomicReference<>();
+
+        pipeline = new ChunkProcessingPipeline(4, chunkCache::get, (o1, o2) -> 0);
+        pipeline.addStage(ChunkTaskProvider.createMultiWriting(
+                "flat writing task",
+                (chunks) -> {
+                    // the center of the required chunks
+                    Vector3i position = new Vector3i();
+                    chunks.forEach((c) -> position.add(c.getPosition()));
+                    position.div(chunks.size());
+                    synchronized (running) {
+                        for (Vector3ic other : running) {
+                            if (Math.abs(other.x() - position.x()) <= 2 && Math.abs(other.y() - position.y()) <= 2) {
+                                overlap.set(position + " ran together with " + other);
+                            }
+                        }
+                        running.add(position);
+                    }
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    synchronized (running) {
+                        running.remove(position);
+                    }
+                    return chunkCache.get(position);
+                },
+                this::getNearChunkPositions));
+
+        List<Future<Chunk>> futures = getNearChunkPositions(new Vector3i(), 2).stream()
+                .map((p) -> pipeline.invokeGeneratorTask(new Vector3i(p), () -> chunkCache.get(p)))
+                .collect(Collectors.toList());
+        for (Future<Chunk> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+
+        Assertions.assertNull(overlap.get(), "Tasks writing into the same chunks must not run at the same time");
+    }
+
+    @Test
+    void cancelledWritingTaskKeepsChunksLockedUntilItExits() throws ExecutionException, InterruptedException,
+            TimeoutException {
+        Map<Vector3ic, Chunk> chunkCache = getNearChunkPositions(new Vector3i(), 2)
+                .stream()
+                .map(this::createChunkAt)
+                .collect(Collectors.toMap(
+                        ChunkImpl::getPosition,
+                        Function.identity()
+                ));
+        Vector3i cancelledPosition = new Vector3i(0, 0, 0);
+        Vector3i overlappingPosition = new Vector3i(1, 0, 0);
+        CountDownLatch cancelledStarted = new CountDownLatch(1);
+        AtomicBoolean cancelledRunning = new AtomicBoolean();
+        AtomicBoolean overlap = new AtomicBoolean();
+
+        pipeline = new ChunkProcessingPipeline(4, chunkCache::get, (o1, o2) -> 0);
+        pipeline.addStage(ChunkTaskProvider.createMultiWriting(
+                "flat writing task",
+                (chunks) -> {
+                    Vector3i position = new Vector3i();
+                    chunks.forEach((c) -> position.add(c.getPosition()));
+                    position.div(chunks.size());
+                    if (position.equals(cancelledPosition)) {
+                        cancelledRunning.set(true);
+                        cancelledStarted.countDown();
+                        // keeps writing although it gets interrupted
+                        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(300);
+                        while (System.nanoTime() < end) {
+                            Thread.interrupted();
+                        }
+                        cancelledRunning.set(false);
+                    } else if (cancelledRunning.get()) {
+                        overlap.set(true);
+                    }
+                    return chunkCache.get(position);
+                },
+                this::getNearChunkPositions));
+
+        pipeline.invokeGeneratorTask(cancelledPosition, () -> chunkCache.get(cancelledPosition));
+        Assertions.assertTrue(cancelledStarted.await(5, TimeUnit.SECONDS));
+        pipeline.stopProcessingAt(cancelledPosition);
+        pipeline.invokeGeneratorTask(overlappingPosition, () -> chunkCache.get(overlappingPosition))
+                .get(5, TimeUnit.SECONDS);
+
+        Assertions.assertFalse(overlap.get(), "A cancelled task must keep its chunks locked while it still runs");
+    }
+
     @Test
     void emulateEntityMoving() throws InterruptedException {
         final AtomicReference<Vector3ic> position = new AtomicReference<>();
@@ -0,0 +1,202 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.world.generation;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ClassToInstanceMap;
+import com.google.common.collect.MutableClassToInstanceMap;
+import org.junit.jupiter.api.Test;
+import org.terasology.engine.world.block.BlockRegion;
+import org.terasology.engine.world.chunks.Chunk;
+import org.terasology.engine.world.chunks.Chunks;
+import org.terasology.engine.world.generation.facets.base.BaseFacet2D;
+import org.terasology.engine.world.generation.facets.base.BaseFacet3D;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class FacetCacheTest {
+
+    @Test
+    public void testStackedChunksShareFacets() {
+        Height2DProvider heightProvider = new Height2DProvider();
+        Density3DProvider densityProvider = new Density3DProvider();
+        FacetRecorder recorder = new FacetRecorder();
+        WorldImpl world = buildWorld(recorder, heightProvider, densityProvider);
+
+        world.rasterizeChunk(chunkAt(0, 0, 0), null);
+        Height2D lowerHeight = recorder.height;
+        world.rasterizeChunk(chunkAt(0, 1, 0), null);
+
+        assertSame(lowerHeight, recorder.height);
+        assertEquals(1, heightProvider.calls.get());
+        assertEquals(2, densityProvider.calls.get());
+        assertEquals(1, world.getFacetCache().getHitCount());
+        assertEquals(1, world.getFacetCache().getMissCount());
+        assertEquals(0.5, world.getFacetCache().getHitRate());
+    }
+
+    @Test
+    public void testNeighbouringChunksDontShareFacets() {
+        Height2DProvider heightProvider = new Height2DProvider();
+        FacetRecorder recorder = new FacetRecorder();
+        WorldImpl world = buildWorld(recorder, heightProvider, new Density3DProvider());
+
+        world.rasterizeChunk(chunkAt(0, 0, 0), null);
+        Height2D height = recorder.height;
+        world.rasterizeChunk(chunkAt(1, 0, 0), null);
+
+        assertNotSame(height, recorder.height);
+        assertEquals(2, heightProvider.calls.get());
+    }
+
+    @Test
+    public void testFacetsProducedWith3DFacetsAreNotCached() {
+        MixedProvider mixedProvider = new MixedProvider();
+        FacetRecorder recorder = new FacetRecorder();
+        recorder.alsoRead = Mixed2D.class;
+        WorldImpl world = buildWorld(recorder, new Height2DProvider(), new Density3DProvider(), mixedProvider);
+
+        world.rasterizeChunk(chunkAt(0, 0, 0), null);
+        world.rasterizeChunk(chunkAt(0, 1, 0), null);
+
+        assertTrue(world.getFacetCache().getCachedFacets().contains(Height2D.class));
+        assertFalse(world.getFacetCache().getCachedFacets().contains(Mixed2D.class));
+        assertEquals(2, mixedProvider.calls.get());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedAreaIsDropped() {
+        FacetCache cache = new FacetCache(ArrayListMultimap.create(), 2);
+
+        BlockRegion first = new BlockRegion(0, 0, 0, 15, 15, 15);
+        BlockRegion second = new BlockRegion(16, 0, 0, 31, 15, 15);
+        BlockRegion third = new BlockRegion(32, 0, 0, 47, 15, 15);
+        AtomicInteger generated = new AtomicInteger();
+        cache.get(first, 1, () -> generate(generated));
+        cache.get(second, 1, () -> generate(generated));
+        cache.get(first, 1, () -> generate(generated));
+        cache.get(third, 1, () -> generate(generated));
+
+        assertEquals(2, cache.size());
+        cache.get(first, 1, () -> generate(generated));
+        assertEquals(3, generated.get());
+        cache.get(second, 1, () -> generate(generated));
+        assertEquals(4, generated.get());
+    }
+
+    private static ClassToInstanceMap<WorldFacet> generate(AtomicInteger generated) {
+        generated.incrementAndGet();
+        return MutableClassToInstanceMap.create();
+    }
+
+    private static WorldImpl buildWorld(WorldRasterizer rasterizer, FacetProvider... providers) {
+        WorldBuilder worldBuilder = new WorldBuilder(null);
+        worldBuilder.setSeed(12);
+        for (FacetProvider provider : providers) {
+            worldBuilder.addProvider(provider);
+        }
+        worldBuilder.addRasterizer(rasterizer);
+        return (WorldImpl) worldBuilder.build();
+    }
+
+    private static Chunk chunkAt(int x, int y, int z) {
+        Chunk chunk = mock(Chunk.class);
+        when(chunk.getRegion()).thenReturn(new BlockRegion(x * Chunks.SIZE_X, y * Chunks.SIZE_Y, z * Chunks.SIZE_Z)
+                .setSize(Chunks.SIZE_X, Chunks.SIZE_Y, Chunks.SIZE_Z));
+        return chunk;
+    }
+
+    public static class Height2D extends BaseFacet2D {
+        public Height2D(BlockRegion targetRegion, Border3D border) {
+            super(targetRegion, border);
+        }
+    }
+
+    public static class Mixed2D extends BaseFacet2D {
+        public Mixed2D(BlockRegion targetRegion, Border3D border) {
+            super(targetRegion, border);
+        }
+    }
+
+    public static class Density3D extends BaseFacet3D {
+        public Density3D(BlockRegion targetRegion, Border3D border) {
+            super(targetRegion, border);
+        }
+    }
+
+    public static class Mixed3D extends BaseFacet3D {
+        public Mixed3D(BlockRegion targetRegion, Border3D border) {
+            super(targetRegion, border);
+        }
+    }
+
+    @Produces(Height2D.class)
+    public static class Height2DProvider implements FacetProvider {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public void process(GeneratingRegion region) {
+            calls.incrementAndGet();
+            region.setRegionFacet(Height2D.class, new Height2D(region.getRegion(),
+                    region.getBorderForFacet(Height2D.class)));
+        }
+    }
+
+    @Produces(Density3D.class)
+    @Requires(@Facet(value = Height2D.class, border = @FacetBorder(sides = 1)))
+    public static class Density3DProvider implements FacetProvider {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public void process(GeneratingRegion region) {
+            calls.incrementAndGet();
+            region.setRegionFacet(Density3D.class, new Density3D(region.getRegion(),
+                    region.getBorderForFacet(Density3D.class)));
+        }
+    }
+
+    @Produces({Mixed2D.class, Mixed3D.class})
+    @Requires(@Facet(Height2D.class))
+    public static class MixedProvider implements FacetProvider {
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public void process(GeneratingRegion region) {
+            calls.incrementAndGet();
+            region.setRegionFacet(Mixed2D.class, new Mixed2D(region.getRegion(),
+                    region.getBorderForFacet(Mixed2D.class)));
+            region.setRegionFacet(Mixed3D.class, new Mixed3D(region.getRegion(),
+                    region.getBorderForFacet(Mixed3D.class)));
+        }
+    }
+
+    /**
+     * Reads the facets of the chunk, and keeps the last {@link Height2D} it got.
+     */
+    @Requires({@Facet(Height2D.class), @Facet(Density3D.class)})
+    public static class FacetRecorder implements WorldRasterizer {
+        private Height2D height;
+        private Class<? extends WorldFacet> alsoRead;
+
+        @Override
+        public void initialize() {
+        }
+
+        @Override
+        public void generateChunk(Chunk chunk, Region chunkRegion) {
+            height = chunkRegion.getFacet(Height2D.class);
+            chunkRegion.getFacet(Density3D.class);
+            if (alsoRead != null) {
+                chunkRegion.getFacet(alsoRead);
+            }
+        }
+    }
+}
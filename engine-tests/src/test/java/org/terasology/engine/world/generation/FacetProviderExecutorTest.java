@@ -0,0 +1,211 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.world.generation;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ListMultimap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.terasology.engine.world.block.BlockRegion;
+import org.terasology.engine.world.generation.facets.base.BaseFacet2D;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FacetProviderExecutorTest {
+
+    private ExecutorService pool;
+
+    @BeforeEach
+    public void setup() {
+        pool = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void testIndependentProvidersRunConcurrently() {
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        HeightProvider height = new HeightProvider(bothRunning);
+        HumidityProvider humidity = new HumidityProvider(bothRunning);
+        FacetProviderExecutor executor = new FacetProviderExecutor(ImmutableList.of(height, humidity), pool);
+
+        executor.process(ImmutableList.of(height, humidity), provider -> provider.process(null));
+
+        assertTrue(height.sawOther);
+        assertTrue(humidity.sawOther);
+    }
+
+    @Test
+    public void testProvidersSharingFacetsConflict() {
+        HeightProvider height = new HeightProvider(null);
+        HumidityProvider humidity = new HumidityProvider(null);
+        HeightUpdater updater = new HeightUpdater();
+        SlopeProvider slope = new SlopeProvider();
+        FacetProviderExecutor executor = new FacetProviderExecutor(ImmutableList.of(height, humidity, updater, slope),
+                pool);
+
+        assertFalse(executor.conflicts(height, humidity));
+        assertTrue(executor.conflicts(height, updater));
+        assertTrue(executor.conflicts(height, slope));
+        assertTrue(executor.conflicts(updater, slope));
+        assertTrue(executor.conflicts(slope, updater));
+        assertFalse(executor.conflicts(humidity, slope));
+    }
+
+    @Test
+    public void testRegionRunsRequirementsFirst() {
+        HeightProvider height = new HeightProvider(null);
+        HumidityProvider humidity = new HumidityProvider(null);
+        HeightUpdater updater = new HeightUpdater();
+        SlopeProvider slope = new SlopeProvider();
+        ListMultimap<Class<? extends WorldFacet>, FacetProvider> chains = ArrayListMultimap.create();
+        chains.putAll(Height.class, ImmutableList.of(height, updater));
+        chains.putAll(Humidity.class, ImmutableList.of(humidity));
+        chains.putAll(Slope.class, ImmutableList.of(height, updater, slope));
+        FacetProviderExecutor executor = new FacetProviderExecutor(chains.values(), pool);
+        RegionImpl region = new RegionImpl(new BlockRegion(0, 0, 0, 15, 15, 15), chains, Collections.emptyMap(), 1,
+                null, executor);
+
+        region.prepareFacets(ImmutableList.of(Humidity.class, Slope.class));
+
+        assertTrue(slope.sawUpdatedHeight);
+        assertNotNull(region.getFacet(Humidity.class));
+        assertSame(region.getRegionFacet(Slope.class), region.getFacet(Slope.class));
+        assertEquals(1, height.calls);
+        assertEquals(1, updater.calls);
+    }
+
+    @Test
+    public void testFailureIsRethrown() {
+        HeightProvider height = new HeightProvider(null);
+        FailingProvider failing = new FailingProvider();
+        List<FacetProvider> providers = ImmutableList.of(height, failing);
+        FacetProviderExecutor executor = new FacetProviderExecutor(providers, pool);
+
+        assertThrows(IllegalStateException.class,
+                () -> executor.process(providers, provider -> provider.process(null)));
+    }
+
+    public static class Height extends BaseFacet2D {
+        private boolean updated;
+
+        public Height(BlockRegion targetRegion, Border3D border) {
+            super(targetRegion, border);
+        }
+    }
+
+    public static class Humidity extends BaseFacet2D {
+        public Humidity(BlockRegion targetRegion, Border3D border) {
+            super(targetRegion, border);
+        }
+    }
+
+    public static class Slope extends BaseFacet2D {
+        public Slope(BlockRegion targetRegion, Border3D border) {
+            super(targetRegion, border);
+        }
+    }
+
+    /**
+     * Counts down the latch and waits for the other provider sharing it to do the same.
+     */
+    private static boolean awaitOther(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            return latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Produces(Height.class)
+    public static class HeightProvider implements FacetProvider {
+        private final CountDownLatch latch;
+        private boolean sawOther;
+        private int calls;
+
+        HeightProvider(CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        @Override
+        public void process(GeneratingRegion region) {
+            calls++;
+            if (latch != null) {
+                sawOther = awaitOther(latch);
+            } else {
+                region.setRegionFacet(Height.class, new Height(region.getRegion(),
+                        region.getBorderForFacet(Height.class)));
+            }
+        }
+    }
+
+    @Produces(Humidity.class)
+    public static class HumidityProvider implements FacetProvider {
+        private final CountDownLatch latch;
+        private boolean sawOther;
+
+        HumidityProvider(CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        @Override
+        public void process(GeneratingRegion region) {
+            if (latch != null) {
+                sawOther = awaitOther(latch);
+            } else {
+                region.setRegionFacet(Humidity.class, new Humidity(region.getRegion(),
+                        region.getBorderForFacet(Humidity.class)));
+            }
+        }
+    }
+
+    @Updates(@Facet(Height.class))
+    public static class HeightUpdater implements FacetProvider {
+        private int calls;
+
+        @Override
+        public void process(GeneratingRegion region) {
+            calls++;
+            region.getRegionFacet(Height.class).updated = true;
+        }
+    }
+
+    @Produces(Slope.class)
+    @Requires(@Facet(Height.class))
+    public static class SlopeProvider implements FacetProvider {
+        private boolean sawUpdatedHeight;
+
+        @Override
+        public void process(GeneratingRegion region) {
+            sawUpdatedHeight = region.getRegionFacet(Height.class).updated;
+            region.setRegionFacet(Slope.class, new Slope(region.getRegion(), region.getBorderForFacet(Slope.class)));
+        }
+    }
+
+    @Produces(Slope.class)
+    public static class FailingProvider implements FacetProvider {
+        @Override
+        public void process(GeneratingRegion region) {
+            throw new IllegalStateException("Provider failed");
+        }
+    }
+}
@@ -0,0 +1,186 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.world.propagation;
+
+import com.google.common.collect.Lists;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.terasology.engine.TerasologyTestingEnvironment;
+import org.terasology.engine.registry.CoreRegistry;
+import org.terasology.engine.utilities.random.FastRandom;
+import org.terasology.engine.utilities.random.Random;
+import org.terasology.engine.world.block.Block;
+import org.terasology.engine.world.block.BlockManager;
+import org.terasology.engine.world.block.BlockRegion;
+import org.terasology.engine.world.block.BlockUri;
+import org.terasology.engine.world.block.family.SymmetricFamily;
+import org.terasology.engine.world.block.internal.BlockManagerImpl;
+import org.terasology.engine.world.block.loader.BlockFamilyDefinition;
+import org.terasology.engine.world.block.loader.BlockFamilyDefinitionData;
+import org.terasology.engine.world.block.shapes.BlockShape;
+import org.terasology.engine.world.block.tiles.NullWorldAtlas;
+import org.terasology.engine.world.chunks.Chunks;
+import org.terasology.engine.world.propagation.light.LightPropagationRules;
+import org.terasology.gestalt.assets.ResourceUrn;
+import org.terasology.gestalt.assets.management.AssetManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the {@link PackedBatchPropagator} produces the same light values as the {@link StandardBatchPropagator}
+ * for random sequences of block changes.
+ */
+@Tag("TteTest")
+public class PackedBatchPropagatorTest extends TerasologyTestingEnvironment {
+
+    private Block air;
+    private Block fullLight;
+    private Block mediumLight;
+    private Block solid;
+    private LightPropagationRules lightRules;
+
+    private BlockRegion testingRegion = new BlockRegion(-Chunks.SIZE_X, -Chunks.SIZE_Y, -Chunks.SIZE_Z,
+            2 * Chunks.SIZE_X, 2 * Chunks.SIZE_Y, 2 * Chunks.SIZE_Z);
+    private BlockRegion changeRegion = new BlockRegion(-8, -8, -8, 24, 24, 24);
+    /* Every position the light of the changes can reach */
+    private BlockRegion litRegion = new BlockRegion(changeRegion).expand(Chunks.MAX_LIGHT, Chunks.MAX_LIGHT, Chunks.MAX_LIGHT);
+
+    @BeforeEach
+    public void setup() throws Exception {
+        super.setup();
+        lightRules = new LightPropagationRules();
+        AssetManager assetManager = CoreRegistry.get(AssetManager.class);
+        BlockManagerImpl blockManager = new BlockManagerImpl(new NullWorldAtlas(), assetManager, true);
+        CoreRegistry.put(BlockManager.class, blockManager);
+
+        BlockFamilyDefinitionData fullLightData = new BlockFamilyDefinitionData();
+        fullLightData.getBaseSection().setDisplayName("Torch");
+        fullLightData.getBaseSection().setShape(assetManager.getAsset("engine:cube", BlockShape.class).get());
+        fullLightData.getBaseSection().setLuminance(Chunks.MAX_LIGHT);
+        fullLightData.getBaseSection().setTranslucent(true);
+        fullLightData.setBlockFamily(SymmetricFamily.class);
+        assetManager.loadAsset(new ResourceUrn("engine:torch"), fullLightData, BlockFamilyDefinition.class);
+        fullLight = blockManager.getBlock(new BlockUri(new ResourceUrn("engine:torch")));
+
+        BlockFamilyDefinitionData mediumLightData = new BlockFamilyDefinitionData();
+        mediumLightData.getBaseSection().setDisplayName("MediumLight");
+        mediumLightData.getBaseSection().setShape(assetManager.getAsset("engine:cube", BlockShape.class).get());
+        mediumLightData.getBaseSection().setLuminance((byte) 5);
+        mediumLightData.getBaseSection().setTranslucent(true);
+        mediumLightData.setBlockFamily(SymmetricFamily.class);
+        assetManager.loadAsset(new ResourceUrn("engine:mediumLight"), mediumLightData, BlockFamilyDefinition.class);
+        mediumLight = blockManager.getBlock(new BlockUri(new ResourceUrn("engine:mediumLight")));
+
+        BlockFamilyDefinitionData solidData = new BlockFamilyDefinitionData();
+        solidData.getBaseSection().setDisplayName("Stone");
+        solidData.getBaseSection().setShape(assetManager.getAsset("engine:cube", BlockShape.class).get());
+        solidData.getBaseSection().setTranslucent(false);
+        solidData.setBlockFamily(SymmetricFamily.class);
+        assetManager.loadAsset(new ResourceUrn("engine:stone"), solidData, BlockFamilyDefinition.class);
+        solid = blockManager.getBlock(new BlockUri(new ResourceUrn("engine:stone")));
+
+        air = blockManager.getBlock(BlockManager.AIR_ID);
+    }
+
+    @Test
+    public void testSingleChangesMatchStandardPropagator() {
+        assertSameValues(new FastRandom(1234), 100, 1);
+    }
+
+    @Test
+    public void testBatchedChangesMatchStandardPropagator() {
+        assertSameValues(new FastRandom(5678), 30, 10);
+    }
+
+    @Test
+    public void testPackedPositionsRoundTrip() {
+        int[][] positions = {{0, 0, 0}, {-1, -1, -1}, {1, -2, 3}, {-1048576, -524288, -1048576},
+                {1048575, 524287, 1048575}};
+        for (int[] position : positions) {
+            assertTrue(PackedBatchPropagator.isInRange(position[0], position[1], position[2]));
+            long packed = PackedBatchPropagator.pack(position[0], position[1], position[2]);
+            assertEquals(position[0], PackedBatchPropagator.unpackX(packed));
+            assertEquals(position[1], PackedBatchPropagator.unpackY(packed));
+            assertEquals(position[2], PackedBatchPropagator.unpackZ(packed));
+        }
+    }
+
+    @Test
+    public void testRangeOfPackedPositions() {
+        assertFalse(PackedBatchPropagator.isInRange(1048576, 0, 0));
+        assertFalse(PackedBatchPropagator.isInRange(0, -524289, 0));
+        assertFalse(PackedBatchPropagator.isInRange(0, 0, -1048577));
+    }
+
+    /**
+     * Lights positions further apart than the range of packed positions in one batch, on both sides of the edges of
+     * that range around the first change.
+     */
+    @Test
+    public void testPositionsOutOfPackingRangeMatchStandardPropagator() {
+        BlockRegion worldRegion = new BlockRegion(Integer.MIN_VALUE / 4, -(1 << 20), Integer.MIN_VALUE / 4,
+                Integer.MAX_VALUE / 4, 1 << 20, Integer.MAX_VALUE / 4);
+        Vector3i[] positions = {new Vector3i(0, 0, 0), new Vector3i(1 << 20, 0, 0), new Vector3i(-(1 << 20) - 1, 0, 0),
+                new Vector3i(0, 1 << 19, 0), new Vector3i(0, -(1 << 19) - 1, 0),
+                new Vector3i(Integer.MIN_VALUE / 4 + 20, 0, Integer.MAX_VALUE / 4 - 20)};
+        StubPropagatorWorldView standardView = new StubPropagatorWorldView(worldRegion, air);
+        StubPropagatorWorldView packedView = new StubPropagatorWorldView(worldRegion, air);
+        List<BlockChange> changes = Lists.newArrayList();
+        for (Vector3i pos : positions) {
+            standardView.setBlockAt(pos, fullLight);
+            packedView.setBlockAt(new Vector3i(pos), fullLight);
+            changes.add(new BlockChange(pos, air, fullLight));
+        }
+
+        new StandardBatchPropagator(lightRules, standardView).process(changes);
+        new PackedBatchPropagator(lightRules, packedView).process(changes);
+
+        for (Vector3i position : positions) {
+            assertEquals(Chunks.MAX_LIGHT, packedView.getValueAt(position));
+            BlockRegion lit = new BlockRegion(position).expand(Chunks.MAX_LIGHT, Chunks.MAX_LIGHT, Chunks.MAX_LIGHT);
+            for (Vector3ic pos : lit) {
+                assertEquals(standardView.getValueAt(pos), packedView.getValueAt(pos), () -> "Light differs at " + pos);
+            }
+        }
+    }
+
+    /**
+     * Applies the same random block changes through both propagators, each on its own world, and compares the
+     * resulting light values after every batch.
+     */
+    private void assertSameValues(Random random, int batches, int batchSize) {
+        Block[] blocks = {air, fullLight, mediumLight, solid};
+        StubPropagatorWorldView standardView = new StubPropagatorWorldView(testingRegion, air);
+        StubPropagatorWorldView packedView = new StubPropagatorWorldView(testingRegion, air);
+        BatchPropagator standardPropagator = new StandardBatchPropagator(lightRules, standardView);
+        BatchPropagator packedPropagator = new PackedBatchPropagator(lightRules, packedView);
+
+        for (int batch = 0; batch < batches; batch++) {
+            List<BlockChange> changes = Lists.newArrayList();
+            for (int i = 0; i < batchSize; i++) {
+                Vector3i pos = new Vector3i(
+                        random.nextInt(changeRegion.minX(), changeRegion.maxX()),
+                        random.nextInt(changeRegion.minY(), changeRegion.maxY()),
+                        random.nextInt(changeRegion.minZ(), changeRegion.maxZ()));
+                Block oldBlock = standardView.getBlockAt(pos);
+                Block newBlock = blocks[random.nextInt(blocks.length)];
+                standardView.setBlockAt(pos, newBlock);
+                packedView.setBlockAt(new Vector3i(pos), newBlock);
+                changes.add(new BlockChange(pos, oldBlock, newBlock));
+            }
+            standardPropagator.process(changes);
+            packedPropagator.process(changes);
+
+            for (Vector3ic pos : litRegion) {
+                assertEquals(standardView.getValueAt(pos), packedView.getValueAt(pos), () -> "Light differs at " + pos);
+            }
+        }
+    }
+}
@@ -4,6 +4,7 @@
 package org.terasology.utilities;
 
 import com.google.common.collect.Lists;
+import org.joml.Vector3f;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.terasology.engine.utilities.procedural.BrownianNoise;
@@ -11,9 +12,12 @@
 import org.terasology.engine.utilities.procedural.Noise;
 import org.terasology.engine.utilities.procedural.PerlinNoise;
 import org.terasology.engine.utilities.procedural.SimplexNoise;
+import org.terasology.engine.utilities.procedural.SubSampledNoise;
 import org.terasology.engine.utilities.procedural.WhiteNoise;
 import org.terasology.engine.utilities.random.FastRandom;
 import org.terasology.engine.utilities.random.Random;
+import org.terasology.engine.world.block.BlockArea;
+import org.terasology.engine.world.block.BlockRegion;
 
 import java.util.List;
 
@@ -88,4 +92,48 @@ public void testResolution(Noise noiseGen) {
 
         fail();
     }
+
+    public static List<Noise> gridData() {
+        return Lists.newArrayList(
+                new WhiteNoise(0xCAFE),
+                new SimplexNoise(0xCAFE),
+                new SimplexNoise(0xCAFE, 100),
+                new PerlinNoise(0xCAFE),
+                new BrownianNoise(new SimplexNoise(0xCAFE), 4),
+                new BrownianNoise(new PerlinNoise(0xCAFE), 4),
+                new SubSampledNoise(new SimplexNoise(0xCAFE), new Vector3f(0.05f, 0.05f, 0.05f), 4)
+            );
+    }
+
+    @ParameterizedTest
+    @MethodSource("gridData")
+    public void testAreaMatchesScalarNoise(Noise noiseGen) {
+        BlockArea area = new BlockArea(-37, -5, -20, 12);
+        float scale = 0.137f;
+        float[] values = noiseGen.noiseArea(area, scale);
+
+        int index = 0;
+        for (int y = area.minY(); y <= area.maxY(); y++) {
+            for (int x = area.minX(); x <= area.maxX(); x++) {
+                assertEquals(noiseGen.noise(x * scale, y * scale), values[index++]);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("gridData")
+    public void testRegionMatchesScalarNoise(Noise noiseGen) {
+        BlockRegion region = new BlockRegion(-9, 30, -4, 6, 41, 3);
+        float scale = 0.291f;
+        float[] values = noiseGen.noiseRegion(region, scale);
+
+        int index = 0;
+        for (int z = region.minZ(); z <= region.maxZ(); z++) {
+            for (int y = region.minY(); y <= region.maxY(); y++) {
+                for (int x = region.minX(); x <= region.maxX(); x++) {
+                    assertEquals(noiseGen.noise(x * scale, y * scale, z * scale), values[index++]);
+                }
+            }
+        }
+    }
 }
@@ -20,6 +20,7 @@
 import org.terasology.engine.world.chunks.blockdata.TeraDenseArray16Bit;
 import org.terasology.engine.world.chunks.blockdata.TeraDenseArray4Bit;
 import org.terasology.engine.world.chunks.blockdata.TeraDenseArray8Bit;
+import org.terasology.engine.world.chunks.blockdata.TeraPaletteArray;
 import org.terasology.engine.world.chunks.blockdata.TeraSparseArray4Bit;
 import org.terasology.engine.world.chunks.blockdata.TeraSparseArray8Bit;
 
@@ -94,7 +95,10 @@ public enum TeraArrayType {
         SPARCE_4BIT(() -> new TeraSparseArray4Bit(16, 256, 16, INFLATED_4_BIT, DEFLATED_4_BIT),
                 TeraSparseArray4Bit.SerializationHandler::new),
         SPARCE_8BIT(() -> new TeraSparseArray8Bit(16, 256, 16, INFLATED_8_BIT, DEFLATED_8_BIT),
-                TeraSparseArray8Bit.SerializationHandler::new);
+                TeraSparseArray8Bit.SerializationHandler::new),
+        PALETTE_1BIT(() -> createPaletteArray(2), TeraPaletteArray.SerializationHandler::new),
+        PALETTE_4BIT(() -> createPaletteArray(16), TeraPaletteArray.SerializationHandler::new),
+        PALETTE_8BIT(() -> createPaletteArray(256), TeraPaletteArray.SerializationHandler::new);
 
         private final Supplier<TeraArray> creator;
         private final Supplier<SerializationHandler> handler;
@@ -111,6 +115,14 @@ public TeraArray create() {
         public SerializationHandler handler() {
             return handler.get();
         }
+
+        private static TeraArray createPaletteArray(int distinctValues) {
+            short[] data = new short[16 * 256 * 16];
+            for (int i = 0; i < data.length; i++) {
+                data[i] = (short) (i % distinctValues);
+            }
+            return new TeraPaletteArray(16, 256, 16, data);
+        }
     }
 
 
@@ -140,7 +152,8 @@ public void setup(ArrayState arrayState) {
 
     @State(Scope.Thread)
     public static class ArrayState {
-        @Param({"DENCE_4BIT", "DENCE_8BIT", "DENCE_16BIT", "SPARCE_4BIT", "SPARCE_8BIT"})
+        @Param({"DENCE_4BIT", "DENCE_8BIT", "DENCE_16BIT", "SPARCE_4BIT", "SPARCE_8BIT",
+                "PALETTE_1BIT", "PALETTE_4BIT", "PALETTE_8BIT"})
         private static TeraArrayType arrayType;
 
         private SerializationHandler handler;
@@ -0,0 +1,146 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.benchmark.chunks.pipeline;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terasology.engine.world.chunks.Chunk;
+import org.terasology.engine.world.chunks.Chunks;
+import org.terasology.engine.world.chunks.blockdata.TeraArray;
+import org.terasology.engine.world.chunks.blockdata.TeraPaletteArray;
+import org.terasology.engine.world.chunks.internal.ChunkImpl;
+import org.terasology.engine.world.chunks.pipeline.ChunkProcessingPipeline;
+import org.terasology.engine.world.chunks.pipeline.ChunkStageMetrics;
+import org.terasology.engine.world.chunks.pipeline.stages.ChunkTaskProvider;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes 10k chunks through a {@link ChunkProcessingPipeline} with the stage layout of the local chunk provider: a
+ * single chunk stage, a stage requiring all 26 neighbours at the same stage and a final single chunk stage.
+ * <br><br>
+ * The stages do no work, so this measures the scheduling overhead of the pipeline's reactor thread. Chunks are
+ * requested in random order, so that many of them have to wait for their neighbours. Both the fixed thread pool and
+ * the adaptive chunk threads are measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Fork(1)
+@Measurement(iterations = 3)
+public class ChunkProcessingPipelineBenchmark {
+    private static final int WORLD_SIZE_XZ = 50;
+    private static final int WORLD_SIZE_Y = 4;
+    private static final int CHUNK_COUNT = WORLD_SIZE_XZ * WORLD_SIZE_Y * WORLD_SIZE_XZ;
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNK_COUNT)
+    public int processChunks(PipelineState state) throws ExecutionException, InterruptedException {
+        List<Future<Chunk>> futures = Lists.newArrayListWithCapacity(CHUNK_COUNT);
+        for (Chunk chunk : state.chunks) {
+            futures.add(state.pipeline.invokeGeneratorTask(chunk.getPosition(), () -> chunk));
+        }
+        int processed = 0;
+        for (Future<Chunk> future : futures) {
+            if (future.get() != null) {
+                processed++;
+            }
+        }
+        return processed;
+    }
+
+    private static List<Vector3ic> getNeighbours(Vector3ic pos) {
+        List<Vector3ic> neighbours = Lists.newArrayListWithCapacity(27);
+        for (int x = -1; x <= 1; x++) {
+            for (int y = -1; y <= 1; y++) {
+                for (int z = -1; z <= 1; z++) {
+                    Vector3i neighbour = new Vector3i(pos.x() + x, pos.y() + y, pos.z() + z);
+                    if (neighbour.x >= 0 && neighbour.x < WORLD_SIZE_XZ
+                            && neighbour.y >= 0 && neighbour.y < WORLD_SIZE_Y
+                            && neighbour.z >= 0 && neighbour.z < WORLD_SIZE_XZ) {
+                        neighbours.add(neighbour);
+                    }
+                }
+            }
+        }
+        return neighbours;
+    }
+
+    @State(Scope.Thread)
+    public static class PipelineState {
+        private final List<Chunk> chunks = Lists.newArrayListWithCapacity(CHUNK_COUNT);
+        private final Map<Vector3ic, Chunk> readyChunks = Maps.newConcurrentMap();
+        private ChunkProcessingPipeline pipeline;
+
+        @Param({"false", "true"})
+        private boolean adaptiveChunkThreads;
+
+        @Setup(Level.Trial)
+        public void setupChunks() {
+            for (int x = 0; x < WORLD_SIZE_XZ; x++) {
+                for (int y = 0; y < WORLD_SIZE_Y; y++) {
+                    for (int z = 0; z < WORLD_SIZE_XZ; z++) {
+                        // single block type chunks, so that 10k of them fit into memory easily
+                        TeraArray blocks = new TeraPaletteArray(Chunks.SIZE_X, Chunks.SIZE_Y, Chunks.SIZE_Z);
+                        chunks.add(new ChunkImpl(new Vector3i(x, y, z), blocks, new TeraArray[0], null));
+                    }
+                }
+            }
+            Collections.shuffle(chunks, new Random(42));
+        }
+
+        @Setup(Level.Invocation)
+        public void setupPipeline() {
+            readyChunks.clear();
+            System.setProperty(ChunkProcessingPipeline.ADAPTIVE_CHUNK_THREADS_PROPERTY,
+                    Boolean.toString(adaptiveChunkThreads));
+            // like the local chunk provider, finished chunks are only found through the chunk provider
+            pipeline = new ChunkProcessingPipeline(0, readyChunks::get, (o1, o2) -> 0);
+            pipeline.addStage(ChunkTaskProvider.create("Internal lighting", (Chunk chunk) -> { }));
+            pipeline.addStage(ChunkTaskProvider.createMulti("Light merging", chunks -> chunks.iterator().next(), pos -> {
+                List<Vector3ic> requirements = getNeighbours(pos);
+                // the result of the task is the first required chunk, which has to be the processed one
+                requirements.remove(pos);
+                requirements.add(0, pos);
+                return requirements;
+            }));
+            pipeline.addStage(ChunkTaskProvider.create("Chunk ready",
+                    (Chunk chunk) -> {
+                        readyChunks.put(chunk.getPosition(), chunk);
+                    }));
+        }
+
+        @TearDown(Level.Invocation)
+        public void shutdownPipeline() {
+            for (ChunkStageMetrics metrics : pipeline.getStageMetrics()) {
+                if (metrics.getQueueDepth() > 0) {
+                    throw new IllegalStateException("Unfinished chunks in " + metrics);
+                }
+            }
+            pipeline.shutdown();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.benchmark.entitySystem;
+
+import com.google.common.collect.Lists;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.entity.internal.PojoEntityManager;
+import org.terasology.engine.entitySystem.event.EventPriority;
+import org.terasology.engine.entitySystem.event.internal.EventSystemImpl;
+import org.terasology.engine.logic.location.LocationComponent;
+import org.terasology.engine.rendering.logic.MeshComponent;
+import org.terasology.engine.utilities.random.FastRandom;
+import org.terasology.engine.world.block.BlockComponent;
+import org.terasology.gestalt.entitysystem.component.Component;
+import org.terasology.gestalt.entitysystem.event.Event;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many events per second {@link EventSystemImpl} can dispatch to entities with varying components, with and
+ * without its dispatch cache.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 1)
+public class EventDispatchBenchmark {
+    private static final int ENTITY_COUNT = 1000;
+
+    @Benchmark
+    @OperationsPerInvocation(ENTITY_COUNT)
+    public void sendEvent(StateObject state) {
+        for (EntityRef entity : state.entities) {
+            state.eventSystem.send(entity, state.event);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTITY_COUNT)
+    public void sendEventToComponent(StateObject state) {
+        for (EntityRef entity : state.entities) {
+            state.eventSystem.send(entity, state.event, state.location);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class StateObject {
+        @Param({"true", "false"})
+        private boolean dispatchCache;
+
+        private final BenchmarkEvent event = new BenchmarkEvent();
+        private final LocationComponent location = new LocationComponent();
+        private final List<EntityRef> entities = Lists.newArrayList();
+        private EventSystemImpl eventSystem;
+
+        @Setup
+        public void setup() {
+            PojoEntityManager entityManager = new PojoEntityManager();
+            eventSystem = new EventSystemImpl(true);
+            eventSystem.setDispatchCacheEnabled(dispatchCache);
+            entityManager.setEventSystem(eventSystem);
+
+            eventSystem.registerEventReceiver((BenchmarkEvent e, EntityRef entity) -> { }, BenchmarkEvent.class);
+            eventSystem.registerEventReceiver((BenchmarkEvent e, EntityRef entity) -> { }, BenchmarkEvent.class,
+                    EventPriority.PRIORITY_HIGH, LocationComponent.class);
+            eventSystem.registerEventReceiver((BenchmarkEvent e, EntityRef entity) -> { }, BenchmarkEvent.class,
+                    MeshComponent.class);
+            eventSystem.registerEventReceiver((BenchmarkEvent e, EntityRef entity) -> { }, BenchmarkEvent.class,
+                    EventPriority.PRIORITY_LOW, LocationComponent.class, BlockComponent.class);
+
+            FastRandom rand = new FastRandom(0L);
+            for (int i = 0; i < ENTITY_COUNT; ++i) {
+                List<Component> entityData = Lists.newArrayList();
+                if (rand.nextFloat() < 0.75f) {
+                    entityData.add(new LocationComponent());
+                }
+                if (rand.nextFloat() < 0.5f) {
+                    entityData.add(new MeshComponent());
+                }
+                if (rand.nextFloat() < 0.25f) {
+                    entityData.add(new BlockComponent());
+                }
+                entities.add(entityManager.create(entityData));
+            }
+        }
+    }
+
+    public static class BenchmarkEvent implements Event {
+    }
+}
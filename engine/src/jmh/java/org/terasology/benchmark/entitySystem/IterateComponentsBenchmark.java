@@ -9,10 +9,16 @@
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
 import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.entity.internal.ArchetypeComponentTable;
+import org.terasology.engine.entitySystem.entity.internal.ComponentTable;
+import org.terasology.engine.entitySystem.entity.internal.MapComponentTable;
 import org.terasology.engine.entitySystem.entity.internal.PojoEntityManager;
 import org.terasology.engine.logic.location.LocationComponent;
 import org.terasology.engine.rendering.logic.MeshComponent;
@@ -22,6 +28,7 @@
 
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 @BenchmarkMode(Mode.AverageTime)
 @OutputTimeUnit(TimeUnit.NANOSECONDS)
@@ -48,13 +55,33 @@ public void iterateSingleComponent(StateObject state) {
         }
     }
 
+    @Benchmark
+    public void iterateEntityComponents(StateObject state, Blackhole blackhole) {
+        for (EntityRef entity : state.entityManager.getEntitiesWith(LocationComponent.class)) {
+            for (Component component : entity.iterateComponents()) {
+                blackhole.consume(component);
+            }
+        }
+    }
+
     @State(Scope.Benchmark)
     public static class StateObject {
-        private final PojoEntityManager entityManager = new PojoEntityManager();
+        @Param({"map", "archetype"})
+        private String storage;
+
+        @Param({"1000", "100000"})
+        private int entityCount;
+
+        private PojoEntityManager entityManager;
 
+        @Setup
         public void setup() {
+            Supplier<ComponentTable> storageFactory = "archetype".equals(storage)
+                    ? ArchetypeComponentTable::new
+                    : MapComponentTable::new;
+            entityManager = new PojoEntityManager(storageFactory);
             FastRandom rand = new FastRandom(0L);
-            for (int i = 0; i < 1000; ++i) {
+            for (int i = 0; i < entityCount; ++i) {
                 List<Component> entityData = Lists.newArrayList();
                 if (rand.nextFloat() < 0.75f) {
                     entityData.add(new LocationComponent());
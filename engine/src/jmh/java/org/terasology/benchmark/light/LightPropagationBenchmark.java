@@ -0,0 +1,130 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.benchmark.light;
+
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terasology.engine.math.Side;
+import org.terasology.engine.world.block.Block;
+import org.terasology.engine.world.block.BlockRegion;
+import org.terasology.engine.world.chunks.Chunks;
+import org.terasology.engine.world.propagation.BatchPropagator;
+import org.terasology.engine.world.propagation.BlockChange;
+import org.terasology.engine.world.propagation.PackedBatchPropagator;
+import org.terasology.engine.world.propagation.PropagatorWorldView;
+import org.terasology.engine.world.propagation.StandardBatchPropagator;
+import org.terasology.engine.world.propagation.light.LightPropagationRules;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the light updates per second of the batch propagators, by placing a torch among stone pillars and removing
+ * it again. Each operation is two light updates.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class LightPropagationBenchmark {
+
+    @Benchmark
+    public void placeAndRemoveTorch(StateObject state) {
+        state.world.setBlock(state.torchPos, state.torch);
+        state.propagator.process(new BlockChange(state.torchPos, state.air, state.torch));
+        state.world.setBlock(state.torchPos, state.air);
+        state.propagator.process(new BlockChange(state.torchPos, state.torch, state.air));
+    }
+
+    @State(Scope.Thread)
+    public static class StateObject {
+        @Param({"standard", "packed"})
+        private String propagatorType;
+
+        private final Vector3ic torchPos = new Vector3i(Chunks.SIZE_X / 2, Chunks.SIZE_Y / 2, Chunks.SIZE_Z / 2);
+        private Block air;
+        private Block torch;
+        private ArrayWorldView world;
+        private BatchPropagator propagator;
+
+        @Setup
+        public void setup() {
+            air = new Block();
+            air.setTranslucent(true);
+            torch = new Block();
+            torch.setTranslucent(true);
+            torch.setLuminance(Chunks.MAX_LIGHT);
+            Block stone = new Block();
+            for (Side side : Side.values()) {
+                stone.setFullSide(side, true);
+            }
+
+            world = new ArrayWorldView(new BlockRegion(0, 0, 0, Chunks.SIZE_X - 1, Chunks.SIZE_Y - 1, Chunks.SIZE_Z - 1),
+                    air);
+            for (int x = 1; x < Chunks.SIZE_X; x += 4) {
+                for (int z = 1; z < Chunks.SIZE_Z; z += 4) {
+                    for (int y = 0; y < Chunks.SIZE_Y; y++) {
+                        world.setBlock(new Vector3i(x, y, z), stone);
+                    }
+                }
+            }
+
+            LightPropagationRules rules = new LightPropagationRules();
+            propagator = propagatorType.equals("packed")
+                    ? new PackedBatchPropagator(rules, world)
+                    : new StandardBatchPropagator(rules, world);
+        }
+    }
+
+    /**
+     * Keeps the blocks and values of a region in flat arrays, so the benchmark measures the propagator rather than
+     * the world.
+     */
+    private static final class ArrayWorldView implements PropagatorWorldView {
+        private final BlockRegion region;
+        private final Block[] blocks;
+        private final byte[] values;
+
+        ArrayWorldView(BlockRegion region, Block defaultBlock) {
+            this.region = region;
+            this.blocks = new Block[region.volume()];
+            this.values = new byte[region.volume()];
+            Arrays.fill(blocks, defaultBlock);
+        }
+
+        private int index(Vector3ic pos) {
+            return (pos.x() - region.minX()) + region.getSizeX()
+                    * ((pos.z() - region.minZ()) + region.getSizeZ() * (pos.y() - region.minY()));
+        }
+
+        void setBlock(Vector3ic pos, Block block) {
+            blocks[index(pos)] = block;
+        }
+
+        @Override
+        public byte getValueAt(Vector3ic pos) {
+            return region.contains(pos) ? values[index(pos)] : UNAVAILABLE;
+        }
+
+        @Override
+        public void setValueAt(Vector3ic pos, byte value) {
+            values[index(pos)] = value;
+        }
+
+        @Override
+        public Block getBlockAt(Vector3ic pos) {
+            return region.contains(pos) ? blocks[index(pos)] : null;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.benchmark.network;
+
+import gnu.trove.set.TIntSet;
+import gnu.trove.set.hash.TIntHashSet;
+import org.joml.Vector3f;
+import org.joml.Vector3i;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terasology.engine.network.internal.NetworkInterestGrid;
+import org.terasology.engine.rendering.world.viewDistance.ViewDistance;
+import org.terasology.engine.world.chunks.Chunks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulates one server tick with N clients and M entities which all move and change a component, like the network
+ * system sees it.
+ * <br><br>
+ * Without interest management every change is offered to every client, which checks whether the entity is relevant to
+ * it. With the {@link NetworkInterestGrid} the entity is moved in the grid, and only the clients interested in its
+ * chunk are told about the change.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class NetworkInterestBenchmark {
+    /**
+     * The side length of the simulated world in blocks, in which clients and entities are spread evenly.
+     */
+    private static final int WORLD_SIZE = 4096;
+    private static final float ENTITY_SPEED = 4f;
+
+    @Benchmark
+    public long allClients(TickState state) {
+        long notifications = 0;
+        for (int netId = 1; netId <= state.entityCount; netId++) {
+            state.moveEntity(netId);
+            for (SimulatedClient client : state.clientsWithoutGrid) {
+                if (client.setComponentDirty(netId)) {
+                    notifications++;
+                }
+            }
+        }
+        return notifications;
+    }
+
+    @Benchmark
+    public long interestGrid(TickState state) {
+        long notifications = 0;
+        for (int netId = 1; netId <= state.entityCount; netId++) {
+            state.grid.updateEntity(netId, state.moveEntity(netId));
+            for (SimulatedClient client : state.grid.getSubscribers(netId)) {
+                if (client.setComponentDirty(netId)) {
+                    notifications++;
+                }
+            }
+        }
+        return notifications;
+    }
+
+    @State(Scope.Thread)
+    public static class TickState {
+        @Param({"10", "100"})
+        private int clientCount;
+
+        @Param({"1000", "10000"})
+        private int entityCount;
+
+        private SimulatedClient[] clients;
+        private SimulatedClient[] clientsWithoutGrid;
+        private Vector3f[] positions;
+        private NetworkInterestGrid<SimulatedClient> grid;
+        private final Random random = new Random(42);
+
+        @Setup
+        public void setup() {
+            grid = new NetworkInterestGrid<>(new NetworkInterestGrid.Listener<SimulatedClient>() {
+                @Override
+                public void onEnter(SimulatedClient client, int netId) {
+                    client.relevant.add(netId);
+                }
+
+                @Override
+                public void onLeave(SimulatedClient client, int netId) {
+                    client.relevant.remove(netId);
+                }
+            });
+            Vector3i extents = new Vector3i(ViewDistance.MODERATE.getChunkDistance()).div(2);
+            clients = new SimulatedClient[clientCount];
+            for (int i = 0; i < clientCount; i++) {
+                clients[i] = new SimulatedClient();
+                Vector3f position = new Vector3f(random.nextInt(WORLD_SIZE), 0, random.nextInt(WORLD_SIZE));
+                grid.updateSubscriber(clients[i], Chunks.toChunkPos(position, new Vector3i()), extents);
+            }
+            positions = new Vector3f[entityCount + 1];
+            for (int netId = 1; netId <= entityCount; netId++) {
+                positions[netId] = new Vector3f(random.nextInt(WORLD_SIZE), 0, random.nextInt(WORLD_SIZE));
+                grid.updateEntity(netId, positions[netId]);
+            }
+            // without the grid, every client knows all entities
+            clientsWithoutGrid = new SimulatedClient[clientCount];
+            for (int i = 0; i < clientCount; i++) {
+                clientsWithoutGrid[i] = new SimulatedClient();
+                for (int netId = 1; netId <= entityCount; netId++) {
+                    clientsWithoutGrid[i].relevant.add(netId);
+                }
+            }
+        }
+
+        private Vector3f moveEntity(int netId) {
+            Vector3f position = positions[netId];
+            position.x = Math.floorMod((int) (position.x + (random.nextFloat() - 0.5f) * 2 * ENTITY_SPEED), WORLD_SIZE);
+            position.z = Math.floorMod((int) (position.z + (random.nextFloat() - 0.5f) * 2 * ENTITY_SPEED), WORLD_SIZE);
+            return position;
+        }
+    }
+
+    /**
+     * Mirrors the bookkeeping of a client for dirty components: a relevance check and the set of dirty entities.
+     */
+    private static final class SimulatedClient {
+        private final TIntSet relevant = new TIntHashSet();
+        private final TIntSet dirty = new TIntHashSet();
+
+        private boolean setComponentDirty(int netId) {
+            if (relevant.contains(netId)) {
+                dirty.add(netId);
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.benchmark.noise;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terasology.engine.utilities.procedural.BrownianNoise;
+import org.terasology.engine.utilities.procedural.Noise;
+import org.terasology.engine.utilities.procedural.PerlinNoise;
+import org.terasology.engine.utilities.procedural.SimplexNoise;
+import org.terasology.engine.world.block.BlockArea;
+import org.terasology.engine.world.block.BlockRegion;
+import org.terasology.engine.world.chunks.Chunks;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the noise grids filled per second, for the area and the region of a chunk, either one position at a time
+ * through the scalar noise functions or through the bulk functions of {@link Noise}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class NoiseBenchmark {
+    private static final float SCALE = 0.01f;
+
+    @Benchmark
+    public float[] fillArea(StateObject state) {
+        if (state.bulk) {
+            return state.noise.noiseArea(state.area, SCALE);
+        }
+        float[] result = new float[state.area.getSizeX() * state.area.getSizeY()];
+        int index = 0;
+        for (int y = state.area.minY(); y <= state.area.maxY(); y++) {
+            for (int x = state.area.minX(); x <= state.area.maxX(); x++) {
+                result[index++] = state.noise.noise(x * SCALE, y * SCALE);
+            }
+        }
+        return result;
+    }
+
+    @Benchmark
+    public float[] fillRegion(StateObject state) {
+        if (state.bulk) {
+            return state.noise.noiseRegion(state.region, SCALE);
+        }
+        float[] result = new float[state.region.volume()];
+        int index = 0;
+        for (int z = state.region.minZ(); z <= state.region.maxZ(); z++) {
+            for (int y = state.region.minY(); y <= state.region.maxY(); y++) {
+                for (int x = state.region.minX(); x <= state.region.maxX(); x++) {
+                    result[index++] = state.noise.noise(x * SCALE, y * SCALE, z * SCALE);
+                }
+            }
+        }
+        return result;
+    }
+
+    @State(Scope.Thread)
+    public static class StateObject {
+        @Param({"simplex", "perlin", "brownian"})
+        private String noiseType;
+
+        @Param({"scalar", "bulk"})
+        private String evaluation;
+
+        private Noise noise;
+        private boolean bulk;
+        private final BlockArea area = new BlockArea(0, 0, Chunks.SIZE_X - 1, Chunks.SIZE_Z - 1);
+        private final BlockRegion region = new BlockRegion(0, 0, 0, Chunks.SIZE_X - 1, Chunks.SIZE_Y - 1,
+                Chunks.SIZE_Z - 1);
+
+        @Setup
+        public void setup() {
+            switch (noiseType) {
+                case "perlin":
+                    noise = new PerlinNoise(12);
+                    break;
+                case "brownian":
+                    noise = new BrownianNoise(new SimplexNoise(12), 6);
+                    break;
+                default:
+                    noise = new SimplexNoise(12);
+                    break;
+            }
+            bulk = evaluation.equals("bulk");
+        }
+    }
+}
@@ -0,0 +1,70 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.benchmark.persistence;
+
+import org.joml.Vector3i;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terasology.engine.persistence.internal.ChunkCodec;
+import org.terasology.engine.utilities.random.FastRandom;
+import org.terasology.engine.world.chunks.Chunks;
+import org.terasology.engine.world.chunks.blockdata.TeraArray;
+import org.terasology.engine.world.chunks.blockdata.TeraDenseArray16Bit;
+import org.terasology.engine.world.chunks.internal.ChunkSerializer;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many encoded chunks per second each {@link ChunkCodec} can compress and decompress.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 1)
+public class ChunkCodecBenchmark {
+
+    @Benchmark
+    public byte[] compress(StateObject state) {
+        return state.codec.compress(state.encodedChunk);
+    }
+
+    @Benchmark
+    public byte[] decompress(StateObject state) throws IOException {
+        return ChunkCodec.decompress(state.compressedChunk);
+    }
+
+    @State(Scope.Thread)
+    public static class StateObject {
+        @Param({"GZIP", "SNAPPY", "DEFLATE"})
+        private ChunkCodec codec;
+
+        private byte[] encodedChunk;
+        private byte[] compressedChunk;
+
+        @Setup
+        public void setup() {
+            // layered terrain with some noise, roughly what generated chunks look like
+            FastRandom random = new FastRandom(0);
+            TeraArray blocks = new TeraDenseArray16Bit(Chunks.SIZE_X, Chunks.SIZE_Y, Chunks.SIZE_Z);
+            for (int y = 0; y < Chunks.SIZE_Y / 2; y++) {
+                for (int z = 0; z < Chunks.SIZE_Z; z++) {
+                    for (int x = 0; x < Chunks.SIZE_X; x++) {
+                        blocks.set(x, y, z, random.nextInt(16) == 0 ? 1 + random.nextInt(8) : 1 + y / 8);
+                    }
+                }
+            }
+            encodedChunk = ChunkSerializer.encode(new Vector3i(), blocks, new TeraArray[0]).build().toByteArray();
+            compressedChunk = codec.compress(encodedChunk);
+        }
+    }
+}
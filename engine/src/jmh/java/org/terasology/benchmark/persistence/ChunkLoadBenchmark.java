@@ -0,0 +1,127 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.benchmark.persistence;
+
+import com.google.common.collect.ImmutableMap;
+import org.joml.Vector3i;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.terasology.engine.persistence.internal.ChunkRegionStore;
+import org.terasology.engine.persistence.internal.StoragePathProvider;
+import org.terasology.engine.utilities.FilesUtil;
+import org.terasology.engine.utilities.random.FastRandom;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares how many chunks per second can be loaded from chunk zips, the way {@code AbstractStorageManager} reads
+ * them, and from region files through a {@link ChunkRegionStore}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 1)
+public class ChunkLoadBenchmark {
+    private static final int WORLD_SIZE = 16;
+    private static final int CHUNK_COUNT = WORLD_SIZE * WORLD_SIZE * WORLD_SIZE;
+    private static final int COMPRESSED_CHUNK_SIZE = 6000;
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNK_COUNT)
+    public void loadFromChunkZips(StateObject state, Blackhole blackhole) throws IOException {
+        for (Vector3i chunkPos : state.loadOrder) {
+            Path chunkZipPath = state.storagePathProvider.getChunkZipPath(
+                    state.storagePathProvider.getChunkZipPosition(chunkPos));
+            try (FileSystem chunkZip = FileSystems.newFileSystem(chunkZipPath, (ClassLoader) null)) {
+                blackhole.consume(Files.readAllBytes(
+                        chunkZip.getPath(state.storagePathProvider.getChunkFilename(chunkPos))));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNK_COUNT)
+    public void loadFromRegionFiles(StateObject state, Blackhole blackhole) throws IOException {
+        for (Vector3i chunkPos : state.loadOrder) {
+            blackhole.consume(state.chunkRegionStore.loadChunk(chunkPos));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class StateObject {
+        private final Vector3i[] loadOrder = new Vector3i[CHUNK_COUNT];
+        private Path savePath;
+        private StoragePathProvider storagePathProvider;
+        private ChunkRegionStore chunkRegionStore;
+
+        @Setup
+        public void setup() throws IOException {
+            savePath = Files.createTempDirectory("chunkLoadBenchmark");
+            storagePathProvider = new StoragePathProvider(savePath);
+            Files.createDirectories(storagePathProvider.getWorldPath());
+            chunkRegionStore = new ChunkRegionStore(storagePathProvider);
+
+            FastRandom random = new FastRandom(0);
+            Map<Vector3i, FileSystem> chunkZips = new HashMap<>();
+            int i = 0;
+            for (int x = -WORLD_SIZE / 2; x < WORLD_SIZE / 2; x++) {
+                for (int y = -WORLD_SIZE / 2; y < WORLD_SIZE / 2; y++) {
+                    for (int z = -WORLD_SIZE / 2; z < WORLD_SIZE / 2; z++) {
+                        Vector3i chunkPos = new Vector3i(x, y, z);
+                        byte[] compressedChunk = new byte[COMPRESSED_CHUNK_SIZE];
+                        for (int b = 0; b < compressedChunk.length; b++) {
+                            compressedChunk[b] = (byte) random.nextInt();
+                        }
+
+                        chunkRegionStore.storeChunk(chunkPos, compressedChunk);
+                        Vector3i chunkZipPos = storagePathProvider.getChunkZipPosition(chunkPos);
+                        FileSystem zip = chunkZips.get(chunkZipPos);
+                        if (zip == null) {
+                            URI uri = URI.create("jar:" + storagePathProvider.getChunkZipPath(chunkZipPos).toUri());
+                            zip = FileSystems.newFileSystem(uri, ImmutableMap.of("create", "true"));
+                            chunkZips.put(chunkZipPos, zip);
+                        }
+                        Files.write(zip.getPath(storagePathProvider.getChunkFilename(chunkPos)), compressedChunk);
+                        loadOrder[i++] = chunkPos;
+                    }
+                }
+            }
+            for (FileSystem zip : chunkZips.values()) {
+                zip.close();
+            }
+            chunkRegionStore.flush();
+
+            for (int j = loadOrder.length - 1; j > 0; j--) {
+                int k = random.nextInt(j + 1);
+                Vector3i swap = loadOrder[j];
+                loadOrder[j] = loadOrder[k];
+                loadOrder[k] = swap;
+            }
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            chunkRegionStore.close();
+            FilesUtil.recursiveDelete(savePath);
+        }
+    }
+}
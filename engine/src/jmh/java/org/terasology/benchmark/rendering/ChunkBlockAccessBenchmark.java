@@ -0,0 +1,65 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.benchmark.rendering;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terasology.engine.rendering.primitives.ChunkMesh;
+import org.terasology.engine.rendering.primitives.ChunkMeshImpl;
+import org.terasology.engine.rendering.primitives.ChunkTessellator;
+import org.terasology.engine.world.block.Block;
+import org.terasology.engine.world.chunks.Chunks;
+import org.terasology.engine.world.internal.ChunkViewCore;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the chunks per second tessellated by reading the blocks through the chunk view, as the tessellator used to,
+ * against the tessellator, which reads them from a flat copy of the chunk.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class ChunkBlockAccessBenchmark {
+
+    @Benchmark
+    public ChunkMesh viewAccess(StateObject state) {
+        ChunkMesh mesh = new ChunkMeshImpl();
+        ChunkViewCore view = state.view;
+        for (int y = 0; y < Chunks.SIZE_Y; y++) {
+            for (int z = 0; z < Chunks.SIZE_Z; z++) {
+                for (int x = 0; x < Chunks.SIZE_X; x++) {
+                    Block block = view.getBlock(x, y, z);
+                    block.getMeshGenerator().generateChunkMesh(view, mesh, x, y, z);
+                }
+            }
+        }
+        return mesh;
+    }
+
+    @Benchmark
+    public ChunkMesh bufferedAccess(StateObject state) {
+        return state.tessellator.generateMesh(state.view);
+    }
+
+    @State(Scope.Thread)
+    public static class StateObject {
+        private ChunkTessellator tessellator;
+        private ChunkViewCore view;
+
+        @Setup
+        public void setup() {
+            tessellator = new ChunkTessellator(false);
+            view = TerrainChunks.createView();
+        }
+    }
+}
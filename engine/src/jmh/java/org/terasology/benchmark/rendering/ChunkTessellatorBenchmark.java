@@ -0,0 +1,65 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.benchmark.rendering;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.terasology.engine.rendering.primitives.ChunkMesh;
+import org.terasology.engine.rendering.primitives.ChunkTessellator;
+import org.terasology.engine.world.internal.ChunkViewCore;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many chunk meshes per second the {@link ChunkTessellator} generates from a chunk of rolling terrain,
+ * with and without greedy meshing.
+ * <br><br>
+ * The {@code vertices} counter reports the generated vertices per second, so dividing it by the score gives the number
+ * of vertices per chunk mesh.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class ChunkTessellatorBenchmark {
+
+    @Benchmark
+    public ChunkMesh generateMesh(StateObject state, VertexCounter counter) {
+        ChunkMesh mesh = state.tessellator.generateMesh(state.view);
+        for (ChunkMesh.RenderType type : ChunkMesh.RenderType.values()) {
+            counter.vertices += mesh.getVertexElements(type).vertexCount;
+        }
+        return mesh;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class VertexCounter {
+        public long vertices;
+    }
+
+    @State(Scope.Thread)
+    public static class StateObject {
+        @Param({"false", "true"})
+        private boolean greedyMeshing;
+
+        private ChunkTessellator tessellator;
+        private ChunkViewCore view;
+
+        @Setup
+        public void setup() {
+            tessellator = new ChunkTessellator(greedyMeshing);
+            view = TerrainChunks.createView();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.benchmark.rendering;
+
+import com.google.common.collect.Maps;
+import org.joml.Vector2f;
+import org.joml.Vector3f;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.terasology.engine.math.Side;
+import org.terasology.engine.rendering.primitives.BlockMeshGeneratorSingleShape;
+import org.terasology.engine.world.block.Block;
+import org.terasology.engine.world.block.BlockAppearance;
+import org.terasology.engine.world.block.BlockManager;
+import org.terasology.engine.world.block.BlockPart;
+import org.terasology.engine.world.block.BlockRegion;
+import org.terasology.engine.world.block.BlockUri;
+import org.terasology.engine.world.block.family.BlockFamily;
+import org.terasology.engine.world.block.shapes.BlockMeshPart;
+import org.terasology.engine.world.chunks.Chunk;
+import org.terasology.engine.world.chunks.Chunks;
+import org.terasology.engine.world.chunks.blockdata.TeraArray;
+import org.terasology.engine.world.chunks.blockdata.TeraDenseArray16Bit;
+import org.terasology.engine.world.chunks.internal.ChunkImpl;
+import org.terasology.engine.world.internal.ChunkViewCore;
+import org.terasology.engine.world.internal.ChunkViewCoreImpl;
+import org.terasology.gestalt.assets.ResourceUrn;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rolling terrain of cube blocks lit by the sun, built without an asset manager, for the tessellation benchmarks.
+ */
+final class TerrainChunks {
+    private static final float ATLAS_TILE_SIZE = 0.0625f;
+
+    private TerrainChunks() {
+    }
+
+    /**
+     * @return a view of the chunk at the origin and its neighbours, as the chunk mesh worker gets it
+     */
+    static ChunkViewCore createView() {
+        Block air = createBlock(0, "air", null);
+        Block stone = createBlock(1, "stone", new Vector2f(0, 0));
+        Block dirt = createBlock(2, "dirt", new Vector2f(ATLAS_TILE_SIZE, 0));
+        Block grass = createBlock(3, "grass", new Vector2f(2 * ATLAS_TILE_SIZE, 0));
+        grass.setGrass(true);
+        air.setTranslucent(true);
+        air.setShadowCasting(false);
+        TerrainBlockManager blockManager = new TerrainBlockManager(air, stone, dirt, grass);
+
+        BlockRegion region = new BlockRegion(0, 0, 0).expand(1, 1, 1);
+        Chunk[] chunks = new Chunk[region.volume()];
+        for (Vector3ic chunkPos : region) {
+            Chunk chunk = new ChunkImpl(chunkPos, new TeraDenseArray16Bit(Chunks.SIZE_X, Chunks.SIZE_Y, Chunks.SIZE_Z),
+                    new TeraArray[0], blockManager);
+            for (int z = 0; z < Chunks.SIZE_Z; z++) {
+                for (int x = 0; x < Chunks.SIZE_X; x++) {
+                    int worldX = chunkPos.x() * Chunks.SIZE_X + x;
+                    int worldZ = chunkPos.z() * Chunks.SIZE_Z + z;
+                    int height = Chunks.SIZE_Y / 2 + (int) (4 * Math.sin(worldX * 0.2) * Math.cos(worldZ * 0.15))
+                            + Math.floorMod(worldX * 7 + worldZ * 13, 5) / 4;
+                    for (int y = 0; y < Chunks.SIZE_Y; y++) {
+                        int worldY = chunkPos.y() * Chunks.SIZE_Y + y;
+                        Block block = worldY > height ? air : worldY == height ? grass : worldY > height - 4 ? dirt : stone;
+                        chunk.setBlock(x, y, z, block);
+                        chunk.setSunlight(x, y, z, worldY > height ? Chunks.MAX_SUNLIGHT : 0);
+                    }
+                }
+            }
+            int index = (chunkPos.x() - region.minX()) + region.getSizeX()
+                    * ((chunkPos.z() - region.minZ()) + region.getSizeZ() * (chunkPos.y() - region.minY()));
+            chunks[index] = chunk;
+        }
+        return new ChunkViewCoreImpl(chunks, region, new Vector3i(1, 1, 1), air);
+    }
+
+    private static Block createBlock(int id, String name, Vector2f atlasPos) {
+        Block block = new Block();
+        block.setId((short) id);
+        block.setUri(new BlockUri(new ResourceUrn("engine", name)));
+        if (atlasPos != null) {
+            Map<BlockPart, BlockMeshPart> parts = Maps.newEnumMap(BlockPart.class);
+            Map<BlockPart, Vector2f> atlasPositions = Maps.newEnumMap(BlockPart.class);
+            for (Side side : Side.allSides()) {
+                BlockPart part = BlockPart.fromSide(side);
+                parts.put(part, createFace(side).mapTexCoords(atlasPos, ATLAS_TILE_SIZE, 1));
+                atlasPositions.put(part, atlasPos);
+                block.setFullSide(side, true);
+            }
+            block.setPrimaryAppearance(new BlockAppearance(parts, atlasPositions));
+        }
+        block.setMeshGenerator(new BlockMeshGeneratorSingleShape(block));
+        return block;
+    }
+
+    /**
+     * Creates the face of a unit cube on the given side, wound counter-clockwise when seen from outside.
+     */
+    private static BlockMeshPart createFace(Side side) {
+        Vector3ic direction = side.direction();
+        int d = direction.x() != 0 ? 0 : direction.y() != 0 ? 1 : 2;
+        int u = (d + 1) % 3;
+        int v = (d + 2) % 3;
+        float[][] corners = direction.get(d) > 0
+                ? new float[][]{{-0.5f, -0.5f}, {0.5f, -0.5f}, {0.5f, 0.5f}, {-0.5f, 0.5f}}
+                : new float[][]{{-0.5f, -0.5f}, {-0.5f, 0.5f}, {0.5f, 0.5f}, {0.5f, -0.5f}};
+        Vector3f[] vertices = new Vector3f[4];
+        Vector3f[] normals = new Vector3f[4];
+        Vector2f[] texCoords = new Vector2f[4];
+        for (int i = 0; i < 4; i++) {
+            vertices[i] = new Vector3f();
+            vertices[i].setComponent(d, 0.5f * direction.get(d));
+            vertices[i].setComponent(u, corners[i][0]);
+            vertices[i].setComponent(v, corners[i][1]);
+            normals[i] = new Vector3f(direction);
+            texCoords[i] = new Vector2f(corners[i][0] + 0.5f, corners[i][1] + 0.5f);
+        }
+        return new BlockMeshPart(vertices, normals, texCoords, new int[]{0, 1, 2, 0, 2, 3});
+    }
+
+    /**
+     * Resolves the ids of the terrain blocks, which is all the chunks need.
+     */
+    private static final class TerrainBlockManager extends BlockManager {
+        private final List<Block> blocks;
+
+        private TerrainBlockManager(Block... blocks) {
+            this.blocks = Arrays.asList(blocks);
+        }
+
+        @Override
+        public Block getBlock(short id) {
+            return blocks.get(id);
+        }
+
+        @Override
+        public Collection<Block> listRegisteredBlocks() {
+            return blocks;
+        }
+
+        @Override
+        public Map<String, Short> getBlockIdMap() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public BlockFamily getBlockFamily(String uri) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public BlockFamily getBlockFamily(BlockUri uri) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Block getBlock(String uri) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Block getBlock(BlockUri uri) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Collection<BlockUri> listRegisteredBlockUris() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Collection<BlockFamily> listRegisteredBlockFamilies() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getBlockFamilyCount() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.benchmark.world;
+
+import org.joml.Vector2ic;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.terasology.engine.utilities.procedural.SimplexNoise;
+import org.terasology.engine.world.chunks.Chunk;
+import org.terasology.engine.world.chunks.Chunks;
+import org.terasology.engine.world.chunks.blockdata.TeraArray;
+import org.terasology.engine.world.chunks.blockdata.TeraSparseArray16Bit;
+import org.terasology.engine.world.chunks.internal.ChunkImpl;
+import org.terasology.engine.world.generation.EntityBuffer;
+import org.terasology.engine.world.generation.Facet;
+import org.terasology.engine.world.generation.FacetBorder;
+import org.terasology.engine.world.generation.FacetCache;
+import org.terasology.engine.world.generation.FacetProvider;
+import org.terasology.engine.world.generation.GeneratingRegion;
+import org.terasology.engine.world.generation.Produces;
+import org.terasology.engine.world.generation.Region;
+import org.terasology.engine.world.generation.Requires;
+import org.terasology.engine.world.generation.World;
+import org.terasology.engine.world.generation.WorldBuilder;
+import org.terasology.engine.world.generation.WorldRasterizer;
+import org.terasology.engine.world.generation.facets.DensityFacet;
+import org.terasology.engine.world.generation.facets.ElevationFacet;
+import org.terasology.engine.world.generation.facets.SurfaceHumidityFacet;
+import org.terasology.engine.world.generation.facets.SurfaceTemperatureFacet;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the world generation throughput with and without the facet cache, in columns of chunks per second. The
+ * columns are generated along a line which never comes back, so every column misses the cache once.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class WorldGenerationBenchmark {
+    private static final int COLUMN_HEIGHT = 8;
+
+    @Benchmark
+    public void rasterizeColumn(StateObject state, Blackhole blackhole) {
+        int columnX = state.nextColumn++;
+        for (int y = 0; y < COLUMN_HEIGHT; y++) {
+            Chunk chunk = new ChunkImpl(new Vector3i(columnX, y, 0), new TeraSparseArray16Bit(Chunks.SIZE_X,
+                    Chunks.SIZE_Y, Chunks.SIZE_Z), new TeraArray[0], null);
+            state.world.rasterizeChunk(chunk, state.entityBuffer);
+            blackhole.consume(state.rasterizer.sum);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class StateObject {
+        @Param({"0", "512"})
+        private String facetCacheSize;
+
+        private World world;
+        private FacetReader rasterizer;
+        private EntityBuffer entityBuffer;
+        private int nextColumn;
+
+        @Setup
+        public void setup() {
+            System.setProperty(FacetCache.MAX_SIZE_PROPERTY, facetCacheSize);
+            rasterizer = new FacetReader();
+            WorldBuilder worldBuilder = new WorldBuilder(null);
+            worldBuilder.setSeed(12);
+            worldBuilder.addProvider(new ElevationProvider());
+            worldBuilder.addProvider(new ClimateProvider());
+            worldBuilder.addProvider(new DensityProvider());
+            worldBuilder.addRasterizer(rasterizer);
+            world = worldBuilder.build();
+            world.initialize();
+            entityBuffer = entity -> { };
+        }
+    }
+
+    @Produces(ElevationFacet.class)
+    public static class ElevationProvider implements FacetProvider {
+        private SimplexNoise noise;
+
+        @Override
+        public void setSeed(long seed) {
+            noise = new SimplexNoise(seed);
+        }
+
+        @Override
+        public void process(GeneratingRegion region) {
+            ElevationFacet facet = new ElevationFacet(region.getRegion(), region.getBorderForFacet(ElevationFacet.class));
+            for (Vector2ic pos : facet.getWorldArea()) {
+                float height = 0;
+                for (int octave = 0; octave < 4; octave++) {
+                    float frequency = 0.01f * (1 << octave);
+                    height += noise.noise(pos.x() * frequency, pos.y() * frequency) * 64 / (1 << octave);
+                }
+                facet.setWorld(pos, 128 + height);
+            }
+            region.setRegionFacet(ElevationFacet.class, facet);
+        }
+    }
+
+    @Produces({SurfaceTemperatureFacet.class, SurfaceHumidityFacet.class})
+    public static class ClimateProvider implements FacetProvider {
+        private SimplexNoise noise;
+
+        @Override
+        public void setSeed(long seed) {
+            noise = new SimplexNoise(seed + 1);
+        }
+
+        @Override
+        public void process(GeneratingRegion region) {
+            SurfaceTemperatureFacet temperature = new SurfaceTemperatureFacet(region.getRegion(),
+                    region.getBorderForFacet(SurfaceTemperatureFacet.class));
+            SurfaceHumidityFacet humidity = new SurfaceHumidityFacet(region.getRegion(),
+                    region.getBorderForFacet(SurfaceHumidityFacet.class));
+            for (Vector2ic pos : temperature.getWorldArea()) {
+                temperature.setWorld(pos, noise.noise(pos.x() * 0.002f, pos.y() * 0.002f));
+                humidity.setWorld(pos, noise.noise(pos.y() * 0.002f, pos.x() * 0.002f));
+            }
+            region.setRegionFacet(SurfaceTemperatureFacet.class, temperature);
+            region.setRegionFacet(SurfaceHumidityFacet.class, humidity);
+        }
+    }
+
+    @Produces(DensityFacet.class)
+    @Requires(@Facet(value = ElevationFacet.class, border = @FacetBorder(sides = 1)))
+    public static class DensityProvider implements FacetProvider {
+
+        @Override
+        public void process(GeneratingRegion region) {
+            ElevationFacet elevation = region.getRegionFacet(ElevationFacet.class);
+            DensityFacet density = new DensityFacet(region.getRegion(), region.getBorderForFacet(DensityFacet.class));
+            for (Vector3ic pos : density.getWorldRegion()) {
+                density.setWorld(pos, elevation.getWorld(pos.x(), pos.z()) - pos.y());
+            }
+            region.setRegionFacet(DensityFacet.class, density);
+        }
+    }
+
+    /**
+     * Reads the facets instead of placing blocks, so the benchmark measures the facet generation.
+     */
+    @Requires({@Facet(DensityFacet.class), @Facet(SurfaceTemperatureFacet.class), @Facet(SurfaceHumidityFacet.class)})
+    public static class FacetReader implements WorldRasterizer {
+        private float sum;
+
+        @Override
+        public void initialize() {
+        }
+
+        @Override
+        public void generateChunk(Chunk chunk, Region chunkRegion) {
+            DensityFacet density = chunkRegion.getFacet(DensityFacet.class);
+            SurfaceTemperatureFacet temperature = chunkRegion.getFacet(SurfaceTemperatureFacet.class);
+            SurfaceHumidityFacet humidity = chunkRegion.getFacet(SurfaceHumidityFacet.class);
+            Vector3ic min = chunk.getRegion().getMin(new Vector3i());
+            sum = density.getWorld(min) + temperature.getWorld(min.x(), min.z()) + humidity.getWorld(min.x(), min.z());
+        }
+    }
+}
@@ -19,6 +19,12 @@ public class NetworkConfig {
      */
     private int upstreamBandwidth;
 
+    /**
+     * Upstream bandwidth per client for streaming chunks in kilobits per second, or 0 to use the client's share of the
+     * upstream bandwidth
+     */
+    private int chunkStreamingBandwidth;
+
     /**
      * The port that is used for hosting
      */
@@ -46,6 +52,14 @@ public void setUpstreamBandwidth(int upstreamBandwidth) {
         this.upstreamBandwidth = upstreamBandwidth;
     }
 
+    public int getChunkStreamingBandwidth() {
+        return chunkStreamingBandwidth;
+    }
+
+    public void setChunkStreamingBandwidth(int chunkStreamingBandwidth) {
+        this.chunkStreamingBandwidth = chunkStreamingBandwidth;
+    }
+
     public int getServerPort() {
         return serverPort;
     }
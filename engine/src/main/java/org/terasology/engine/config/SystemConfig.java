@@ -27,6 +27,7 @@
 public class SystemConfig extends AutoConfig {
     public static final String SAVED_GAMES_ENABLED_PROPERTY = "org.terasology.savedGamesEnabled";
     public static final String PERMISSIVE_SECURITY_ENABLED_PROPERTY = "org.terasology.permissiveSecurityEnabled";
+    public static final String INCREMENTAL_AUTO_SAVE_PROPERTY = "org.terasology.incrementalAutoSave";
 
     public final Setting<Long> dayNightLengthInMs = setting(
             type(Long.class),
@@ -56,6 +57,15 @@ public class SystemConfig extends AutoConfig {
             constraint(new NumberRangeConstraint<>(0, 100, false, false))
     );
 
+    public final Setting<Boolean> incrementalAutoSaveEnabled = setting(
+            type(Boolean.class),
+            defaultValue(false),
+            name("${engine:menu#settings-incremental-auto-save}"),
+            override(() -> Optional.ofNullable(
+                    System.getProperty(INCREMENTAL_AUTO_SAVE_PROPERTY))
+                    .map(Boolean::parseBoolean))
+    );
+
     public final Setting<Boolean> debugEnabled = setting(
             type(Boolean.class),
             defaultValue(false),
@@ -51,6 +51,7 @@ public class ComponentSystemManager {
     private List<UpdateSubscriberSystem> updateSubscribers = Lists.newArrayList();
     private List<RenderSystem> renderSubscribers = Lists.newArrayList();
     private List<ComponentSystem> store = Lists.newArrayList();
+    private UpdateSystemScheduler updateScheduler = UpdateSystemScheduler.createDefault();
 
     private Console console;
     private Context context;
@@ -125,6 +126,7 @@ private void rollbackLoading(ComponentSystem system, String id) {
             // rollback this#register
             if (system instanceof UpdateSubscriberSystem) {
                 updateSubscribers.remove((UpdateSubscriberSystem) system);
+                updateScheduler.invalidate();
             }
             if (system instanceof RenderSystem) {
                 renderSubscribers.remove((RenderSystem) system);
@@ -170,6 +172,7 @@ public void register(ComponentSystem object) {
         store.add(object);
         if (object instanceof UpdateSubscriberSystem) {
             updateSubscribers.add((UpdateSubscriberSystem) object);
+            updateScheduler.invalidate();
         }
         if (object instanceof RenderSystem) {
             renderSubscribers.add((RenderSystem) object);
@@ -230,6 +233,15 @@ public Iterable<UpdateSubscriberSystem> iterateUpdateSubscribers() {
         return updateSubscribers;
     }
 
+    /**
+     * Updates all update subscribers, as scheduled by the {@link UpdateSystemScheduler}.
+     *
+     * @param delta The time (in seconds) since the last engine update.
+     */
+    public void updateSubscribers(float delta) {
+        updateScheduler.update(updateSubscribers, delta);
+    }
+
     public Iterable<RenderSystem> iterateRenderSubscribers() {
         return renderSubscribers;
     }
@@ -240,5 +252,7 @@ public void shutdown() {
         }
         updateSubscribers.clear();
         renderSubscribers.clear();
+        updateScheduler.invalidate();
+        updateScheduler.shutdown();
     }
 }
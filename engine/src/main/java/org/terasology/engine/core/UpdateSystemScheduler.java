@@ -0,0 +1,228 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.core;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.engine.entitySystem.systems.UpdateSchedule;
+import org.terasology.engine.entitySystem.systems.UpdateSubscriberSystem;
+import org.terasology.engine.monitoring.PerformanceMonitor;
+import org.terasology.gestalt.entitysystem.component.Component;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Updates the {@link UpdateSubscriberSystem}s once per tick.
+ * <br><br>
+ * Systems are grouped into waves: every system is in a later wave than all systems it has to be updated after, either
+ * because their component access conflicts or because of an ordering declared with {@link UpdateSchedule}. The systems
+ * of a wave are independent of each other, so when a worker pool is available and a wave contains several systems,
+ * they are updated concurrently on that pool. Otherwise all systems are updated on the main thread in registration
+ * order, as without the scheduler.
+ * <br><br>
+ * The time spent in each system is reported to the {@link PerformanceMonitor} under the system's simple class name.
+ */
+public class UpdateSystemScheduler {
+    /**
+     * System property enabling concurrent updates of systems annotated with {@link UpdateSchedule}.
+     */
+    public static final String PARALLEL_UPDATE_PROPERTY = "org.terasology.parallelUpdateSystems";
+
+    private static final Logger logger = LoggerFactory.getLogger(UpdateSystemScheduler.class);
+
+    private final ForkJoinPool pool;
+    private List<List<UpdateSubscriberSystem>> waves;
+
+    /**
+     * @param pool the pool to update independent systems on, or null to update all systems on the main thread
+     */
+    public UpdateSystemScheduler(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @return a scheduler using a worker pool if {@link #PARALLEL_UPDATE_PROPERTY} is set, or one that doesn't otherwise
+     */
+    public static UpdateSystemScheduler createDefault() {
+        if (Boolean.getBoolean(PARALLEL_UPDATE_PROPERTY)) {
+            return new UpdateSystemScheduler(new ForkJoinPool(Runtime.getRuntime().availableProcessors()));
+        }
+        return new UpdateSystemScheduler(null);
+    }
+
+    /**
+     * Drops the current waves, to be planned again on the next update. Must be called whenever systems are added or
+     * removed.
+     */
+    public void invalidate() {
+        waves = null;
+    }
+
+    public void update(List<UpdateSubscriberSystem> systems, float delta) {
+        if (pool == null) {
+            for (UpdateSubscriberSystem system : systems) {
+                updateOnMainThread(system, delta);
+            }
+            return;
+        }
+
+        if (waves == null) {
+            waves = planWaves(systems);
+        }
+        for (List<UpdateSubscriberSystem> wave : waves) {
+            if (wave.size() == 1) {
+                updateOnMainThread(wave.get(0), delta);
+            } else {
+                updateConcurrently(wave, delta);
+            }
+        }
+    }
+
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+            try {
+                if (!pool.awaitTermination(5, TimeUnit.SECONDS)) {
+                    logger.warn("Timed out awaiting update system threads");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void updateOnMainThread(UpdateSubscriberSystem system, float delta) {
+        PerformanceMonitor.startActivity(system.getClass().getSimpleName());
+        system.update(delta);
+        PerformanceMonitor.endActivity();
+    }
+
+    private void updateConcurrently(List<UpdateSubscriberSystem> wave, float delta) {
+        long[] executionTimes = new long[wave.size()];
+        List<ForkJoinTask<?>> tasks = Lists.newArrayListWithCapacity(wave.size());
+        for (int i = 0; i < wave.size(); i++) {
+            UpdateSubscriberSystem system = wave.get(i);
+            int index = i;
+            tasks.add(pool.submit(() -> {
+                long start = System.nanoTime();
+                system.update(delta);
+                executionTimes[index] = System.nanoTime() - start;
+            }));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+        for (int i = 0; i < wave.size(); i++) {
+            PerformanceMonitor.recordActivity(wave.get(i).getClass().getSimpleName(),
+                    TimeUnit.NANOSECONDS.toMillis(executionTimes[i]));
+        }
+    }
+
+    /**
+     * Groups the systems into waves that can be updated one after another, with the systems in one wave being
+     * independent of each other. Within a wave, systems keep their registration order.
+     *
+     * @param systems the systems in registration order
+     * @return the waves, in the order they have to be updated
+     */
+    public static List<List<UpdateSubscriberSystem>> planWaves(List<UpdateSubscriberSystem> systems) {
+        int count = systems.size();
+        boolean[][] precedes = new boolean[count][count];
+        for (int i = 0; i < count; i++) {
+            for (int j = i + 1; j < count; j++) {
+                if (conflict(systems.get(i), systems.get(j))) {
+                    precedes[i][j] = true;
+                }
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            UpdateSchedule schedule = systems.get(i).getClass().getAnnotation(UpdateSchedule.class);
+            if (schedule == null) {
+                continue;
+            }
+            for (int j = 0; j < count; j++) {
+                Class<?> other = systems.get(j).getClass();
+                if (Arrays.asList(schedule.after()).contains(other)) {
+                    precedes[j][i] = true;
+                    precedes[i][j] = false;
+                }
+                if (Arrays.asList(schedule.before()).contains(other)) {
+                    precedes[i][j] = true;
+                    precedes[j][i] = false;
+                }
+            }
+        }
+
+        // Each system goes one wave after the latest system preceding it; resolved in dependency order
+        int[] level = new int[count];
+        int[] pending = new int[count];
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < count; j++) {
+                if (precedes[j][i]) {
+                    pending[i]++;
+                }
+            }
+        }
+        List<Integer> ready = Lists.newArrayList();
+        for (int i = 0; i < count; i++) {
+            if (pending[i] == 0) {
+                ready.add(i);
+            }
+        }
+        int resolved = 0;
+        int waveCount = 0;
+        while (!ready.isEmpty()) {
+            int i = ready.remove(0);
+            resolved++;
+            waveCount = Math.max(waveCount, level[i] + 1);
+            for (int j = 0; j < count; j++) {
+                if (precedes[i][j]) {
+                    level[j] = Math.max(level[j], level[i] + 1);
+                    if (--pending[j] == 0) {
+                        ready.add(j);
+                    }
+                }
+            }
+        }
+        if (resolved < count) {
+            logger.warn("Update systems have circular ordering constraints, updating them one after another");
+            List<List<UpdateSubscriberSystem>> sequential = Lists.newArrayList();
+            for (UpdateSubscriberSystem system : systems) {
+                sequential.add(Collections.singletonList(system));
+            }
+            return sequential;
+        }
+
+        List<List<UpdateSubscriberSystem>> waves = Lists.newArrayList();
+        for (int w = 0; w < waveCount; w++) {
+            waves.add(Lists.newArrayList());
+        }
+        for (int i = 0; i < count; i++) {
+            waves.get(level[i]).add(systems.get(i));
+        }
+        return waves;
+    }
+
+    private static boolean conflict(UpdateSubscriberSystem first, UpdateSubscriberSystem second) {
+        UpdateSchedule a = first.getClass().getAnnotation(UpdateSchedule.class);
+        UpdateSchedule b = second.getClass().getAnnotation(UpdateSchedule.class);
+        if (a == null || b == null) {
+            return true;
+        }
+        return writesAnyOf(a, b) || writesAnyOf(b, a);
+    }
+
+    private static boolean writesAnyOf(UpdateSchedule writer, UpdateSchedule other) {
+        Set<Class<? extends Component>> written = Sets.newHashSet(writer.writes());
+        return !Collections.disjoint(written, Arrays.asList(other.reads()))
+                || !Collections.disjoint(written, Arrays.asList(other.writes()));
+    }
+}
@@ -5,6 +5,7 @@
 
 import org.terasology.engine.audio.events.PlaySoundEvent;
 import org.terasology.engine.context.Context;
+import org.terasology.engine.core.GameScheduler;
 import org.terasology.engine.core.module.ModuleManager;
 import org.terasology.engine.entitySystem.entity.EntityManager;
 import org.terasology.engine.entitySystem.entity.EntityRef;
@@ -161,8 +162,11 @@ private static EventSystem createEventSystem(NetworkSystem networkSystem,
                     recordAndReplaySerializer, recordAndReplayUtils, selectedClassesToRecord, recordAndReplayCurrentStatus);
         } else {
             EventCatcher eventCatcher = new EventCatcher(selectedClassesToRecord, recordedEventStore);
-            eventSystem = new EventSystemImpl(networkSystem.getMode().isAuthority());
-            eventSystem = new NetworkEventSystemDecorator(eventSystem, networkSystem, library.getEventLibrary());
+            EventSystemImpl eventSystemImpl = new EventSystemImpl(networkSystem.getMode().isAuthority());
+            if (Boolean.getBoolean(EventSystemImpl.PARALLEL_DISPATCH_PROPERTY)) {
+                eventSystemImpl.setParallelDispatchScheduler(GameScheduler.parallel());
+            }
+            eventSystem = new NetworkEventSystemDecorator(eventSystemImpl, networkSystem, library.getEventLibrary());
             eventSystem = new RecordingEventSystemDecorator(eventSystem, eventCatcher, recordAndReplayCurrentStatus);
         }
         return eventSystem;
@@ -15,7 +15,6 @@
 import org.terasology.engine.entitySystem.entity.internal.EngineEntityManager;
 import org.terasology.engine.entitySystem.event.internal.EventSystem;
 import org.terasology.engine.entitySystem.prefab.Prefab;
-import org.terasology.engine.entitySystem.systems.UpdateSubscriberSystem;
 import org.terasology.engine.game.GameManifest;
 import org.terasology.engine.identity.storageServiceClient.StorageServiceWorker;
 import org.terasology.engine.input.InputSystem;
@@ -182,11 +181,7 @@ public void update(float delta) {
 
         eventSystem.process();
 
-        for (UpdateSubscriberSystem system : componentSystemManager.iterateUpdateSubscribers()) {
-            PerformanceMonitor.startActivity(system.getClass().getSimpleName());
-            system.update(delta);
-            PerformanceMonitor.endActivity();
-        }
+        componentSystemManager.updateSubscribers(delta);
 
         if (worldRenderer != null && shouldUpdateWorld()) {
             worldRenderer.update(delta);
@@ -0,0 +1,464 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.entitySystem.entity.internal;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import gnu.trove.iterator.TLongIterator;
+import gnu.trove.iterator.TLongObjectIterator;
+import gnu.trove.list.array.TLongArrayList;
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+import org.terasology.gestalt.entitysystem.component.Component;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A {@link ComponentTable} that groups entities by archetype, the exact set of component classes they have.
+ * <br><br>
+ * Each archetype stores the ids of its entities in a dense array, alongside one dense component column per component
+ * class. Looking up the components of an entity costs one hash lookup regardless of how many component classes exist,
+ * and finding all entities with a set of components only visits the archetypes that contain all of them, without
+ * probing individual entities.
+ * <br><br>
+ * Adding or removing a component moves the entity to another archetype. The transitions between archetypes are cached,
+ * so entities repeatedly gaining and losing the same component don't need to look up their target archetype again.
+ * <br><br>
+ * Like {@link MapComponentTable}, this table is meant to be modified from the main thread only.
+ */
+public class ArchetypeComponentTable implements ComponentTable {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<Class<?>, Integer> typeIds = Maps.newHashMap();
+    private final List<Class<?>> types = Lists.newArrayList();
+    private final Map<List<Class<?>>, Archetype> archetypesByTypes = Maps.newHashMap();
+    private final List<Archetype> archetypes = Lists.newArrayList();
+    private final TLongObjectMap<Location> locations = new TLongObjectHashMap<>();
+    /** The archetype without any components, only used as the starting point for the transitions of new entities. */
+    private final Archetype root = archetypeFor(Collections.emptyList());
+
+    @Override
+    public <T extends Component> T get(long entityId, Class<T> componentClass) {
+        Location location = locations.get(entityId);
+        if (location == null) {
+            return null;
+        }
+        Integer typeId = typeIds.get(componentClass);
+        if (typeId == null) {
+            return null;
+        }
+        Archetype archetype = location.archetype;
+        int column = archetype.columnOf(typeId);
+        if (column < 0) {
+            return null;
+        }
+        return componentClass.cast(archetype.columns[column][location.row]);
+    }
+
+    @Override
+    public Component put(long entityId, Component component) {
+        int typeId = typeId(component.getClass());
+        Location location = locations.get(entityId);
+        if (location == null) {
+            location = new Location();
+            locations.put(entityId, location);
+            Archetype target = root.withEdge(typeId, this);
+            target.add(entityId, location);
+            target.columns[0][location.row] = component;
+            return null;
+        }
+
+        Archetype archetype = location.archetype;
+        int column = archetype.columnOf(typeId);
+        if (column >= 0) {
+            Component old = archetype.columns[column][location.row];
+            archetype.columns[column][location.row] = component;
+            return old;
+        }
+
+        Archetype target = archetype.withEdge(typeId, this);
+        move(entityId, location, target);
+        target.columns[target.columnOf(typeId)][location.row] = component;
+        return null;
+    }
+
+    @Override
+    public <T extends Component> Component remove(long entityId, Class<T> componentClass) {
+        Location location = locations.get(entityId);
+        Integer typeId = typeIds.get(componentClass);
+        if (location == null || typeId == null) {
+            return null;
+        }
+        Archetype archetype = location.archetype;
+        int column = archetype.columnOf(typeId);
+        if (column < 0) {
+            return null;
+        }
+        Component removed = archetype.columns[column][location.row];
+        if (archetype.types.length == 1) {
+            archetype.removeRow(location.row);
+            locations.remove(entityId);
+        } else {
+            move(entityId, location, archetype.withoutEdge(typeId, this));
+        }
+        return removed;
+    }
+
+    @Override
+    public List<Component> removeAndReturnComponentsOf(long entityId) {
+        Location location = locations.remove(entityId);
+        if (location == null) {
+            return Lists.newArrayList();
+        }
+        List<Component> components = location.archetype.componentsAt(location.row);
+        location.archetype.removeRow(location.row);
+        return components;
+    }
+
+    @Override
+    public void remove(long entityId) {
+        Location location = locations.remove(entityId);
+        if (location != null) {
+            location.archetype.removeRow(location.row);
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (Archetype archetype : archetypes) {
+            archetype.clear();
+        }
+        locations.clear();
+    }
+
+    @Override
+    public int getComponentCount(Class<? extends Component> componentClass) {
+        Integer typeId = typeIds.get(componentClass);
+        if (typeId == null) {
+            return 0;
+        }
+        int count = 0;
+        for (Archetype archetype : archetypes) {
+            if (archetype.columnOf(typeId) >= 0) {
+                count += archetype.size;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public Iterable<Component> iterateComponents(long entityId) {
+        return getComponentsInNewList(entityId);
+    }
+
+    @Override
+    public List<Component> getComponentsInNewList(long entityId) {
+        Location location = locations.get(entityId);
+        if (location == null) {
+            return Lists.newArrayList();
+        }
+        return location.archetype.componentsAt(location.row);
+    }
+
+    @Override
+    public <T extends Component> TLongObjectIterator<T> componentIterator(Class<T> componentClass) {
+        Integer typeId = typeIds.get(componentClass);
+        if (typeId == null) {
+            return null;
+        }
+        List<Archetype> matching = Lists.newArrayList();
+        for (Archetype archetype : archetypes) {
+            if (archetype.columnOf(typeId) >= 0) {
+                matching.add(archetype);
+            }
+        }
+        return new ColumnIterator<>(matching, typeId);
+    }
+
+    @Override
+    public TLongIterator entityIdIterator() {
+        TLongArrayList ids = new TLongArrayList(locations.size());
+        for (Archetype archetype : archetypes) {
+            ids.add(archetype.entityIds, 0, archetype.size);
+        }
+        return ids.iterator();
+    }
+
+    @Override
+    public TLongIterator entityIdIterator(Class<? extends Component>[] componentClasses) {
+        int[] required = new int[componentClasses.length];
+        for (int i = 0; i < componentClasses.length; i++) {
+            Integer typeId = typeIds.get(componentClasses[i]);
+            if (typeId == null) {
+                return new TLongArrayList(0).iterator();
+            }
+            required[i] = typeId;
+        }
+        // Copy the ids of the matching archetypes, so that entities can move between archetypes while iterating
+        TLongArrayList ids = new TLongArrayList();
+        for (Archetype archetype : archetypes) {
+            if (archetype.hasAll(required)) {
+                ids.add(archetype.entityIds, 0, archetype.size);
+            }
+        }
+        return new FilteringEntityIdIterator(ids.iterator(), id -> {
+            Location location = locations.get(id);
+            return location != null && location.archetype.hasAll(required);
+        });
+    }
+
+    @Override
+    public int numEntities() {
+        return locations.size();
+    }
+
+    /**
+     * @return the number of distinct sets of components seen so far, including those no entity currently has.
+     */
+    public int getArchetypeCount() {
+        return archetypes.size() - 1;
+    }
+
+    private int typeId(Class<?> componentClass) {
+        Integer typeId = typeIds.get(componentClass);
+        if (typeId == null) {
+            typeId = types.size();
+            typeIds.put(componentClass, typeId);
+            types.add(componentClass);
+        }
+        return typeId;
+    }
+
+    private Archetype archetypeFor(List<Class<?>> types) {
+        List<Class<?>> sorted = Lists.newArrayList(types);
+        sorted.sort((a, b) -> Integer.compare(typeId(a), typeId(b)));
+        Archetype archetype = archetypesByTypes.get(sorted);
+        if (archetype == null) {
+            archetype = new Archetype(sorted, this);
+            archetypesByTypes.put(sorted, archetype);
+            archetypes.add(archetype);
+        }
+        return archetype;
+    }
+
+    /**
+     * Moves an entity to another archetype, carrying over all components the target archetype has a column for.
+     */
+    private void move(long entityId, Location location, Archetype target) {
+        Archetype source = location.archetype;
+        int sourceRow = location.row;
+        Component[] carried = new Component[target.types.length];
+        for (int i = 0; i < target.types.length; i++) {
+            int sourceColumn = source.columnOf(target.typeIdsByColumn[i]);
+            if (sourceColumn >= 0) {
+                carried[i] = source.columns[sourceColumn][sourceRow];
+            }
+        }
+        source.removeRow(sourceRow);
+        target.add(entityId, location);
+        for (int i = 0; i < carried.length; i++) {
+            target.columns[i][location.row] = carried[i];
+        }
+    }
+
+    /**
+     * The position of an entity within the table.
+     */
+    private static final class Location {
+        private Archetype archetype;
+        private int row;
+    }
+
+    /**
+     * All entities having exactly the same set of component classes.
+     */
+    private static final class Archetype {
+        private final Class<?>[] types;
+        private final int[] typeIdsByColumn;
+        /** Maps a component type id to its column, or -1 if this archetype doesn't have that component. */
+        private final int[] columnsByTypeId;
+        private final Map<Integer, Archetype> addEdges = Maps.newHashMap();
+        private final Map<Integer, Archetype> removeEdges = Maps.newHashMap();
+
+        private long[] entityIds = new long[INITIAL_CAPACITY];
+        private Component[][] columns;
+        private Location[] rowLocations = new Location[INITIAL_CAPACITY];
+        private int size;
+
+        Archetype(List<Class<?>> sortedTypes, ArchetypeComponentTable table) {
+            types = sortedTypes.toArray(new Class<?>[0]);
+            typeIdsByColumn = new int[types.length];
+            int maxTypeId = 0;
+            for (int i = 0; i < types.length; i++) {
+                typeIdsByColumn[i] = table.typeId(types[i]);
+                maxTypeId = Math.max(maxTypeId, typeIdsByColumn[i]);
+            }
+            columnsByTypeId = new int[maxTypeId + 1];
+            Arrays.fill(columnsByTypeId, -1);
+            for (int i = 0; i < types.length; i++) {
+                columnsByTypeId[typeIdsByColumn[i]] = i;
+            }
+            columns = new Component[types.length][INITIAL_CAPACITY];
+        }
+
+        int columnOf(int typeId) {
+            return typeId < columnsByTypeId.length ? columnsByTypeId[typeId] : -1;
+        }
+
+        boolean hasAll(int[] requiredTypeIds) {
+            for (int typeId : requiredTypeIds) {
+                if (columnOf(typeId) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        Archetype withEdge(int typeId, ArchetypeComponentTable table) {
+            Archetype target = addEdges.get(typeId);
+            if (target == null) {
+                List<Class<?>> targetTypes = Lists.newArrayList(types);
+                targetTypes.add(table.types.get(typeId));
+                target = table.archetypeFor(targetTypes);
+                addEdges.put(typeId, target);
+            }
+            return target;
+        }
+
+        Archetype withoutEdge(int typeId, ArchetypeComponentTable table) {
+            Archetype target = removeEdges.get(typeId);
+            if (target == null) {
+                List<Class<?>> targetTypes = Lists.newArrayList(types);
+                targetTypes.remove(types[columnOf(typeId)]);
+                target = table.archetypeFor(targetTypes);
+                removeEdges.put(typeId, target);
+            }
+            return target;
+        }
+
+        void add(long entityId, Location location) {
+            if (size == entityIds.length) {
+                int capacity = size * 2;
+                entityIds = Arrays.copyOf(entityIds, capacity);
+                rowLocations = Arrays.copyOf(rowLocations, capacity);
+                for (int i = 0; i < columns.length; i++) {
+                    columns[i] = Arrays.copyOf(columns[i], capacity);
+                }
+            }
+            entityIds[size] = entityId;
+            rowLocations[size] = location;
+            location.archetype = this;
+            location.row = size;
+            size++;
+        }
+
+        /**
+         * Removes a row by moving the last row into its place, keeping the arrays dense.
+         */
+        void removeRow(int row) {
+            int last = size - 1;
+            if (row != last) {
+                entityIds[row] = entityIds[last];
+                rowLocations[row] = rowLocations[last];
+                rowLocations[row].row = row;
+                for (Component[] column : columns) {
+                    column[row] = column[last];
+                }
+            }
+            rowLocations[last] = null;
+            for (Component[] column : columns) {
+                column[last] = null;
+            }
+            size = last;
+        }
+
+        List<Component> componentsAt(int row) {
+            List<Component> components = Lists.newArrayListWithCapacity(columns.length);
+            for (Component[] column : columns) {
+                components.add(column[row]);
+            }
+            return components;
+        }
+
+        void clear() {
+            Arrays.fill(rowLocations, 0, size, null);
+            for (Component[] column : columns) {
+                Arrays.fill(column, 0, size, null);
+            }
+            size = 0;
+        }
+    }
+
+    /**
+     * Iterates over a single component column across several archetypes.
+     */
+    private static final class ColumnIterator<T extends Component> implements TLongObjectIterator<T> {
+        private final List<Archetype> archetypes;
+        private final int typeId;
+        private int archetypeIndex;
+        private int row = -1;
+        private Archetype current;
+
+        ColumnIterator(List<Archetype> archetypes, int typeId) {
+            this.archetypes = archetypes;
+            this.typeId = typeId;
+            current = archetypes.isEmpty() ? null : archetypes.get(0);
+        }
+
+        @Override
+        public long key() {
+            return current.entityIds[row];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T value() {
+            return (T) current.columns[current.columnOf(typeId)][row];
+        }
+
+        @Override
+        public T setValue(T val) {
+            T old = value();
+            current.columns[current.columnOf(typeId)][row] = val;
+            return old;
+        }
+
+        @Override
+        public void advance() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            row++;
+            while (row >= current.size) {
+                archetypeIndex++;
+                current = archetypes.get(archetypeIndex);
+                row = 0;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (current == null) {
+                return false;
+            }
+            if (row + 1 < current.size) {
+                return true;
+            }
+            for (int i = archetypeIndex + 1; i < archetypes.size(); i++) {
+                if (archetypes.get(i).size > 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.entitySystem.entity.internal;
+
+import gnu.trove.iterator.TLongIterator;
+
+import java.util.NoSuchElementException;
+import java.util.function.LongPredicate;
+
+/**
+ * Iterates over the entity ids of another iterator, skipping those that don't match a filter at the time they are reached.
+ */
+class FilteringEntityIdIterator implements TLongIterator {
+    private final TLongIterator candidates;
+    private final LongPredicate filter;
+    private long next;
+    private boolean hasNext;
+
+    FilteringEntityIdIterator(TLongIterator candidates, LongPredicate filter) {
+        this.candidates = candidates;
+        this.filter = filter;
+        hasNext = findNext();
+    }
+
+    private boolean findNext() {
+        while (candidates.hasNext()) {
+            long id = candidates.next();
+            if (filter.test(id)) {
+                next = id;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public long next() {
+        if (!hasNext) {
+            throw new NoSuchElementException();
+        }
+        long result = next;
+        hasNext = findNext();
+        return result;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -41,19 +41,25 @@
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import static org.terasology.engine.entitySystem.entity.internal.EntityScope.SECTOR;
 
 public class PojoEntityManager implements EngineEntityManager {
     public static final long NULL_ID = 0;
+    /**
+     * System property selecting the component storage backend of newly created pools, "map" (the default) or "archetype".
+     */
+    public static final String COMPONENT_STORAGE_PROPERTY = "org.terasology.componentStorage";
 
     private static final Logger logger = LoggerFactory.getLogger(PojoEntityManager.class);
 
     private long nextEntityId = 1;
     private TLongSet loadedIds = new TLongHashSet();
 
-    private EngineEntityPool globalPool = new PojoEntityPool(this);
-    private PojoSectorManager sectorManager = new PojoSectorManager(this);
+    private final Supplier<ComponentTable> componentTableFactory;
+    private EngineEntityPool globalPool;
+    private PojoSectorManager sectorManager;
     private Map<Long, EngineEntityPool> poolMap = new MapMaker().initialCapacity(1000).makeMap();
     private List<EngineEntityPool> worldPools = Lists.newArrayList();
     private Map<EngineEntityPool, Long> poolCounts = new HashMap<EngineEntityPool, Long>();
@@ -70,6 +76,34 @@ public class PojoEntityManager implements EngineEntityManager {
 
     private TypeHandlerLibrary typeSerializerLibrary;
 
+    public PojoEntityManager() {
+        this(defaultComponentTableFactory());
+    }
+
+    /**
+     * @param componentTableFactory creates the component storage backend for each pool of this entity manager
+     */
+    public PojoEntityManager(Supplier<ComponentTable> componentTableFactory) {
+        this.componentTableFactory = componentTableFactory;
+        globalPool = new PojoEntityPool(this);
+        sectorManager = new PojoSectorManager(this);
+    }
+
+    private static Supplier<ComponentTable> defaultComponentTableFactory() {
+        if ("archetype".equalsIgnoreCase(System.getProperty(COMPONENT_STORAGE_PROPERTY))) {
+            logger.info("Using archetype based component storage");
+            return ArchetypeComponentTable::new;
+        }
+        return MapComponentTable::new;
+    }
+
+    /**
+     * @return a new, empty component store using the storage backend of this entity manager.
+     */
+    ComponentTable createComponentTable() {
+        return componentTableFactory.get();
+    }
+
     @Override
     public RefStrategy getEntityRefStrategy() {
         return refStrategy;
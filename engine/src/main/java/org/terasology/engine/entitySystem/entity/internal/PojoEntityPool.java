@@ -31,10 +31,19 @@ public class PojoEntityPool implements EngineEntityPool {
     private PojoEntityManager entityManager;
 
     private Map<Long, BaseEntityRef> entityStore = new MapMaker().weakValues().concurrencyLevel(4).initialCapacity(1000).makeMap();
-    private ComponentTable componentStore = new ComponentTable();
+    private ComponentTable componentStore;
 
     public PojoEntityPool(PojoEntityManager entityManager) {
+        this(entityManager, entityManager.createComponentTable());
+    }
+
+    /**
+     * @param entityManager the entity manager this pool belongs to
+     * @param componentStore the storage backend to keep the components of this pool's entities in
+     */
+    public PojoEntityPool(PojoEntityManager entityManager, ComponentTable componentStore) {
         this.entityManager = entityManager;
+        this.componentStore = componentStore;
     }
 
     @Override
@@ -285,18 +294,14 @@ public EntityRef getEntity(long entityId) {
     @SafeVarargs
     @Override
     public final Iterable<EntityRef> getEntitiesWith(Class<? extends Component>... componentClasses) {
-        return () -> entityStore.keySet().stream()
-                //Keep entities which have all of the required components
-                .filter(id -> {
-                    for (Class<? extends Component> component : componentClasses) {
-                        if (componentStore.get(id, component) == null) {
-                            return false;
-                        }
-                    }
-                    return true;
-                })
-                .map(id -> getEntity(id))
-                .iterator();
+        if (componentClasses.length == 0) {
+            return () -> entityStore.keySet().stream()
+                    .map(id -> getEntity(id))
+                    .iterator();
+        }
+        //Let the component store find the entities which have all of the required components
+        return () -> new EntityIterator(new FilteringEntityIdIterator(
+                componentStore.entityIdIterator(componentClasses), this::contains), this);
     }
 
     @Override
@@ -0,0 +1,39 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.engine.entitySystem.event;
+
+import org.terasology.gestalt.entitysystem.component.Component;
+import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares which components of the receiving entity an event handler reads and writes. Use with {@link ReceiveEvent}.
+ * <p>
+ * A handler with this annotation promises to only access the listed components of the entity it receives the event for,
+ * and no other shared state. When parallel event dispatch is enabled, events queued from other threads whose handlers
+ * all declare their access may then be handled on worker threads, concurrently with events for other entities. Events
+ * for the same entity are still handled one after another, in the order they were sent.
+ * <p>
+ * Handlers with this annotation must change written components in place instead of saving them; the event system saves
+ * the written components on the main thread. When the handler runs on the main thread, they are saved right after it
+ * returns, and when it runs in a parallel batch, once the batch is done. Events sent from handlers running off the main
+ * thread are queued as usual for events sent from other threads.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ComponentAccess {
+    /**
+     * @return the components that are only read by the handler
+     */
+    Class<? extends Component>[] reads() default {};
+
+    /**
+     * @return the components that are changed by the handler
+     */
+    Class<? extends Component>[] writes() default {};
+}
@@ -9,17 +9,21 @@
 import com.google.common.collect.HashBiMap;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Queues;
 import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
 import org.reflections.ReflectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.terasology.engine.entitySystem.entity.EntityRef;
 import org.terasology.engine.entitySystem.event.AbstractConsumableEvent;
 import org.terasology.engine.entitySystem.event.Activity;
+import org.terasology.engine.entitySystem.event.ComponentAccess;
 import org.terasology.engine.entitySystem.event.ConsumableEvent;
 import org.terasology.engine.entitySystem.event.EventPriority;
 import org.terasology.engine.entitySystem.event.PendingEvent;
@@ -31,12 +35,15 @@
 import org.terasology.gestalt.entitysystem.component.Component;
 import org.terasology.gestalt.entitysystem.event.Event;
 import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
 
 import javax.annotation.Nullable;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
@@ -48,6 +55,10 @@
  * An implementation of the EventSystem.
  */
 public class EventSystemImpl implements EventSystem {
+    /**
+     * System property enabling parallel dispatch of queued events to handlers annotated with {@link ComponentAccess}.
+     */
+    public static final String PARALLEL_DISPATCH_PROPERTY = "org.terasology.parallelEventDispatch";
 
     private static final Logger logger = LoggerFactory.getLogger(EventSystemImpl.class);
     private final boolean isAutority;
@@ -60,8 +71,15 @@ public class EventSystemImpl implements EventSystem {
     private BiMap<ResourceUrn, Class<? extends Event>> eventIdMap = HashBiMap.create();
     private SetMultimap<Class<? extends Event>, Class<? extends Event>> childEvents = HashMultimap.create();
 
+    // Dispatch tables built from the handler maps above, dropped whenever handlers or events are (un)registered
+    private Map<Class<? extends Event>, EventDispatchTable> dispatchTables = Maps.newHashMap();
+    private Map<Class<? extends Event>, Map<Class<? extends Component>, EventHandlerInfo[]>> componentDispatchTables =
+            Maps.newHashMap();
+    private boolean dispatchCacheEnabled = true;
+
     private Thread mainThread;
     private BlockingQueue<PendingEvent> pendingEvents = Queues.newLinkedBlockingQueue();
+    private Scheduler parallelDispatchScheduler;
 
 
     public EventSystemImpl(boolean isAutority) {
@@ -69,19 +87,99 @@ public EventSystemImpl(boolean isAutority) {
         this.mainThread = Thread.currentThread();
     }
 
+    /**
+     * Enables parallel dispatch of queued events, see {@link ComponentAccess}.
+     *
+     * @param scheduler the scheduler to run the handlers on, or null to handle all events on the main thread
+     */
+    public void setParallelDispatchScheduler(@Nullable Scheduler scheduler) {
+        this.parallelDispatchScheduler = scheduler;
+    }
+
     @Override
     public void process() {
+        if (parallelDispatchScheduler != null) {
+            processInParallel();
+            return;
+        }
         for (PendingEvent event = pendingEvents.poll(); event != null; event = pendingEvents.poll()) {
-            if (event.getComponent() != null) {
-                send(event.getEntity(), event.getEvent(), event.getComponent());
-            } else {
-                send(event.getEntity(), event.getEvent());
+            send(event);
+        }
+    }
+
+    private void send(PendingEvent event) {
+        if (event.getComponent() != null) {
+            send(event.getEntity(), event.getEvent(), event.getComponent());
+        } else {
+            send(event.getEntity(), event.getEvent());
+        }
+    }
+
+    /**
+     * Handles the queued events in batches. Consecutive events whose handlers all declare their component access are
+     * grouped per entity, and the groups are handled concurrently. Any other event ends the batch and is handled on the
+     * main thread, after everything queued before it.
+     */
+    private void processInParallel() {
+        List<PendingEvent> events = Lists.newArrayList();
+        while (pendingEvents.drainTo(events) > 0) {
+            Map<EntityRef, ParallelDispatchGroup> groups = Maps.newLinkedHashMap();
+            for (PendingEvent event : events) {
+                EventHandlerInfo[] handlers = event.getComponent() != null
+                        ? selectSortedEventHandlers(event.getEvent().getClass(), event.getComponent().getClass())
+                        : selectSortedEventHandlers(event.getEvent().getClass(), event.getEntity());
+                if (isParallelSafe(handlers)) {
+                    groups.computeIfAbsent(event.getEntity(), ParallelDispatchGroup::new).add(event, handlers);
+                } else {
+                    dispatchInParallel(groups.values());
+                    groups.clear();
+                    send(event);
+                }
             }
+            dispatchInParallel(groups.values());
+            events.clear();
+        }
+    }
+
+    private boolean isParallelSafe(EventHandlerInfo[] handlers) {
+        for (EventHandlerInfo handler : handlers) {
+            if (!handler.isParallelSafe()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void dispatchInParallel(Collection<ParallelDispatchGroup> groups) {
+        if (groups.size() == 1) {
+            groups.iterator().next().dispatch();
+        } else if (groups.size() > 1) {
+            Flux.fromIterable(groups)
+                    .parallel()
+                    .runOn(parallelDispatchScheduler)
+                    .doOnNext(ParallelDispatchGroup::dispatch)
+                    .sequential()
+                    .blockLast();
         }
+        // Save the changed components on the main thread, so the usual change notifications are sent
+        for (ParallelDispatchGroup group : groups) {
+            group.saveWrittenComponents();
+        }
+    }
+
+    /**
+     * Enables or disables caching of the sorted handlers per event type and entity component set.
+     * <br><br>
+     * The cache is enabled by default; disabling it is only useful to compare dispatch performance.
+     */
+    public void setDispatchCacheEnabled(boolean dispatchCacheEnabled) {
+        this.dispatchCacheEnabled = dispatchCacheEnabled;
+        invalidateDispatchTables();
     }
 
     @Override
     public void registerEvent(ResourceUrn uri, Class<? extends Event> eventType) {
+        invalidateDispatchTables();
         eventIdMap.put(uri, eventType);
         logger.debug("Registering event {}", eventType.getSimpleName()); //NOPMD
         for (Class parent : ReflectionUtils.getAllSuperTypes(eventType, Predicates.subtypeOf(Event.class))) {
@@ -144,9 +242,22 @@ public void registerEventHandler(ComponentSystem handler) {
                     requiredComponents.add((Class<? extends Component>) types[i]);
                     componentParams.add((Class<? extends Component>) types[i]);
                 }
+                Set<Class<? extends Component>> writtenComponents = null;
+                ComponentAccess accessAnnotation = method.getAnnotation(ComponentAccess.class);
+                if (accessAnnotation != null) {
+                    Set<Class<? extends Component>> accessedComponents = Sets.newHashSet(accessAnnotation.reads());
+                    accessedComponents.addAll(Arrays.asList(accessAnnotation.writes()));
+                    if (accessedComponents.containsAll(requiredComponents)) {
+                        writtenComponents = Sets.newLinkedHashSet(Arrays.asList(accessAnnotation.writes()));
+                    } else {
+                        logger.warn("Event handler {}.{} doesn't declare access to all components it requires, " +
+                                "it will always run on the main thread", handlerClass.getName(), method.getName()); //NOPMD
+                    }
+                }
+
                 ByteCodeEventHandlerInfo handlerInfo = new ByteCodeEventHandlerInfo(handler, method,
                         priority,
-                        activity, requiredComponents, componentParams);
+                        activity, requiredComponents, componentParams, writtenComponents);
                 addEventHandler((Class<? extends Event>) types[0], handlerInfo, requiredComponents);
             }
         }
@@ -154,6 +265,7 @@ public void registerEventHandler(ComponentSystem handler) {
 
     @Override
     public void unregisterEventHandler(ComponentSystem handler) {
+        invalidateDispatchTables();
         componentSpecificHandlers.values().stream()
                 .map(eventHandlers -> eventHandlers.values().iterator())
                 .forEach(eventHandlerIterator -> {
@@ -176,6 +288,7 @@ public void unregisterEventHandler(ComponentSystem handler) {
 
     private void addEventHandler(Class<? extends Event> type, EventHandlerInfo handler, Collection<Class<?
             extends Component>> components) {
+        invalidateDispatchTables();
         if (components.isEmpty()) {
             generalHandlers.put(type, handler);
             for (Class<? extends Event> childType : childEvents.get(type)) {
@@ -217,6 +330,7 @@ public <T extends Event> void registerEventReceiver(EventReceiver<T> eventReceiv
     @Override
     public <T extends Event> void unregisterEventReceiver(EventReceiver<T> eventReceiver, Class<T> eventClass, Class<
             ? extends Component>... componentTypes) {
+        invalidateDispatchTables();
         SetMultimap<Class<? extends Component>, EventHandlerInfo> eventHandlerMap =
                 componentSpecificHandlers.get(eventClass);
         if (eventHandlerMap != null) {
@@ -245,33 +359,43 @@ public void send(EntityRef entity, Event event) {
         if (!Thread.currentThread().equals(mainThread)) {
             pendingEvents.offer(new PendingEvent(entity, event));
         } else {
-            Set<EventHandlerInfo> selectedHandlersSet = selectEventHandlers(event.getClass(), entity);
-            List<EventHandlerInfo> selectedHandlers = Lists.newArrayList(selectedHandlersSet);
-            selectedHandlers.sort(priorityComparator);
+            EventHandlerInfo[] selectedHandlers = selectSortedEventHandlers(event.getClass(), entity);
 
             if (event instanceof ConsumableEvent) {
-                sendConsumableEvent(entity, event, selectedHandlers);
+                sendConsumableEvent(entity, event, selectedHandlers, true);
             } else {
-                sendStandardEvent(entity, event, selectedHandlers);
+                sendStandardEvent(entity, event, selectedHandlers, true);
             }
         }
     }
 
-    private void sendStandardEvent(EntityRef entity, Event event, List<EventHandlerInfo> selectedHandlers) {
+    /**
+     * @param saveWrites whether to save the components declared as written by a handler right after it ran, which is
+     *         done on the main thread; handlers running off the main thread leave that to their batch
+     */
+    private void sendStandardEvent(EntityRef entity, Event event, EventHandlerInfo[] selectedHandlers,
+                                   boolean saveWrites) {
         for (EventHandlerInfo handler : selectedHandlers) {
             // Check isValid at each stage in case components were removed.
             if (handler.isValidFor(entity)) {
                 handler.invoke(entity, event);
+                if (saveWrites) {
+                    saveWrittenComponents(entity, handler.getWrittenComponents());
+                }
             }
         }
     }
 
-    private void sendConsumableEvent(EntityRef entity, Event event, List<EventHandlerInfo> selectedHandlers) {
+    private void sendConsumableEvent(EntityRef entity, Event event, EventHandlerInfo[] selectedHandlers,
+                                     boolean saveWrites) {
         ConsumableEvent consumableEvent = (ConsumableEvent) event;
         for (EventHandlerInfo handler : selectedHandlers) {
             // Check isValid at each stage in case components were removed.
             if (handler.isValidFor(entity)) {
                 handler.invoke(entity, event);
+                if (saveWrites) {
+                    saveWrittenComponents(entity, handler.getWrittenComponents());
+                }
                 if (consumableEvent.isConsumed()) {
                     return;
                 }
@@ -284,20 +408,77 @@ public void send(EntityRef entity, Event event, Component component) {
         if (!Thread.currentThread().equals(mainThread)) {
             pendingEvents.offer(new PendingEvent(entity, event, component));
         } else {
-            SetMultimap<Class<? extends Component>, EventHandlerInfo> handlers =
-                    componentSpecificHandlers.get(event.getClass());
-            if (handlers != null) {
-                List<EventHandlerInfo> eventHandlers = Lists.newArrayList(handlers.get(component.getClass()));
-                eventHandlers.sort(priorityComparator);
-                for (EventHandlerInfo eventHandler : eventHandlers) {
-                    if (eventHandler.isValidFor(entity)) {
-                        eventHandler.invoke(entity, event);
-                    }
-                }
+            sendStandardEvent(entity, event, selectSortedEventHandlers(event.getClass(), component.getClass()), true);
+        }
+    }
+
+    /**
+     * Saves the components a handler declared as written with {@link ComponentAccess}, since such handlers change
+     * them in place, so the usual change notifications are sent.
+     */
+    private static void saveWrittenComponents(EntityRef entity,
+                                              Collection<Class<? extends Component>> writtenComponents) {
+        for (Class<? extends Component> componentClass : writtenComponents) {
+            Component component = entity.getComponent(componentClass);
+            if (component != null) {
+                entity.saveComponent(component);
             }
         }
     }
 
+    private EventHandlerInfo[] selectSortedEventHandlers(Class<? extends Event> eventType, EntityRef entity) {
+        if (!dispatchCacheEnabled) {
+            return sortedHandlers(selectEventHandlers(eventType, entity));
+        }
+        EventDispatchTable table = dispatchTables.get(eventType);
+        if (table == null) {
+            table = new EventDispatchTable(componentSpecificHandlers.get(eventType));
+            dispatchTables.put(eventType, table);
+        }
+        if (!table.isCacheable()) {
+            return sortedHandlers(selectEventHandlers(eventType, entity));
+        }
+        long signature = table.signatureOf(entity);
+        EventHandlerInfo[] handlers = table.handlersBySignature.get(signature);
+        if (handlers == null) {
+            handlers = sortedHandlers(selectEventHandlers(eventType, entity));
+            table.handlersBySignature.put(signature, handlers);
+        }
+        return handlers;
+    }
+
+    private EventHandlerInfo[] selectSortedEventHandlers(Class<? extends Event> eventType,
+                                                         Class<? extends Component> componentType) {
+        Map<Class<? extends Component>, EventHandlerInfo[]> componentTables = componentDispatchTables.get(eventType);
+        if (componentTables == null) {
+            componentTables = Maps.newHashMap();
+            if (dispatchCacheEnabled) {
+                componentDispatchTables.put(eventType, componentTables);
+            }
+        }
+        EventHandlerInfo[] handlers = componentTables.get(componentType);
+        if (handlers == null) {
+            SetMultimap<Class<? extends Component>, EventHandlerInfo> componentHandlers =
+                    componentSpecificHandlers.get(eventType);
+            handlers = componentHandlers == null
+                    ? new EventHandlerInfo[0]
+                    : sortedHandlers(componentHandlers.get(componentType));
+            componentTables.put(componentType, handlers);
+        }
+        return handlers;
+    }
+
+    private EventHandlerInfo[] sortedHandlers(Collection<EventHandlerInfo> handlers) {
+        EventHandlerInfo[] result = handlers.toArray(new EventHandlerInfo[0]);
+        Arrays.sort(result, priorityComparator);
+        return result;
+    }
+
+    private void invalidateDispatchTables() {
+        dispatchTables.clear();
+        componentDispatchTables.clear();
+    }
+
     private Set<EventHandlerInfo> selectEventHandlers(Class<? extends Event> eventType, EntityRef entity) {
         Set<EventHandlerInfo> result = Sets.newHashSet();
         result.addAll(generalHandlers.get(eventType));
@@ -323,6 +504,77 @@ public void setToCurrentThread() {
         mainThread = Thread.currentThread();
     }
 
+    /**
+     * The handlers of one event type, sorted by priority, for each combination of relevant components an entity has.
+     * <br><br>
+     * Only the component classes that some handler of the event type filters on are relevant. Whether an entity has
+     * each of them is recorded as one bit of its signature, which fully determines the handlers selected for it. So
+     * entities gaining or losing components just look up another signature, without invalidating the table.
+     */
+    private static final class EventDispatchTable {
+        private static final Class<? extends Component>[] NO_COMPONENTS = new Class[0];
+
+        private final Class<? extends Component>[] relevantComponents;
+        private final TLongObjectMap<EventHandlerInfo[]> handlersBySignature = new TLongObjectHashMap<>();
+
+        EventDispatchTable(@Nullable SetMultimap<Class<? extends Component>, EventHandlerInfo> componentHandlers) {
+            relevantComponents = componentHandlers == null
+                    ? NO_COMPONENTS
+                    : componentHandlers.keySet().toArray(NO_COMPONENTS);
+        }
+
+        boolean isCacheable() {
+            return relevantComponents.length < Long.SIZE;
+        }
+
+        long signatureOf(EntityRef entity) {
+            long signature = 0;
+            for (int i = 0; i < relevantComponents.length; i++) {
+                if (entity.hasComponent(relevantComponents[i])) {
+                    signature |= 1L << i;
+                }
+            }
+            return signature;
+        }
+    }
+
+    /**
+     * The queued events for one entity whose handlers may run off the main thread.
+     */
+    private final class ParallelDispatchGroup {
+        private final EntityRef entity;
+        private final List<PendingEvent> events = Lists.newArrayList();
+        private final List<EventHandlerInfo[]> eventHandlers = Lists.newArrayList();
+        private final Set<Class<? extends Component>> writtenComponents = Sets.newLinkedHashSet();
+
+        ParallelDispatchGroup(EntityRef entity) {
+            this.entity = entity;
+        }
+
+        void add(PendingEvent event, EventHandlerInfo[] handlers) {
+            events.add(event);
+            eventHandlers.add(handlers);
+            for (EventHandlerInfo handler : handlers) {
+                writtenComponents.addAll(handler.getWrittenComponents());
+            }
+        }
+
+        void dispatch() {
+            for (int i = 0; i < events.size(); i++) {
+                Event event = events.get(i).getEvent();
+                if (event instanceof ConsumableEvent && events.get(i).getComponent() == null) {
+                    sendConsumableEvent(entity, event, eventHandlers.get(i), false);
+                } else {
+                    sendStandardEvent(entity, event, eventHandlers.get(i), false);
+                }
+            }
+        }
+
+        void saveWrittenComponents() {
+            EventSystemImpl.saveWrittenComponents(entity, writtenComponents);
+        }
+    }
+
     private interface EventHandlerInfo {
         boolean isValidFor(EntityRef entity);
 
@@ -331,6 +583,17 @@ private interface EventHandlerInfo {
         int getPriority();
 
         Object getHandler();
+
+        /**
+         * @return whether the handler declared its component access and may be invoked off the main thread
+         */
+        default boolean isParallelSafe() {
+            return false;
+        }
+
+        default Collection<Class<? extends Component>> getWrittenComponents() {
+            return Collections.emptySet();
+        }
     }
 
     private static class EventHandlerPriorityComparator implements Comparator<EventHandlerInfo> {
@@ -348,14 +611,19 @@ private static class ByteCodeEventHandlerInfo implements EventHandlerInfo {
         private int methodIndex;
         private ImmutableList<Class<? extends Component>> filterComponents;
         private ImmutableList<Class<? extends Component>> componentParams;
+        private ImmutableSet<Class<? extends Component>> writtenComponents;
         private int priority;
 
+        /**
+         * @param writtenComponents the components written by the handler if it declared its component access, else null
+         */
         ByteCodeEventHandlerInfo(ComponentSystem handler,
                                  Method method,
                                  int priority,
                                  @Nullable String activity,
                                  Collection<Class<? extends Component>> filterComponents,
-                                 Collection<Class<? extends Component>> componentParams) {
+                                 Collection<Class<? extends Component>> componentParams,
+                                 @Nullable Collection<Class<? extends Component>> writtenComponents) {
 
 
             this.handler = handler;
@@ -364,9 +632,20 @@ private static class ByteCodeEventHandlerInfo implements EventHandlerInfo {
             methodIndex = methodAccess.getIndex(method.getName(), method.getParameterTypes());
             this.filterComponents = ImmutableList.copyOf(filterComponents);
             this.componentParams = ImmutableList.copyOf(componentParams);
+            this.writtenComponents = writtenComponents == null ? null : ImmutableSet.copyOf(writtenComponents);
             this.priority = priority;
         }
 
+        @Override
+        public boolean isParallelSafe() {
+            return writtenComponents != null;
+        }
+
+        @Override
+        public Collection<Class<? extends Component>> getWrittenComponents() {
+            return writtenComponents == null ? ImmutableSet.of() : writtenComponents;
+        }
+
         @Override
         public boolean isValidFor(EntityRef entity) {
             for (Class<? extends Component> component : filterComponents) {
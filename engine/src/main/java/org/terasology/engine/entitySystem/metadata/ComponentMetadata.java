@@ -29,6 +29,7 @@
     private boolean persisted;
     private boolean replicated;
     private boolean replicatedFromOwner;
+    private boolean deltaReplicated;
     private boolean referenceOwner;
     private boolean forceBlockActive;
     private boolean retainUnalteredOnBlockChange;
@@ -46,7 +47,9 @@ public ComponentMetadata(ResourceUrn uri, Class<T> type, ReflectFactory factory,
             throws NoSuchMethodException {
         super(uri.toString(), type, factory, copyStrategies, Predicates.<Field>alwaysTrue());
         persisted = type.getAnnotation(DoNotPersist.class) == null;
-        replicated = type.getAnnotation(Replicate.class) != null;
+        Replicate replicate = type.getAnnotation(Replicate.class);
+        replicated = replicate != null;
+        deltaReplicated = replicate != null && replicate.delta();
         blockLifecycleEventsRequired = type.getAnnotation(RequiresBlockLifecycleEvents.class) != null;
         ForceBlockActive forceBlockActiveAnnotation = type.getAnnotation(ForceBlockActive.class);
         if (forceBlockActiveAnnotation != null) {
@@ -103,6 +106,13 @@ public boolean isReplicated() {
         return replicated;
     }
 
+    /**
+     * @return Whether updates of this component only send the fields which changed since the last update
+     */
+    public boolean isDeltaReplicated() {
+        return deltaReplicated;
+    }
+
     /**
      * @return Whether this component forces a block active
      */
@@ -2,6 +2,11 @@
 // SPDX-License-Identifier: Apache-2.0
 package org.terasology.engine.entitySystem.metadata;
 
+import com.google.common.collect.ImmutableSet;
+import org.joml.Quaternionf;
+import org.joml.Vector2f;
+import org.joml.Vector3f;
+import org.joml.Vector4f;
 import org.terasology.reflection.copy.CopyStrategyLibrary;
 import org.terasology.reflection.metadata.ClassMetadata;
 import org.terasology.reflection.metadata.FieldMetadata;
@@ -11,15 +16,19 @@
 import org.terasology.engine.network.Replicate;
 
 import java.lang.reflect.Field;
+import java.util.Set;
 
 /**
  * An extended FieldMetadata that provides information on whether a the field should be replicated, and under what conditions
  *
  */
 public class ReplicatedFieldMetadata<T, U> extends FieldMetadata<T, U> {
+    private static final Set<Class<?>> QUANTIZABLE_TYPES = ImmutableSet.of(float.class, Float.class,
+            Vector2f.class, Vector3f.class, Vector4f.class, Quaternionf.class);
 
     private boolean replicated;
     private Replicate replicationInfo;
+    private float precision;
 
     public ReplicatedFieldMetadata(ClassMetadata<T, ?> owner, Field field, CopyStrategyLibrary copyStrategyLibrary,
                                    ReflectFactory factory, boolean replicatedByDefault)
@@ -33,6 +42,9 @@ public ReplicatedFieldMetadata(ClassMetadata<T, ?> owner, Field field, CopyStrat
             replicated = true;
         }
         this.replicationInfo = field.getAnnotation(Replicate.class);
+        if (replicationInfo != null && replicationInfo.precision() > 0 && QUANTIZABLE_TYPES.contains(field.getType())) {
+            precision = replicationInfo.precision();
+        }
     }
 
     /**
@@ -48,4 +60,11 @@ public boolean isReplicated() {
     public Replicate getReplicationInfo() {
         return replicationInfo;
     }
+
+    /**
+     * @return The step to which this field is rounded when it is replicated, or 0 if it is replicated exactly
+     */
+    public float getPrecision() {
+        return precision;
+    }
 }
@@ -0,0 +1,45 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.entitySystem.systems;
+
+import org.terasology.gestalt.entitysystem.component.Component;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares which components an {@link UpdateSubscriberSystem} reads and writes during its update, and which other systems
+ * it must be updated before or after.
+ * <br><br>
+ * When parallel system updates are enabled, systems with this annotation whose component access doesn't conflict may be
+ * updated at the same time on worker threads. Two systems conflict if one of them writes a component the other reads or
+ * writes. Conflicting systems are updated in the order they were registered, unless an ordering is declared. Systems
+ * without this annotation are always updated alone, on the main thread.
+ * <br><br>
+ * A system updated on a worker thread must only change the declared components, in place. It must not create or destroy
+ * entities, nor add, remove or save components; events it sends are queued until the main thread processes them.
+ * <br><br>
+ * Example:
+ * <br>
+ * <code>@UpdateSchedule(reads = LocationComponent.class, writes = HealthComponent.class, after = MySystem.class)</code>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface UpdateSchedule {
+
+    Class<? extends Component>[] reads() default {};
+
+    Class<? extends Component>[] writes() default {};
+
+    /**
+     * @return systems that must finish their update before this system is updated
+     */
+    Class<? extends UpdateSubscriberSystem>[] after() default {};
+
+    /**
+     * @return systems that may only be updated once this system finished its update
+     */
+    Class<? extends UpdateSubscriberSystem>[] before() default {};
+}
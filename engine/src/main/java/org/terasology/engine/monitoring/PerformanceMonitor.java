@@ -76,6 +76,19 @@ public static void endActivity() {
         instance.endActivity();
     }
 
+    /**
+     * Records the execution time of an activity that was measured elsewhere, for example on another thread.
+     * <br><br>
+     * Like starting and ending activities, this must be called from the main thread. The recorded time is not taken
+     * away from the currently running activity.
+     *
+     * @param activityName the name of the activity that ran.
+     * @param executionTimeInMs how long the activity ran, in milliseconds.
+     */
+    public static void recordActivity(String activityName, long executionTimeInMs) {
+        instance.recordActivity(activityName, executionTimeInMs);
+    }
+
     /**
      * Drops old information and updates the metrics. Should be called once per frame.
      */
@@ -10,7 +10,9 @@
 import org.terasology.engine.monitoring.impl.SingleThreadMonitorImpl;
 import org.terasology.engine.monitoring.impl.ThreadActivityInternal;
 import org.terasology.engine.monitoring.impl.ThreadMonitorEvent;
+import org.terasology.engine.monitoring.impl.ThroughputCounter;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -18,6 +20,7 @@ public final class ThreadMonitor {
 
     private static final EventBus EVENT_BUS = new EventBus("ThreadMonitor");
     private static final Map<Thread, SingleThreadMonitor> THREAD_INFO_BY_ID = Maps.newConcurrentMap();
+    private static final Map<String, ThroughputCounter> THROUGHPUT_COUNTERS = Maps.newConcurrentMap();
 
     private ThreadMonitor() {
     }
@@ -49,6 +52,21 @@ public static void registerForEvents(Object object) {
         EVENT_BUS.register(object);
     }
 
+    /**
+     * Records that work items got processed, e.g. chunks by the chunk processing threads. Unlike thread activities the
+     * items are counted across all threads.
+     *
+     * @param name the kind of the processed items
+     * @param items the number of processed items
+     */
+    public static void addThroughput(String name, int items) {
+        THROUGHPUT_COUNTERS.computeIfAbsent(name, ThroughputCounter::new).add(items);
+    }
+
+    public static Collection<ThroughputCounter> getThroughputCounters() {
+        return THROUGHPUT_COUNTERS.values();
+    }
+
     public static void addError(Throwable e) {
         SingleThreadMonitor monitor = getMonitor();
         monitor.addError(e);
@@ -23,6 +23,10 @@ public Activity startActivity(String activity) {
     public void endActivity() {
     }
 
+    @Override
+    public void recordActivity(String activity, long executionTimeInMs) {
+    }
+
     @Override
     public TObjectDoubleMap<String> getRunningMean() {
         return metrics;
@@ -152,6 +152,14 @@ public void endActivity() {
         }
     }
 
+    @Override
+    public void recordActivity(String activityName, long executionTimeInMs) {
+        if (!Thread.currentThread().equals(mainThread)) {
+            return;
+        }
+        currentExecutionData.adjustOrPutValue(activityName, executionTimeInMs, executionTimeInMs);
+    }
+
     @Override
     public TObjectDoubleMap<String> getRunningMean() {
         TObjectDoubleMap<String> activityToMeanMap = new TObjectDoubleHashMap<>();
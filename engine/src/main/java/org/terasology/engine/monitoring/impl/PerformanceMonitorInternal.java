@@ -16,6 +16,8 @@ public interface PerformanceMonitorInternal {
 
     void endActivity();
 
+    void recordActivity(String activity, long executionTimeInMs);
+
     TObjectDoubleMap<String> getRunningMean();
 
     TObjectDoubleMap<String> getDecayingSpikes();
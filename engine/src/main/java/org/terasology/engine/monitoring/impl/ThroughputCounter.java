@@ -0,0 +1,52 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.monitoring.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts processed work items, and derives the number of items per second over the last sample interval.
+ */
+public class ThroughputCounter {
+
+    private static final long SAMPLE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+
+    private long sampleStartTime = System.nanoTime();
+    private long sampleStartCount;
+    private double itemsPerSecond;
+
+    public ThroughputCounter(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void add(int items) {
+        count.add(items);
+    }
+
+    public long getTotal() {
+        return count.sum();
+    }
+
+    /**
+     * @return the number of items per second during the last complete sample interval of one second.
+     */
+    public synchronized double getItemsPerSecond() {
+        long now = System.nanoTime();
+        long elapsed = now - sampleStartTime;
+        if (elapsed >= SAMPLE_INTERVAL_NANOS) {
+            long total = count.sum();
+            itemsPerSecond = (total - sampleStartCount) * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+            sampleStartTime = now;
+            sampleStartCount = total;
+        }
+        return itemsPerSecond;
+    }
+}
@@ -29,4 +29,10 @@ public interface NetMetricSource {
      * @return The amount of bytes sent since last time this method was called
      */
     int getSentBytesSinceLastCall();
+
+    /**
+     * @return The amount of bytes of entity updates which did not need to be sent thanks to delta replication since last
+     *         time this method was called
+     */
+    int getSavedBytesSinceLastCall();
 }
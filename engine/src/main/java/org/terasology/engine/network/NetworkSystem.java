@@ -52,6 +52,10 @@ public interface NetworkSystem extends BlockRegistrationListener {
 
     int getOutgoingBytesDelta();
 
+    int getSavedBytesDelta();
+
+    float getSerializationCacheHitRate();
+
     void forceDisconnect(Client client);
 
     void setContext(Context context);
@@ -24,4 +24,23 @@
      * @return Whether the field should only be replicated when the entity initially becomes relevant to a client
      */
     boolean initialOnly() default false;
+
+    /**
+     * Only used on component types. Updates of a delta replicated component only contain the fields which changed since
+     * the updates a client acknowledged, rather than all replicated fields. Changes a client makes to such a field
+     * itself are therefore not corrected by the server until the field changes on the server, so components which
+     * clients predict, like {@code LocationComponent}, must not be delta replicated.
+     *
+     * @return Whether updates of the component are sent as deltas against the acknowledged updates
+     */
+    boolean delta() default false;
+
+    /**
+     * Only used on float, vector and quaternion fields. A positive precision sends the field as integer multiples of
+     * it, which are smaller than the floats for values close to zero. A field which does not fit into integers of that
+     * precision is sent unchanged.
+     *
+     * @return The step to which the field is rounded when it is replicated, or 0 to send it exactly
+     */
+    float precision() default 0;
 }
@@ -0,0 +1,168 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.network.internal;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.engine.monitoring.ThreadMonitor;
+import org.terasology.engine.world.WorldChangeListener;
+import org.terasology.engine.world.block.Block;
+import org.terasology.engine.world.chunks.Chunk;
+import org.terasology.engine.world.chunks.Chunks;
+import org.terasology.protobuf.EntityData;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Encodes chunks for sending them to clients on background threads, and keeps the encodings, so that clients near each
+ * other, e.g. players joining at the spawn, share them.
+ * <br><br>
+ * The data of a chunk is copied on the main thread, which is the one changing chunks and asking for encodings, and
+ * only the copy is encoded in the background. An encoding is dropped as soon as a block of its chunk changes, when
+ * the {@link Chunk#getChangeVersion() version} of the chunk no longer matches or when the chunk gets unloaded, so
+ * that an encoding that is handed out never misses a change. The entries don't reference the chunks. The compression
+ * of the sent chunks is left to the network channel, which compresses on its own threads.
+ */
+public class ChunkEncodingCache implements WorldChangeListener {
+    private static final Logger logger = LoggerFactory.getLogger(ChunkEncodingCache.class);
+    private static final int MAX_ENTRIES = 1024;
+    private static final String THROUGHPUT_NAME = "Chunks encoded for clients";
+
+    private final ExecutorService encoders;
+    private final Map<Vector3ic, Entry> entries = new LinkedHashMap<Vector3ic, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Vector3ic, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    private long encodedCount;
+    private long reusedCount;
+
+    public ChunkEncodingCache() {
+        this(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2)));
+    }
+
+    public ChunkEncodingCache(int encoderCount) {
+        this.encoders = Executors.newFixedThreadPool(encoderCount, new ThreadFactoryBuilder()
+                .setNameFormat("Network-chunk-encoder-%d")
+                .setDaemon(true)
+                .build());
+    }
+
+    /**
+     * Starts encoding the chunk, unless an encoding of it is already available or in progress.
+     */
+    public void prefetch(Chunk chunk) {
+        getEntry(chunk);
+    }
+
+    /**
+     * Returns the encoding of the chunk, starting to encode it if that did not happen yet.
+     *
+     * @return the encoded chunk, or null if it is still being encoded.
+     */
+    public EntityData.ChunkStore getEncoded(Chunk chunk) {
+        Entry entry = getEntry(chunk);
+        if (!entry.result.isDone()) {
+            return null;
+        }
+        try {
+            EntityData.ChunkStore store = entry.result.get();
+            if (entry.handedOut) {
+                reusedCount++;
+            }
+            entry.handedOut = true;
+            return store;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            logger.warn("Failed to encode chunk {}, retrying", chunk.getPosition(), e);
+            entries.remove(chunk.getPosition());
+            return null;
+        }
+    }
+
+    private Entry getEntry(Chunk chunk) {
+        Entry entry = entries.get(chunk.getPosition());
+        int version = chunk.getChangeVersion();
+        if (entry == null || entry.version != version) {
+            Supplier<EntityData.ChunkStore.Builder> encoding = chunk.copyForEncoding();
+            entry = new Entry(version, encoders.submit(() -> {
+                EntityData.ChunkStore store = encoding.get().build();
+                ThreadMonitor.addThroughput(THROUGHPUT_NAME, 1);
+                return store;
+            }));
+            entries.put(new Vector3i(chunk.getPosition()), entry);
+            encodedCount++;
+        }
+        return entry;
+    }
+
+    /**
+     * @return the number of encodings which were started.
+     */
+    public long getEncodedCount() {
+        return encodedCount;
+    }
+
+    /**
+     * @return the number of times an encoding was handed out again, e.g. to another client.
+     */
+    public long getReusedCount() {
+        return reusedCount;
+    }
+
+    public void shutdown() {
+        encoders.shutdownNow();
+        entries.clear();
+    }
+
+    @Override
+    public void onBlockChanged(Vector3ic pos, Block newBlock, Block originalBlock) {
+        invalidate(pos);
+    }
+
+    @Override
+    public void onExtraDataChanged(int i, Vector3ic pos, int newData, int oldData) {
+        invalidate(pos);
+    }
+
+    /**
+     * Drops the encoding of an unloaded chunk, as a chunk loaded again at its position might differ.
+     */
+    public void chunkUnloaded(Vector3ic chunkPos) {
+        remove(chunkPos);
+    }
+
+    private void invalidate(Vector3ic blockPos) {
+        remove(Chunks.toChunkPos(blockPos, new Vector3i()));
+    }
+
+    private void remove(Vector3ic chunkPos) {
+        Entry entry = entries.remove(chunkPos);
+        if (entry != null) {
+            entry.result.cancel(false);
+        }
+    }
+
+    private static final class Entry {
+        private final int version;
+        private final Future<EntityData.ChunkStore> result;
+        private boolean handedOut;
+
+        private Entry(int version, Future<EntityData.ChunkStore> result) {
+            this.version = version;
+            this.result = result;
+        }
+    }
+}
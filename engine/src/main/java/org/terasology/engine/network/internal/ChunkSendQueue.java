@@ -0,0 +1,101 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.network.internal;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.terasology.engine.world.chunks.Chunk;
+import org.terasology.protobuf.EntityData;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.BiConsumer;
+
+/**
+ * The chunks which became relevant to a client but were not sent to it yet, nearest to the client first.
+ * <br><br>
+ * Chunks are taken from the queue once their encoding is available from the {@link ChunkEncodingCache}, so that a
+ * chunk which is still being encoded does not hold back the ones behind it.
+ */
+class ChunkSendQueue {
+    /**
+     * The number of chunks at the head of the queue which get encoded ahead of being sent.
+     */
+    private static final int ENCODE_AHEAD = 16;
+
+    private final Map<Vector3ic, Chunk> chunks = Maps.newHashMap();
+    private final Vector3i center = new Vector3i();
+    private final Comparator<Vector3ic> byDistance = Comparator.comparingLong(pos -> pos.distanceSquared(center));
+    /**
+     * May contain positions which are no longer in {@link #chunks}, these are skipped when they come up.
+     */
+    private PriorityQueue<Vector3ic> queue = new PriorityQueue<>(byDistance);
+
+    public void add(Vector3ic pos, Chunk chunk) {
+        Vector3i key = new Vector3i(pos);
+        if (chunks.put(key, chunk) == null) {
+            queue.add(key);
+        }
+    }
+
+    /**
+     * @return whether the chunk was still waiting to be sent.
+     */
+    public boolean remove(Vector3ic pos) {
+        return chunks.remove(pos) != null;
+    }
+
+    public boolean isEmpty() {
+        return chunks.isEmpty();
+    }
+
+    public int size() {
+        return chunks.size();
+    }
+
+    /**
+     * Orders the queue by the distance to the given chunk position.
+     */
+    public void setCenter(Vector3ic chunkPos) {
+        if (!center.equals(chunkPos)) {
+            center.set(chunkPos);
+            queue = new PriorityQueue<>(Math.max(1, chunks.size()), byDistance);
+            queue.addAll(chunks.keySet());
+        }
+    }
+
+    /**
+     * Takes the nearest chunks whose encoding is available, until their encoded size reaches the given budget.
+     *
+     * @param encodingCache provides the encoded chunks
+     * @param byteBudget the number of bytes that may be sent
+     * @param sender receives the positions and encodings of the taken chunks
+     * @return the encoded size of the taken chunks, which may exceed the budget by one chunk
+     */
+    public int poll(ChunkEncodingCache encodingCache, int byteBudget,
+                    BiConsumer<Vector3ic, EntityData.ChunkStore> sender) {
+        List<Vector3ic> pending = Lists.newArrayListWithCapacity(ENCODE_AHEAD);
+        int bytes = 0;
+        while (bytes < byteBudget && pending.size() < ENCODE_AHEAD && !queue.isEmpty()) {
+            Vector3ic pos = queue.poll();
+            Chunk chunk = chunks.get(pos);
+            if (chunk == null) {
+                continue;
+            }
+            EntityData.ChunkStore store = encodingCache.getEncoded(chunk);
+            if (store == null) {
+                pending.add(pos);
+            } else {
+                chunks.remove(pos);
+                bytes += store.getSerializedSize();
+                sender.accept(pos, store);
+            }
+        }
+        queue.addAll(pending);
+        return bytes;
+    }
+}
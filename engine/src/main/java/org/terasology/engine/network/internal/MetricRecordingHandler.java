@@ -22,6 +22,7 @@ public class MetricRecordingHandler extends ChannelDuplexHandler implements NetM
     private AtomicInteger receivedBytes = new AtomicInteger();
     private AtomicInteger sentMessages = new AtomicInteger();
     private AtomicInteger sentBytes = new AtomicInteger();
+    private AtomicInteger savedBytes = new AtomicInteger();
 
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
@@ -39,6 +40,13 @@ public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise)
         super.write(ctx, msg, promise);
     }
 
+    /**
+     * Records bytes which did not need to be written, because the receiver already knew them.
+     */
+    public void recordSavedBytes(int bytes) {
+        savedBytes.addAndGet(bytes);
+    }
+
     @Override
     public int getReceivedMessagesSinceLastCall() {
         return receivedMessages.getAndSet(0);
@@ -58,4 +66,9 @@ public int getSentMessagesSinceLastCall() {
     public int getSentBytesSinceLastCall() {
         return sentBytes.getAndSet(0);
     }
+
+    @Override
+    public int getSavedBytesSinceLastCall() {
+        return savedBytes.getAndSet(0);
+    }
 }
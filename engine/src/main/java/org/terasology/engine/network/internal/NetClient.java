@@ -6,11 +6,12 @@
 import com.google.common.base.Objects;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Maps;
 import com.google.common.collect.Queues;
 import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
 import gnu.trove.iterator.TIntIterator;
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
 import gnu.trove.set.TIntSet;
 import gnu.trove.set.hash.TIntHashSet;
 import io.netty.channel.Channel;
@@ -23,6 +24,8 @@
 import org.terasology.engine.core.Time;
 import org.terasology.engine.entitySystem.entity.EntityManager;
 import org.terasology.engine.entitySystem.entity.EntityRef;
+import org.terasology.engine.entitySystem.metadata.ComponentLibrary;
+import org.terasology.engine.entitySystem.metadata.ComponentMetadata;
 import org.terasology.engine.entitySystem.metadata.EventLibrary;
 import org.terasology.engine.entitySystem.metadata.EventMetadata;
 import org.terasology.engine.entitySystem.metadata.NetworkEventType;
@@ -38,6 +41,7 @@
 import org.terasology.engine.network.serialization.ServerComponentFieldCheck;
 import org.terasology.engine.persistence.serializers.EventSerializer;
 import org.terasology.engine.persistence.serializers.NetworkEntitySerializer;
+import org.terasology.engine.persistence.serializers.NetworkEntitySnapshot;
 import org.terasology.engine.rendering.world.viewDistance.ViewDistance;
 import org.terasology.engine.world.WorldChangeListener;
 import org.terasology.engine.world.WorldProvider;
@@ -57,7 +61,6 @@
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -80,7 +83,7 @@ public class NetClient extends AbstractClient implements WorldChangeListener {
     private NetworkEntitySerializer entitySerializer;
     private EventSerializer eventSerializer;
     private EventLibrary eventLibrary;
-    private NetMetricSource metricSource;
+    private MetricRecordingHandler metricSource;
 
     // Relevance
     private Set<Vector3i> relevantChunks = Sets.newHashSet();
@@ -93,13 +96,13 @@ public class NetClient extends AbstractClient implements WorldChangeListener {
     private SetMultimap<Integer, Class<? extends Component>> dirtyComponents = LinkedHashMultimap.create();
     private SetMultimap<Integer, Class<? extends Component>> addedComponents = LinkedHashMultimap.create();
     private SetMultimap<Integer, Class<? extends Component>> removedComponents = LinkedHashMultimap.create();
+    private TIntObjectMap<NetworkEntitySnapshot> entitySnapshots = new TIntObjectHashMap<>();
+    private int sequence;
 
     private String preferredName = "Player";
     private long lastReceivedTime;
     private ViewDistance viewDistance = ViewDistance.NEAR;
-    private float chunkSendCounter = 1.0f;
-
-    private float chunkSendRate = 0.05469f;
+    private float chunkByteBudget;
 
     // Outgoing messages
     private BlockingQueue<NetData.BlockChangeMessage> queuedOutgoingBlockChanges = Queues.newLinkedBlockingQueue();
@@ -107,7 +110,7 @@ public class NetClient extends AbstractClient implements WorldChangeListener {
     private List<NetData.EventMessage> queuedOutgoingEvents = Lists.newArrayList();
     private final List<BlockFamily> newlyRegisteredFamilies = Lists.newArrayList();
 
-    private Map<Vector3i, Chunk> readyChunks = Maps.newLinkedHashMap();
+    private final ChunkSendQueue readyChunks = new ChunkSendQueue();
     private Set<Vector3i> invalidatedChunks = Sets.newLinkedHashSet();
 
 
@@ -132,7 +135,7 @@ public NetClient(Channel channel, NetworkSystemImpl networkSystem, PredictionSys
         this.time = time;
         this.worldProvider = worldProvider;
         this.channel = channel;
-        metricSource = (NetMetricSource) channel.pipeline().get(MetricRecordingHandler.NAME);
+        metricSource = (MetricRecordingHandler) channel.pipeline().get(MetricRecordingHandler.NAME);
         this.networkSystem = networkSystem;
         this.identity = identity;
         if (this.worldProvider != null) {
@@ -195,6 +198,11 @@ public void disconnect() {
         super.disconnect();
 
         if (channel.isOpen()) {
+            OutgoingMessageBatch messageBatch = networkSystem.getMessageBatch();
+            if (messageBatch != null) {
+                // the messages sent before disconnecting, like the reason of a rejected join, are still queued
+                messageBatch.flush(channel);
+            }
             channel.close().awaitUninterruptibly();
         }
 
@@ -208,6 +216,7 @@ public void update(boolean netTick) {
         if (netTick) {
             NetData.NetMessage.Builder message = NetData.NetMessage.newBuilder();
             message.setTime(time.getGameTimeInMs());
+            message.setSequence(++sequence);
             sendRegisteredBlocks(message);
             sendChunkInvalidations(message);
             sendNewChunks(message);
@@ -236,9 +245,10 @@ private void sendRegisteredBlocks(NetData.NetMessage.Builder message) {
 
     private void sendNewChunks(NetData.NetMessage.Builder message) {
         if (!readyChunks.isEmpty()) {
-            chunkSendCounter += chunkSendRate * NET_TICK_RATE * networkSystem.getBandwidthPerClient();
-            if (chunkSendCounter > 1.0f) {
-                chunkSendCounter -= 1.0f;
+            int bytesPerSecond = networkSystem.getChunkBandwidthPerClient();
+            // budget which is not used, e.g. while the nearest chunks are still being encoded, is kept for a second
+            chunkByteBudget = Math.min(chunkByteBudget + bytesPerSecond * NET_TICK_RATE, bytesPerSecond);
+            if (chunkByteBudget > 0) {
                 Vector3i center = new Vector3i();
                 LocationComponent loc = getEntity().getComponent(ClientComponent.class).character.getComponent(LocationComponent.class);
                 if (loc != null) {
@@ -248,21 +258,15 @@ private void sendNewChunks(NetData.NetMessage.Builder message) {
                         Chunks.toChunkPos(center, center); // update center to chunkPos
                     }
                 }
-                Vector3i pos = null;
-                long distance = Integer.MAX_VALUE;
-                for (Vector3i chunkPos : readyChunks.keySet()) {
-                    long chunkDistance = chunkPos.distanceSquared(center);
-                    if (pos == null || chunkDistance < distance) {
-                        pos = chunkPos;
-                        distance = chunkDistance;
-                    }
-                }
-                Chunk chunk = readyChunks.remove(pos);
-                relevantChunks.add(pos);
-                message.addChunkInfo(chunk.encode());
+                readyChunks.setCenter(center);
+                chunkByteBudget -= readyChunks.poll(networkSystem.getChunkEncodingCache(), (int) chunkByteBudget,
+                        (pos, chunkStore) -> {
+                            relevantChunks.add(new Vector3i(pos));
+                            message.addChunkInfo(chunkStore);
+                        });
             }
         } else {
-            chunkSendCounter = 1.0f;
+            chunkByteBudget = 0;
         }
     }
 
@@ -278,7 +282,10 @@ private void sendChunkInvalidations(NetData.NetMessage.Builder message) {
     }
 
     public void setNetInitial(int netId) {
-        netInitial.add(netId);
+        // entities which the client already knows only get their changes replicated
+        if (!netRelevant.contains(netId)) {
+            netInitial.add(netId);
+        }
     }
 
     public void setNetRemoved(int netId) {
@@ -363,6 +370,13 @@ public boolean isLocal() {
     }
 
     void send(NetData.NetMessage data) {
+        OutgoingMessageBatch messageBatch = networkSystem.getMessageBatch();
+        if (messageBatch != null) {
+            // the size is computed while encoding, on the network thread
+            sentMessages.incrementAndGet();
+            messageBatch.add(channel, data, sentBytes);
+            return;
+        }
         int dataSize = data.getSerializedSize();
         logger.trace("Sending packet with size {}", dataSize);
         sentMessages.incrementAndGet();
@@ -374,7 +388,7 @@ void send(NetData.NetMessage data) {
     public void onChunkRelevant(Vector3ic pos, Chunk chunk) {
         Vector3i result = new Vector3i(pos);
         invalidatedChunks.remove(result);
-        readyChunks.put(result, chunk);
+        readyChunks.add(result, chunk);
     }
 
     @Override
@@ -416,6 +430,7 @@ private void processReceivedMessages() {
             if (message.hasTime() && message.getTime() > lastReceivedTime) {
                 lastReceivedTime = message.getTime();
             }
+            processAcknowledgement(message);
             processEntityUpdates(message);
             processEvents(message);
 
@@ -435,6 +450,38 @@ private void sendEvents(NetData.NetMessage.Builder message) {
         queuedOutgoingEvents.clear();
     }
 
+    private void processAcknowledgement(NetData.NetMessage message) {
+        if (message.getResyncRequested()) {
+            resendDeltaReplicatedComponents();
+        }
+        if (message.hasAcknowledgedSequence()) {
+            int acknowledgedSequence = message.getAcknowledgedSequence();
+            entitySnapshots.forEachValue(snapshot -> {
+                snapshot.acknowledge(acknowledgedSequence);
+                return true;
+            });
+        }
+    }
+
+    /**
+     * The client missed a message, so the deltas sent since then may not apply to what it has. The delta replicated
+     * components of all relevant entities are therefore sent to it in full again.
+     */
+    private void resendDeltaReplicatedComponents() {
+        entitySnapshots.clear();
+        ComponentLibrary componentLibrary = entitySerializer.getComponentLibrary();
+        TIntIterator relevantIterator = netRelevant.iterator();
+        while (relevantIterator.hasNext()) {
+            int netId = relevantIterator.next();
+            for (Component component : networkSystem.getEntity(netId).iterateComponents()) {
+                ComponentMetadata<?> metadata = componentLibrary.getMetadata(component.getClass());
+                if (metadata != null && metadata.isDeltaReplicated()) {
+                    setComponentDirty(netId, component.getClass());
+                }
+            }
+        }
+    }
+
     private void processEntityUpdates(NetData.NetMessage message) {
         for (NetData.UpdateEntityMessage updateMessage : message.getUpdateEntityList()) {
 
@@ -455,9 +502,17 @@ private void sendDirtyEntities(NetData.NetMessage.Builder message) {
                 logger.error("Sending non-existent entity update for netId {}", netId);
             }
             boolean isOwner = networkSystem.getOwner(entity) == this;
+            NetworkEntitySnapshot snapshot = entitySnapshots.get(netId);
+            if (snapshot == null) {
+                snapshot = new NetworkEntitySnapshot();
+                entitySnapshots.put(netId, snapshot);
+            }
+            snapshot.setOwned(isOwner);
+            snapshot.setSequence(sequence);
             EntityData.PackedEntity entityData = entitySerializer.serialize(entity, addedComponents.get(netId),
                     dirtyComponents.get(netId), removedComponents.get(netId),
-                    new ServerComponentFieldCheck(isOwner, false));
+                    new ServerComponentFieldCheck(isOwner, false), snapshot);
+            metricSource.recordSavedBytes(snapshot.takeSavedBytes());
             if (entityData != null) {
                 message.addUpdateEntity(NetData.UpdateEntityMessage.newBuilder().setEntity(entityData).setNetId(netId));
             }
@@ -471,7 +526,9 @@ private void sendDirtyEntities(NetData.NetMessage.Builder message) {
     private void sendRemovedEntities(NetData.NetMessage.Builder message) {
         TIntIterator initialIterator = netRemoved.iterator();
         while (initialIterator.hasNext()) {
-            message.addRemoveEntity(NetData.RemoveEntityMessage.newBuilder().setNetId(initialIterator.next()));
+            int netId = initialIterator.next();
+            entitySnapshots.remove(netId);
+            message.addRemoveEntity(NetData.RemoveEntityMessage.newBuilder().setNetId(netId));
         }
         netRemoved.clear();
     }
@@ -482,6 +539,8 @@ private void sendInitialEntities(NetData.NetMessage.Builder message) {
         Arrays.sort(initial);
         for (int netId : initial) {
             netRelevant.add(netId);
+            // the client gets the whole entity, so updates must not be deltas against what it knew before
+            entitySnapshots.remove(netId);
             EntityRef entity = networkSystem.getEntity(netId);
             if (!entity.hasComponent(NetworkComponent.class)) {
                 logger.error("Sending net entity with no network component: {} - {}", netId, entity);
@@ -17,6 +17,8 @@
 import org.terasology.engine.network.NetworkComponent;
 import org.terasology.engine.registry.In;
 import org.terasology.engine.rendering.world.WorldRenderer;
+import org.terasology.engine.world.WorldComponent;
+import org.terasology.engine.world.chunks.event.BeforeChunkUnload;
 import org.terasology.gestalt.entitysystem.event.ReceiveEvent;
 
 /**
@@ -24,6 +26,7 @@
  * <ul>
  * <li>Notifies the network system when network entities are created, destroyed or updated</li>
  * <li>Notifies the network system when a client requests a change of view range</li>
+ * <li>Notifies the network system when chunks get unloaded</li>
  * </ul>
  *
  */
@@ -62,6 +65,11 @@ public void onOwnershipChanged(OnChangedComponent event, EntityRef entity) {
         networkSystem.updateOwnership(entity);
     }
 
+    @ReceiveEvent(components = WorldComponent.class)
+    public void onChunkUnload(BeforeChunkUnload event, EntityRef worldEntity) {
+        networkSystem.chunkUnloaded(event.getChunkPos());
+    }
+
     @ReceiveEvent(components = NetworkComponent.class)
     public void onDeactivateNetworkComponent(BeforeDeactivateComponent event, EntityRef entity) {
         networkSystem.unregisterNetworkEntity(entity);
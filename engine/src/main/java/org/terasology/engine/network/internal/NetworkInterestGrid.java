@@ -0,0 +1,285 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.network.internal;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import gnu.trove.iterator.TIntIterator;
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import gnu.trove.set.TIntSet;
+import gnu.trove.set.hash.TIntHashSet;
+import org.joml.Vector3fc;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.terasology.engine.world.chunks.Chunks;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Spatial index of network entities, keyed by the chunk they are in.
+ * <br><br>
+ * Every subscriber, usually a client, is interested in a box of chunks around its position. Changes of an indexed entity
+ * therefore only have to be sent to the subscribers of its chunk, instead of to every client. The {@link Listener} is
+ * told whenever an entity becomes relevant or irrelevant to a subscriber, because either of them moved.
+ * <br><br>
+ * This class is not thread safe.
+ *
+ * @param <S> the type of the subscribers
+ */
+public class NetworkInterestGrid<S> {
+
+    private final Map<Vector3ic, Cell<S>> cells = Maps.newHashMap();
+    private final TIntObjectMap<Vector3i> entityCells = new TIntObjectHashMap<>();
+    private final Map<S, Subscription> subscriptions = Maps.newHashMap();
+    private final Listener<S> listener;
+
+    public NetworkInterestGrid(Listener<S> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Adds an entity to the grid, or moves it to the chunk of the given position.
+     *
+     * @param netId the network id of the entity
+     * @param worldPosition the position of the entity
+     */
+    public void updateEntity(int netId, Vector3fc worldPosition) {
+        Vector3i chunkPos = Chunks.toChunkPos(worldPosition, new Vector3i());
+        Vector3i previousPos = entityCells.get(netId);
+        if (chunkPos.equals(previousPos)) {
+            return;
+        }
+        Cell<S> cell = getOrCreateCell(chunkPos);
+        cell.entities.add(netId);
+        entityCells.put(netId, chunkPos);
+        if (previousPos == null) {
+            for (S subscriber : cell.subscribers) {
+                listener.onEnter(subscriber, netId);
+            }
+        } else {
+            Cell<S> previousCell = cells.get(previousPos);
+            previousCell.entities.remove(netId);
+            for (S subscriber : previousCell.subscribers) {
+                if (!cell.subscribers.contains(subscriber)) {
+                    listener.onLeave(subscriber, netId);
+                }
+            }
+            for (S subscriber : cell.subscribers) {
+                if (!previousCell.subscribers.contains(subscriber)) {
+                    listener.onEnter(subscriber, netId);
+                }
+            }
+            removeIfEmpty(previousPos, previousCell);
+        }
+    }
+
+    /**
+     * Removes an entity from the grid. The entity leaves all subscribers it was relevant to.
+     *
+     * @param netId the network id of the entity
+     */
+    public void removeEntity(int netId) {
+        Vector3i chunkPos = entityCells.remove(netId);
+        if (chunkPos == null) {
+            return;
+        }
+        Cell<S> cell = cells.get(chunkPos);
+        cell.entities.remove(netId);
+        for (S subscriber : cell.subscribers) {
+            listener.onLeave(subscriber, netId);
+        }
+        removeIfEmpty(chunkPos, cell);
+    }
+
+    /**
+     * Removes an entity from the grid without notifying the listener, e.g. because it becomes relevant to all
+     * subscribers.
+     *
+     * @param netId the network id of the entity
+     * @return the subscribers the entity was relevant to
+     */
+    public Collection<S> releaseEntity(int netId) {
+        Vector3i chunkPos = entityCells.remove(netId);
+        if (chunkPos == null) {
+            return Collections.emptyList();
+        }
+        Cell<S> cell = cells.get(chunkPos);
+        cell.entities.remove(netId);
+        Collection<S> subscribers = Lists.newArrayList(cell.subscribers);
+        removeIfEmpty(chunkPos, cell);
+        return subscribers;
+    }
+
+    /**
+     * @return whether the entity is part of the grid, so that it is only relevant to the subscribers near it.
+     */
+    public boolean contains(int netId) {
+        return entityCells.containsKey(netId);
+    }
+
+    /**
+     * @return the subscribers the entity is relevant to, or an empty collection if it is not part of the grid.
+     */
+    public Collection<S> getSubscribers(int netId) {
+        Vector3i chunkPos = entityCells.get(netId);
+        if (chunkPos == null) {
+            return Collections.emptySet();
+        }
+        return Collections.unmodifiableSet(cells.get(chunkPos).subscribers);
+    }
+
+    /**
+     * Sets the chunks a subscriber is interested in. The entities in chunks which are no longer of interest leave the
+     * subscriber, the ones in newly covered chunks enter it.
+     *
+     * @param subscriber the subscriber
+     * @param centerChunk the chunk the subscriber is in
+     * @param extents the number of chunks in each direction around the center chunk the subscriber is interested in
+     */
+    public void updateSubscriber(S subscriber, Vector3ic centerChunk, Vector3ic extents) {
+        Subscription subscription = new Subscription(centerChunk.sub(extents, new Vector3i()),
+                centerChunk.add(extents, new Vector3i()));
+        Subscription previous = subscriptions.put(subscriber, subscription);
+        if (subscription.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            forEachChunk(previous, subscription, chunkPos -> {
+                Cell<S> cell = cells.get(chunkPos);
+                if (cell != null) {
+                    cell.subscribers.remove(subscriber);
+                    TIntIterator iterator = cell.entities.iterator();
+                    while (iterator.hasNext()) {
+                        listener.onLeave(subscriber, iterator.next());
+                    }
+                    removeIfEmpty(chunkPos, cell);
+                }
+            });
+        }
+        forEachChunk(subscription, previous, chunkPos -> {
+            Cell<S> cell = getOrCreateCell(chunkPos);
+            cell.subscribers.add(subscriber);
+            TIntIterator iterator = cell.entities.iterator();
+            while (iterator.hasNext()) {
+                listener.onEnter(subscriber, iterator.next());
+            }
+        });
+    }
+
+    /**
+     * Removes a subscriber from the grid, without notifying the listener.
+     */
+    public void removeSubscriber(S subscriber) {
+        Subscription subscription = subscriptions.remove(subscriber);
+        if (subscription != null) {
+            forEachChunk(subscription, null, chunkPos -> {
+                Cell<S> cell = cells.get(chunkPos);
+                if (cell != null) {
+                    cell.subscribers.remove(subscriber);
+                    removeIfEmpty(chunkPos, cell);
+                }
+            });
+        }
+    }
+
+    public int getEntityCount() {
+        return entityCells.size();
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    public void clear() {
+        cells.clear();
+        entityCells.clear();
+        subscriptions.clear();
+    }
+
+    private Cell<S> getOrCreateCell(Vector3i chunkPos) {
+        Cell<S> cell = cells.get(chunkPos);
+        if (cell == null) {
+            cell = new Cell<>();
+            cells.put(new Vector3i(chunkPos), cell);
+        }
+        return cell;
+    }
+
+    private void removeIfEmpty(Vector3ic chunkPos, Cell<S> cell) {
+        if (cell.entities.isEmpty() && cell.subscribers.isEmpty()) {
+            cells.remove(chunkPos);
+        }
+    }
+
+    /**
+     * Calls the action for every chunk of the subscription which is not part of the excluded subscription.
+     */
+    private static void forEachChunk(Subscription subscription, Subscription excluded, ChunkAction action) {
+        Vector3i chunkPos = new Vector3i();
+        for (int x = subscription.min.x; x <= subscription.max.x; x++) {
+            for (int y = subscription.min.y; y <= subscription.max.y; y++) {
+                for (int z = subscription.min.z; z <= subscription.max.z; z++) {
+                    if (excluded == null || !excluded.contains(x, y, z)) {
+                        action.apply(chunkPos.set(x, y, z));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Is notified when an entity becomes relevant or irrelevant to a subscriber.
+     */
+    public interface Listener<S> {
+
+        void onEnter(S subscriber, int netId);
+
+        void onLeave(S subscriber, int netId);
+    }
+
+    @FunctionalInterface
+    private interface ChunkAction {
+        void apply(Vector3i chunkPos);
+    }
+
+    private static final class Cell<S> {
+        private final Set<S> subscribers = Sets.newLinkedHashSet();
+        private final TIntSet entities = new TIntHashSet();
+    }
+
+    private static final class Subscription {
+        private final Vector3i min;
+        private final Vector3i max;
+
+        private Subscription(Vector3i min, Vector3i max) {
+            this.min = min;
+            this.max = max;
+        }
+
+        private boolean contains(int x, int y, int z) {
+            return x >= min.x && x <= max.x && y >= min.y && y <= max.y && z >= min.z && z <= max.z;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Subscription other = (Subscription) o;
+            return min.equals(other.min) && max.equals(other.max);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * min.hashCode() + max.hashCode();
+        }
+    }
+}
@@ -15,6 +15,7 @@
 import gnu.trove.map.hash.TIntLongHashMap;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelException;
 import io.netty.channel.ChannelFuture;
@@ -22,11 +23,11 @@
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.group.ChannelGroup;
 import io.netty.channel.group.DefaultChannelGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.GlobalEventExecutor;
+import org.joml.Vector3f;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.terasology.engine.config.Config;
@@ -46,8 +47,10 @@
 import org.terasology.engine.entitySystem.metadata.ComponentMetadata;
 import org.terasology.engine.entitySystem.metadata.EventLibrary;
 import org.terasology.engine.entitySystem.metadata.EventMetadata;
+import org.terasology.engine.logic.location.LocationComponent;
 import org.terasology.engine.monitoring.PerformanceMonitor;
 import org.terasology.engine.network.Client;
+import org.terasology.engine.network.ClientComponent;
 import org.terasology.engine.network.JoinStatus;
 import org.terasology.engine.network.NetworkComponent;
 import org.terasology.engine.network.NetworkMode;
@@ -64,10 +67,12 @@
 import org.terasology.engine.persistence.StorageManager;
 import org.terasology.engine.persistence.serializers.EventSerializer;
 import org.terasology.engine.persistence.serializers.NetworkEntitySerializer;
+import org.terasology.engine.persistence.serializers.NetworkSerializationCache;
 import org.terasology.engine.world.BlockEntityRegistry;
 import org.terasology.engine.world.WorldProvider;
 import org.terasology.engine.world.block.BlockManager;
 import org.terasology.engine.world.block.family.BlockFamily;
+import org.terasology.engine.world.chunks.Chunks;
 import org.terasology.engine.world.chunks.remoteChunkProvider.RemoteChunkProvider;
 import org.terasology.engine.world.generator.WorldGenerator;
 import org.terasology.gestalt.entitysystem.component.Component;
@@ -103,6 +108,20 @@
  * Implementation of the Network System using Netty and TCP/IP
  */
 public class NetworkSystemImpl implements EntityChangeSubscriber, NetworkSystem {
+    /**
+     * System property which enables interest management: entities with the replicate mode
+     * {@link NetworkComponent.ReplicateMode#RELEVANT} are only replicated to the clients whose view distance covers
+     * the chunk of the entity.
+     */
+    public static final String INTEREST_MANAGEMENT_PROPERTY = "org.terasology.networkInterestManagement";
+
+    /**
+     * System property which enables the high throughput network mode: the native epoll transport where available,
+     * pooled direct buffers and consolidated flushes, and the messages to all clients are handed to the network threads
+     * in one batch per tick.
+     */
+    public static final String HIGH_THROUGHPUT_PROPERTY = "org.terasology.highThroughputNetwork";
+
     public static int shutdownQuietMs = 2_000;
     public static int shutdownTimeoutMs = 15_000;
 
@@ -113,6 +132,10 @@ public class NetworkSystemImpl implements EntityChangeSubscriber, NetworkSystem
 
     private final Set<Client> clientList = Sets.newLinkedHashSet();
     private final Set<NetClient> netClientList = Sets.newLinkedHashSet();
+    /**
+     * Spatial index of the entities replicated by relevance, or null if interest management is disabled.
+     */
+    private final NetworkInterestGrid<NetClient> interestGrid;
     // Shared
     private ContextImpl context;
     private final Optional<HibernationManager> hibernationSettings;
@@ -132,8 +155,8 @@ public class NetworkSystemImpl implements EntityChangeSubscriber, NetworkSystem
     // Server only
     private final ChannelGroup allChannels = new DefaultChannelGroup("tera-channels", GlobalEventExecutor.INSTANCE);
     private ChannelFuture serverChannelFuture;
-    private NioEventLoopGroup bossGroup;
-    private NioEventLoopGroup workerGroup;
+    private EventLoopGroup bossGroup;
+    private EventLoopGroup workerGroup;
 
     private final BlockingQueue<NetClient> newClients = Queues.newLinkedBlockingQueue();
     private final BlockingQueue<NetClient> disconnectedClients = Queues.newLinkedBlockingQueue();
@@ -142,6 +165,14 @@ public class NetworkSystemImpl implements EntityChangeSubscriber, NetworkSystem
     private final Map<EntityRef, EntityRef> ownerLookup = Maps.newHashMap();
     private final SetMultimap<EntityRef, EntityRef> ownedLookup = HashMultimap.create();
     private StorageManager storageManager;
+    private ChunkEncodingCache chunkEncodingCache;
+    private final NetworkSerializationCache serializationCache = new NetworkSerializationCache();
+    private final boolean highThroughput;
+    /**
+     * Collects the messages to the clients during a tick in the high throughput mode, null otherwise.
+     */
+    private final OutgoingMessageBatch messageBatch;
+    private WorldProvider chunkEncodingWorld;
 
     // Client only
     private ServerImpl server;
@@ -151,6 +182,23 @@ public NetworkSystemImpl(EngineTime time, Context context) {
         this.time = time;
         this.config = context.get(Config.class).getNetwork();
         this.hibernationSettings = context.getMaybe(HibernationManager.class);
+        this.highThroughput = Boolean.getBoolean(HIGH_THROUGHPUT_PROPERTY);
+        this.messageBatch = highThroughput ? new OutgoingMessageBatch() : null;
+        if (Boolean.getBoolean(INTEREST_MANAGEMENT_PROPERTY)) {
+            this.interestGrid = new NetworkInterestGrid<>(new NetworkInterestGrid.Listener<NetClient>() {
+                @Override
+                public void onEnter(NetClient client, int netId) {
+                    client.setNetInitial(netId);
+                }
+
+                @Override
+                public void onLeave(NetClient client, int netId) {
+                    client.setNetRemoved(netId);
+                }
+            });
+        } else {
+            this.interestGrid = null;
+        }
         setContext(context);
     }
 
@@ -168,16 +216,21 @@ public void host(int port, boolean dedicatedServer) throws HostingFailedExceptio
                 generateSerializationTables();
 
                 // Configure the server.
-                bossGroup = new NioEventLoopGroup();
-                workerGroup = new NioEventLoopGroup();
+                NetworkTransport transport = NetworkTransport.select(highThroughput);
+                bossGroup = transport.newEventLoopGroup();
+                workerGroup = transport.newEventLoopGroup();
                 ServerBootstrap b = new ServerBootstrap();
                 b.group(bossGroup, workerGroup)
-                        .channel(NioServerSocketChannel.class)
+                        .channel(transport.getServerChannelType())
                         .option(ChannelOption.SO_BACKLOG, 100)
                         .localAddress(port)
                         .childOption(ChannelOption.TCP_NODELAY, true)
                         .childOption(ChannelOption.SO_KEEPALIVE, true)
                         .childHandler(createWithConstructorInjection(TerasologyServerPipelineFactory.class, context));
+                if (highThroughput) {
+                    b.childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT);
+                }
+                logger.info("Using {} network transport", transport);
                 // Start the server.
                 serverChannelFuture = b.bind();
 
@@ -213,12 +266,13 @@ public JoinStatus join(String address, int port) throws InterruptedException {
             hibernationSettings.ifPresent(hibernationManager -> hibernationManager.setHibernationAllowed(false));
             ChannelFuture connectCheck = null;
 
-            clientGroup = new NioEventLoopGroup();
+            NetworkTransport transport = NetworkTransport.select(highThroughput);
+            clientGroup = transport.newEventLoopGroup();
             try {
                 Bootstrap clientBootstrap = new Bootstrap();
 
                 clientBootstrap.group(clientGroup);
-                clientBootstrap.channel(NioSocketChannel.class);
+                clientBootstrap.channel(transport.getChannelType());
                 clientBootstrap.option(ChannelOption.SO_KEEPALIVE, true);
                 clientBootstrap.option(ChannelOption.TCP_NODELAY, true);
                 clientBootstrap.remoteAddress(new InetSocketAddress(address, port));
@@ -311,6 +365,17 @@ public void shutdown() {
         blockManager = null;
         ownerLookup.clear();
         ownedLookup.clear();
+        if (interestGrid != null) {
+            interestGrid.clear();
+        }
+        if (chunkEncodingCache != null) {
+            if (chunkEncodingWorld != null) {
+                chunkEncodingWorld.unregisterListener(chunkEncodingCache);
+                chunkEncodingWorld = null;
+            }
+            chunkEncodingCache.shutdown();
+            chunkEncodingCache = null;
+        }
         ownershipHelper = null;
         storageManager = null;
         logger.info("Network shutdown");
@@ -336,10 +401,19 @@ public void update() {
                 nextNetworkTick += NET_TICK_RATE;
                 netTick = true;
             }
+            if (interestGrid != null && mode.isServer()) {
+                PerformanceMonitor.startActivity("Update client interest");
+                netClientList.forEach(this::updateClientInterest);
+                PerformanceMonitor.endActivity();
+            }
             PerformanceMonitor.startActivity("Client update");
             for (Client client : clientList) {
                 client.update(netTick);
             }
+            if (messageBatch != null) {
+                messageBatch.flush();
+            }
+            serializationCache.clear();
             PerformanceMonitor.endActivity();
             if (server != null) {
                 server.update(netTick);
@@ -409,6 +483,38 @@ public int getBandwidthPerClient() {
         return config.getUpstreamBandwidth();
     }
 
+    /**
+     * @return the number of bytes per second each client may receive for streaming chunks to it.
+     */
+    public int getChunkBandwidthPerClient() {
+        int kilobits = config.getChunkStreamingBandwidth() > 0 ? config.getChunkStreamingBandwidth() : getBandwidthPerClient();
+        return kilobits * 1000 / Byte.SIZE;
+    }
+
+    /**
+     * Drops what is kept about the unloaded chunk for sending it to clients.
+     */
+    void chunkUnloaded(Vector3ic chunkPos) {
+        if (chunkEncodingCache != null) {
+            chunkEncodingCache.chunkUnloaded(chunkPos);
+        }
+    }
+
+    /**
+     * @return the encodings of the chunks sent to clients, which are shared by all clients.
+     */
+    ChunkEncodingCache getChunkEncodingCache() {
+        if (chunkEncodingCache == null) {
+            chunkEncodingCache = new ChunkEncodingCache();
+            // changed chunks have to be encoded again
+            chunkEncodingWorld = context.get(WorldProvider.class);
+            if (chunkEncodingWorld != null) {
+                chunkEncodingWorld.registerListener(chunkEncodingCache);
+            }
+        }
+        return chunkEncodingCache;
+    }
+
     @Override
     public EntityRef getOwnerEntity(EntityRef entity) {
         EntityRef owner = entity;
@@ -457,9 +563,10 @@ public void registerNetworkEntity(EntityRef entity) {
                     }
                     break;
                 default:
-                    for (NetClient client : netClientList) {
-                        // TODO: Relevance Check
-                        client.setNetInitial(netComponent.getNetworkId());
+                    if (!updateEntityInterest(netComponent, entity.getComponent(LocationComponent.class), true)) {
+                        for (NetClient client : netClientList) {
+                            client.setNetInitial(netComponent.getNetworkId());
+                        }
                     }
                     break;
             }
@@ -544,8 +651,12 @@ public void unregisterNetworkEntity(EntityRef entity) {
                 logger.debug("Unregistering network entity: {} with netId {}", entity, networkId);
                 netIdToEntityId.remove(networkId);
                 if (mode.isServer()) {
-                    for (NetClient client : netClientList) {
-                        client.setNetRemoved(networkId);
+                    if (interestGrid != null && interestGrid.contains(networkId)) {
+                        interestGrid.removeEntity(networkId);
+                    } else {
+                        for (NetClient client : netClientList) {
+                            client.setNetRemoved(networkId);
+                        }
                     }
                 }
                 netComponent.setNetworkId(NULL_NET_ID);
@@ -579,6 +690,9 @@ public void connectToEntitySystem(EngineEntityManager newEntityManager, EventLib
         entitySerializer = new NetworkEntitySerializer(newEntityManager, entityManager.getComponentLibrary(),
                 typeHandlerLibrary);
         entitySerializer.setComponentSerializeCheck(new NetComponentSerializeCheck());
+        if (mode.isServer()) {
+            entitySerializer.setSerializationCache(serializationCache);
+        }
 
         if (mode == NetworkMode.CLIENT) {
             entityManager.setEntityRefStrategy(new NetworkClientRefStrategy(this));
@@ -596,7 +710,11 @@ public void onEntityComponentAdded(EntityRef entity, Class<? extends Component>
         ComponentMetadata<? extends Component> metadata = componentLibrary.getMetadata(component);
         NetworkComponent netComp = entity.getComponent(NetworkComponent.class);
         if (netComp != null && netComp.getNetworkId() != NULL_NET_ID && mode.isServer() && metadata.isReplicated()) {
-            for (NetClient client : netClientList) {
+            serializationCache.invalidate(entity.getId(), component);
+            if (component == LocationComponent.class) {
+                updateEntityInterest(netComp, entity.getComponent(LocationComponent.class), false);
+            }
+            for (NetClient client : getInterestedClients(netComp)) {
                 logger.debug("Component {} added to {}", component, entity);
                 client.setComponentAdded(netComp.getNetworkId(), component);
             }
@@ -609,7 +727,12 @@ public void onEntityComponentRemoved(EntityRef entity, Class<? extends Component
         ComponentMetadata<? extends Component> metadata = componentLibrary.getMetadata(component);
         NetworkComponent netComp = entity.getComponent(NetworkComponent.class);
         if (netComp != null && netComp.getNetworkId() != NULL_NET_ID && mode.isServer() && metadata.isReplicated()) {
-            for (NetClient client : netClientList) {
+            serializationCache.invalidate(entity.getId(), component);
+            if (component == LocationComponent.class) {
+                // the component is removed after the notification
+                updateEntityInterest(netComp, null, false);
+            }
+            for (NetClient client : getInterestedClients(netComp)) {
                 logger.debug("Component {} removed from {}", component, entity);
                 client.setComponentRemoved(netComp.getNetworkId(), component);
             }
@@ -638,7 +761,11 @@ public void onEntityComponentChange(EntityRef entity, Class<? extends Component>
                 case LISTEN_SERVER:
                 case DEDICATED_SERVER:
                     if (metadata.isReplicated()) {
-                        for (NetClient client : netClientList) {
+                        serializationCache.invalidate(entity.getId(), component);
+                        if (component == LocationComponent.class) {
+                            updateEntityInterest(netComp, entity.getComponent(LocationComponent.class), false);
+                        }
+                        for (NetClient client : getInterestedClients(netComp)) {
                             client.setComponentDirty(netComp.getNetworkId(), component);
                         }
                     }
@@ -655,6 +782,71 @@ public void onEntityComponentChange(EntityRef entity, Class<? extends Component>
         updatedOwnedEntities(entity, component, metadata);
     }
 
+    /**
+     * @return the clients which may have to be told about changes of the entity.
+     */
+    private Collection<NetClient> getInterestedClients(NetworkComponent netComp) {
+        if (interestGrid != null && interestGrid.contains(netComp.getNetworkId())) {
+            return interestGrid.getSubscribers(netComp.getNetworkId());
+        }
+        return netClientList;
+    }
+
+    /**
+     * Moves an entity replicated by relevance to the chunk it is in now, or takes it out of the interest grid if it is
+     * not located in the world anymore.
+     *
+     * @param location the location of the entity, or null if it has none
+     * @param registering whether the entity is just being registered, so that no client knows it yet
+     * @return whether the entity is part of the interest grid, so that it is only replicated to the clients near it.
+     */
+    private boolean updateEntityInterest(NetworkComponent netComp, LocationComponent location, boolean registering) {
+        if (interestGrid == null || netComp.replicateMode != NetworkComponent.ReplicateMode.RELEVANT) {
+            return false;
+        }
+        int netId = netComp.getNetworkId();
+        // attached entities move with their parent without changes of their own location, so they are always replicated
+        Vector3f position = location != null && !location.getParent().exists()
+                ? location.getWorldPosition(new Vector3f()) : null;
+        if (position != null && position.isFinite()) {
+            boolean wasReplicatedToAll = !registering && !interestGrid.contains(netId);
+            interestGrid.updateEntity(netId, position);
+            if (wasReplicatedToAll) {
+                // the clients which are not interested in the entity anymore have to remove it
+                Collection<NetClient> subscribers = interestGrid.getSubscribers(netId);
+                for (NetClient client : netClientList) {
+                    if (!subscribers.contains(client)) {
+                        client.setNetRemoved(netId);
+                    }
+                }
+            }
+            return true;
+        }
+        if (interestGrid.contains(netId)) {
+            // the entity is relevant to all clients again, the ones which were not interested in it have to create it
+            Collection<NetClient> subscribers = interestGrid.releaseEntity(netId);
+            for (NetClient client : netClientList) {
+                if (!subscribers.contains(client)) {
+                    client.setNetInitial(netId);
+                }
+            }
+        }
+        return false;
+    }
+
+    private void updateClientInterest(NetClient client) {
+        ClientComponent clientComp = client.getEntity().getComponent(ClientComponent.class);
+        LocationComponent location = clientComp != null ? clientComp.character.getComponent(LocationComponent.class) : null;
+        if (location == null) {
+            return;
+        }
+        Vector3f position = location.getWorldPosition(new Vector3f());
+        if (position.isFinite()) {
+            Vector3i extents = new Vector3i(client.getViewDistance().getChunkDistance()).div(2);
+            interestGrid.updateSubscriber(client, Chunks.toChunkPos(position, new Vector3i()), extents);
+        }
+    }
+
     private void updatedOwnedEntities(EntityRef entity, Class<? extends Component> component, ComponentMetadata<?
             extends Component> metadata) {
         if (mode.isAuthority() && metadata.isReferenceOwner()) {
@@ -753,6 +945,46 @@ public int getOutgoingBytesDelta() {
         }
     }
 
+    /**
+     * @return The number of bytes of entity updates saved by delta replication since last request
+     */
+    @Override
+    public int getSavedBytesDelta() {
+        switch (mode) {
+            case LISTEN_SERVER:
+            case DEDICATED_SERVER:
+                int total = 0;
+                for (NetClient client : netClientList) {
+                    total += client.getMetrics().getSavedBytesSinceLastCall();
+                }
+                return total;
+            case CLIENT:
+                if (server != null) {
+                    return server.getMetrics().getSavedBytesSinceLastCall();
+                }
+                return 0;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * @return The share of the component serializations for clients since last request which were shared with other
+     *         clients
+     */
+    @Override
+    public float getSerializationCacheHitRate() {
+        return mode.isServer() ? serializationCache.takeHitRate() : 0;
+    }
+
+    /**
+     * @return the batch which collects the messages to the clients during the current tick, or null if messages are
+     *         written to the clients directly
+     */
+    OutgoingMessageBatch getMessageBatch() {
+        return messageBatch;
+    }
+
     long getEntityId(int netId) {
         return netIdToEntityId.get(netId);
     }
@@ -826,6 +1058,9 @@ private void processRemovedClient(Client client) {
             }
             NetClient netClient = (NetClient) client;
             netClientList.remove(netClient);
+            if (interestGrid != null) {
+                interestGrid.removeSubscriber(netClient);
+            }
         }
         clientList.remove(client);
         clientPlayerLookup.remove(client.getEntity());
@@ -869,8 +1104,10 @@ private void processNewClient(NetClient client) {
                         }
                         break;
                     default:
-                        // TODO: Relevance Check
-                        client.setNetInitial(netComp.getNetworkId());
+                        // entities in the interest grid are sent once the client subscribed to their chunk
+                        if (interestGrid == null || !interestGrid.contains(netComp.getNetworkId())) {
+                            client.setNetInitial(netComp.getNetworkId());
+                        }
                         break;
                 }
             }
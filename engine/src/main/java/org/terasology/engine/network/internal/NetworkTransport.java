@@ -0,0 +1,83 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.network.internal;
+
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The socket implementations the network system can run on.
+ */
+public enum NetworkTransport {
+    /**
+     * Java NIO, which is available everywhere.
+     */
+    NIO {
+        @Override
+        public EventLoopGroup newEventLoopGroup() {
+            return new NioEventLoopGroup();
+        }
+
+        @Override
+        public Class<? extends ServerChannel> getServerChannelType() {
+            return NioServerSocketChannel.class;
+        }
+
+        @Override
+        public Class<? extends Channel> getChannelType() {
+            return NioSocketChannel.class;
+        }
+    },
+    /**
+     * Netty's native epoll transport for Linux, which avoids the selector overhead and produces less garbage.
+     */
+    EPOLL {
+        @Override
+        public EventLoopGroup newEventLoopGroup() {
+            return new EpollEventLoopGroup();
+        }
+
+        @Override
+        public Class<? extends ServerChannel> getServerChannelType() {
+            return EpollServerSocketChannel.class;
+        }
+
+        @Override
+        public Class<? extends Channel> getChannelType() {
+            return EpollSocketChannel.class;
+        }
+    };
+
+    private static final Logger logger = LoggerFactory.getLogger(NetworkTransport.class);
+
+    public abstract EventLoopGroup newEventLoopGroup();
+
+    public abstract Class<? extends ServerChannel> getServerChannelType();
+
+    public abstract Class<? extends Channel> getChannelType();
+
+    /**
+     * @param preferNative whether to use the native transport if it is available on this platform
+     * @return the transport to use
+     */
+    public static NetworkTransport select(boolean preferNative) {
+        if (!preferNative) {
+            return NIO;
+        }
+        if (Epoll.isAvailable()) {
+            return EPOLL;
+        }
+        logger.info("Native epoll transport is not available, falling back to NIO: {}", Epoll.unavailabilityCause().getMessage());
+        return NIO;
+    }
+}
@@ -0,0 +1,122 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.network.internal;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.protobuf.MessageLite;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoop;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects the messages sent to the clients during a network tick and hands them to the event loops of their channels
+ * at the end of the tick, in one task per event loop.
+ * <br><br>
+ * Writing a message from the game thread submits a task to the event loop of its channel for every message, and
+ * flushes every message on its own. The batch instead submits one task per event loop, which encodes and writes all
+ * messages of its channels and then flushes each channel once. The encoding and compression of the messages thereby
+ * stays on the event loops.
+ * <br><br>
+ * This class is not thread safe, it is used by the game thread only.
+ */
+class OutgoingMessageBatch {
+    private final Map<EventLoop, List<PendingWrite>> pendingWrites = Maps.newLinkedHashMap();
+    private int size;
+
+    /**
+     * Queues a message to be written to the channel when the batch is flushed. Messages to the same channel are
+     * written in the order they were added.
+     */
+    public void add(Channel channel, Object message) {
+        add(channel, message, null);
+    }
+
+    /**
+     * Queues a message like {@link #add(Channel, Object)}, and adds its size to the counter once it is encoded on the
+     * event loop.
+     *
+     * @param sentBytes the counter of the bytes sent to the channel, or null
+     */
+    public void add(Channel channel, Object message, AtomicInteger sentBytes) {
+        pendingWrites.computeIfAbsent(channel.eventLoop(), loop -> Lists.newArrayList())
+                .add(new PendingWrite(channel, message, sentBytes));
+        size++;
+    }
+
+    /**
+     * @return the number of messages waiting for the next flush.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Hands all queued messages to the event loops of their channels.
+     */
+    public void flush() {
+        for (Map.Entry<EventLoop, List<PendingWrite>> entry : pendingWrites.entrySet()) {
+            List<PendingWrite> writes = entry.getValue();
+            entry.getKey().execute(() -> write(writes));
+        }
+        pendingWrites.clear();
+        size = 0;
+    }
+
+    /**
+     * Hands the queued messages of a single channel to its event loop, ahead of anything submitted to the event loop
+     * afterwards. This has to be done before the channel is closed, as the messages would be lost otherwise.
+     */
+    public void flush(Channel channel) {
+        List<PendingWrite> writes = pendingWrites.get(channel.eventLoop());
+        if (writes == null) {
+            return;
+        }
+        List<PendingWrite> channelWrites = Lists.newArrayList();
+        Iterator<PendingWrite> iterator = writes.iterator();
+        while (iterator.hasNext()) {
+            PendingWrite write = iterator.next();
+            if (write.channel == channel) {
+                channelWrites.add(write);
+                iterator.remove();
+            }
+        }
+        if (!channelWrites.isEmpty()) {
+            channel.eventLoop().execute(() -> write(channelWrites));
+            size -= channelWrites.size();
+        }
+    }
+
+    private static void write(List<PendingWrite> writes) {
+        Set<Channel> written = Sets.newLinkedHashSet();
+        for (PendingWrite write : writes) {
+            if (write.sentBytes != null && write.message instanceof MessageLite) {
+                // encodes the message, the encoder then reuses the memoized size
+                write.sentBytes.addAndGet(((MessageLite) write.message).getSerializedSize());
+            }
+            write.channel.write(write.message, write.channel.voidPromise());
+            written.add(write.channel);
+        }
+        for (Channel channel : written) {
+            channel.flush();
+        }
+    }
+
+    private static final class PendingWrite {
+        private final Channel channel;
+        private final Object message;
+        private final AtomicInteger sentBytes;
+
+        private PendingWrite(Channel channel, Object message, AtomicInteger sentBytes) {
+            this.channel = channel;
+            this.message = message;
+            this.sentBytes = sentBytes;
+        }
+    }
+}
@@ -86,6 +86,8 @@ public class ServerImpl implements Server {
     private RemoteChunkProvider remoteWorldProvider;
     private BlockingQueue<Chunk> chunkQueue = Queues.newLinkedBlockingQueue();
     private TIntSet netDirty = new TIntHashSet();
+    private int receivedSequence;
+    private boolean resyncRequested;
     private SetMultimap<Integer, Class<? extends Component>> changedComponents = HashMultimap.create();
     private ListMultimap<Vector3i, NetData.BlockChangeMessage> awaitingChunkReadyBlockUpdates = ArrayListMultimap.create();
     private ListMultimap<Vector3i, NetData.ExtraDataChangeMessage> awaitingChunkReadyExtraDataUpdates = ArrayListMultimap.create();
@@ -163,6 +165,7 @@ public void update(boolean netTick) {
             if (netTick) {
                 NetData.NetMessage.Builder message = NetData.NetMessage.newBuilder();
                 message.setTime(time.getGameTimeInMs());
+                sendAcknowledgement(message);
                 sendEntities(message);
                 sendEvents(message);
                 send(message.build());
@@ -177,6 +180,16 @@ public void update(boolean netTick) {
         }
     }
 
+    private void sendAcknowledgement(NetData.NetMessage.Builder message) {
+        if (receivedSequence != 0) {
+            message.setAcknowledgedSequence(receivedSequence);
+        }
+        if (resyncRequested) {
+            message.setResyncRequested(true);
+            resyncRequested = false;
+        }
+    }
+
     private void sendEvents(NetData.NetMessage.Builder message) {
         queuedOutgoingEvents.forEach(message::addEvent);
         queuedOutgoingEvents.clear();
@@ -252,6 +265,9 @@ private void processMessages() {
             if (message.hasTime()) {
                 time.updateTimeFromServer(message.getTime());
             }
+            if (message.hasSequence()) {
+                receiveSequence(message.getSequence());
+            }
             processBlockRegistrations(message);
             processReceivedChunks(message);
             processInvalidatedChunks(message);
@@ -270,6 +286,20 @@ private void processMessages() {
         }
     }
 
+    /**
+     * Keeps track of the messages received, as the entity updates of the server are deltas against the messages this
+     * client acknowledged. If one went missing, the following deltas may not apply to what this client has, so it asks
+     * the server to send them in full again.
+     */
+    private void receiveSequence(int sequence) {
+        if (receivedSequence != 0 && sequence != receivedSequence + 1) {
+            logger.warn("Missed messages between {} and {}, requesting entity updates in full", receivedSequence,
+                    sequence);
+            resyncRequested = true;
+        }
+        receivedSequence = sequence;
+    }
+
     private void processRemoveEntities(NetData.NetMessage message) {
         for (NetData.RemoveEntityMessage removeEntity : message.getRemoveEntityList()) {
             int netId = removeEntity.getNetId();
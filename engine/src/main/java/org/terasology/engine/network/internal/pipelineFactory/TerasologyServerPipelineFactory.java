@@ -12,8 +12,10 @@
 import io.netty.handler.codec.compression.Lz4FrameEncoder;
 import io.netty.handler.codec.protobuf.ProtobufDecoder;
 import io.netty.handler.codec.protobuf.ProtobufEncoder;
+import io.netty.handler.flush.FlushConsolidationHandler;
 import org.terasology.engine.context.Context;
 import org.terasology.engine.network.internal.MetricRecordingHandler;
+import org.terasology.engine.network.internal.NetworkSystemImpl;
 import org.terasology.engine.network.internal.ServerConnectionHandler;
 import org.terasology.engine.network.internal.ServerHandler;
 import org.terasology.engine.network.internal.ServerHandshakeHandler;
@@ -35,6 +37,11 @@ public TerasologyServerPipelineFactory(Context context) {
     @Override
     protected void initChannel(Channel ch) throws Exception {
         ChannelPipeline p = ch.pipeline();
+        if (Boolean.getBoolean(NetworkSystemImpl.HIGH_THROUGHPUT_PROPERTY)) {
+            // merges the flushes of the handshake and of bursts of messages into fewer socket writes
+            p.addLast("flushConsolidation", new FlushConsolidationHandler(
+                    FlushConsolidationHandler.DEFAULT_EXPLICIT_FLUSH_AFTER_FLUSHES, true));
+        }
         p.addLast(MetricRecordingHandler.NAME, new MetricRecordingHandler());
 
         p.addLast("inflateDecoder", new Lz4FrameDecoder());
@@ -11,6 +11,8 @@
 import org.terasology.reflection.metadata.ClassMetadata;
 import org.terasology.reflection.metadata.FieldMetadata;
 
+import java.util.Objects;
+
 /**
  * Determines which fields should be sent and received by the server
  *
@@ -55,4 +57,21 @@ public boolean shouldDeserialize(ClassMetadata<?, ?> classMetadata, FieldMetadat
         ReplicatedFieldMetadata<?, ?> replicatedFieldMetadata = (ReplicatedFieldMetadata<?, ?>) fieldMetadata;
         return replicatedFieldMetadata.isReplicated() && replicatedFieldMetadata.getReplicationInfo().value().isReplicateFromOwner();
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ServerComponentFieldCheck other = (ServerComponentFieldCheck) o;
+        return owned == other.owned && entityInitial == other.entityInitial;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(owned, entityInitial);
+    }
 }
@@ -26,7 +26,6 @@
 import org.terasology.engine.world.chunks.blockdata.ExtraBlockDataManager;
 
 import java.io.BufferedInputStream;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.FileSystem;
@@ -35,7 +34,6 @@
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.List;
-import java.util.zip.GZIPInputStream;
 
 /**
  * An abstract implementation of {@link StorageManager} that is able
@@ -44,6 +42,13 @@
  */
 public abstract class AbstractStorageManager implements StorageManager {
 
+    /**
+     * System property that stores chunks in {@link RegionFile}s instead of zips or single files when set to true.
+     * Existing chunks of a save are copied the first time it gets opened for writing. A save that already has region
+     * files keeps using them when it gets opened without the property.
+     */
+    public static final String CHUNK_REGION_FILES_PROPERTY = "org.terasology.chunkRegionFiles";
+
     private static final Logger logger = LoggerFactory.getLogger(AbstractStorageManager.class);
 
     private final StoragePathProvider storagePathProvider;
@@ -56,6 +61,7 @@ public abstract class AbstractStorageManager implements StorageManager {
     private final OwnershipHelper helper;
 
     private boolean storeChunksInZips = true;
+    private ChunkRegionStore chunkRegionStore;
 
     public AbstractStorageManager(Path savePath, ModuleEnvironment environment, EngineEntityManager entityManager,
                                   BlockManager blockManager, ExtraBlockDataManager extraDataManager, boolean storeChunksInZips) {
@@ -67,6 +73,9 @@ public AbstractStorageManager(Path savePath, ModuleEnvironment environment, Engi
         this.extraDataManager = extraDataManager;
 
         this.storagePathProvider = new StoragePathProvider(savePath);
+        if (Boolean.getBoolean(CHUNK_REGION_FILES_PROPERTY) || ChunkRegionStore.hasRegionFiles(storagePathProvider)) {
+            this.chunkRegionStore = new ChunkRegionStore(storagePathProvider);
+        }
         this.helper = new OwnershipHelper(entityManager.getComponentLibrary());
     }
 
@@ -96,9 +105,8 @@ public ChunkStore loadChunkStore(Vector3ic chunkPos) {
         byte[] chunkData = loadCompressedChunk(chunkPos);
         ChunkStore store = null;
         if (chunkData != null) {
-            ByteArrayInputStream bais = new ByteArrayInputStream(chunkData);
-            try (GZIPInputStream gzipIn = new GZIPInputStream(bais)) {
-                EntityData.ChunkStore storeData = EntityData.ChunkStore.parseFrom(gzipIn);
+            try {
+                EntityData.ChunkStore storeData = EntityData.ChunkStore.parseFrom(ChunkCodec.decompress(chunkData));
                 store = new ChunkStoreInternal(storeData, entityManager, blockManager, extraDataManager);
             } catch (IOException e) {
                 logger.error("Failed to read existing saved chunk {}", chunkPos);
@@ -139,7 +147,32 @@ void setStoreChunksInZips(boolean storeChunksInZips) {
         this.storeChunksInZips = storeChunksInZips;
     }
 
+    public boolean isStoreChunksInRegionFiles() {
+        return chunkRegionStore != null;
+    }
+
+    /**
+     * For tests only
+     */
+    void setStoreChunksInRegionFiles(boolean storeChunksInRegionFiles) {
+        if (chunkRegionStore != null) {
+            chunkRegionStore.close();
+        }
+        chunkRegionStore = storeChunksInRegionFiles ? new ChunkRegionStore(storagePathProvider) : null;
+    }
+
     protected byte[] loadCompressedChunk(Vector3ic chunkPos) {
+        if (chunkRegionStore != null) {
+            try {
+                byte[] chunkData = chunkRegionStore.loadChunk(chunkPos);
+                if (chunkData != null) {
+                    return chunkData;
+                }
+            } catch (IOException e) {
+                logger.error("Failed to load chunk {} from region file", chunkPos, e);
+            }
+            // Saves that haven't been converted yet (e.g. when opened read only) still have chunks in the old layout
+        }
         if (isStoreChunksInZips()) {
             return loadChunkZip(chunkPos);
         } else {
@@ -204,6 +237,13 @@ protected void deactivateOrDestroyEntityRecursive(EntityRef entity) {
         }
     }
 
+    /**
+     * @return the region files chunks get stored in, or null if chunks are stored in zips or single files.
+     */
+    protected ChunkRegionStore getChunkRegionStore() {
+        return chunkRegionStore;
+    }
+
     protected StoragePathProvider getStoragePathProvider() {
         return storagePathProvider;
     }
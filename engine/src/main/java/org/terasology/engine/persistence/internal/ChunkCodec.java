@@ -0,0 +1,261 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.persistence.internal;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.compression.DecompressionException;
+import io.netty.handler.codec.compression.Snappy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * The compression formats chunks can be stored with.
+ * <br><br>
+ * {@link #GZIP} data is stored as is, so that saves stay readable by older versions when it is used. The data of all
+ * other codecs starts with a marker byte and the id of the codec, so {@link #decompress(byte[])} can read chunks no
+ * matter which codec they got written with.
+ */
+public enum ChunkCodec {
+    /**
+     * The original format, slow but compatible.
+     */
+    GZIP(0) {
+        @Override
+        protected byte[] encode(byte[] data) throws IOException {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream(data.length / 4);
+            try (GZIPOutputStream gzipOut = new GZIPOutputStream(baos)) {
+                gzipOut.write(data);
+            }
+            return baos.toByteArray();
+        }
+
+        @Override
+        protected byte[] decode(byte[] data, int offset) throws IOException {
+            try (InputStream gzipIn = new GZIPInputStream(new ByteArrayInputStream(data, offset, data.length - offset))) {
+                return gzipIn.readAllBytes();
+            }
+        }
+    },
+    /**
+     * Netty's pure Java Snappy implementation: a lot faster than {@link #GZIP}, but with larger output.
+     * <br><br>
+     * Netty's block encoder only handles inputs of up to 32 KB, so the data is split into blocks of that size which are
+     * compressed one by one. After the header comes the uncompressed length, followed by the compressed length and the
+     * compressed data of each block.
+     */
+    SNAPPY(1) {
+        @Override
+        protected byte[] encode(byte[] data) {
+            ByteBuf out = Unpooled.buffer(data.length / 2 + HEADER_SIZE + Integer.BYTES);
+            try {
+                out.writeByte(MARKER).writeByte(getId()).writeInt(data.length);
+                Snappy snappy = new Snappy();
+                for (int offset = 0; offset < data.length; offset += SNAPPY_BLOCK_SIZE) {
+                    int length = Math.min(SNAPPY_BLOCK_SIZE, data.length - offset);
+                    int lengthIndex = out.writerIndex();
+                    out.writeInt(0);
+                    snappy.encode(Unpooled.wrappedBuffer(data, offset, length), out, length);
+                    snappy.reset();
+                    out.setInt(lengthIndex, out.writerIndex() - lengthIndex - Integer.BYTES);
+                }
+                return ByteBufUtil.getBytes(out);
+            } finally {
+                out.release();
+            }
+        }
+
+        @Override
+        protected byte[] decode(byte[] data, int offset) throws IOException {
+            byte[] result = new byte[readLength(data, offset)];
+            ByteBuf out = Unpooled.wrappedBuffer(result).clear();
+            Snappy snappy = new Snappy();
+            int position = offset + Integer.BYTES;
+            try {
+                while (position < data.length) {
+                    int length = data.length - position >= Integer.BYTES ? readInt(data, position) : -1;
+                    position += Integer.BYTES;
+                    if (length < 0 || length > data.length - position) {
+                        throw new IOException("Truncated snappy chunk data");
+                    }
+                    snappy.decode(Unpooled.wrappedBuffer(data, position, length), out);
+                    snappy.reset();
+                    position += length;
+                }
+            } catch (DecompressionException | IndexOutOfBoundsException e) {
+                throw new IOException("Invalid snappy chunk data", e);
+            }
+            if (out.writerIndex() != result.length) {
+                throw new IOException("Truncated snappy chunk data");
+            }
+            return result;
+        }
+    },
+    /**
+     * Deflate at its fastest level, without the GZIP header and checksum.
+     */
+    DEFLATE(2) {
+        @Override
+        protected byte[] encode(byte[] data) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                deflater.setInput(data);
+                deflater.finish();
+                ByteArrayOutputStream baos = new ByteArrayOutputStream(data.length / 4);
+                baos.write(MARKER);
+                baos.write(getId());
+                writeInt(baos, data.length);
+                byte[] buffer = new byte[8192];
+                while (!deflater.finished()) {
+                    int length = deflater.deflate(buffer);
+                    baos.write(buffer, 0, length);
+                }
+                return baos.toByteArray();
+            } finally {
+                deflater.end();
+            }
+        }
+
+        @Override
+        protected byte[] decode(byte[] data, int offset) throws IOException {
+            int length = readLength(data, offset);
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(data, offset + Integer.BYTES, data.length - offset - Integer.BYTES);
+                byte[] result = new byte[length];
+                int position = 0;
+                while (position < length) {
+                    int inflated = inflater.inflate(result, position, length - position);
+                    if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+                        throw new IOException("Truncated deflate chunk data");
+                    }
+                    position += inflated;
+                }
+                return result;
+            } catch (DataFormatException e) {
+                throw new IOException("Invalid deflate chunk data", e);
+            } finally {
+                inflater.end();
+            }
+        }
+    };
+
+    /**
+     * System property that selects the codec new chunks get written with, e.g. {@code snappy}. Defaults to gzip.
+     */
+    public static final String CHUNK_CODEC_PROPERTY = "org.terasology.chunkCodec";
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkCodec.class);
+
+    /**
+     * The largest uncompressed length accepted when reading chunks, far above what the blocks, extra data and entities
+     * of a chunk take, so that corrupt lengths fail before allocating their buffer.
+     */
+    private static final int MAX_CHUNK_BYTES = 1 << 26;
+    private static final int MARKER = 0xC7;
+    private static final int HEADER_SIZE = 2;
+    private static final int SNAPPY_BLOCK_SIZE = Short.MAX_VALUE;
+    private static final int GZIP_MAGIC_FIRST_BYTE = 0x1F;
+    private static final int GZIP_MAGIC_SECOND_BYTE = 0x8B;
+
+    private final int id;
+
+    ChunkCodec(int id) {
+        this.id = id;
+    }
+
+    /**
+     * @return the codec selected by {@link #CHUNK_CODEC_PROPERTY}, or {@link #GZIP} if it names none.
+     */
+    public static ChunkCodec getConfigured() {
+        String name = System.getProperty(CHUNK_CODEC_PROPERTY);
+        if (name == null) {
+            return GZIP;
+        }
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Unknown chunk codec '{}' in {}, using gzip", name, CHUNK_CODEC_PROPERTY);
+            return GZIP;
+        }
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public byte[] compress(byte[] data) {
+        try {
+            return encode(data);
+        } catch (IOException e) {
+            // as no real IO is involved this should not happen
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Decompresses data written by any of the codecs.
+     */
+    public static byte[] decompress(byte[] data) throws IOException {
+        if (data.length >= 2 && (data[0] & 0xFF) == GZIP_MAGIC_FIRST_BYTE && (data[1] & 0xFF) == GZIP_MAGIC_SECOND_BYTE) {
+            return GZIP.decode(data, 0);
+        }
+        if (data.length >= HEADER_SIZE && (data[0] & 0xFF) == MARKER) {
+            for (ChunkCodec codec : values()) {
+                if (codec.id == data[1]) {
+                    return codec.decode(data, HEADER_SIZE);
+                }
+            }
+        }
+        throw new IOException("Unknown chunk compression");
+    }
+
+    /**
+     * @return the compressed data, including the header that identifies the codec if it needs one.
+     */
+    protected abstract byte[] encode(byte[] data) throws IOException;
+
+    /**
+     * @param offset the start of the compressed data after the header.
+     */
+    protected abstract byte[] decode(byte[] data, int offset) throws IOException;
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    /**
+     * @return the uncompressed length at the start of the compressed data
+     * @throws IOException if the data is too short to hold it, or it is no length a chunk can have
+     */
+    private static int readLength(byte[] data, int offset) throws IOException {
+        if (data.length - offset < Integer.BYTES) {
+            throw new IOException("Truncated chunk data");
+        }
+        int length = readInt(data, offset);
+        if (length < 0 || length > MAX_CHUNK_BYTES) {
+            throw new IOException("Invalid uncompressed chunk length " + length);
+        }
+        return length;
+    }
+
+    private static int readInt(byte[] data, int offset) {
+        return (data[offset] & 0xFF) << 24 | (data[offset + 1] & 0xFF) << 16 | (data[offset + 2] & 0xFF) << 8
+                | data[offset + 3] & 0xFF;
+    }
+}
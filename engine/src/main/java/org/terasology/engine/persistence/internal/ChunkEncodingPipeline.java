@@ -0,0 +1,107 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.persistence.internal;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.joml.Vector3i;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes and compresses the chunks of a save transaction on a bounded pool of worker threads, while the save
+ * transaction writes the results. The workers are created once per storage manager with {@link #createWorkers()}
+ * and shared by its save transactions.
+ * <br><br>
+ * Results are handed out in the iteration order of the given chunks. The workers never get more than two chunks per
+ * thread ahead of the writer, which keeps the memory used by encoded chunks bounded when writing is the bottleneck.
+ */
+class ChunkEncodingPipeline implements AutoCloseable {
+    private final Iterator<Map.Entry<Vector3i, CompressedChunkBuilder>> chunks;
+    private final ThreadPoolExecutor workers;
+    private final Deque<Future<Map.Entry<Vector3i, byte[]>>> inFlight = new ArrayDeque<>();
+    private final int maxInFlight;
+
+    /**
+     * @param workers a pool created by {@link #createWorkers()}
+     */
+    ChunkEncodingPipeline(Map<Vector3i, CompressedChunkBuilder> chunks, ThreadPoolExecutor workers) {
+        this.chunks = chunks.entrySet().iterator();
+        this.workers = workers;
+        this.maxInFlight = 2 * workers.getMaximumPoolSize();
+        submitChunks();
+    }
+
+    /**
+     * Creates a pool with a worker for all cores but the one of the save transaction itself. Idle workers stop after
+     * a while, so the pool doesn't need to be shut down.
+     */
+    static ThreadPoolExecutor createWorkers() {
+        int workerCount = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(workerCount, workerCount, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new ThreadFactoryBuilder()
+                        .setNameFormat("Saving-chunk-encoder-%d")
+                        .setDaemon(true)
+                        .build());
+        workers.allowCoreThreadTimeOut(true);
+        return workers;
+    }
+
+    boolean hasNext() {
+        return !inFlight.isEmpty();
+    }
+
+    /**
+     * Waits for the next chunk to be encoded.
+     *
+     * @return the chunk position and the compressed chunk.
+     */
+    Map.Entry<Vector3i, byte[]> next() throws IOException {
+        Future<Map.Entry<Vector3i, byte[]>> result = inFlight.removeFirst();
+        try {
+            Map.Entry<Vector3i, byte[]> encodedChunk = result.get();
+            submitChunks();
+            return encodedChunk;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for chunk encoding");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Chunk encoding failed", cause);
+        }
+    }
+
+    private void submitChunks() {
+        while (inFlight.size() < maxInFlight && chunks.hasNext()) {
+            Map.Entry<Vector3i, CompressedChunkBuilder> chunk = chunks.next();
+            inFlight.addLast(workers.submit(() -> Map.entry(chunk.getKey(), chunk.getValue().buildEncodedChunk())));
+        }
+    }
+
+    /**
+     * Cancels the chunks that are still being encoded, e.g. because writing failed. The workers stay available.
+     */
+    @Override
+    public void close() {
+        for (Future<Map.Entry<Vector3i, byte[]>> result : inFlight) {
+            result.cancel(true);
+        }
+        inFlight.clear();
+    }
+}
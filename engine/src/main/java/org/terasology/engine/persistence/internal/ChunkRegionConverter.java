@@ -0,0 +1,100 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.persistence.internal;
+
+import org.joml.Vector3i;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Copies the chunks of a world that are stored in chunk zips or single chunk files into region files.
+ * <br><br>
+ * The old files are kept, so the save stays loadable by versions which don't know region files. Chunks that already
+ * are in a region file are never overwritten, as the region file holds the same or a newer copy. An interrupted
+ * conversion can therefore simply be run again. Once all region files have been flushed, a marker file is written so
+ * later runs don't scan the old files again.
+ */
+public final class ChunkRegionConverter {
+    private static final Logger logger = LoggerFactory.getLogger(ChunkRegionConverter.class);
+    private static final String CHUNK_ZIP_SUFFIX = ".chunks.zip";
+    private static final String CONVERTED_MARKER = "regions.converted";
+
+    private ChunkRegionConverter() {
+    }
+
+    /**
+     * @return the number of converted chunks.
+     */
+    public static int convert(StoragePathProvider storagePathProvider, ChunkRegionStore chunkRegionStore)
+            throws IOException {
+        Path worldPath = storagePathProvider.getWorldPath();
+        Path markerPath = worldPath.resolve(CONVERTED_MARKER);
+        if (!Files.isDirectory(worldPath) || Files.exists(markerPath)) {
+            return 0;
+        }
+        int fileCount = 0;
+        int chunkCount = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(worldPath)) {
+            for (Path file : files) {
+                String filename = file.getFileName().toString();
+                if (filename.endsWith(CHUNK_ZIP_SUFFIX)) {
+                    chunkCount += convertChunkZip(file, storagePathProvider, chunkRegionStore);
+                    fileCount++;
+                } else {
+                    Vector3i chunkPos = storagePathProvider.getChunkPosition(filename);
+                    if (chunkPos != null) {
+                        if (convertChunk(chunkPos, file, chunkRegionStore)) {
+                            chunkCount++;
+                        }
+                        fileCount++;
+                    }
+                }
+            }
+        }
+
+        chunkRegionStore.flush();
+        Files.createFile(markerPath);
+        if (fileCount > 0) {
+            logger.info("Converted {} chunks from {} files into region files", chunkCount, fileCount);
+        }
+        return chunkCount;
+    }
+
+    /**
+     * @return whether the chunk got stored, false if the region file already had it.
+     */
+    private static boolean convertChunk(Vector3i chunkPos, Path chunkPath, ChunkRegionStore chunkRegionStore)
+            throws IOException {
+        if (chunkRegionStore.loadChunk(chunkPos) != null) {
+            return false;
+        }
+        chunkRegionStore.storeChunk(chunkPos, Files.readAllBytes(chunkPath));
+        return true;
+    }
+
+    private static int convertChunkZip(Path chunkZipPath, StoragePathProvider storagePathProvider,
+                                       ChunkRegionStore chunkRegionStore) throws IOException {
+        int chunkCount = 0;
+        try (FileSystem chunkZip = FileSystems.newFileSystem(chunkZipPath, (ClassLoader) null)) {
+            for (Path root : chunkZip.getRootDirectories()) {
+                try (DirectoryStream<Path> entries = Files.newDirectoryStream(root)) {
+                    for (Path entry : entries) {
+                        Vector3i chunkPos = storagePathProvider.getChunkPosition(entry.getFileName().toString());
+                        if (chunkPos != null && Files.isRegularFile(entry)
+                                && convertChunk(chunkPos, entry, chunkRegionStore)) {
+                            chunkCount++;
+                        }
+                    }
+                }
+            }
+        }
+        return chunkCount;
+    }
+}
@@ -0,0 +1,109 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.persistence.internal;
+
+import com.google.common.collect.Maps;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Stores compressed chunks of a world in {@link RegionFile}s and keeps the region files that got used open, so that
+ * loading a chunk only needs a header lookup and a copy out of the file mapping.
+ */
+public class ChunkRegionStore implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(ChunkRegionStore.class);
+
+    private final StoragePathProvider storagePathProvider;
+    private final Map<Vector3i, RegionFile> regionFiles = Maps.newConcurrentMap();
+
+    public ChunkRegionStore(StoragePathProvider storagePathProvider) {
+        this.storagePathProvider = storagePathProvider;
+    }
+
+    /**
+     * @return whether the world already stores chunks in region files, in which case they have to be read from there
+     *         regardless of {@link AbstractStorageManager#CHUNK_REGION_FILES_PROPERTY}.
+     */
+    public static boolean hasRegionFiles(StoragePathProvider storagePathProvider) {
+        Path worldPath = storagePathProvider.getWorldPath();
+        if (!Files.isDirectory(worldPath)) {
+            return false;
+        }
+        try (DirectoryStream<Path> regionFiles = Files.newDirectoryStream(worldPath, "*.region")) {
+            return regionFiles.iterator().hasNext();
+        } catch (IOException e) {
+            logger.error("Failed to look for region files in {}", worldPath, e);
+            return false;
+        }
+    }
+
+    /**
+     * @return the compressed chunk data, or null if the chunk hasn't been stored.
+     */
+    public byte[] loadChunk(Vector3ic chunkPos) throws IOException {
+        RegionFile regionFile = getRegionFile(storagePathProvider.getChunkRegionPosition(chunkPos), false);
+        if (regionFile == null) {
+            return null;
+        }
+        return regionFile.read(RegionFile.getIndex(chunkPos));
+    }
+
+    /**
+     * Writes the compressed chunk data into its region file, creating the file if necessary. Use {@link #flush()} to
+     * make sure the data reached the disk.
+     */
+    public void storeChunk(Vector3ic chunkPos, byte[] compressedChunk) throws IOException {
+        RegionFile regionFile = getRegionFile(storagePathProvider.getChunkRegionPosition(chunkPos), true);
+        regionFile.write(RegionFile.getIndex(chunkPos), compressedChunk);
+    }
+
+    public void flush() throws IOException {
+        for (RegionFile regionFile : regionFiles.values()) {
+            regionFile.flush();
+        }
+    }
+
+    /**
+     * Closes all open region files. The store can still be used afterwards and will reopen them on demand.
+     */
+    @Override
+    public synchronized void close() {
+        for (RegionFile regionFile : regionFiles.values()) {
+            try {
+                regionFile.close();
+            } catch (IOException e) {
+                logger.error("Failed to close region file", e);
+            }
+        }
+        regionFiles.clear();
+    }
+
+    private RegionFile getRegionFile(Vector3i regionPos, boolean create) throws IOException {
+        RegionFile regionFile = regionFiles.get(regionPos);
+        if (regionFile != null) {
+            return regionFile;
+        }
+        synchronized (this) {
+            regionFile = regionFiles.get(regionPos);
+            if (regionFile == null) {
+                Path path = storagePathProvider.getChunkRegionPath(regionPos);
+                if (!create && !Files.isRegularFile(path)) {
+                    return null;
+                }
+                Files.createDirectories(path.getParent());
+                regionFile = RegionFile.open(path);
+                regionFiles.put(regionPos, regionFile);
+            }
+            return regionFile;
+        }
+    }
+}
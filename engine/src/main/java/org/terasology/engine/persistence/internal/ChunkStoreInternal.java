@@ -10,6 +10,7 @@
 import org.terasology.engine.world.block.BlockManager;
 import org.terasology.engine.world.chunks.Chunk;
 import org.terasology.engine.world.chunks.blockdata.ExtraBlockDataManager;
+import org.terasology.engine.world.chunks.internal.ChunkImpl;
 import org.terasology.engine.world.chunks.internal.ChunkSerializer;
 
 final class ChunkStoreInternal implements ChunkStore {
@@ -26,6 +27,10 @@ final class ChunkStoreInternal implements ChunkStore {
         this.entityManager = entityManager;
 
         this.chunk = ChunkSerializer.decode(chunkData, blockManager, extraDataManager);
+        if (chunk instanceof ChunkImpl) {
+            // the stored version is up to date, so incremental saves don't need to write it again
+            ((ChunkImpl) chunk).markSaved();
+        }
         this.entityStore = chunkData.getStore();
     }
 
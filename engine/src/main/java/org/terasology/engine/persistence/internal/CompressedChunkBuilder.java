@@ -7,11 +7,8 @@
 import org.terasology.protobuf.EntityData;
 import org.terasology.engine.world.chunks.internal.ChunkImpl;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.util.Collection;
 import java.util.Set;
-import java.util.zip.GZIPOutputStream;
 
 /**
  * Provides an easy to get a compressed version of a chunk. Either the chunk most have a snapshot of it's state
@@ -22,6 +19,7 @@ public class CompressedChunkBuilder {
     private EntityData.EntityStore entityStore;
     private ChunkImpl chunk;
     private boolean viaSnapshot;
+    private final ChunkCodec codec = ChunkCodec.getConfigured();
     private byte[] result;
     private Set<EntityRef> storedEntities;
 
@@ -76,14 +74,7 @@ public synchronized byte[] buildEncodedChunk() {
     }
 
     private byte[] compressChunkStore(EntityData.ChunkStore store) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        try (GZIPOutputStream gzipOut = new GZIPOutputStream(baos)) {
-            store.writeTo(gzipOut);
-        } catch (IOException e) {
-            // as no real IO is involved this should not happen
-            throw new RuntimeException(e);
-        }
-        return baos.toByteArray();
+        return codec.compress(store.toByteArray());
     }
 
     public Set<EntityRef> getStoredEntities() {
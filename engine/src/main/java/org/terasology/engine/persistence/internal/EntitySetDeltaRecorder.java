@@ -3,10 +3,13 @@
 package org.terasology.engine.persistence.internal;
 
 import com.google.common.collect.MapMaker;
+import com.google.common.collect.Sets;
 import gnu.trove.map.TLongObjectMap;
 import gnu.trove.map.hash.TLongObjectHashMap;
 import gnu.trove.set.TLongSet;
 import gnu.trove.set.hash.TLongHashSet;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
 import org.terasology.engine.entitySystem.entity.EntityManager;
 import org.terasology.engine.entitySystem.entity.EntityRef;
 import org.terasology.engine.entitySystem.metadata.ComponentLibrary;
@@ -14,6 +17,7 @@
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.Set;
 
 /**
  *
@@ -21,6 +25,9 @@
  * have been made since the last auto save. This save delta can then be applied to a copy the entities as they were at
  * the point of the last auto save. By doing so the auto save can access a snapshot of all entities on
  * off the main thread.
+ * <br><br>
+ * It also records the loaded chunks whose blocks changed, so that an incremental save only needs to write the chunks
+ * that contain changed blocks or changed entities.
  *
  */
 class EntitySetDeltaRecorder {
@@ -29,6 +36,7 @@ class EntitySetDeltaRecorder {
     private TLongObjectMap<EntityDelta> entityDeltas = new TLongObjectHashMap<>();
     private TLongSet destroyedEntities = new TLongHashSet();
     private TLongSet deactivatedEntities = new TLongHashSet();
+    private Set<Vector3i> changedChunks = Sets.newHashSet();
     /**
      * The used keys are unique, so that it is a collection of {@link DelayedEntityRef}s that cleans itself up
      * when the{@link DelayedEntityRef}s get no longer referenced
@@ -94,6 +102,26 @@ public TLongSet getDeactivatedEntities() {
         return deactivatedEntities;
     }
 
+    /**
+     * @return the ids of all entities that got changed or destroyed.
+     */
+    public TLongSet getChangedEntities() {
+        TLongSet changedEntities = new TLongHashSet(entityDeltas.keySet());
+        changedEntities.addAll(destroyedEntities);
+        return changedEntities;
+    }
+
+    public void onChunkChanged(Vector3ic chunkPos) {
+        changedChunks.add(new Vector3i(chunkPos));
+    }
+
+    /**
+     * @return the positions of the loaded chunks whose blocks or extra data got changed.
+     */
+    public Set<Vector3i> getChangedChunks() {
+        return changedChunks;
+    }
+
     public void onReactivation(EntityRef entity, Collection<Component> components) {
         if (entity.isPersistent()) {
             EntityDelta entityDelta = getOrCreateEntityDeltaFor(entity);
@@ -4,7 +4,9 @@
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import gnu.trove.set.TLongSet;
 import org.joml.Vector3f;
+import org.joml.Vector3i;
 import org.joml.Vector3ic;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -61,6 +63,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
@@ -69,7 +72,6 @@ public final class ReadWriteStorageManager extends AbstractStorageManager
         implements EntityDestroySubscriber, EntityChangeSubscriber, DelayedEntityRefFactory {
     private static final Logger logger = LoggerFactory.getLogger(ReadWriteStorageManager.class);
 
-    private final SaveTransactionHelper saveTransactionHelper;
 
     /**
      * This lock should be hold during read and write operation in the world directory. Currently it is being hold
@@ -94,6 +96,12 @@ public final class ReadWriteStorageManager extends AbstractStorageManager
     private boolean saveRequested;
     private final ConcurrentMap<Vector3ic, CompressedChunkBuilder> unloadedAndUnsavedChunkMap = Maps.newConcurrentMap();
     private final ConcurrentMap<Vector3ic, CompressedChunkBuilder> unloadedAndSavingChunkMap = Maps.newConcurrentMap();
+    /**
+     * The ids of the entities each loaded chunk got saved with the last time. Used by incremental auto saves to detect
+     * chunks that entities moved out of.
+     */
+    private final Map<Vector3i, TLongSet> savedChunkEntities = Maps.newConcurrentMap();
+    private final ThreadPoolExecutor chunkEncoders = ChunkEncodingPipeline.createWorkers();
     private final ConcurrentMap<String, EntityData.PlayerStore> unloadedAndUnsavedPlayerMap = Maps.newConcurrentMap();
     private final ConcurrentMap<String, EntityData.PlayerStore> unloadedAndSavingPlayerMap = Maps.newConcurrentMap();
 
@@ -128,7 +136,6 @@ public ReadWriteStorageManager(Path savePath, ModuleEnvironment environment, Eng
         // TODO Ensure that the component library and the type serializer library are thread save (e.g. immutable)
         this.privateEntityManager = createPrivateEntityManager(entityManager.getComponentLibrary());
         Files.createDirectories(getStoragePathProvider().getStoragePathDirectory());
-        this.saveTransactionHelper = new SaveTransactionHelper(getStoragePathProvider());
         this.config = CoreRegistry.get(Config.class);
         this.systemConfig = CoreRegistry.get((SystemConfig.class));
         this.entityRefReplacingComponentLibrary = privateEntityManager.getComponentLibrary()
@@ -155,6 +162,9 @@ public void finishSavingAndShutdown() {
         if (saveTransaction != null) {
             saveTransaction.block();
         }
+        if (isStoreChunksInRegionFiles()) {
+            getChunkRegionStore().close();
+        }
     }
 
     private void addGlobalStoreBuilderToSaveTransaction(SaveTransactionBuilder transactionBuilder) {
@@ -208,6 +218,10 @@ private void addChunksToSaveTransaction(SaveTransactionBuilder saveTransactionBu
             // If there is a newer undisposed version of the chunk,we don't need to save the disposed version:
             unloadedAndSavingChunkMap.remove(chunk.getPosition());
             ChunkImpl chunkImpl = (ChunkImpl) chunk;  // this storage manager can only work with ChunkImpls
+            // the chunk gets marked as saved by the transaction once it got written
+            if (chunkImpl.hasUnsavedChanges()) {
+                entitySetDeltaRecorder.onChunkChanged(chunk.getPosition());
+            }
             saveTransactionBuilder.addLoadedChunk(chunk.getPosition(), chunkImpl);
         });
 
@@ -232,14 +246,22 @@ private void waitForCompletionOfPreviousSave() {
             recordAndReplayUtils.setShutdownRequested(true); //Important to trigger complete serialization in a recording
         }
         if (saveTransaction != null) {
-            saveTransaction.block();
+            try {
+                saveTransaction.block();
+            } catch (RuntimeException e) {
+                // already logged by the transaction, its data gets written by the next one
+                logger.warn("Previous save failed, saving again");
+            }
         }
     }
 
-    private SaveTransaction createSaveTransaction() {
+    /**
+     * @param incremental if true, only loaded chunks with changed blocks or entities get written
+     */
+    private SaveTransaction createSaveTransaction(boolean incremental) {
         SaveTransactionBuilder saveTransactionBuilder = new SaveTransactionBuilder(privateEntityManager,
-                entitySetDeltaRecorder, isStoreChunksInZips(), getStoragePathProvider(), worldDirectoryWriteLock,
-                recordAndReplaySerializer, recordAndReplayUtils, recordAndReplayCurrentStatus);
+                entitySetDeltaRecorder, isStoreChunksInZips(), getChunkRegionStore(), incremental, savedChunkEntities,
+                chunkEncoders, getStoragePathProvider(), worldDirectoryWriteLock, recordAndReplaySerializer, recordAndReplayUtils, recordAndReplayCurrentStatus);
 
         ChunkProvider chunkProvider = CoreRegistry.get(ChunkProvider.class);
         NetworkSystem networkSystem = CoreRegistry.get(NetworkSystem.class);
@@ -305,6 +327,7 @@ public void deactivateChunk(Chunk chunk) {
                 entitiesOfChunk, true));
 
         entitiesOfChunk.forEach(this::deactivateOrDestroyEntityRecursive);
+        savedChunkEntities.remove(chunk.getPosition());
     }
 
     @Override
@@ -393,8 +416,9 @@ private void startSaving() {
             }
 
             saveRequested = false;
-            saveTransaction = Mono.fromRunnable(createSaveTransaction())
+            saveTransaction = Mono.fromRunnable(createSaveTransaction(false))
                     .subscribeOn(GameScheduler.parallel())
+                    .doOnError(unused -> this.saveFailed())
                     .doFinally(unused -> this.saveComplete())
                     .share();
             saveTransaction.subscribe();
@@ -419,8 +443,9 @@ private void startAutoSaving() {
                 sys.preAutoSave();
             }
 
-            saveTransaction = Mono.fromRunnable(createSaveTransaction())
+            saveTransaction = Mono.fromRunnable(createSaveTransaction(systemConfig.incrementalAutoSaveEnabled.get()))
                     .subscribeOn(GameScheduler.parallel())
+                    .doOnError(unused -> this.saveFailed())
                     .doFinally(unused -> this.saveComplete())
                     .share();
             saveTransaction.subscribe();
@@ -435,6 +460,14 @@ private void startAutoSaving() {
         logger.info("Auto Saving - Snapshot created: Writing phase starts");
     }
 
+    /**
+     * Puts the unloaded chunks and players of a failed save back, so the next save writes them.
+     */
+    private void saveFailed() {
+        unloadedAndSavingChunkMap.forEach(unloadedAndUnsavedChunkMap::putIfAbsent);
+        unloadedAndSavingPlayerMap.forEach(unloadedAndUnsavedPlayerMap::putIfAbsent);
+    }
+
     private void saveComplete() {
         saveTransaction = null;
         unloadedAndSavingChunkMap.clear();
@@ -479,10 +512,15 @@ public boolean isSaving() {
 
     @Override
     public void checkAndRepairSaveIfNecessary() throws IOException {
+        SaveTransactionHelper saveTransactionHelper = new SaveTransactionHelper(getStoragePathProvider(),
+                getChunkRegionStore());
         saveTransactionHelper.cleanupSaveTransactionDirectory();
         if (Files.exists(getStoragePathProvider().getUnmergedChangesPath())) {
             saveTransactionHelper.mergeChanges();
         }
+        if (isStoreChunksInRegionFiles()) {
+            ChunkRegionConverter.convert(getStoragePathProvider(), getChunkRegionStore());
+        }
     }
 
 
@@ -493,7 +531,11 @@ public void deleteWorld() {
         unloadedAndSavingChunkMap.clear();
         unloadedAndUnsavedPlayerMap.clear();
         unloadedAndSavingPlayerMap.clear();
+        savedChunkEntities.clear();
 
+        if (isStoreChunksInRegionFiles()) {
+            getChunkRegionStore().close();
+        }
         try {
             FilesUtil.recursiveDelete(getStoragePathProvider().getWorldPath());
         } catch (IOException e) {
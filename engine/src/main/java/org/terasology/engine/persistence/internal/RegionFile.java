@@ -0,0 +1,244 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.persistence.internal;
+
+import org.joml.Vector3ic;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+/**
+ * A single file that holds the compressed chunks of a cube of {@link #REGION_SIZE} chunk positions along each axis.
+ * <br><br>
+ * The file starts with a fixed size header: a magic number and a format version followed by one entry per chunk
+ * slot, consisting of the first sector and the byte length of the chunk payload. A sector of 0 marks an empty slot.
+ * Payloads are stored in {@link #SECTOR_SIZE} byte sectors behind the header, so a single chunk can be replaced
+ * without rewriting any of the other chunks of the region.
+ * <br><br>
+ * Reads copy the payload out of a read-only memory mapping of the whole file, which is refreshed when the file has
+ * grown. Writes must not run concurrently with reads of the same slot; the storage manager's world directory lock
+ * takes care of that.
+ */
+class RegionFile implements Closeable {
+    static final int REGION_SIZE = 32;
+    static final int CHUNKS_PER_REGION = REGION_SIZE * REGION_SIZE * REGION_SIZE;
+    static final int SECTOR_SIZE = 4096;
+
+    private static final Logger logger = LoggerFactory.getLogger(RegionFile.class);
+
+    private static final int MAGIC = 0x54524547; // "TREG"
+    private static final int VERSION = 1;
+    private static final int PREAMBLE_SIZE = 2 * Integer.BYTES;
+    private static final int ENTRY_SIZE = 2 * Integer.BYTES;
+    private static final int HEADER_SIZE = PREAMBLE_SIZE + CHUNKS_PER_REGION * ENTRY_SIZE;
+    private static final int HEADER_SECTORS = (HEADER_SIZE + SECTOR_SIZE - 1) / SECTOR_SIZE;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final boolean writable;
+    private final int[] sectors = new int[CHUNKS_PER_REGION];
+    private final int[] lengths = new int[CHUNKS_PER_REGION];
+    private final BitSet usedSectors = new BitSet();
+    private MappedByteBuffer mapping;
+
+    private RegionFile(Path path, FileChannel channel, boolean writable) {
+        this.path = path;
+        this.channel = channel;
+        this.writable = writable;
+    }
+
+    /**
+     * Opens the region file at the given path. A missing file is created with an empty header; an existing file is
+     * opened read-only if it isn't writable.
+     */
+    static RegionFile open(Path path) throws IOException {
+        boolean writable = !Files.exists(path) || Files.isWritable(path);
+        FileChannel channel = writable
+                ? FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ);
+        RegionFile regionFile = new RegionFile(path, channel, writable);
+        try {
+            regionFile.readOrCreateHeader();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return regionFile;
+    }
+
+    /**
+     * @return the slot index of the chunk within its region.
+     */
+    static int getIndex(Vector3ic chunkPos) {
+        return Math.floorMod(chunkPos.x(), REGION_SIZE)
+                + REGION_SIZE * (Math.floorMod(chunkPos.y(), REGION_SIZE)
+                + REGION_SIZE * Math.floorMod(chunkPos.z(), REGION_SIZE));
+    }
+
+    private void readOrCreateHeader() throws IOException {
+        usedSectors.set(0, HEADER_SECTORS);
+        if (channel.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(VERSION);
+            header.rewind();
+            writeFully(header, 0);
+            return;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                throw new IOException("Truncated region file header in " + path);
+            }
+        }
+        header.flip();
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a region file: " + path);
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported region file version " + version + " in " + path);
+        }
+        long fileSize = channel.size();
+        for (int i = 0; i < CHUNKS_PER_REGION; i++) {
+            int sector = header.getInt();
+            int length = header.getInt();
+            if (sector == 0) {
+                continue;
+            }
+            int sectorCount = getSectorCount(length);
+            int nextUsedSector = sector >= HEADER_SECTORS ? usedSectors.nextSetBit(sector) : 0;
+            boolean overlapsOtherEntry = nextUsedSector >= 0 && nextUsedSector < sector + sectorCount;
+            if (sector < HEADER_SECTORS || length <= 0 || (long) sector * SECTOR_SIZE + length > fileSize
+                    || overlapsOtherEntry) {
+                logger.warn("Ignoring corrupt entry {} in region file {}", i, path);
+                continue;
+            }
+            sectors[i] = sector;
+            lengths[i] = length;
+            usedSectors.set(sector, sector + sectorCount);
+        }
+    }
+
+    /**
+     * @return the payload stored in the given slot, or null if the slot is empty.
+     */
+    byte[] read(int index) throws IOException {
+        int sector;
+        int length;
+        MappedByteBuffer buffer;
+        synchronized (this) {
+            sector = sectors[index];
+            length = lengths[index];
+            if (sector == 0) {
+                return null;
+            }
+            buffer = getMapping((long) sector * SECTOR_SIZE + length);
+        }
+        byte[] data = new byte[length];
+        buffer.get(sector * SECTOR_SIZE, data);
+        return data;
+    }
+
+    /**
+     * Stores the payload in the given slot. It is written into the sectors the slot already had if it fits, otherwise
+     * into the first free run of sectors that is large enough. The header entry is updated after the payload.
+     */
+    synchronized void write(int index, byte[] data) throws IOException {
+        if (!writable) {
+            throw new IOException("Region file is read only: " + path);
+        }
+        int neededSectors = getSectorCount(data.length);
+        int oldSector = sectors[index];
+        int oldSectorCount = getSectorCount(lengths[index]);
+        int sector;
+        if (oldSector != 0 && neededSectors <= oldSectorCount) {
+            sector = oldSector;
+            usedSectors.clear(oldSector + neededSectors, oldSector + oldSectorCount);
+        } else {
+            if (oldSector != 0) {
+                usedSectors.clear(oldSector, oldSector + oldSectorCount);
+            }
+            sector = findFreeSectors(neededSectors);
+            usedSectors.set(sector, sector + neededSectors);
+        }
+        writeFully(ByteBuffer.wrap(data), (long) sector * SECTOR_SIZE);
+
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE);
+        entry.putInt(sector).putInt(data.length);
+        entry.flip();
+        writeFully(entry, PREAMBLE_SIZE + (long) index * ENTRY_SIZE);
+        sectors[index] = sector;
+        lengths[index] = data.length;
+    }
+
+    /**
+     * @return the number of chunks stored in this region.
+     */
+    synchronized int getChunkCount() {
+        int count = 0;
+        for (int sector : sectors) {
+            if (sector != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Forces all written payloads and header entries to the storage device.
+     */
+    synchronized void flush() throws IOException {
+        if (writable) {
+            channel.force(false);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        mapping = null;
+        channel.close();
+    }
+
+    private int findFreeSectors(int count) {
+        int start = usedSectors.nextClearBit(HEADER_SECTORS);
+        while (true) {
+            int end = usedSectors.nextSetBit(start);
+            if (end < 0 || end - start >= count) {
+                return start;
+            }
+            start = usedSectors.nextClearBit(end);
+        }
+    }
+
+    private MappedByteBuffer getMapping(long requiredSize) throws IOException {
+        if (mapping == null || mapping.capacity() < requiredSize) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Region file too large to map: " + path);
+            }
+            mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        return mapping;
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            offset += channel.write(buffer, offset);
+        }
+    }
+
+    private static int getSectorCount(int length) {
+        return (length + SECTOR_SIZE - 1) / SECTOR_SIZE;
+    }
+}
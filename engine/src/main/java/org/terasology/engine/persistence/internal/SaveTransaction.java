@@ -5,6 +5,12 @@
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import gnu.trove.set.TLongSet;
+import gnu.trove.set.hash.TLongHashSet;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import org.joml.Vector3f;
 import org.joml.Vector3i;
 import org.slf4j.Logger;
@@ -12,6 +18,7 @@
 import org.terasology.engine.core.PathManager;
 import org.terasology.engine.entitySystem.entity.EntityRef;
 import org.terasology.engine.entitySystem.entity.internal.EngineEntityManager;
+import org.terasology.engine.entitySystem.entity.internal.OwnershipHelper;
 import org.terasology.engine.game.GameManifest;
 import org.terasology.engine.logic.location.LocationComponent;
 import org.terasology.engine.network.ClientComponent;
@@ -45,6 +52,8 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 
 /**
@@ -53,6 +62,17 @@
 public class SaveTransaction implements Runnable {
     private static final Logger logger = LoggerFactory.getLogger(SaveTransaction.class);
 
+    private static final Timer SAVE_DURATION = Timer.builder("terasology.save.duration")
+            .description("time to write a save game and merge it into the save")
+            .register(Metrics.globalRegistry);
+    private static final DistributionSummary SAVE_SIZE = DistributionSummary.builder("terasology.save.size")
+            .description("bytes written per save game")
+            .baseUnit("bytes")
+            .register(Metrics.globalRegistry);
+    private static final Counter SAVED_CHUNKS = Counter.builder("terasology.save.chunks")
+            .description("chunks written by save games")
+            .register(Metrics.globalRegistry);
+
     private static final ImmutableMap<String, String> CREATE_ZIP_OPTIONS = ImmutableMap.of("create", "true", "encoding", "UTF-8");
     private final GameManifest gameManifest;
     private final Lock worldDirectoryWriteLock;
@@ -64,16 +84,29 @@ public class SaveTransaction implements Runnable {
     private final Map<String, PlayerStoreBuilder> loadedPlayers;
     private final Map<Vector3i, CompressedChunkBuilder> unloadedChunks;
     private final Map<Vector3i, ChunkImpl> loadedChunks;
+    /**
+     * The versions of the loaded chunks when the transaction got created, marked as saved once it got merged.
+     */
+    private final Map<Vector3i, Integer> loadedChunkVersions = Maps.newHashMap();
     private final GlobalStoreBuilder globalStoreBuilder;
 
     // processed data:
     private EntityData.GlobalStore globalStore;
     private Map<String, EntityData.PlayerStore> allPlayers;
     private Map<Vector3i, CompressedChunkBuilder> allChunks;
+    private final Map<Vector3i, TLongSet> writtenChunkEntities = Maps.newHashMap();
 
 
     // Save parameters:
     private final boolean storeChunksInZips;
+    private final ChunkRegionStore chunkRegionStore;
+    private final boolean incremental;
+    /**
+     * The ids of the entities each loaded chunk got saved with, shared between save transactions. Only updated once a
+     * transaction got merged.
+     */
+    private final Map<Vector3i, TLongSet> savedChunkEntities;
+    private final ThreadPoolExecutor chunkEncoders;
 
     // utility classes for saving:
     private final StoragePathProvider storagePathProvider;
@@ -89,7 +122,9 @@ public SaveTransaction(EngineEntityManager privateEntityManager, EntitySetDeltaR
                            Map<String, EntityData.PlayerStore> unloadedPlayers,
                            Map<String, PlayerStoreBuilder> loadedPlayers, GlobalStoreBuilder globalStoreBuilder,
                            Map<Vector3i, CompressedChunkBuilder> unloadedChunks, Map<Vector3i, ChunkImpl> loadedChunks,
-                           GameManifest gameManifest, boolean storeChunksInZips,
+                           GameManifest gameManifest, boolean storeChunksInZips, ChunkRegionStore chunkRegionStore,
+                           boolean incremental, Map<Vector3i, TLongSet> savedChunkEntities,
+                           ThreadPoolExecutor chunkEncoders,
                            StoragePathProvider storagePathProvider, Lock worldDirectoryWriteLock,
                            RecordAndReplaySerializer recordAndReplaySerializer,
                            RecordAndReplayUtils recordAndReplayUtils,
@@ -100,11 +135,16 @@ public SaveTransaction(EngineEntityManager privateEntityManager, EntitySetDeltaR
         this.loadedPlayers = loadedPlayers;
         this.unloadedChunks = unloadedChunks;
         this.loadedChunks = loadedChunks;
+        loadedChunks.forEach((chunkPos, chunk) -> loadedChunkVersions.put(chunkPos, chunk.getChangeVersion()));
         this.globalStoreBuilder = globalStoreBuilder;
         this.gameManifest = gameManifest;
         this.storeChunksInZips = storeChunksInZips;
+        this.chunkRegionStore = chunkRegionStore;
+        this.incremental = incremental;
+        this.savedChunkEntities = savedChunkEntities;
+        this.chunkEncoders = chunkEncoders;
         this.storagePathProvider = storagePathProvider;
-        this.saveTransactionHelper = new SaveTransactionHelper(storagePathProvider);
+        this.saveTransactionHelper = new SaveTransactionHelper(storagePathProvider, chunkRegionStore);
         this.worldDirectoryWriteLock = worldDirectoryWriteLock;
         this.recordAndReplaySerializer = recordAndReplaySerializer;
         this.recordAndReplayUtils = recordAndReplayUtils;
@@ -120,6 +160,8 @@ public void run() {
         if (isReplay()) {
             return;
         }
+        long startTime = System.nanoTime();
+        boolean merged = false;
         try {
             if (Files.exists(storagePathProvider.getUnmergedChangesPath())) {
                 // should not happen, as initialization should clean it up
@@ -134,16 +176,39 @@ public void run() {
             writeGlobalStore();
             writeChunkStores();
             saveGameManifest();
+            long bytesWritten = getSizeOfSaveTransactionDirectory();
             perpareChangesForMerge();
             mergeChanges();
-            logger.info("Save game finished");
+            merged = true;
+            markChunksSaved();
+            long duration = System.nanoTime() - startTime;
+            SAVE_DURATION.record(duration, TimeUnit.NANOSECONDS);
+            SAVE_SIZE.record(bytesWritten);
+            SAVED_CHUNKS.increment(allChunks.size());
+            logger.info("Save game finished in {} ms: {} of {} loaded chunks and {} unloaded chunks written, {} bytes",
+                    duration / 1_000_000, allChunks.size() - unloadedChunks.size(),
+                    loadedChunks.size(), unloadedChunks.size(), bytesWritten);
             saveRecordingData();
         } catch (IOException t) {
             logger.error("Save game creation failed", t);
             throw new UncheckedIOException("Save game creation failed", t);
+        } finally {
+            if (!merged) {
+                // the entity changes of this transaction are lost, so its chunks must not count as saved with them
+                loadedChunks.keySet().forEach(savedChunkEntities::remove);
+            }
         }
     }
 
+    /**
+     * Marks the loaded chunks as saved in the versions this transaction took, and records which entities the written
+     * chunks got stored with. Changes made since then stay unsaved for the next transaction.
+     */
+    private void markChunksSaved() {
+        loadedChunkVersions.forEach((chunkPos, version) -> loadedChunks.get(chunkPos).markSaved(version));
+        savedChunkEntities.putAll(writtenChunkEntities);
+    }
+
     private void createPreviewImagesFolder() throws IOException {
         Files.createDirectories(storagePathProvider.getPreviewsPath());
     }
@@ -199,9 +264,12 @@ private void prepareChunksPlayersAndGlobalStore() {
      */
     private void prepareCompressedChunkBuilders(Set<EntityRef> unsavedEntities) {
         Map<Vector3i, Collection<EntityRef>> chunkPosToEntitiesMap = createChunkPosToUnsavedOwnerLessEntitiesMap();
+        OwnershipHelper ownershipHelper = new OwnershipHelper(privateEntityManager.getComponentLibrary());
+        TLongSet changedEntities = deltaToSave.getChangedEntities();
 
         allChunks = Maps.newHashMap();
         allChunks.putAll(unloadedChunks);
+        unloadedChunks.keySet().forEach(savedChunkEntities::remove);
         for (Map.Entry<Vector3i, ChunkImpl> chunkEntry : loadedChunks.entrySet()) {
             Collection<EntityRef> entitiesToStore = chunkPosToEntitiesMap.get(chunkEntry.getKey());
             if (entitiesToStore == null) {
@@ -209,11 +277,64 @@ private void prepareCompressedChunkBuilders(Set<EntityRef> unsavedEntities) {
             }
             ChunkImpl chunk = chunkEntry.getValue();
             unsavedEntities.removeAll(entitiesToStore);
+            if (incremental) {
+                Set<EntityRef> storedEntities = new HashSet<>();
+                entitiesToStore.stream().filter(EntityRef::isPersistent)
+                        .forEach(entity -> collectStoredEntities(entity, ownershipHelper, storedEntities));
+                if (!isChunkChanged(chunkEntry.getKey(), storedEntities, changedEntities)) {
+                    unsavedEntities.removeAll(storedEntities);
+                    continue;
+                }
+            }
             CompressedChunkBuilder compressedChunkBuilder = new CompressedChunkBuilder(privateEntityManager, chunk,
                     entitiesToStore, false);
             unsavedEntities.removeAll(compressedChunkBuilder.getStoredEntities());
             allChunks.put(chunkEntry.getKey(), compressedChunkBuilder);
+            writtenChunkEntities.put(chunkEntry.getKey(), getIds(compressedChunkBuilder.getStoredEntities()));
+        }
+    }
+
+    /**
+     * A loaded chunk needs to be written again if its blocks changed, one of the entities it gets stored with changed
+     * or if it gets stored with different entities than the last time, e.g. because one moved out of it.
+     */
+    private boolean isChunkChanged(Vector3i chunkPos, Set<EntityRef> storedEntities, TLongSet changedEntities) {
+        if (deltaToSave.getChangedChunks().contains(chunkPos)) {
+            return true;
+        }
+        TLongSet storedEntityIds = getIds(storedEntities);
+        TLongSet previouslyStoredEntityIds = savedChunkEntities.get(chunkPos);
+        if (previouslyStoredEntityIds == null) {
+            // unknown what got stored when the chunk got loaded, save it once if it has any entities
+            return !storedEntityIds.isEmpty();
         }
+        if (!previouslyStoredEntityIds.equals(storedEntityIds)) {
+            return true;
+        }
+        return !storedEntityIds.forEach(id -> !changedEntities.contains(id));
+    }
+
+    /**
+     * Collects the entities that {@link EntityStorer#store(EntityRef)} would store for the given entity.
+     */
+    private static void collectStoredEntities(EntityRef entity, OwnershipHelper ownershipHelper,
+                                              Set<EntityRef> storedEntities) {
+        if (entity.isActive()) {
+            for (EntityRef ownedEntity : ownershipHelper.listOwnedEntities(entity)) {
+                if (!ownedEntity.isAlwaysRelevant() && ownedEntity.isPersistent()) {
+                    collectStoredEntities(ownedEntity, ownershipHelper, storedEntities);
+                }
+            }
+            storedEntities.add(entity);
+        }
+    }
+
+    private static TLongSet getIds(Set<EntityRef> entities) {
+        TLongSet ids = new TLongHashSet(entities.size());
+        for (EntityRef entity : entities) {
+            ids.add(entity.getId());
+        }
+        return ids;
     }
 
     /**
@@ -322,6 +443,18 @@ private void applyDeltaToPrivateEntityManager() {
         });
     }
 
+    private long getSizeOfSaveTransactionDirectory() throws IOException {
+        long[] size = new long[1];
+        Files.walkFileTree(storagePathProvider.getUnfinishedSaveTransactionPath(), new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                size[0] += attrs.size();
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return size[0];
+    }
+
     private void createSaveTransactionDirectory() throws IOException {
         Path directory = storagePathProvider.getUnfinishedSaveTransactionPath();
         Files.createDirectories(directory);
@@ -378,23 +511,25 @@ private void writeGlobalStore() throws IOException {
     private void writeChunkStores() throws IOException {
         Path chunksPath = storagePathProvider.getWorldTempPath();
         Files.createDirectories(chunksPath);
-        if (storeChunksInZips) {
+        // Chunks that go into region files are written as single files and get put into the regions when merging
+        if (storeChunksInZips && chunkRegionStore == null) {
             Map<Vector3i, FileSystem> newChunkZips = Maps.newHashMap();
-            for (Map.Entry<Vector3i, CompressedChunkBuilder> entry : allChunks.entrySet()) {
-                Vector3i chunkPos = entry.getKey();
-                Vector3i chunkZipPos = storagePathProvider.getChunkZipPosition(chunkPos);
-                FileSystem zip = newChunkZips.get(chunkZipPos);
-                if (zip == null) {
-                    Path targetPath = storagePathProvider.getChunkZipTempPath(chunkZipPos);
-                    Files.deleteIfExists(targetPath);
-                    zip = FileSystems.newFileSystem(URI.create("jar:" + targetPath.toUri()), CREATE_ZIP_OPTIONS);
-                    newChunkZips.put(chunkZipPos, zip);
-                }
-                Path chunkPath = zip.getPath(storagePathProvider.getChunkFilename(chunkPos));
-                CompressedChunkBuilder compressedChunkBuilder = entry.getValue();
-                byte[] compressedChunk = compressedChunkBuilder.buildEncodedChunk();
-                try (BufferedOutputStream bos = new BufferedOutputStream(Files.newOutputStream(chunkPath))) {
-                    bos.write(compressedChunk);
+            try (ChunkEncodingPipeline encodingPipeline = new ChunkEncodingPipeline(allChunks, chunkEncoders)) {
+                while (encodingPipeline.hasNext()) {
+                    Map.Entry<Vector3i, byte[]> entry = encodingPipeline.next();
+                    Vector3i chunkPos = entry.getKey();
+                    Vector3i chunkZipPos = storagePathProvider.getChunkZipPosition(chunkPos);
+                    FileSystem zip = newChunkZips.get(chunkZipPos);
+                    if (zip == null) {
+                        Path targetPath = storagePathProvider.getChunkZipTempPath(chunkZipPos);
+                        Files.deleteIfExists(targetPath);
+                        zip = FileSystems.newFileSystem(URI.create("jar:" + targetPath.toUri()), CREATE_ZIP_OPTIONS);
+                        newChunkZips.put(chunkZipPos, zip);
+                    }
+                    Path chunkPath = zip.getPath(storagePathProvider.getChunkFilename(chunkPos));
+                    try (BufferedOutputStream bos = new BufferedOutputStream(Files.newOutputStream(chunkPath))) {
+                        bos.write(entry.getValue());
+                    }
                 }
             }
             // Copy existing, unmodified content into the zips and close them
@@ -421,13 +556,13 @@ public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
                 zip.close();
             }
         } else {
-            for (Map.Entry<Vector3i, CompressedChunkBuilder> entry : allChunks.entrySet()) {
-                Vector3i chunkPos = entry.getKey();
-                CompressedChunkBuilder compressedChunkBuilder = entry.getValue();
-                byte[] compressedChunk = compressedChunkBuilder.buildEncodedChunk();
-                Path chunkPath = storagePathProvider.getChunkTempPath(chunkPos);
-                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(chunkPath))) {
-                    out.write(compressedChunk);
+            try (ChunkEncodingPipeline encodingPipeline = new ChunkEncodingPipeline(allChunks, chunkEncoders)) {
+                while (encodingPipeline.hasNext()) {
+                    Map.Entry<Vector3i, byte[]> entry = encodingPipeline.next();
+                    Path chunkPath = storagePathProvider.getChunkTempPath(entry.getKey());
+                    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(chunkPath))) {
+                        out.write(entry.getValue());
+                    }
                 }
             }
         }
@@ -3,6 +3,7 @@
 package org.terasology.engine.persistence.internal;
 
 import com.google.common.collect.Maps;
+import gnu.trove.set.TLongSet;
 import org.joml.Vector3i;
 import org.joml.Vector3ic;
 import org.terasology.engine.entitySystem.entity.internal.EngineEntityManager;
@@ -14,6 +15,7 @@
 import org.terasology.engine.world.chunks.internal.ChunkImpl;
 
 import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.locks.Lock;
 
 /**
@@ -30,6 +32,10 @@ class SaveTransactionBuilder {
     private Map<Vector3i, ChunkImpl> loadedChunks = Maps.newHashMap();
     private GlobalStoreBuilder globalStoreBuilder;
     private final boolean storeChunksInZips;
+    private final ChunkRegionStore chunkRegionStore;
+    private final boolean incremental;
+    private final Map<Vector3i, TLongSet> savedChunkEntities;
+    private final ThreadPoolExecutor chunkEncoders;
     private final StoragePathProvider storagePathProvider;
     private GameManifest gameManifest;
     private RecordAndReplaySerializer recordAndReplaySerializer;
@@ -37,13 +43,19 @@ class SaveTransactionBuilder {
     private RecordAndReplayCurrentStatus recordAndReplayCurrentStatus;
 
     SaveTransactionBuilder(EngineEntityManager privateEntityManager, EntitySetDeltaRecorder deltaToSave,
-                           boolean storeChunksInZips, StoragePathProvider storagePathProvider,
+                           boolean storeChunksInZips, ChunkRegionStore chunkRegionStore,
+                           boolean incremental, Map<Vector3i, TLongSet> savedChunkEntities,
+                           ThreadPoolExecutor chunkEncoders, StoragePathProvider storagePathProvider,
                            Lock worldDirectoryWriteLock, RecordAndReplaySerializer recordAndReplaySerializer,
                            RecordAndReplayUtils recordAndReplayUtils,
                            RecordAndReplayCurrentStatus recordAndReplayCurrentStatus) {
         this.privateEntityManager = privateEntityManager;
         this.deltaToSave = deltaToSave;
         this.storeChunksInZips = storeChunksInZips;
+        this.chunkRegionStore = chunkRegionStore;
+        this.incremental = incremental;
+        this.savedChunkEntities = savedChunkEntities;
+        this.chunkEncoders = chunkEncoders;
         this.storagePathProvider = storagePathProvider;
         this.worldDirectoryWriteLock = worldDirectoryWriteLock;
         this.recordAndReplaySerializer = recordAndReplaySerializer;
@@ -74,8 +86,8 @@ void addLoadedChunk(final Vector3ic chunkPosition, final ChunkImpl chunk) {
 
     public SaveTransaction build() {
         return new SaveTransaction(privateEntityManager, deltaToSave, unloadedPlayers, loadedPlayers, globalStoreBuilder,
-                unloadedChunks, loadedChunks, gameManifest, storeChunksInZips, storagePathProvider,
-                worldDirectoryWriteLock, recordAndReplaySerializer, recordAndReplayUtils, recordAndReplayCurrentStatus);
+                unloadedChunks, loadedChunks, gameManifest, storeChunksInZips, chunkRegionStore,
+                incremental, savedChunkEntities, chunkEncoders, storagePathProvider, worldDirectoryWriteLock, recordAndReplaySerializer, recordAndReplayUtils, recordAndReplayCurrentStatus);
 
     }
 
@@ -2,6 +2,7 @@
 // SPDX-License-Identifier: Apache-2.0
 package org.terasology.engine.persistence.internal;
 
+import org.joml.Vector3i;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -14,6 +15,8 @@
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Helper class for methods around {@link SaveTransaction}s that are also needed outside of the save transaction.
@@ -22,9 +25,19 @@
 public class SaveTransactionHelper {
     private static final Logger logger = LoggerFactory.getLogger(SaveTransactionHelper.class);
     private final StoragePathProvider storagePathProvider;
+    private final ChunkRegionStore chunkRegionStore;
 
     public SaveTransactionHelper(StoragePathProvider storagePathProvider) {
+        this(storagePathProvider, null);
+    }
+
+    /**
+     * @param chunkRegionStore if not null, chunk files of the changes get written into the region files of this
+     *                         store instead of being moved into the world directory.
+     */
+    public SaveTransactionHelper(StoragePathProvider storagePathProvider, ChunkRegionStore chunkRegionStore) {
         this.storagePathProvider = storagePathProvider;
+        this.chunkRegionStore = chunkRegionStore;
     }
 
     public void cleanupSaveTransactionDirectory() throws IOException {
@@ -51,14 +64,19 @@ public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOEx
      * Merges all outstanding changes into the save game. If this operation gets interrupted it can be started again
      * without any file corruption when the file system supports atomic moves.
      * <br><br>
+     * Chunks that go into region files are written in place. Their change files only get deleted after the region
+     * files have been flushed, so an interrupted merge writes them again.
+     * <br><br>
      * The write lock for the save directory should be acquired before this method gets called.
      */
     public void mergeChanges() throws IOException {
         final Path sourceDirectory = storagePathProvider.getUnmergedChangesPath();
         final Path targetDirectory = storagePathProvider.getStoragePathDirectory();
+        final Path worldDirectory = sourceDirectory.resolve(targetDirectory.relativize(storagePathProvider.getWorldPath()));
 
         Files.walkFileTree(sourceDirectory, new SimpleFileVisitor<Path>() {
             boolean atomicNotPossibleLogged;
+            final List<Path> chunksWrittenToRegions = new ArrayList<>();
 
             @Override
             public FileVisitResult preVisitDirectory(Path sourceSubDir, BasicFileAttributes attrs) throws IOException {
@@ -71,6 +89,14 @@ public FileVisitResult preVisitDirectory(Path sourceSubDir, BasicFileAttributes
 
             @Override
             public FileVisitResult visitFile(Path sourcePath, BasicFileAttributes attrs) throws IOException {
+                if (chunkRegionStore != null && sourcePath.getParent().equals(worldDirectory)) {
+                    Vector3i chunkPos = storagePathProvider.getChunkPosition(sourcePath.getFileName().toString());
+                    if (chunkPos != null) {
+                        chunkRegionStore.storeChunk(chunkPos, Files.readAllBytes(sourcePath));
+                        chunksWrittenToRegions.add(sourcePath);
+                        return FileVisitResult.CONTINUE;
+                    }
+                }
                 Path targetPath = targetDirectory.resolve(sourceDirectory.relativize(sourcePath));
                 try {
                     // Delete file, as behavior of atomic move is undefined if target file exists:
@@ -88,6 +114,13 @@ public FileVisitResult visitFile(Path sourcePath, BasicFileAttributes attrs) thr
 
             @Override
             public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                if (!chunksWrittenToRegions.isEmpty()) {
+                    chunkRegionStore.flush();
+                    for (Path chunkPath : chunksWrittenToRegions) {
+                        Files.delete(chunkPath);
+                    }
+                    chunksWrittenToRegions.clear();
+                }
                 try {
                     Files.delete(dir);
                 } catch (DirectoryNotEmptyException e) {
@@ -8,6 +8,8 @@
 import org.terasology.engine.game.GameManifest;
 
 import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class StoragePathProvider {
     private static final String PLAYERS_PATH = "players";
@@ -18,6 +20,7 @@ public class StoragePathProvider {
     private static final String UNFINISHED_SAVE_TRANSACTION = "unfinished-save-transaction";
     private static final String UNMERGED_CHANGED = "unmerged-changes";
     private static final int CHUNK_ZIP_DIM = 32;
+    private static final Pattern CHUNK_FILENAME_PATTERN = Pattern.compile("(-?\\d+)\\.(-?\\d+)\\.(-?\\d+)\\.chunk");
 
     private final Path storagePathDirectory;
     private final Path playersPath;
@@ -115,6 +118,31 @@ public Vector3i getChunkZipPosition(Vector3ic chunkPos) {
         return result;
     }
 
+    /**
+     * @return the chunk position encoded in a filename created by {@link #getChunkFilename(Vector3ic)}, or null if
+     *         the filename isn't one of a chunk.
+     */
+    public Vector3i getChunkPosition(String chunkFilename) {
+        Matcher matcher = CHUNK_FILENAME_PATTERN.matcher(chunkFilename);
+        if (!matcher.matches()) {
+            return null;
+        }
+        return new Vector3i(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)),
+                Integer.parseInt(matcher.group(3)));
+    }
+
+    public Vector3i getChunkRegionPosition(Vector3ic chunkPos) {
+        return new Vector3i(
+                Math.floorDiv(chunkPos.x(), RegionFile.REGION_SIZE),
+                Math.floorDiv(chunkPos.y(), RegionFile.REGION_SIZE),
+                Math.floorDiv(chunkPos.z(), RegionFile.REGION_SIZE));
+    }
+
+    public Path getChunkRegionPath(Vector3ic chunkRegionPos) {
+        return worldPath.resolve(String.format("%d.%d.%d.region", chunkRegionPos.x(), chunkRegionPos.y(),
+                chunkRegionPos.z()));
+    }
+
     public Path getChunkPath(Vector3ic chunkPos) {
         return worldPath.resolve(getChunkFilename(chunkPos));
     }
@@ -10,6 +10,7 @@
 import com.google.common.collect.Sets;
 import com.google.common.primitives.UnsignedBytes;
 import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.terasology.engine.entitySystem.MutableComponentContainer;
@@ -40,6 +41,7 @@ public class NetworkEntitySerializer {
     private TypeHandlerLibrary typeHandlerLibrary;
     private ProtobufPersistedDataSerializer serializationContext;
     private BiMap<Class<? extends Component>, Integer> idTable = ImmutableBiMap.<Class<? extends Component>, Integer>builder().build();
+    private NetworkSerializationCache serializationCache;
 
     public NetworkEntitySerializer(EngineEntityManager entityManager, ComponentLibrary componentLibrary, TypeHandlerLibrary typeHandlerLibrary) {
         this.entityManager = entityManager;
@@ -52,6 +54,14 @@ public void setComponentSerializeCheck(ComponentSerializeCheck componentSerializ
         this.componentSerializeCheck = componentSerializeCheck;
     }
 
+    /**
+     * @param serializationCache shares the serialized changes of components between the receivers, or null to
+     *                           serialize them for each receiver
+     */
+    public void setSerializationCache(NetworkSerializationCache serializationCache) {
+        this.serializationCache = serializationCache;
+    }
+
     public ComponentLibrary getComponentLibrary() {
         return componentLibrary;
     }
@@ -144,7 +154,7 @@ private void serializeComponentDelta(Component oldComponent, Component newCompon
                     PersistedData data = serializer.serializeValue(field, newValue, serializationContext);
                     if (!data.isNull()) {
                         entityFieldIds.write(field.getId());
-                        entityData.addFieldValue(((ProtobufPersistedData) data).getValue());
+                        entityData.addFieldValue(quantize(field, ((ProtobufPersistedData) data).getValue()));
                         fieldCount++;
                     } else {
                         logger.error("Exception serializing component type: {}, field: {} - returned null", componentMetadata, field);
@@ -176,7 +186,7 @@ private void serializeComponentFull(Component component, boolean ignoreIfNoField
                 PersistedData fieldValue = serializer.serialize(field, component, serializationContext);
                 entityFieldIds.write(field.getId());
 
-                entityData.addFieldValue(((ProtobufPersistedData) fieldValue).getValue());
+                entityData.addFieldValue(quantize(field, ((ProtobufPersistedData) fieldValue).getValue()));
                 fieldCount++;
             }
         }
@@ -187,6 +197,120 @@ private void serializeComponentFull(Component component, boolean ignoreIfNoField
         }
     }
 
+    /**
+     * Serializes the fields of a changed component. If a snapshot is given and the component is delta replicated, only
+     * the fields which the client may not have yet are written, and recorded in the snapshot as in flight.
+     */
+    private void serializeComponentUpdate(EntityRef entityRef, Component component, boolean ignoreIfNoFields,
+                                          FieldSerializeCheck<Component> fieldCheck, EntityData.PackedEntity.Builder entityData,
+                                          ByteString.Output entityFieldIds, ByteString.Output componentFieldCounts,
+                                          boolean componentInitial, NetworkEntitySnapshot snapshot) {
+        ComponentMetadata<?> componentMetadata = componentLibrary.getMetadata(component.getClass());
+        if (componentMetadata == null) {
+            logger.atError().log("Unregistered component type: {}", component.getClass());
+            return;
+        }
+
+        NetworkSerializationCache.SerializedComponent serialized;
+        if (serializationCache != null) {
+            serialized = serializationCache.get(entityRef.getId(), component.getClass(), fieldCheck, componentInitial,
+                    () -> serializeFields(component, componentMetadata, fieldCheck, componentInitial));
+        } else {
+            serialized = serializeFields(component, componentMetadata, fieldCheck, componentInitial);
+        }
+
+        EntityData.Value[] knownValues = null;
+        EntityData.Value[] sentValues = null;
+        if (snapshot != null && componentMetadata.isDeltaReplicated()) {
+            knownValues = snapshot.getKnownFields(component.getClass());
+            int fieldIdLimit = 0;
+            for (ReplicatedFieldMetadata field : componentMetadata.getFields()) {
+                fieldIdLimit = Math.max(fieldIdLimit, UnsignedBytes.toInt(field.getId()) + 1);
+            }
+            sentValues = snapshot.startUpdate(component.getClass(), fieldIdLimit);
+        }
+
+        byte fieldCount = 0;
+        for (int i = 0; i < serialized.size(); i++) {
+            byte fieldId = serialized.getFieldId(i);
+            EntityData.Value value = serialized.getValue(i);
+            if (sentValues != null) {
+                int index = UnsignedBytes.toInt(fieldId);
+                if (index < knownValues.length && value.equals(knownValues[index])) {
+                    snapshot.addSavedBytes(getSentSize(value) + serialized.getQuantizationSaving(i));
+                    continue;
+                }
+                sentValues[index] = value;
+                snapshot.addSavedBytes(serialized.getQuantizationSaving(i));
+            }
+            entityFieldIds.write(fieldId);
+            entityData.addFieldValue(value);
+            fieldCount++;
+        }
+
+        if (fieldCount != 0 || !ignoreIfNoFields) {
+            entityData.addComponentId(idTable.get(component.getClass()));
+            componentFieldCounts.write(fieldCount);
+        }
+    }
+
+    private NetworkSerializationCache.SerializedComponent serializeFields(Component component, ComponentMetadata<?> componentMetadata,
+                                                                         FieldSerializeCheck<Component> fieldCheck,
+                                                                         boolean componentInitial) {
+        Serializer serializer = typeHandlerLibrary.getSerializerFor(componentMetadata);
+        NetworkSerializationCache.SerializedComponent serialized =
+                new NetworkSerializationCache.SerializedComponent(componentMetadata.getFields().size());
+        for (ReplicatedFieldMetadata field : componentMetadata.getFields()) {
+            if (fieldCheck.shouldSerializeField(field, component, componentInitial)) {
+                PersistedData fieldValue = serializer.serialize(field, component, serializationContext);
+                EntityData.Value exactValue = ((ProtobufPersistedData) fieldValue).getValue();
+                EntityData.Value value = quantize(field, exactValue);
+                int quantizationSaving = value == exactValue ? 0 : getSentSize(exactValue) - getSentSize(value);
+                serialized.add(field.getId(), value, quantizationSaving);
+            }
+        }
+        return serialized;
+    }
+
+    /**
+     * @return the number of bytes a field value takes in a packed entity, including its field id.
+     */
+    private static int getSentSize(EntityData.Value value) {
+        return 1 + CodedOutputStream.computeMessageSize(EntityData.PackedEntity.FIELDVALUE_FIELD_NUMBER, value);
+    }
+
+    /**
+     * Replaces the floats of a field with a precision by integer multiples of the precision.
+     */
+    private static EntityData.Value quantize(ReplicatedFieldMetadata<?, ?> field, EntityData.Value value) {
+        float precision = field.getPrecision();
+        if (precision <= 0 || value.getFloatCount() == 0 || value.getIntegerCount() != 0) {
+            return value;
+        }
+        EntityData.Value.Builder quantized = EntityData.Value.newBuilder();
+        for (int i = 0; i < value.getFloatCount(); i++) {
+            float steps = value.getFloat(i) / precision;
+            if (!(Math.abs(steps) <= Integer.MAX_VALUE)) {
+                // not finite or out of range, so send the exact value
+                return value;
+            }
+            quantized.addInteger(Math.round(steps));
+        }
+        return quantized.build();
+    }
+
+    private static EntityData.Value dequantize(ReplicatedFieldMetadata<?, ?> field, EntityData.Value value) {
+        float precision = field.getPrecision();
+        if (precision <= 0 || value.getFloatCount() != 0 || value.getIntegerCount() == 0) {
+            return value;
+        }
+        EntityData.Value.Builder exact = EntityData.Value.newBuilder();
+        for (int i = 0; i < value.getIntegerCount(); i++) {
+            exact.addFloat(value.getInteger(i) * precision);
+        }
+        return exact.build();
+    }
+
     public void deserializeOnto(MutableComponentContainer entity, EntityData.PackedEntity entityData) {
         deserializeOnto(entity, entityData, FieldSerializeCheck.NullCheck.<Component>newInstance());
     }
@@ -220,7 +344,8 @@ public void deserializeOnto(MutableComponentContainer entity, EntityData.PackedE
                 if (fieldMetadata != null && fieldCheck.shouldDeserialize(metadata, fieldMetadata)) {
                     logger.atTrace().log("Deserializing field {} of component {} as value {}",
                             fieldMetadata, metadata, entityData.getFieldValue(fieldPos));
-                    serializer.deserializeOnto(component, fieldMetadata, new ProtobufPersistedData(entityData.getFieldValue(fieldPos)));
+                    serializer.deserializeOnto(component, fieldMetadata,
+                            new ProtobufPersistedData(dequantize(fieldMetadata, entityData.getFieldValue(fieldPos))));
                 }
                 fieldPos++;
             }
@@ -259,6 +384,20 @@ public EntityRef deserialize(EntityData.PackedEntity entityData) {
 
     public EntityData.PackedEntity serialize(EntityRef entityRef, Set<Class<? extends Component>> added, Set<Class<? extends Component>> changed,
                                              Set<Class<? extends Component>> removed, FieldSerializeCheck<Component> fieldCheck) {
+        return serialize(entityRef, added, changed, removed, fieldCheck, null);
+    }
+
+    /**
+     * Serializes the changes of an entity. The changes of delta replicated components are only sent for the fields
+     * which the client may not have according to the snapshot, which records the sent values until the client
+     * acknowledges them.
+     *
+     * @param snapshot what the receiver already knows about the entity, or null to send all changed components in full
+     * @return the changes, or null if there are none
+     */
+    public EntityData.PackedEntity serialize(EntityRef entityRef, Set<Class<? extends Component>> added, Set<Class<? extends Component>> changed,
+                                             Set<Class<? extends Component>> removed, FieldSerializeCheck<Component> fieldCheck,
+                                             NetworkEntitySnapshot snapshot) {
         EntityData.PackedEntity.Builder entity = EntityData.PackedEntity.newBuilder();
 
         ByteString.Output fieldIds = ByteString.newOutput();
@@ -268,20 +407,26 @@ public EntityData.PackedEntity serialize(EntityRef entityRef, Set<Class<? extend
             if (component == null) {
                 logger.error("Non-existent component marked as added: {}", componentType);
             }
-            serializeComponentFull(entityRef.getComponent(componentType), false, fieldCheck, entity, fieldIds,
-                    componentFieldCounts, true);
+            if (snapshot != null) {
+                snapshot.removeComponent(componentType);
+            }
+            serializeComponentUpdate(entityRef, component, false, fieldCheck, entity, fieldIds,
+                    componentFieldCounts, true, snapshot);
         }
         for (Class<? extends Component> componentType : changed) {
             Component comp = entityRef.getComponent(componentType);
             if (comp != null) {
-                serializeComponentFull(comp, true, fieldCheck, entity, fieldIds,
-                        componentFieldCounts, false);
+                serializeComponentUpdate(entityRef, comp, true, fieldCheck, entity, fieldIds,
+                        componentFieldCounts, false, snapshot);
             } else {
                 logger.error("Non-existent component marked as changed: {}", componentType);
             }
         }
         for (Class<? extends Component> componentType : removed) {
             entity.addRemovedComponent(idTable.get(componentType));
+            if (snapshot != null) {
+                snapshot.removeComponent(componentType);
+            }
         }
         entity.setFieldIds(fieldIds.toByteString());
         entity.setComponentFieldCounts(componentFieldCounts.toByteString());
@@ -0,0 +1,145 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.persistence.serializers;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Queues;
+import org.terasology.gestalt.entitysystem.component.Component;
+import org.terasology.protobuf.EntityData;
+
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Map;
+
+/**
+ * The field values of the delta replicated components of one entity, as one client acknowledged to have them.
+ * <br><br>
+ * Updates are sent in numbered messages. The values sent are kept aside until the client acknowledges the message they
+ * were sent in, and only then become part of the snapshot. A field is left out of an update only if its acknowledged
+ * value and every value still in flight equal the current one, so the client ends up with the current value no matter
+ * which of the updates in flight it already applied. The snapshot must be cleared whenever the entity is sent to the
+ * client in full again, or stops being relevant to it.
+ */
+public class NetworkEntitySnapshot {
+    /**
+     * The number of component updates kept for a client which does not acknowledge them, after which the snapshot is
+     * dropped and the components are sent in full.
+     */
+    private static final int MAX_PENDING_UPDATES = 256;
+    private static final EntityData.Value[] NO_VALUES = new EntityData.Value[0];
+
+    private final Map<Class<? extends Component>, EntityData.Value[]> acknowledged = Maps.newHashMap();
+    private final Deque<SentFields> pending = Queues.newArrayDeque();
+    private int sequence;
+    private boolean owned;
+    private int savedBytes;
+
+    /**
+     * Sets the sequence number of the message the following updates are sent in.
+     */
+    public void setSequence(int sequence) {
+        this.sequence = sequence;
+    }
+
+    /**
+     * @return the values the client is known to have for the fields of the component, indexed by field id, with null
+     *         for fields it may not have. The array may be shorter than the number of fields.
+     */
+    EntityData.Value[] getKnownFields(Class<? extends Component> componentType) {
+        EntityData.Value[] acknowledgedValues = acknowledged.get(componentType);
+        if (acknowledgedValues == null) {
+            return NO_VALUES;
+        }
+        EntityData.Value[] known = acknowledgedValues.clone();
+        for (SentFields sent : pending) {
+            if (sent.componentType == componentType) {
+                for (int i = 0; i < Math.min(known.length, sent.values.length); i++) {
+                    if (sent.values[i] != null && !sent.values[i].equals(known[i])) {
+                        known[i] = null;
+                    }
+                }
+            }
+        }
+        return known;
+    }
+
+    /**
+     * Records an update of the component in the current message.
+     *
+     * @return the array to store the sent values in, indexed by field id
+     */
+    EntityData.Value[] startUpdate(Class<? extends Component> componentType, int fieldIdLimit) {
+        if (pending.size() >= MAX_PENDING_UPDATES) {
+            clear();
+        }
+        SentFields sent = new SentFields(sequence, componentType, new EntityData.Value[fieldIdLimit]);
+        pending.add(sent);
+        return sent.values;
+    }
+
+    /**
+     * Adds the updates sent in messages up to the given sequence number to the snapshot, as the client received them.
+     */
+    public void acknowledge(int acknowledgedSequence) {
+        while (!pending.isEmpty() && pending.peek().sequence <= acknowledgedSequence) {
+            SentFields sent = pending.poll();
+            EntityData.Value[] values = acknowledged.get(sent.componentType);
+            if (values == null || values.length < sent.values.length) {
+                values = values == null ? new EntityData.Value[sent.values.length]
+                        : Arrays.copyOf(values, sent.values.length);
+                acknowledged.put(sent.componentType, values);
+            }
+            for (int i = 0; i < sent.values.length; i++) {
+                if (sent.values[i] != null) {
+                    values[i] = sent.values[i];
+                }
+            }
+        }
+    }
+
+    void removeComponent(Class<? extends Component> componentType) {
+        acknowledged.remove(componentType);
+        pending.removeIf(sent -> sent.componentType == componentType);
+    }
+
+    void addSavedBytes(int bytes) {
+        savedBytes += bytes;
+    }
+
+    /**
+     * Which fields are sent depends on whether the client owns the entity, so the snapshot is cleared when that
+     * changes.
+     */
+    public void setOwned(boolean owned) {
+        if (this.owned != owned) {
+            this.owned = owned;
+            clear();
+        }
+    }
+
+    public void clear() {
+        acknowledged.clear();
+        pending.clear();
+    }
+
+    /**
+     * @return the number of bytes which did not need to be sent thanks to the snapshot since the last call.
+     */
+    public int takeSavedBytes() {
+        int result = savedBytes;
+        savedBytes = 0;
+        return result;
+    }
+
+    private static final class SentFields {
+        private final int sequence;
+        private final Class<? extends Component> componentType;
+        private final EntityData.Value[] values;
+
+        private SentFields(int sequence, Class<? extends Component> componentType, EntityData.Value[] values) {
+            this.sequence = sequence;
+            this.componentType = componentType;
+            this.values = values;
+        }
+    }
+}
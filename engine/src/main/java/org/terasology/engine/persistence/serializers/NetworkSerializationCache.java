@@ -0,0 +1,151 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.persistence.serializers;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.terasology.gestalt.entitysystem.component.Component;
+import org.terasology.protobuf.EntityData;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the serialized fields of the components sent to clients during one network tick, so that a changed component
+ * is serialized once for all the clients it is relevant to, and the same field values are shared by their messages.
+ * <br><br>
+ * Entries are keyed by the entity, the component type, the field check and whether the component is sent initially.
+ * Field checks are expected to be equal when they select the same fields, checks which don't override equals only
+ * share entries with themselves. An entry must be invalidated whenever its component changes, and the cache should be
+ * cleared at the end of each tick.
+ */
+public class NetworkSerializationCache {
+    private final Map<ComponentKey, List<Entry>> entries = Maps.newHashMap();
+    private int hits;
+    private int misses;
+
+    SerializedComponent get(long entityId, Class<? extends Component> componentType, FieldSerializeCheck<Component> fieldCheck,
+                            boolean componentInitial, Supplier<SerializedComponent> serialize) {
+        ComponentKey key = new ComponentKey(entityId, componentType);
+        List<Entry> variants = entries.get(key);
+        if (variants == null) {
+            variants = Lists.newArrayListWithCapacity(2);
+            entries.put(key, variants);
+        }
+        for (Entry entry : variants) {
+            if (entry.componentInitial == componentInitial && entry.fieldCheck.equals(fieldCheck)) {
+                hits++;
+                return entry.serialized;
+            }
+        }
+        misses++;
+        SerializedComponent serialized = serialize.get();
+        variants.add(new Entry(fieldCheck, componentInitial, serialized));
+        return serialized;
+    }
+
+    /**
+     * Drops the serialized fields of a component, because it changed.
+     */
+    public void invalidate(long entityId, Class<? extends Component> componentType) {
+        entries.remove(new ComponentKey(entityId, componentType));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return the share of component serializations served from the cache since the last call, or 0 if there were none
+     */
+    public float takeHitRate() {
+        int total = hits + misses;
+        float result = total == 0 ? 0 : (float) hits / total;
+        hits = 0;
+        misses = 0;
+        return result;
+    }
+
+    /**
+     * The replicated fields of a component, as selected by a field check.
+     */
+    static final class SerializedComponent {
+        private final byte[] fieldIds;
+        private final EntityData.Value[] values;
+        private final int[] quantizationSavings;
+        private int size;
+
+        SerializedComponent(int capacity) {
+            fieldIds = new byte[capacity];
+            values = new EntityData.Value[capacity];
+            quantizationSavings = new int[capacity];
+        }
+
+        void add(byte fieldId, EntityData.Value value, int quantizationSaving) {
+            fieldIds[size] = fieldId;
+            values[size] = value;
+            quantizationSavings[size] = quantizationSaving;
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        byte getFieldId(int index) {
+            return fieldIds[index];
+        }
+
+        EntityData.Value getValue(int index) {
+            return values[index];
+        }
+
+        /**
+         * @return the number of bytes saved by sending the value quantized rather than exactly
+         */
+        int getQuantizationSaving(int index) {
+            return quantizationSavings[index];
+        }
+    }
+
+    private static final class Entry {
+        private final FieldSerializeCheck<Component> fieldCheck;
+        private final boolean componentInitial;
+        private final SerializedComponent serialized;
+
+        private Entry(FieldSerializeCheck<Component> fieldCheck, boolean componentInitial, SerializedComponent serialized) {
+            this.fieldCheck = fieldCheck;
+            this.componentInitial = componentInitial;
+            this.serialized = serialized;
+        }
+    }
+
+    private static final class ComponentKey {
+        private final long entityId;
+        private final Class<? extends Component> componentType;
+
+        private ComponentKey(long entityId, Class<? extends Component> componentType) {
+            this.entityId = entityId;
+            this.componentType = componentType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ComponentKey other = (ComponentKey) o;
+            return entityId == other.entityId && componentType == other.componentType;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(entityId, componentType);
+        }
+    }
+}
@@ -36,6 +36,8 @@ public String getMetrics() {
             builder.append(String.format("In Bytes: %d%n", networkSystem.getIncomingBytesDelta()));
             builder.append(String.format("Out Msg: %d%n", networkSystem.getOutgoingMessagesDelta()));
             builder.append(String.format("Out Bytes: %d%n", networkSystem.getOutgoingBytesDelta()));
+            builder.append(String.format("Saved Bytes: %d%n", networkSystem.getSavedBytesDelta()));
+            builder.append(String.format("Serialization Cache Hits: %.0f%%%n", networkSystem.getSerializationCacheHitRate() * 100));
             if (lastTime != 0) {
                 // ignore the first update as it will not have useful data
                 lastMetric = builder.toString();
@@ -5,6 +5,9 @@
 
 import org.terasology.engine.monitoring.ThreadMonitor;
 import org.terasology.engine.monitoring.impl.SingleThreadMonitor;
+import org.terasology.engine.monitoring.impl.ThroughputCounter;
+
+import java.util.Locale;
 
 final class RunningThreadsMode extends MetricsMode {
 
@@ -23,6 +26,9 @@ public String getMetrics() {
             builder.append(threads.getLastTask());
             builder.append("\n");
         });
+        for (ThroughputCounter counter : ThreadMonitor.getThroughputCounters()) {
+            builder.append(String.format(Locale.ROOT, "%s - %.1f/s\n", counter.getName(), counter.getItemsPerSecond()));
+        }
         return builder.toString();
     }
 
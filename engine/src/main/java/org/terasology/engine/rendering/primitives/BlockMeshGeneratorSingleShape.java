@@ -2,6 +2,7 @@
 // SPDX-License-Identifier: Apache-2.0
 package org.terasology.engine.rendering.primitives;
 
+import org.joml.Vector3f;
 import org.joml.Vector3ic;
 import org.terasology.engine.math.Side;
 import org.terasology.engine.world.ChunkView;
@@ -35,16 +36,32 @@ public ResourceUrn getBaseUrn() {
 
     @Override
     public void generateChunkMesh(ChunkView view, ChunkMesh chunkMesh, int x, int y, int z) {
+        if (!block.getPrimaryAppearance().hasAppearance()) {
+            // perf: Skip mesh generation for blocks without appearance, e.g., air blocks.
+            return;
+        }
+        generateChunkMesh(view, chunkMesh, x, y, z, new Color(), new Block[Side.allSides().size()], new Vector3f(),
+                new float[3]);
+    }
+
+    /**
+     * Generates the block mesh like {@link #generateChunkMesh(ChunkView, ChunkMesh, int, int, int)}, in the scratch
+     * objects of the caller, so that nothing is allocated per block.
+     *
+     * @param colorCache receives the colours of the faces
+     * @param adjacentBlocks receives the adjacent blocks, one per side
+     * @param vertexPos receives the positions of the vertices
+     * @param lighting receives the lighting of the vertices, and has to hold three values
+     */
+    void generateChunkMesh(ChunkView view, ChunkMesh chunkMesh, int x, int y, int z, Color colorCache,
+                           Block[] adjacentBlocks, Vector3f vertexPos, float[] lighting) {
         final BlockAppearance blockAppearance = block.getPrimaryAppearance();
         if (!blockAppearance.hasAppearance()) {
             // perf: Skip mesh generation for blocks without appearance, e.g., air blocks.
             return;
         }
 
-        Color colorCache = new Color();
-
         // Gather adjacent blocks
-        Block[] adjacentBlocks = new Block[Side.allSides().size()];
         for (Side side : Side.allSides()) {
             Vector3ic offset = side.direction();
             Block blockToCheck = view.getBlock(x + offset.x(), y + offset.y(), z + offset.z());
@@ -92,7 +109,8 @@ public void generateChunkMesh(ChunkView view, ChunkMesh chunkMesh, int x, int y,
                             .setGreen(colorSource.gf() * colorOffset.gf())
                             .setBlue(colorSource.bf() * colorOffset.bf())
                             .setAlpha(colorSource.af() * colorOffset.af());
-                    blockMeshPart.appendTo(chunkMesh, view, x, y, z, renderType, colorCache, sideVertexFlag);
+                    blockMeshPart.appendTo(chunkMesh, view, x, y, z, renderType, colorCache, sideVertexFlag,
+                            vertexPos, lighting);
                 }
             }
         }
@@ -104,7 +122,8 @@ public void generateChunkMesh(ChunkView view, ChunkMesh chunkMesh, int x, int y,
                     .setGreen(colorSource.gf() * colorOffset.gf())
                     .setBlue(colorSource.bf() * colorOffset.bf())
                     .setAlpha(colorSource.af() * colorOffset.af());
-            blockAppearance.getPart(BlockPart.CENTER).appendTo(chunkMesh, view, x, y, z, renderType, colorCache, vertexFlag);
+            blockAppearance.getPart(BlockPart.CENTER).appendTo(chunkMesh, view, x, y, z, renderType, colorCache,
+                    vertexFlag, vertexPos, lighting);
         }
     }
 
@@ -154,7 +173,7 @@ private ChunkMesh.RenderType getRenderType(final Block selfBlock) {
      * @param currentBlock The current block
      * @return True if the side is visible for the given block types
      */
-    private boolean isSideVisibleForBlockTypes(Block blockToCheck, Block currentBlock, Side side) {
+    static boolean isSideVisibleForBlockTypes(Block blockToCheck, Block currentBlock, Side side) {
         // Liquids can be transparent but there should be no visible adjacent faces
         if (currentBlock.isLiquid() && blockToCheck.isLiquid()) {
             return false;
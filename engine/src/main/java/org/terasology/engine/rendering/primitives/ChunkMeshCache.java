@@ -0,0 +1,315 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.rendering.primitives;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.engine.core.PathManager;
+import org.terasology.gestalt.module.Module;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stores the vertex data of tessellated chunk meshes on disk, so that chunks which have not changed since they were
+ * last tessellated can be loaded instead of tessellated again, for example after reloading a game.
+ * <br><br>
+ * Meshes are stored in one file per mesh, named after the 128-bit content hash of the chunk they were generated from.
+ * Each game has its own cache, and the content hashes include the {@link #getContentVersion() content version} of the
+ * cache, which covers the world seed and the versions of the modules the mesh generators and block shapes come from.
+ * The cache keeps the total size of these files below a limit by deleting the least recently used ones. The order of
+ * use is kept in the modification times of the files, so it carries over to the next game.
+ * <br><br>
+ * The vertex data is stored in the native byte order, and a cache written with another byte order or format version is
+ * ignored.
+ */
+public final class ChunkMeshCache {
+    /**
+     * System property which enables the chunk mesh cache of the client.
+     */
+    public static final String ENABLED_PROPERTY = "org.terasology.chunkMeshCache";
+    /**
+     * System property with the maximum size of the chunk mesh cache of a world, in megabytes.
+     */
+    public static final String MAX_SIZE_PROPERTY = "org.terasology.chunkMeshCacheSize";
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkMeshCache.class);
+
+    private static final String CACHE_DIR = "cachedChunkMeshes";
+    private static final String FILE_EXTENSION = ".mesh";
+    private static final int DEFAULT_MAX_SIZE_MB = 256;
+    private static final int MAGIC = 0x54434d43;
+    private static final int FORMAT_VERSION = 3;
+    private static final int HASH_BITS = 128;
+    private static final int HEADER_SIZE = 3 * Integer.BYTES;
+    private static final int SECTION_HEADER_SIZE = 3 * Integer.BYTES;
+
+    private final Path directory;
+    private final long maxBytes;
+    private final HashCode contentVersion;
+    /** The sizes of the cached meshes by their hash, in the order of their last use. */
+    private final LinkedHashMap<HashCode, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    /**
+     * Opens the cache in the directory, creating the directory if it does not exist yet.
+     *
+     * @param directory the directory of the cache, which should not be shared with other files
+     * @param maxBytes the maximum total size of the cached meshes
+     * @param contentVersion the version of everything besides the chunk content the meshes depend on
+     */
+    public ChunkMeshCache(Path directory, long maxBytes, HashCode contentVersion) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.contentVersion = contentVersion;
+        Files.createDirectories(directory);
+
+        Map<Path, FileTime> lastUse = Maps.newHashMap();
+        List<Path> files = Lists.newArrayList();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                String fileName = file.getFileName().toString();
+                if (fileName.endsWith(FILE_EXTENSION)) {
+                    files.add(file);
+                    lastUse.put(file, Files.getLastModifiedTime(file));
+                } else {
+                    // left over from an interrupted store
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        files.sort(Comparator.comparing(lastUse::get));
+        for (Path file : files) {
+            String fileName = file.getFileName().toString();
+            try {
+                HashCode hash = HashCode.fromString(fileName.substring(0, fileName.length() - FILE_EXTENSION.length()));
+                if (hash.bits() == HASH_BITS) {
+                    long size = Files.size(file);
+                    entries.put(hash, size);
+                    totalBytes += size;
+                    continue;
+                }
+            } catch (IllegalArgumentException e) {
+                // not a mesh file
+            }
+            // named by an older format, or not a mesh at all
+            Files.deleteIfExists(file);
+        }
+        evict();
+    }
+
+    /**
+     * Opens the mesh cache of a game in the home directory, if the cache is enabled.
+     *
+     * @param gameName the name of the game, which is also the name of its save directory
+     * @param worldSeed the seed of the world, which decides the colours of blocks with a colour lookup table
+     * @param modules the modules of the game, which provide the block shapes and mesh generators
+     * @return the cache, or null if it is disabled or the directory cannot be used
+     */
+    public static ChunkMeshCache open(String gameName, String worldSeed, Iterable<Module> modules) {
+        if (!Boolean.getBoolean(ENABLED_PROPERTY)) {
+            return null;
+        }
+        Path directory = PathManager.getInstance().getHomePath().resolve(CACHE_DIR)
+                .resolve(PathManager.getInstance().getSavePath(gameName).getFileName());
+        long maxBytes = Long.getLong(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE_MB) * 1024 * 1024;
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        hasher.putInt(worldSeed.length());
+        hasher.putString(worldSeed, StandardCharsets.UTF_8);
+        for (Module module : modules) {
+            String id = module.getId() + ":" + module.getVersion();
+            hasher.putInt(id.length());
+            hasher.putString(id, StandardCharsets.UTF_8);
+        }
+        try {
+            return new ChunkMeshCache(directory, maxBytes, hasher.hash());
+        } catch (IOException e) {
+            logger.warn("Failed to open the chunk mesh cache in {}, chunks will be tessellated every time", directory, e);
+            return null;
+        }
+    }
+
+    /**
+     * @return the hash of the versions of everything besides the chunk content the cached meshes depend on, which has
+     *         to be part of the content hashes the meshes are stored by
+     */
+    public HashCode getContentVersion() {
+        return contentVersion;
+    }
+
+    /**
+     * @return a mesh with the cached vertex data for the hash, or null if there is none
+     */
+    public ChunkMesh load(HashCode hash) {
+        synchronized (entries) {
+            if (entries.get(hash) == null) {
+                return null;
+            }
+        }
+        Path file = getFile(hash);
+        try {
+            ChunkMeshImpl mesh = read(ByteBuffer.wrap(Files.readAllBytes(file)));
+            if (mesh != null) {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+                return mesh;
+            }
+            logger.debug("Discarding chunk mesh {} in an incompatible format", file);
+        } catch (NoSuchFileException e) {
+            // evicted by another thread since the lookup
+            return null;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to load chunk mesh {}, discarding it", file, e);
+        }
+        remove(hash);
+        return null;
+    }
+
+    /**
+     * Stores the vertex data of the mesh, which must not have been discarded yet.
+     */
+    public void store(HashCode hash, ChunkMesh mesh) {
+        synchronized (entries) {
+            if (entries.containsKey(hash)) {
+                return;
+            }
+        }
+        ByteBuffer data = write(mesh);
+        Path file = getFile(hash);
+        try {
+            Path tempFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Failed to store chunk mesh {}", file, e);
+            return;
+        }
+        synchronized (entries) {
+            Long previous = entries.put(hash, (long) data.limit());
+            totalBytes += data.limit() - (previous != null ? previous : 0);
+        }
+        evict();
+    }
+
+    /**
+     * @return the total size of the cached meshes
+     */
+    public long getTotalBytes() {
+        synchronized (entries) {
+            return totalBytes;
+        }
+    }
+
+    private void remove(HashCode hash) {
+        synchronized (entries) {
+            Long size = entries.remove(hash);
+            if (size != null) {
+                totalBytes -= size;
+            }
+        }
+        delete(getFile(hash));
+    }
+
+    private void evict() {
+        List<HashCode> evicted = Lists.newArrayList();
+        synchronized (entries) {
+            Iterator<Map.Entry<HashCode, Long>> iterator = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && iterator.hasNext()) {
+                Map.Entry<HashCode, Long> eldest = iterator.next();
+                totalBytes -= eldest.getValue();
+                evicted.add(eldest.getKey());
+                iterator.remove();
+            }
+        }
+        for (HashCode hash : evicted) {
+            delete(getFile(hash));
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete chunk mesh {}", file, e);
+        }
+    }
+
+    private Path getFile(HashCode hash) {
+        return directory.resolve(hash + FILE_EXTENSION);
+    }
+
+    private static ByteBuffer write(ChunkMesh mesh) {
+        ChunkMesh.RenderType[] types = ChunkMesh.RenderType.values();
+        int size = HEADER_SIZE;
+        for (ChunkMesh.RenderType type : types) {
+            ChunkMesh.VertexElements elements = mesh.getVertexElements(type);
+            size += SECTION_HEADER_SIZE + elements.buffer.inSize() + elements.indices.inSize();
+        }
+
+        ByteBuffer data = ByteBuffer.allocate(size);
+        data.putInt(MAGIC);
+        data.putInt(FORMAT_VERSION);
+        data.putInt(ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? 0 : 1);
+        for (ChunkMesh.RenderType type : types) {
+            ChunkMesh.VertexElements elements = mesh.getVertexElements(type);
+            data.putInt(elements.vertexCount);
+            data.putInt(elements.buffer.inSize());
+            data.putInt(elements.indices.inSize());
+            elements.buffer.writeBuffer(data::put);
+            elements.indices.writeBuffer(data::put);
+        }
+        data.flip();
+        return data;
+    }
+
+    /**
+     * @return the mesh, or null if the data was written in another format or byte order
+     */
+    private static ChunkMeshImpl read(ByteBuffer data) {
+        if (data.getInt() != MAGIC || data.getInt() != FORMAT_VERSION
+                || data.getInt() != (ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? 0 : 1)) {
+            return null;
+        }
+        ChunkMeshImpl mesh = new ChunkMeshImpl();
+        for (ChunkMesh.RenderType type : ChunkMesh.RenderType.values()) {
+            ChunkMesh.VertexElements elements = mesh.getVertexElements(type);
+            int vertexCount = data.getInt();
+            int vertexBytes = data.getInt();
+            int indexBytes = data.getInt();
+            elements.buffer.replace(slice(data, vertexBytes));
+            elements.indices.replace(slice(data, indexBytes));
+            elements.vertexCount = vertexCount;
+        }
+        return mesh;
+    }
+
+    private static ByteBuffer slice(ByteBuffer data, int length) {
+        ByteBuffer slice = data.slice();
+        slice.limit(length);
+        data.position(data.position() + length);
+        return slice;
+    }
+}
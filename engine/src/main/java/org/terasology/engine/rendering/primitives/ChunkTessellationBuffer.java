@@ -0,0 +1,334 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.rendering.primitives;
+
+import com.google.common.collect.Maps;
+import com.google.common.hash.Hasher;
+import org.joml.Vector2f;
+import org.joml.Vector2fc;
+import org.joml.Vector3f;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.terasology.engine.math.Side;
+import org.terasology.engine.world.ChunkView;
+import org.terasology.engine.world.block.Block;
+import org.terasology.engine.world.block.BlockColorSource;
+import org.terasology.engine.world.block.BlockPart;
+import org.terasology.engine.world.block.BlockRegionc;
+import org.terasology.engine.world.block.shapes.BlockMeshPart;
+import org.terasology.engine.world.chunks.Chunks;
+import org.terasology.math.TeraMath;
+import org.terasology.nui.Color;
+import org.terasology.nui.Colorc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * A copy of the blocks and light of a chunk and a one block border around it, which the tessellator reads instead of
+ * the chunk view it was copied from.
+ * <br><br>
+ * The blocks are stored as indices into a palette in a flat array, so reading a block is an array access instead of a
+ * lookup of the chunk and a translation of the coordinates. Blocks outside of the copied area are read from the
+ * original view. The buffer also holds the scratch objects of the mesh generators, and is meant to be reused for
+ * chunk after chunk by one thread.
+ */
+final class ChunkTessellationBuffer implements ChunkView {
+    private static final int SIZE_X = Chunks.SIZE_X + 2;
+    private static final int SIZE_Y = Chunks.SIZE_Y + 2;
+    private static final int SIZE_Z = Chunks.SIZE_Z + 2;
+    private static final int VOLUME = SIZE_X * SIZE_Y * SIZE_Z;
+
+    private final Color colorCache = new Color();
+    private final Block[] adjacentBlocks = new Block[Side.allSides().size()];
+    private final Vector3f vertexPos = new Vector3f();
+    private final float[] lighting = new float[3];
+    private final short[] blocks = new short[VOLUME];
+    private final byte[] sunlight = new byte[VOLUME];
+    private final byte[] light = new byte[VOLUME];
+    private final Map<Block, Short> paletteIndices = Maps.newIdentityHashMap();
+    private Block[] palette = new Block[16];
+    private int paletteSize;
+    private ChunkView view;
+
+    /**
+     * Copies the chunk of the view and its border into this buffer.
+     */
+    void copy(ChunkView chunkView) {
+        this.view = chunkView;
+        paletteIndices.clear();
+        Arrays.fill(palette, 0, paletteSize, null);
+        paletteSize = 0;
+
+        Block lastBlock = null;
+        short lastIndex = 0;
+        int index = 0;
+        for (int y = -1; y <= Chunks.SIZE_Y; y++) {
+            for (int z = -1; z <= Chunks.SIZE_Z; z++) {
+                for (int x = -1; x <= Chunks.SIZE_X; x++) {
+                    Block block = chunkView.getBlock(x, y, z);
+                    if (block != lastBlock) {
+                        lastBlock = block;
+                        lastIndex = getPaletteIndex(block);
+                    }
+                    blocks[index] = lastIndex;
+                    sunlight[index] = chunkView.getSunlight(x, y, z);
+                    light[index] = chunkView.getLight(x, y, z);
+                    index++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Hashes the copied blocks and light and the extra data of the same area, so that equal hashes mean equal meshes
+     * as far as the content of the buffer decides them. Blocks are hashed by their full uri and everything their
+     * meshes are generated from, which unlike their ids does not depend on the block mapping of the world.
+     *
+     * @param extraDataSlots the number of extra-data fields of the chunks
+     */
+    void hashContent(Hasher hasher, int extraDataSlots) {
+        hasher.putInt(paletteSize);
+        for (int i = 0; i < paletteSize; i++) {
+            hashBlock(hasher, palette[i]);
+        }
+        for (int i = 0; i < VOLUME; i++) {
+            hasher.putInt((blocks[i] & 0xffff) | (sunlight[i] & 0xff) << 16 | (light[i] & 0xff) << 24);
+        }
+        hasher.putInt(extraDataSlots);
+        for (int slot = 0; slot < extraDataSlots; slot++) {
+            for (int y = -1; y <= Chunks.SIZE_Y; y++) {
+                for (int z = -1; z <= Chunks.SIZE_Z; z++) {
+                    for (int x = -1; x <= Chunks.SIZE_X; x++) {
+                        hasher.putInt(view.getExtraData(slot, x, y, z));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Hashes the uri of the block and what the mesh generators read from it: the mesh parts, texture atlas positions
+     * and colours of its primary appearance, its liquid meshes, full sides, uniform textures and rendering flags, and
+     * the type of its mesh generator.
+     */
+    private static void hashBlock(Hasher hasher, Block block) {
+        hashString(hasher, block.getURI().toString());
+        BlockMeshGenerator generator = block.getMeshGenerator();
+        hashString(hasher, generator != null ? generator.getClass().getName() : "");
+        hasher.putBoolean(block.isTranslucent())
+                .putBoolean(block.isDoubleSided())
+                .putBoolean(block.isLiquid())
+                .putBoolean(block.isWater())
+                .putBoolean(block.isIce())
+                .putBoolean(block.isGrass())
+                .putBoolean(block.isWaving());
+        for (BlockPart part : BlockPart.allParts()) {
+            Vector2fc atlasPos = block.getPrimaryAppearance().getTextureAtlasPos(part);
+            if (atlasPos != null) {
+                hasher.putFloat(atlasPos.x());
+                hasher.putFloat(atlasPos.y());
+            } else {
+                hasher.putFloat(Float.NaN);
+            }
+            hashMeshPart(hasher, block.getPrimaryAppearance().getPart(part));
+            BlockColorSource colorSource = block.getColorSource(part);
+            if (colorSource instanceof Enum) {
+                hashString(hasher, ((Enum<?>) colorSource).name());
+            } else {
+                hashString(hasher, colorSource != null ? colorSource.getClass().getName() : "");
+            }
+            Colorc colorOffset = block.getColorOffset(part);
+            hasher.putInt(colorOffset != null ? colorOffset.rgba() : 0);
+        }
+        for (Side side : Side.allSides()) {
+            hasher.putBoolean(block.isFullSide(side));
+            hasher.putBoolean(block.isUniformTexture(side));
+            hashMeshPart(hasher, block.getLowLiquidMesh(side));
+            hashMeshPart(hasher, block.getTopLiquidMesh(side));
+        }
+    }
+
+    private static void hashMeshPart(Hasher hasher, BlockMeshPart meshPart) {
+        if (meshPart == null) {
+            hasher.putInt(-1);
+            return;
+        }
+        hasher.putInt(meshPart.size());
+        for (int i = 0; i < meshPart.size(); i++) {
+            Vector3f vertex = meshPart.getVertex(i);
+            Vector3f normal = meshPart.getNormal(i);
+            Vector2f texCoord = meshPart.getTexCoord(i);
+            hasher.putFloat(vertex.x).putFloat(vertex.y).putFloat(vertex.z)
+                    .putFloat(normal.x).putFloat(normal.y).putFloat(normal.z)
+                    .putFloat(texCoord.x).putFloat(texCoord.y);
+        }
+        hasher.putInt(meshPart.indicesSize());
+        for (int i = 0; i < meshPart.indicesSize(); i++) {
+            hasher.putInt(meshPart.getIndex(i));
+        }
+        hasher.putInt(meshPart.getTexFrames());
+    }
+
+    private static void hashString(Hasher hasher, String value) {
+        hasher.putInt(value.length());
+        hasher.putString(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Generates the mesh of a block of this buffer, reusing the scratch objects of the buffer where the mesh generator
+     * allows it.
+     */
+    void generateBlockMesh(ChunkMesh mesh, Block block, int x, int y, int z) {
+        BlockMeshGenerator generator = block.getMeshGenerator();
+        if (generator instanceof BlockMeshGeneratorSingleShape) {
+            ((BlockMeshGeneratorSingleShape) generator).generateChunkMesh(this, mesh, x, y, z, colorCache,
+                    adjacentBlocks, vertexPos, lighting);
+        } else {
+            generator.generateChunkMesh(this, mesh, x, y, z);
+        }
+    }
+
+    /**
+     * Drops the reference to the copied view, so it can be collected while the buffer waits for the next chunk.
+     */
+    void release() {
+        view = null;
+    }
+
+    private short getPaletteIndex(Block block) {
+        Short index = paletteIndices.get(block);
+        if (index == null) {
+            if (paletteSize == palette.length) {
+                palette = Arrays.copyOf(palette, paletteSize * 2);
+            }
+            index = (short) paletteSize;
+            palette[paletteSize++] = block;
+            paletteIndices.put(block, index);
+        }
+        return index;
+    }
+
+    private static boolean isInside(int x, int y, int z) {
+        return x >= -1 && x <= Chunks.SIZE_X && y >= -1 && y <= Chunks.SIZE_Y && z >= -1 && z <= Chunks.SIZE_Z;
+    }
+
+    private static int index(int x, int y, int z) {
+        return (x + 1) + SIZE_X * ((z + 1) + SIZE_Z * (y + 1));
+    }
+
+    @Override
+    public Block getBlock(float x, float y, float z) {
+        return getBlock(TeraMath.floorToInt(x + 0.5f), TeraMath.floorToInt(y + 0.5f), TeraMath.floorToInt(z + 0.5f));
+    }
+
+    @Override
+    public Block getBlock(Vector3ic pos) {
+        return getBlock(pos.x(), pos.y(), pos.z());
+    }
+
+    @Override
+    public Block getBlock(int x, int y, int z) {
+        if (isInside(x, y, z)) {
+            return palette[blocks[index(x, y, z)]];
+        }
+        return view.getBlock(x, y, z);
+    }
+
+    @Override
+    public byte getSunlight(float x, float y, float z) {
+        return getSunlight(TeraMath.floorToInt(x + 0.5f), TeraMath.floorToInt(y + 0.5f), TeraMath.floorToInt(z + 0.5f));
+    }
+
+    @Override
+    public byte getSunlight(Vector3i pos) {
+        return getSunlight(pos.x, pos.y, pos.z);
+    }
+
+    @Override
+    public byte getSunlight(int x, int y, int z) {
+        if (isInside(x, y, z)) {
+            return sunlight[index(x, y, z)];
+        }
+        return view.getSunlight(x, y, z);
+    }
+
+    @Override
+    public byte getLight(float x, float y, float z) {
+        return getLight(TeraMath.floorToInt(x + 0.5f), TeraMath.floorToInt(y + 0.5f), TeraMath.floorToInt(z + 0.5f));
+    }
+
+    @Override
+    public byte getLight(Vector3i pos) {
+        return getLight(pos.x, pos.y, pos.z);
+    }
+
+    @Override
+    public byte getLight(int x, int y, int z) {
+        if (isInside(x, y, z)) {
+            return light[index(x, y, z)];
+        }
+        return view.getLight(x, y, z);
+    }
+
+    @Override
+    public void setBlock(Vector3ic pos, Block type) {
+        throw new UnsupportedOperationException("The tessellation buffer is read only");
+    }
+
+    @Override
+    public void setBlock(int x, int y, int z, Block type) {
+        throw new UnsupportedOperationException("The tessellation buffer is read only");
+    }
+
+    @Override
+    public int getExtraData(int index, int x, int y, int z) {
+        return view.getExtraData(index, x, y, z);
+    }
+
+    @Override
+    public int getExtraData(int index, Vector3ic pos) {
+        return view.getExtraData(index, pos);
+    }
+
+    @Override
+    public void setExtraData(int index, int x, int y, int z, int value) {
+        throw new UnsupportedOperationException("The tessellation buffer is read only");
+    }
+
+    @Override
+    public void setExtraData(int index, Vector3ic pos, int value) {
+        throw new UnsupportedOperationException("The tessellation buffer is read only");
+    }
+
+    @Override
+    public Vector3i toWorldPos(Vector3ic localPos) {
+        return view.toWorldPos(localPos);
+    }
+
+    @Override
+    public BlockRegionc getWorldRegion() {
+        return view.getWorldRegion();
+    }
+
+    @Override
+    public BlockRegionc getChunkRegion() {
+        return view.getChunkRegion();
+    }
+
+    @Override
+    public void setDirtyAround(Vector3ic blockPos) {
+        view.setDirtyAround(blockPos);
+    }
+
+    @Override
+    public void setDirtyAround(BlockRegionc blockRegion) {
+        view.setDirtyAround(blockRegion);
+    }
+
+    @Override
+    public boolean isValidView() {
+        return view.isValidView();
+    }
+}
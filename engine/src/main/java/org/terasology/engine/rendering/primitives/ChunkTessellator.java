@@ -3,10 +3,13 @@
 package org.terasology.engine.rendering.primitives;
 
 import com.google.common.base.Stopwatch;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import org.joml.Vector3f;
+import org.joml.Vector3i;
 import org.terasology.engine.monitoring.PerformanceMonitor;
 import org.terasology.engine.world.ChunkView;
-import org.terasology.engine.world.block.Block;
 import org.terasology.engine.world.chunks.Chunks;
 
 import java.util.concurrent.TimeUnit;
@@ -16,11 +19,40 @@
  *
  */
 public final class ChunkTessellator {
+    /**
+     * System property which makes the tessellator merge adjacent faces of full opaque cubes into larger quads, see
+     * {@link GreedyChunkMesher}.
+     */
+    public static final String GREEDY_MESHING_PROPERTY = "org.terasology.greedyMeshing";
 
     private static int statVertexArrayUpdateCount;
 
+    private final boolean greedyMeshing;
+    private final ChunkMeshCache meshCache;
+    private final int extraDataSlots;
+    private final ThreadLocal<ChunkTessellationBuffer> buffers = ThreadLocal.withInitial(ChunkTessellationBuffer::new);
+
     public ChunkTessellator() {
+        this(Boolean.getBoolean(GREEDY_MESHING_PROPERTY));
+    }
+
+    /**
+     * @param greedyMeshing whether to merge adjacent faces of full opaque cubes into larger quads
+     */
+    public ChunkTessellator(boolean greedyMeshing) {
+        this(greedyMeshing, null, 0);
+    }
 
+    /**
+     * @param greedyMeshing whether to merge adjacent faces of full opaque cubes into larger quads
+     * @param meshCache the cache to load unchanged chunk meshes from instead of tessellating them, or null to always
+     *         tessellate
+     * @param extraDataSlots the number of extra-data fields of the chunks, which the block mesh generators may read
+     */
+    public ChunkTessellator(boolean greedyMeshing, ChunkMeshCache meshCache, int extraDataSlots) {
+        this.greedyMeshing = greedyMeshing;
+        this.meshCache = meshCache;
+        this.extraDataSlots = extraDataSlots;
     }
 
     public ChunkMesh generateMesh(ChunkView chunkView) {
@@ -33,15 +65,34 @@ public ChunkMesh generateMesh(ChunkView chunkView, float scale, int border) {
 
         final Stopwatch watch = Stopwatch.createStarted();
 
-        // The mesh extends into the borders in the horizontal directions, but not vertically upwards, in order to cover
-        // gaps between LOD chunks of different scales, but also avoid multiple overlapping ocean surfaces.
-        for (int y = 0; y < Chunks.SIZE_Y - border * 2; y++) {
-            for (int z = 0; z < Chunks.SIZE_Z; z++) {
-                for (int x = 0; x < Chunks.SIZE_X; x++) {
-                    Block block = chunkView.getBlock(x, y, z);
-                    block.getMeshGenerator().generateChunkMesh(chunkView, mesh, x, y, z);
+        ChunkTessellationBuffer buffer = buffers.get();
+        buffer.copy(chunkView);
+        HashCode hash = null;
+        try {
+            if (meshCache != null) {
+                hash = contentHash(buffer, scale, border);
+                ChunkMesh cachedMesh = meshCache.load(hash);
+                if (cachedMesh != null) {
+                    PerformanceMonitor.endActivity();
+                    return cachedMesh;
                 }
             }
+
+            // The mesh extends into the borders in the horizontal directions, but not vertically upwards, in order to
+            // cover gaps between LOD chunks of different scales, but also avoid multiple overlapping ocean surfaces.
+            if (greedyMeshing) {
+                new GreedyChunkMesher(buffer, mesh, Chunks.SIZE_Y - border * 2).generate();
+            } else {
+                for (int y = 0; y < Chunks.SIZE_Y - border * 2; y++) {
+                    for (int z = 0; z < Chunks.SIZE_Z; z++) {
+                        for (int x = 0; x < Chunks.SIZE_X; x++) {
+                            buffer.generateBlockMesh(mesh, buffer.getBlock(x, y, z), x, y, z);
+                        }
+                    }
+                }
+            }
+        } finally {
+            buffer.release();
         }
 
         if (border != 0) {
@@ -56,6 +107,10 @@ public ChunkMesh generateMesh(ChunkView chunkView, float scale, int border) {
             }
         }
 
+        if (meshCache != null) {
+            meshCache.store(hash, mesh);
+        }
+
         watch.stop();
         mesh.setTimeToGenerateBlockVertices((int) watch.elapsed(TimeUnit.MILLISECONDS));
         statVertexArrayUpdateCount++;
@@ -64,6 +119,28 @@ public ChunkMesh generateMesh(ChunkView chunkView, float scale, int border) {
         return mesh;
     }
 
+    /**
+     * Hashes everything the mesh of the chunk in the buffer depends on: the content version of the cache, the blocks
+     * with their shapes, textures and flags, the light and extra data around the chunk, the position of the chunk,
+     * which decides the colours of blocks with a colour lookup table, and the parameters of the mesh.
+     * <br><br>
+     * The cached mesh is used without comparing the content it was generated from, so the hash has 128 bits. Among
+     * even a billion cached meshes, the chance of two different chunks sharing a hash is below 10^-20.
+     */
+    private HashCode contentHash(ChunkTessellationBuffer buffer, float scale, int border) {
+        Vector3i chunkPos = buffer.toWorldPos(new Vector3i());
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        hasher.putBytes(meshCache.getContentVersion().asBytes());
+        buffer.hashContent(hasher, extraDataSlots);
+        return hasher.putInt(chunkPos.x)
+                .putInt(chunkPos.y)
+                .putInt(chunkPos.z)
+                .putFloat(scale)
+                .putInt(border)
+                .putBoolean(greedyMeshing)
+                .hash();
+    }
+
     public static int getVertexArrayUpdateCount() {
         return statVertexArrayUpdateCount;
     }
@@ -0,0 +1,318 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.rendering.primitives;
+
+import com.google.common.collect.Maps;
+import org.joml.Vector2f;
+import org.joml.Vector2fc;
+import org.joml.Vector3f;
+import org.joml.Vector3fc;
+import org.joml.Vector3ic;
+import org.terasology.engine.math.Side;
+import org.terasology.engine.world.block.Block;
+import org.terasology.engine.world.block.BlockAppearance;
+import org.terasology.engine.world.block.BlockPart;
+import org.terasology.engine.world.block.shapes.BlockMeshPart;
+import org.terasology.engine.world.chunks.Chunks;
+import org.terasology.nui.Color;
+import org.terasology.nui.Colorc;
+
+import java.util.Map;
+
+/**
+ * Tessellates a chunk by merging coplanar adjacent faces of full opaque cubes into larger quads.
+ * <br><br>
+ * Faces are merged when they show the same texture, colour and vertex flag and have the same lighting, which also has
+ * to be uniform over each face. All other blocks, and faces with gradients in their lighting, are tessellated as
+ * before.
+ * <br><br>
+ * A merged quad keeps the texture coordinates of a single block face, which stretches the atlas tile over the whole
+ * quad instead of repeating it, as the chunk material cannot wrap coordinates within a tile of the atlas. Only faces
+ * with a {@link Block#isUniformTexture(Side) uniform texture} are merged, as stretching those does not change how they
+ * look.
+ */
+final class GreedyChunkMesher {
+    private static final float EPSILON = 0.0001f;
+
+    private final ChunkTessellationBuffer view;
+    private final ChunkMesh mesh;
+    private final int[] size;
+    private final Map<Block, Boolean> mergeable = Maps.newIdentityHashMap();
+    private final Color colorCache = new Color();
+    private final Vector3f vertexPos = new Vector3f();
+    private final float[] lighting = new float[3];
+    private final float[] vertexLighting = new float[3];
+
+    /**
+     * @param sizeY the number of block layers to tessellate, from the bottom of the chunk
+     */
+    GreedyChunkMesher(ChunkTessellationBuffer view, ChunkMesh mesh, int sizeY) {
+        this.view = view;
+        this.mesh = mesh;
+        this.size = new int[]{Chunks.SIZE_X, sizeY, Chunks.SIZE_Z};
+    }
+
+    void generate() {
+        for (int y = 0; y < size[1]; y++) {
+            for (int z = 0; z < Chunks.SIZE_Z; z++) {
+                for (int x = 0; x < Chunks.SIZE_X; x++) {
+                    Block block = view.getBlock(x, y, z);
+                    if (!isMergeable(block)) {
+                        view.generateBlockMesh(mesh, block, x, y, z);
+                    }
+                }
+            }
+        }
+        for (Side side : Side.allSides()) {
+            generateSide(side);
+        }
+    }
+
+    private void generateSide(Side side) {
+        Vector3ic direction = side.direction();
+        int d = direction.x() != 0 ? 0 : direction.y() != 0 ? 1 : 2;
+        int u = (d + 1) % 3;
+        int v = (d + 2) % 3;
+        int width = size[u];
+        int height = size[v];
+        Face[] mask = new Face[width * height];
+        int[] pos = new int[3];
+
+        for (int slice = 0; slice < size[d]; slice++) {
+            pos[d] = slice;
+            for (int j = 0; j < height; j++) {
+                pos[v] = j;
+                for (int i = 0; i < width; i++) {
+                    pos[u] = i;
+                    mask[i + j * width] = getFace(side, pos[0], pos[1], pos[2]);
+                }
+            }
+
+            for (int j = 0; j < height; j++) {
+                for (int i = 0; i < width; i++) {
+                    Face face = mask[i + j * width];
+                    if (face == null) {
+                        continue;
+                    }
+                    int w = 1;
+                    while (i + w < width && face.equals(mask[i + w + j * width])) {
+                        w++;
+                    }
+                    int h = 1;
+                    while (j + h < height && isRowEqual(face, mask, i, j + h, w, width)) {
+                        h++;
+                    }
+                    for (int row = j; row < j + h; row++) {
+                        for (int col = i; col < i + w; col++) {
+                            mask[col + row * width] = null;
+                        }
+                    }
+                    appendQuad(face, d, u, v, slice, i, j, w, h);
+                }
+            }
+        }
+    }
+
+    private static boolean isRowEqual(Face face, Face[] mask, int i, int row, int w, int width) {
+        for (int col = i; col < i + w; col++) {
+            if (!face.equals(mask[col + row * width])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the mergeable face of the block on this side, or null if the side is not visible or not mergeable, in
+     *         which case the face has been tessellated on its own
+     */
+    private Face getFace(Side side, int x, int y, int z) {
+        Block block = view.getBlock(x, y, z);
+        if (!isMergeable(block)) {
+            return null;
+        }
+        Vector3ic offset = side.direction();
+        Block adjacent = view.getBlock(x + offset.x(), y + offset.y(), z + offset.z());
+        if (!BlockMeshGeneratorSingleShape.isSideVisibleForBlockTypes(adjacent, block, side)) {
+            return null;
+        }
+
+        BlockPart blockPart = BlockPart.fromSide(side);
+        BlockMeshPart meshPart = block.getPrimaryAppearance().getPart(blockPart);
+        ChunkVertexFlag flag = block.isGrass() && side != Side.TOP && side != Side.BOTTOM
+                ? ChunkVertexFlag.COLOR_MASK : ChunkVertexFlag.NORMAL;
+        Colorc colorOffset = block.getColorOffset(blockPart);
+        Colorc colorSource = block.getColorSource(blockPart).calcColor(view, x, y, z);
+        colorCache.setRed(colorSource.rf() * colorOffset.rf())
+                .setGreen(colorSource.gf() * colorOffset.gf())
+                .setBlue(colorSource.bf() * colorOffset.bf())
+                .setAlpha(colorSource.af() * colorOffset.af());
+
+        if (!block.isUniformTexture(side)) {
+            meshPart.appendTo(mesh, view, x, y, z, ChunkMesh.RenderType.OPAQUE, colorCache, flag, vertexPos, lighting);
+            return null;
+        }
+        meshPart.getVertexLighting(view, 0, x, y, z, vertexPos, lighting);
+        for (int i = 1; i < meshPart.size(); i++) {
+            meshPart.getVertexLighting(view, i, x, y, z, vertexPos, vertexLighting);
+            if (vertexLighting[0] != lighting[0] || vertexLighting[1] != lighting[1] || vertexLighting[2] != lighting[2]) {
+                meshPart.appendTo(mesh, view, x, y, z, ChunkMesh.RenderType.OPAQUE, colorCache, flag, vertexPos,
+                        vertexLighting);
+                return null;
+            }
+        }
+        return new Face(meshPart, flag, colorCache, lighting);
+    }
+
+    private boolean isMergeable(Block block) {
+        return mergeable.computeIfAbsent(block, GreedyChunkMesher::isFullOpaqueCube);
+    }
+
+    private static boolean isFullOpaqueCube(Block block) {
+        if (!(block.getMeshGenerator() instanceof BlockMeshGeneratorSingleShape) || block.isTranslucent()
+                || block.isLiquid() || block.isWater() || block.isIce() || block.isDoubleSided() || block.isWaving()) {
+            return false;
+        }
+        BlockAppearance appearance = block.getPrimaryAppearance();
+        if (!appearance.hasAppearance() || appearance.getPart(BlockPart.CENTER) != null) {
+            return false;
+        }
+        for (Side side : Side.allSides()) {
+            BlockMeshPart part = appearance.getPart(BlockPart.fromSide(side));
+            if (!block.isFullSide(side) || part == null || !isFullQuad(part, side)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return whether the part is a single quad covering the whole side of the block, with its texture mapped as a
+     *         parallelogram
+     */
+    private static boolean isFullQuad(BlockMeshPart part, Side side) {
+        if (part.size() != 4 || part.indicesSize() != 6 || part.getTexFrames() != 1) {
+            return false;
+        }
+        Vector3ic direction = side.direction();
+        int d = direction.x() != 0 ? 0 : direction.y() != 0 ? 1 : 2;
+        int[] corners = getCorners(part, d);
+        if (corners == null) {
+            return false;
+        }
+        for (int i = 0; i < 4; i++) {
+            if (Math.abs(part.getVertex(i).get(d) - 0.5f * direction.get(d)) > EPSILON) {
+                return false;
+            }
+        }
+        Vector2f expected = new Vector2f(part.getTexCoord(corners[1])).add(part.getTexCoord(corners[2]))
+                .sub(part.getTexCoord(corners[0]));
+        return expected.distance(part.getTexCoord(corners[3])) < EPSILON;
+    }
+
+    /**
+     * Finds the vertices of the quad at its corners in the plane of the side.
+     *
+     * @return the vertex indices at the near and far ends of the two tangent axes, in the order (near, near),
+     *         (far, near), (near, far), (far, far), or null if the vertices are not at the corners of the block
+     */
+    private static int[] getCorners(BlockMeshPart part, int d) {
+        int u = (d + 1) % 3;
+        int v = (d + 2) % 3;
+        int[] corners = {-1, -1, -1, -1};
+        for (int i = 0; i < part.size(); i++) {
+            Vector3fc vertex = part.getVertex(i);
+            if (Math.abs(Math.abs(vertex.get(u)) - 0.5f) > EPSILON || Math.abs(Math.abs(vertex.get(v)) - 0.5f) > EPSILON) {
+                return null;
+            }
+            int corner = (vertex.get(u) > 0 ? 1 : 0) + (vertex.get(v) > 0 ? 2 : 0);
+            if (corners[corner] != -1) {
+                return null;
+            }
+            corners[corner] = i;
+        }
+        return corners;
+    }
+
+    private void appendQuad(Face face, int d, int u, int v, int slice, int i, int j, int w, int h) {
+        BlockMeshPart part = face.part;
+        int[] corners = getCorners(part, d);
+        Vector2fc uv00 = part.getTexCoord(corners[0]);
+        Vector2f uStep = new Vector2f(part.getTexCoord(corners[1])).sub(uv00);
+        Vector2f vStep = new Vector2f(part.getTexCoord(corners[2])).sub(uv00);
+
+        ChunkMesh.VertexElements elements = mesh.getVertexElements(ChunkMesh.RenderType.OPAQUE);
+        Vector2f texCoord = new Vector2f();
+        for (int k = 0; k < part.size(); k++) {
+            Vector3fc vertex = part.getVertex(k);
+            texCoord.set(uv00);
+            if (vertex.get(u) > 0) {
+                texCoord.add(uStep);
+            }
+            if (vertex.get(v) > 0) {
+                texCoord.add(vStep);
+            }
+            elements.uv0.put(texCoord);
+        }
+
+        int nextIndex = elements.vertexCount;
+        elements.buffer.reserveElements(nextIndex + part.size());
+        Vector3f pos = new Vector3f();
+        for (int k = 0; k < part.size(); k++) {
+            Vector3fc vertex = part.getVertex(k);
+            pos.setComponent(d, slice + vertex.get(d));
+            pos.setComponent(u, i + vertex.get(u) + (vertex.get(u) > 0 ? w - 1 : 0));
+            pos.setComponent(v, j + vertex.get(v) + (vertex.get(v) > 0 ? h - 1 : 0));
+            elements.color.put(face.color);
+            elements.position.put(pos);
+            elements.normals.put(part.getNormal(k));
+            elements.flags.put((byte) face.flag.getValue());
+            elements.frames.put((byte) 0);
+            elements.sunlight.put(face.sunlight);
+            elements.blockLight.put(face.blockLight);
+            elements.ambientOcclusion.put(face.ambientOcclusion);
+        }
+        elements.vertexCount += part.size();
+
+        for (int k = 0; k < part.indicesSize(); k++) {
+            elements.indices.put(part.getIndex(k) + nextIndex);
+        }
+    }
+
+    private static final class Face {
+        private final BlockMeshPart part;
+        private final ChunkVertexFlag flag;
+        private final Color color;
+        private final float sunlight;
+        private final float blockLight;
+        private final float ambientOcclusion;
+
+        private Face(BlockMeshPart part, ChunkVertexFlag flag, Colorc color, float[] lighting) {
+            this.part = part;
+            this.flag = flag;
+            this.color = new Color(color.rgba());
+            this.sunlight = lighting[0];
+            this.blockLight = lighting[1];
+            this.ambientOcclusion = lighting[2];
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Face)) {
+                return false;
+            }
+            Face other = (Face) o;
+            return part == other.part && flag == other.flag && color.rgba() == other.color.rgba()
+                    && sunlight == other.sunlight && blockLight == other.blockLight
+                    && ambientOcclusion == other.ambientOcclusion;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(part);
+        }
+    }
+}
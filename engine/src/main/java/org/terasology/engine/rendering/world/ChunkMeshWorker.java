@@ -4,7 +4,8 @@
 package org.terasology.engine.rendering.world;
 
 import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
+import com.google.common.collect.Maps;
+import org.joml.Vector3i;
 import org.joml.Vector3ic;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,30 +13,41 @@
 import org.terasology.engine.monitoring.chunk.ChunkMonitor;
 import org.terasology.engine.rendering.primitives.ChunkMesh;
 import org.terasology.engine.rendering.primitives.ChunkTessellator;
-import org.terasology.engine.rendering.world.viewDistance.ViewDistance;
 import org.terasology.engine.world.ChunkView;
 import org.terasology.engine.world.WorldProvider;
 import org.terasology.engine.world.chunks.Chunk;
 import org.terasology.engine.world.chunks.RenderableChunk;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
 import reactor.core.publisher.Sinks;
 import reactor.core.scheduler.Scheduler;
-import reactor.function.TupleUtils;
 import reactor.util.function.Tuple2;
 import reactor.util.function.Tuples;
 
 import java.util.Collection;
 import java.util.Comparator;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * Receives RenderableChunks, works to make sure their Mesh is up-to-date.
  * <p>
- * Prioritizes work according to the given comparator function.
+ * Dirty chunks are scheduled for mesh generation in priority order: chunks in view of the camera first, each group
+ * front to back by the given comparator. Only a bounded number of jobs is handed to the mesh generation threads at a
+ * time, so the remaining dirty chunks are reprioritized on every update. Jobs that have not started yet are cancelled
+ * when their chunk is removed or leaves the view while visible chunks are waiting, and a chunk with a job in flight is
+ * not scheduled again until that job is done. A chunk edited while its mesh is built stays dirty and gets a new job
+ * afterwards.
+ * <p>
+ * Uploading meshes happens on the graphics thread and is capped per update, the remaining meshes wait for the next
+ * update.
  * <p>
  * TODO:
  * <ul>
@@ -48,31 +60,50 @@
 public final class ChunkMeshWorker {
     private static final Logger logger = LoggerFactory.getLogger(ChunkMeshWorker.class);
 
-    private static final int MAX_LOADABLE_CHUNKS =
-            ViewDistance.MEGA.getChunkDistance().x() * ViewDistance.MEGA.getChunkDistance().y() * ViewDistance.MEGA.getChunkDistance().z();
+    private static final int MAX_JOBS_IN_FLIGHT = 2 * Runtime.getRuntime().availableProcessors();
+    private static final int MAX_UPLOADS_PER_UPDATE = 16;
 
     private final Comparator<RenderableChunk> frontToBackComparator;
-    private final Set<Vector3ic> chunkMeshProcessing = Sets.newConcurrentHashSet();
+    private final Predicate<RenderableChunk> isVisible;
+    private final int maxJobsInFlight;
+    private final int maxUploadsPerUpdate;
+
+    private final Map<Vector3ic, Chunk> chunksInProximityOfCamera = Maps.newHashMap();
+    private final ConcurrentMap<Vector3ic, Job> jobs = Maps.newConcurrentMap();
+    /** Jobs with a mesh which did not fit into the upload budget of their update, only used on the graphics thread. */
+    private final Queue<Job> deferredUploads = new ConcurrentLinkedQueue<>();
+    private int uploadsThisUpdate;
 
-    private final Sinks.Many<Chunk> chunkMeshPublisher = Sinks.many().unicast().onBackpressureBuffer();
-    private final List<Chunk> chunksInProximityOfCamera = Lists.newArrayListWithCapacity(MAX_LOADABLE_CHUNKS);
-    private final Flux<Tuple2<Chunk, ChunkMesh>> chunksAndNewMeshes;
+    private final Sinks.Many<Job> jobPublisher = Sinks.many().unicast().onBackpressureBuffer();
+    private final Sinks.Many<Job> deferredUploadPublisher = Sinks.many().unicast().onBackpressureBuffer();
     private final Flux<Chunk> completedChunks;
 
     ChunkMeshWorker(Function<? super Chunk, Mono<Tuple2<Chunk, ChunkMesh>>> workFunction,
                     Comparator<RenderableChunk> frontToBackComparator, Scheduler parallelScheduler, Scheduler graphicsScheduler) {
+        this(workFunction, frontToBackComparator, chunk -> true, parallelScheduler, graphicsScheduler,
+                MAX_JOBS_IN_FLIGHT, MAX_UPLOADS_PER_UPDATE);
+    }
+
+    /**
+     * @param isVisible whether a chunk is in view of the camera, visible chunks are scheduled before others
+     * @param maxJobsInFlight the maximum number of chunks handed to the mesh generation threads, but not uploaded yet
+     * @param maxUploadsPerUpdate the maximum number of meshes uploaded between two calls to {@link #update()}
+     */
+    ChunkMeshWorker(Function<? super Chunk, Mono<Tuple2<Chunk, ChunkMesh>>> workFunction,
+                    Comparator<RenderableChunk> frontToBackComparator, Predicate<RenderableChunk> isVisible,
+                    Scheduler parallelScheduler, Scheduler graphicsScheduler, int maxJobsInFlight, int maxUploadsPerUpdate) {
         this.frontToBackComparator = frontToBackComparator;
+        this.isVisible = isVisible;
+        this.maxJobsInFlight = maxJobsInFlight;
+        this.maxUploadsPerUpdate = maxUploadsPerUpdate;
 
-        chunksAndNewMeshes = chunkMeshPublisher.asFlux()
-                .distinct(Chunk::getPosition, () -> chunkMeshProcessing)
+        Flux<Job> finishedJobs = jobPublisher.asFlux()
                 .parallel().runOn(parallelScheduler)
-                .flatMap(workFunction)
+                .flatMap(job -> runJob(job, workFunction))
                 .sequential();
 
-        completedChunks = chunksAndNewMeshes
-                .publishOn(graphicsScheduler)
-                .map(TupleUtils.function(ChunkMeshWorker::uploadNewMesh))
-                .doOnNext(chunk -> chunkMeshProcessing.remove(chunk.getPosition()));
+        completedChunks = Flux.merge(finishedJobs.publishOn(graphicsScheduler), deferredUploadPublisher.asFlux())
+                .handle(this::uploadNewMesh);
 
         // FIXME: error handling???
         //     throwable -> logger.error("Failed to build mesh {}", throwable);
@@ -80,49 +111,53 @@ public final class ChunkMeshWorker {
 
     public static ChunkMeshWorker create(ChunkTessellator chunkTessellator,
                                          WorldProvider worldProvider,
-                                         Comparator<RenderableChunk> frontToBackComparator) {
+                                         Comparator<RenderableChunk> frontToBackComparator,
+                                         Predicate<RenderableChunk> isVisible) {
         ChunkMeshWorker worker = new ChunkMeshWorker(generateMeshFunc(chunkTessellator, worldProvider),
-                frontToBackComparator,
-                GameScheduler.parallel(), GameScheduler.gameMain());
+                frontToBackComparator, isVisible,
+                GameScheduler.parallel(), GameScheduler.gameMain(), MAX_JOBS_IN_FLIGHT, MAX_UPLOADS_PER_UPDATE);
         worker.completedChunks.subscribe();
         return worker;
     }
-    
+
     public void add(Chunk chunk) {
-        // TODO: avoid adding duplicates
-        chunksInProximityOfCamera.add(chunk);
+        chunksInProximityOfCamera.put(new Vector3i(chunk.getPosition()), chunk);
     }
 
     public void remove(Chunk chunk) {
-        chunkMeshProcessing.remove(chunk.getPosition());
+        Vector3ic position = new Vector3i(chunk.getPosition());
+        cancelJob(position);
 
-        chunksInProximityOfCamera.remove(chunk);
+        chunksInProximityOfCamera.remove(position, chunk);
         chunk.disposeMesh();
     }
 
     public void remove(Vector3ic coord) {
-        chunkMeshProcessing.remove(coord);
-
-        Iterator<Chunk> iterator = chunksInProximityOfCamera.iterator();
-        while (iterator.hasNext()) {
-            Chunk chunk = iterator.next();
-            if (chunk.getPosition().equals(coord)) {
-                chunk.disposeMesh();
-                iterator.remove();
-                break;
-            }
+        Vector3ic position = new Vector3i(coord);
+        cancelJob(position);
+
+        Chunk chunk = chunksInProximityOfCamera.remove(position);
+        if (chunk != null) {
+            chunk.disposeMesh();
         }
     }
 
     /**
-     * Queue all dirty items in our collection, in priority order.
+     * Queue the dirty chunks without a job in flight, in priority order, as far as there is room for more jobs. Also
+     * starts the upload of meshes left over from the previous update.
      *
-     * @return the number of dirty chunks added to the queue
+     * @return the number of dirty chunks
      */
     public int update() {
+        uploadsThisUpdate = 0;
+        for (int i = 0; i < maxUploadsPerUpdate && !deferredUploads.isEmpty(); i++) {
+            emit(deferredUploadPublisher, deferredUploads.poll());
+        }
+
         int statDirtyChunks = 0;
-        chunksInProximityOfCamera.sort(frontToBackComparator);
-        for (Chunk chunk : chunksInProximityOfCamera) {
+        List<Chunk> visibleChunks = Lists.newArrayList();
+        List<Chunk> otherChunks = Lists.newArrayList();
+        for (Chunk chunk : chunksInProximityOfCamera.values()) {
             if (!chunk.isReady()) {
                 // Chunk was added as part of some region, but not yet ready.
                 // Leave it here with the expectation that it will be ready later.
@@ -134,31 +169,113 @@ public int update() {
                 continue;
             }
             statDirtyChunks++;
-            Sinks.EmitResult result = chunkMeshPublisher.tryEmitNext(chunk);
-            if (result.isFailure()) {
-                logger.error("failed to process chunk {} : {}", chunk, result);
+            if (!jobs.containsKey(chunk.getPosition())) {
+                (isVisible.test(chunk) ? visibleChunks : otherChunks).add(chunk);
             }
         }
+
+        if (visibleChunks.size() > maxJobsInFlight - jobs.size()) {
+            cancelQueuedJobsOutOfView();
+        }
+        int freeJobs = maxJobsInFlight - jobs.size();
+        if (freeJobs > 0) {
+            freeJobs = queueJobs(visibleChunks, freeJobs);
+            queueJobs(otherChunks, freeJobs);
+        }
         return statDirtyChunks;
     }
 
     public int numberChunkMeshProcessing() {
-        return chunkMeshProcessing.size();
+        return jobs.size();
     }
 
     public Collection<Chunk> chunks() {
-        return chunksInProximityOfCamera;
+        return chunksInProximityOfCamera.values();
     }
 
     Flux<Chunk> getCompletedChunks() {
         return completedChunks;
     }
 
-    private static Chunk uploadNewMesh(Chunk chunk, ChunkMesh chunkMesh) {
-        chunkMesh.updateMesh();  // Does GL stuff, must be on main thread!
-        chunkMesh.discardData();
-        chunk.setMesh(chunkMesh);
-        return chunk;
+    /**
+     * Queues jobs for the chunks nearest to the camera.
+     *
+     * @return the number of jobs there is still room for
+     */
+    private int queueJobs(List<Chunk> chunks, int freeJobs) {
+        chunks.sort(frontToBackComparator);
+        int queued = Math.min(freeJobs, chunks.size());
+        for (int i = 0; i < queued; i++) {
+            Chunk chunk = chunks.get(i);
+            Job job = new Job(chunk);
+            jobs.put(new Vector3i(chunk.getPosition()), job);
+            emit(jobPublisher, job);
+        }
+        return freeJobs - queued;
+    }
+
+    /**
+     * Makes room for visible chunks by cancelling the jobs of chunks out of view, which have not started yet. Their
+     * chunks are still dirty, so they are queued again by priority.
+     */
+    private void cancelQueuedJobsOutOfView() {
+        for (Map.Entry<Vector3ic, Job> entry : jobs.entrySet()) {
+            Job job = entry.getValue();
+            if (!isVisible.test(job.chunk) && job.cancelIfQueued()) {
+                jobs.remove(entry.getKey(), job);
+            }
+        }
+    }
+
+    private void cancelJob(Vector3ic position) {
+        Job job = jobs.remove(position);
+        if (job != null) {
+            job.cancel();
+        }
+    }
+
+    private static <T> void emit(Sinks.Many<T> publisher, T value) {
+        Sinks.EmitResult result = publisher.tryEmitNext(value);
+        if (result.isFailure()) {
+            logger.error("failed to process chunk {} : {}", value, result);
+        }
+    }
+
+    private static Mono<Job> runJob(Job job, Function<? super Chunk, Mono<Tuple2<Chunk, ChunkMesh>>> workFunction) {
+        if (!job.start()) {
+            return Mono.empty();
+        }
+        return workFunction.apply(job.chunk)
+                .map(chunkAndMesh -> {
+                    job.mesh = chunkAndMesh.getT2();
+                    return job;
+                })
+                .defaultIfEmpty(job);
+    }
+
+    private void uploadNewMesh(Job job, SynchronousSink<Chunk> sink) {
+        Vector3ic position = job.chunk.getPosition();
+        if (job.isCancelled() || jobs.get(position) != job) {
+            // the chunk was removed, or its job was cancelled after its mesh was built
+            if (job.mesh != null) {
+                job.mesh.discardData();
+            }
+            return;
+        }
+        if (job.mesh == null) {
+            jobs.remove(position, job);
+            return;
+        }
+        if (uploadsThisUpdate >= maxUploadsPerUpdate) {
+            deferredUploads.add(job);
+            return;
+        }
+        uploadsThisUpdate++;
+        job.mesh.updateMesh();  // Does GL stuff, must be on main thread!
+        job.mesh.discardData();
+        job.chunk.setMesh(job.mesh);
+        jobs.remove(position, job);
+        sink.next(job.chunk);
     }
 
     private static Function<Chunk, Mono<Tuple2<Chunk, ChunkMesh>>> generateMeshFunc(ChunkTessellator chunkTessellator, WorldProvider worldProvider) {
@@ -173,4 +290,48 @@ private static Function<Chunk, Mono<Tuple2<Chunk, ChunkMesh>>> generateMeshFunc(
             return Mono.empty();
         });
     }
+
+    /**
+     * The mesh generation of one chunk, from being queued until its mesh is uploaded.
+     */
+    private static final class Job {
+        private static final int QUEUED = 0;
+        private static final int RUNNING = 1;
+        private static final int CANCELLED = 2;
+
+        private final Chunk chunk;
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+        private volatile ChunkMesh mesh;
+
+        private Job(Chunk chunk) {
+            this.chunk = chunk;
+        }
+
+        /**
+         * @return false if the job was cancelled before it started
+         */
+        private boolean start() {
+            return state.compareAndSet(QUEUED, RUNNING);
+        }
+
+        /**
+         * @return true if the job had not started yet and is now cancelled
+         */
+        private boolean cancelIfQueued() {
+            return state.compareAndSet(QUEUED, CANCELLED);
+        }
+
+        private void cancel() {
+            state.set(CANCELLED);
+        }
+
+        private boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        @Override
+        public String toString() {
+            return chunk.toString();
+        }
+    }
 }
@@ -15,6 +15,7 @@
 import org.terasology.engine.core.module.rendering.RenderingModuleRegistry;
 import org.terasology.engine.core.subsystem.DisplayDevice;
 import org.terasology.engine.core.subsystem.lwjgl.LwjglGraphicsUtil;
+import org.terasology.engine.game.Game;
 import org.terasology.engine.logic.console.Console;
 import org.terasology.engine.logic.console.commandSystem.MethodCommand;
 import org.terasology.engine.logic.console.commandSystem.annotations.Command;
@@ -35,6 +36,7 @@
 import org.terasology.engine.rendering.opengl.FBO;
 import org.terasology.engine.rendering.opengl.ScreenGrabber;
 import org.terasology.engine.rendering.opengl.fbms.DisplayResolutionDependentFbo;
+import org.terasology.engine.rendering.primitives.ChunkMeshCache;
 import org.terasology.engine.rendering.primitives.ChunkTessellator;
 import org.terasology.engine.rendering.world.viewDistance.ViewDistance;
 import org.terasology.engine.utilities.Assets;
@@ -129,7 +131,10 @@ public WorldRendererImpl(Context context) {
         LocalPlayerSystem localPlayerSystem = context.get(LocalPlayerSystem.class);
         localPlayerSystem.setPlayerCamera(playerCamera);
 
-        context.put(ChunkTessellator.class, new ChunkTessellator());
+        context.put(ChunkTessellator.class, new ChunkTessellator(Boolean.getBoolean(ChunkTessellator.GREEDY_MESHING_PROPERTY),
+                ChunkMeshCache.open(context.get(Game.class).getName(), worldProvider.getSeed(),
+                        context.get(ModuleManager.class).getEnvironment()),
+                context.get(ExtraBlockDataManager.class).getSlotCount()));
 
         ChunkProvider chunkProvider = context.get(ChunkProvider.class);
         ChunkTessellator chunkTessellator = context.get(ChunkTessellator.class);
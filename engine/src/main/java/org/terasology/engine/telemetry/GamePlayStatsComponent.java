@@ -11,7 +11,11 @@
 
 /**
  * A component stocks game play stats such as blocks destroyed, blocks placed, etc.
+ * <br><br>
+ * The stats of the local player are saved every frame, which changes little more than the distance and play time, so
+ * the component is delta replicated.
  */
+@Replicate(delta = true)
 public class GamePlayStatsComponent implements Component<GamePlayStatsComponent> {
 
     @Replicate
@@ -20,10 +24,10 @@ public class GamePlayStatsComponent implements Component<GamePlayStatsComponent>
     @Replicate
     public Map<String, Integer> blockPlacedMap = new HashMap<>();
 
-    @Replicate
+    @Replicate(precision = 0.01f)
     public float distanceTraveled;
 
-    @Replicate
+    @Replicate(precision = 0.001f)
     public float playTimeMinute;
 
     @Replicate
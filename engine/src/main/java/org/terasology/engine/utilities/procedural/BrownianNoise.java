@@ -3,6 +3,8 @@
 
 package org.terasology.engine.utilities.procedural;
 
+import java.util.Arrays;
+
 /**
  * Computes Brownian noise based on some noise generator.
  * Originally, Brown integrates white noise, but using other noises can be sometimes useful, too.
@@ -105,6 +107,73 @@ public float noise(float x, float y, float z) {
         return result * scale;
     }
 
+    /**
+     * Fills the grid with Fractional Brownian Motion, evaluating each octave of the base noise as a grid. The offsets
+     * between the octaves only depend on the octave, so they are computed once per octave rather than per position.
+     */
+    @Override
+    public void noiseGrid(float[] xs, float[] ys, float[] result) {
+        int size = xs.length * ys.length;
+        float[] octave = new float[size];
+        float[] workingX = xs.clone();
+        float[] workingY = ys.clone();
+        float lacunarityFactor = (float) getLacunarity();
+        Arrays.fill(result, 0, size, 0.0f);
+        for (int i = 0; i < getOctaves(); i++) {
+            other.noiseGrid(workingX, workingY, octave);
+            float weight = spectralWeights[i];
+            for (int j = 0; j < size; j++) {
+                result[j] += octave[j] * weight;
+            }
+
+            float offsetX = 10 * other.noise(i + 0.5f, 0.5f);
+            float offsetY = 10 * other.noise(-i - 0.5f, -0.5f);
+            for (int j = 0; j < workingX.length; j++) {
+                workingX[j] = workingX[j] * lacunarityFactor + offsetX;
+            }
+            for (int j = 0; j < workingY.length; j++) {
+                workingY[j] = workingY[j] * lacunarityFactor + offsetY;
+            }
+        }
+        for (int j = 0; j < size; j++) {
+            result[j] *= scale;
+        }
+    }
+
+    /**
+     * Fills the grid with Fractional Brownian Motion, evaluating each octave of the base noise as a grid.
+     */
+    @Override
+    public void noiseGrid(float[] xs, float[] ys, float[] zs, float[] result) {
+        int size = xs.length * ys.length * zs.length;
+        float[] octave = new float[size];
+        float[] workingX = xs.clone();
+        float[] workingY = ys.clone();
+        float[] workingZ = zs.clone();
+        float lacunarityFactor = (float) getLacunarity();
+        Arrays.fill(result, 0, size, 0.0f);
+        for (int i = 0; i < getOctaves(); i++) {
+            other.noiseGrid(workingX, workingY, workingZ, octave);
+            float weight = spectralWeights[i];
+            for (int j = 0; j < size; j++) {
+                result[j] += octave[j] * weight;
+            }
+
+            scaleAll(workingX, lacunarityFactor);
+            scaleAll(workingY, lacunarityFactor);
+            scaleAll(workingZ, lacunarityFactor);
+        }
+        for (int j = 0; j < size; j++) {
+            result[j] *= scale;
+        }
+    }
+
+    private static void scaleAll(float[] values, float factor) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] *= factor;
+        }
+    }
+
     private static float computeScale(float[] spectralWeights) {
         float sum = 0;
         for (float weight : spectralWeights) {
@@ -3,6 +3,9 @@
 
 package org.terasology.engine.utilities.procedural;
 
+import org.terasology.engine.world.block.BlockAreac;
+import org.terasology.engine.world.block.BlockRegion;
+
 /**
  * Provides or generates noise
  *
@@ -46,4 +49,89 @@ public interface Noise {
      * @return The noise value in the range [-1..1]
      */
     float noise(float x, float y, float z);
+
+    /**
+     * Fills a grid with the noise values at every combination of the given coordinates. The result is ordered with
+     * x varying fastest, so the value for {@code (xs[i], ys[j])} is at {@code i + xs.length * j}.
+     * <br><br>
+     * Implementations override this to evaluate the grid faster than one position at a time, but must return the same
+     * values as {@link #noise(float, float)}.
+     *
+     * @param xs the positions on the x-axis
+     * @param ys the positions on the y-axis
+     * @param result the array to fill, of at least {@code xs.length * ys.length} values
+     */
+    default void noiseGrid(float[] xs, float[] ys, float[] result) {
+        int index = 0;
+        for (float y : ys) {
+            for (float x : xs) {
+                result[index++] = noise(x, y);
+            }
+        }
+    }
+
+    /**
+     * Fills a grid with the noise values at every combination of the given coordinates. The result is ordered with
+     * x varying fastest and z slowest, so the value for {@code (xs[i], ys[j], zs[k])} is at
+     * {@code i + xs.length * (j + ys.length * k)}.
+     * <br><br>
+     * Implementations override this to evaluate the grid faster than one position at a time, but must return the same
+     * values as {@link #noise(float, float, float)}.
+     *
+     * @param xs the positions on the x-axis
+     * @param ys the positions on the y-axis
+     * @param zs the positions on the z-axis
+     * @param result the array to fill, of at least {@code xs.length * ys.length * zs.length} values
+     */
+    default void noiseGrid(float[] xs, float[] ys, float[] zs, float[] result) {
+        int index = 0;
+        for (float z : zs) {
+            for (float y : ys) {
+                for (float x : xs) {
+                    result[index++] = noise(x, y, z);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the noise values of every block in the area, sampled at {@code noise(x * scale, y * scale)}.
+     * <br><br>
+     * This is not the same as the {@code noise(BlockAreac, float)} of {@link SubSampledNoise}, which interpolates
+     * between samples of its source instead.
+     *
+     * @param area the area to fill
+     * @param scale the factor applied to the block positions
+     * @return the noise values, ordered with x varying fastest
+     */
+    default float[] noiseArea(BlockAreac area, float scale) {
+        float[] result = new float[area.getSizeX() * area.getSizeY()];
+        noiseGrid(scaledPositions(area.minX(), area.getSizeX(), scale),
+                scaledPositions(area.minY(), area.getSizeY(), scale), result);
+        return result;
+    }
+
+    /**
+     * Returns the noise values of every block in the region, sampled at
+     * {@code noise(x * scale, y * scale, z * scale)}.
+     *
+     * @param region the region to fill
+     * @param scale the factor applied to the block positions
+     * @return the noise values, ordered with x varying fastest and z slowest
+     */
+    default float[] noiseRegion(BlockRegion region, float scale) {
+        float[] result = new float[region.volume()];
+        noiseGrid(scaledPositions(region.minX(), region.getSizeX(), scale),
+                scaledPositions(region.minY(), region.getSizeY(), scale),
+                scaledPositions(region.minZ(), region.getSizeZ(), scale), result);
+        return result;
+    }
+
+    private static float[] scaledPositions(int min, int size, float scale) {
+        float[] positions = new float[size];
+        for (int i = 0; i < size; i++) {
+            positions[i] = (min + i) * scale;
+        }
+        return positions;
+    }
 }
@@ -92,9 +92,45 @@ public float noise(float posX, float posY, float posZ) {
         // Perpendicular to that, X and Z move in the directions <0.789, -0.577, -0.211> and <-0.211, -0.577, 0.789>. These vectors form a
         // rotation matrix. The code is a simplification of the multiplication of this rotation matrix by the input coordinate, taking
         // advantage of the many repetitions of 0.577 and the fact that 0.789 = 1-0.211.
+        return rotatedNoise(posX, posY * 0.577350269189626f, posZ);
+    }
+
+    /**
+     * Fills the grid with 2D noise, which is the 3D noise with Z fixed at 0 as for {@link #noise(float, float)}.
+     */
+    @Override
+    public void noiseGrid(float[] xs, float[] ys, float[] result) {
+        int index = 0;
+        for (float y : ys) {
+            float yy = y * 0.577350269189626f;
+            for (float x : xs) {
+                result[index++] = rotatedNoise(x, yy, 0);
+            }
+        }
+    }
+
+    /**
+     * Fills the grid with 3D noise, rotating the Y coordinate once per row rather than once per position.
+     */
+    @Override
+    public void noiseGrid(float[] xs, float[] ys, float[] zs, float[] result) {
+        int index = 0;
+        for (float z : zs) {
+            for (float y : ys) {
+                float yy = y * 0.577350269189626f;
+                for (float x : xs) {
+                    result[index++] = rotatedNoise(x, yy, z);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param yy the Y position already scaled onto the main diagonal of the noise grid
+     */
+    private float rotatedNoise(float posX, float yy, float posZ) {
         float xz = posX + posZ;
         float s2 = xz * -0.211324865405187f;
-        float yy = posY * 0.577350269189626f;
         float rPosX = posX + (s2 + yy);
         float rPosY = xz * -0.577350269189626f + yy;
         float rPosZ = posZ + (s2 + yy);
@@ -32,20 +32,23 @@ public class SimplexNoise extends AbstractNoise implements Noise2D, Noise3D {
      */
     public static final float TILEABLE1DMAGICNUMBER = 0.5773502691896258f;
 
-    private static Grad[] grad3 = {
-            new Grad(1, 1, 0), new Grad(-1, 1, 0), new Grad(1, -1, 0), new Grad(-1, -1, 0),
-            new Grad(1, 0, 1), new Grad(-1, 0, 1), new Grad(1, 0, -1), new Grad(-1, 0, -1),
-            new Grad(0, 1, 1), new Grad(0, -1, 1), new Grad(0, 1, -1), new Grad(0, -1, -1)};
-
-    private static Grad[] grad4 = {
-            new Grad(0, 1, 1, 1), new Grad(0, 1, 1, -1), new Grad(0, 1, -1, 1), new Grad(0, 1, -1, -1),
-            new Grad(0, -1, 1, 1), new Grad(0, -1, 1, -1), new Grad(0, -1, -1, 1), new Grad(0, -1, -1, -1),
-            new Grad(1, 0, 1, 1), new Grad(1, 0, 1, -1), new Grad(1, 0, -1, 1), new Grad(1, 0, -1, -1),
-            new Grad(-1, 0, 1, 1), new Grad(-1, 0, 1, -1), new Grad(-1, 0, -1, 1), new Grad(-1, 0, -1, -1),
-            new Grad(1, 1, 0, 1), new Grad(1, 1, 0, -1), new Grad(1, -1, 0, 1), new Grad(1, -1, 0, -1),
-            new Grad(-1, 1, 0, 1), new Grad(-1, 1, 0, -1), new Grad(-1, -1, 0, 1), new Grad(-1, -1, 0, -1),
-            new Grad(1, 1, 1, 0), new Grad(1, 1, -1, 0), new Grad(1, -1, 1, 0), new Grad(1, -1, -1, 0),
-            new Grad(-1, 1, 1, 0), new Grad(-1, 1, -1, 0), new Grad(-1, -1, 1, 0), new Grad(-1, -1, -1, 0)};
+    // The gradients as separate primitive tables, so looking one up doesn't have to follow a reference per gradient
+    private static final float[] GRAD3_X = {1, -1, 1, -1, 1, -1, 1, -1, 0, 0, 0, 0};
+    private static final float[] GRAD3_Y = {1, 1, -1, -1, 0, 0, 0, 0, 1, -1, 1, -1};
+    private static final float[] GRAD3_Z = {0, 0, 0, 0, 1, 1, -1, -1, 1, 1, -1, -1};
+
+    private static final float[] GRAD4_X = {
+            0, 0, 0, 0, 0, 0, 0, 0, 1, 1, 1, 1, -1, -1, -1, -1,
+            1, 1, 1, 1, -1, -1, -1, -1, 1, 1, 1, 1, -1, -1, -1, -1};
+    private static final float[] GRAD4_Y = {
+            1, 1, 1, 1, -1, -1, -1, -1, 0, 0, 0, 0, 0, 0, 0, 0,
+            1, 1, -1, -1, 1, 1, -1, -1, 1, 1, -1, -1, 1, 1, -1, -1};
+    private static final float[] GRAD4_Z = {
+            1, 1, -1, -1, 1, 1, -1, -1, 1, 1, -1, -1, 1, 1, -1, -1,
+            0, 0, 0, 0, 0, 0, 0, 0, 1, -1, 1, -1, 1, -1, 1, -1};
+    private static final float[] GRAD4_W = {
+            1, -1, 1, -1, 1, -1, 1, -1, 1, -1, 1, -1, 1, -1, 1, -1,
+            1, -1, 1, -1, 1, -1, 1, -1, 0, 0, 0, 0, 0, 0, 0, 0};
 
     // Skewing and unskewing factors for 2, 3, and 4 dimensions
     private static final float F2 = 0.5f * (float) (Math.sqrt(3.0f) - 1.0f);
@@ -104,16 +107,16 @@ public SimplexNoise(long seed, int gridDim) {
         }
     }
 
-    private static float dot(Grad g, float x, float y) {
-        return g.x * x + g.y * y;
+    private static float dot(int gi, float x, float y) {
+        return GRAD3_X[gi] * x + GRAD3_Y[gi] * y;
     }
 
-    private static float dot(Grad g, float x, float y, float z) {
-        return g.x * x + g.y * y + g.z * z;
+    private static float dot(int gi, float x, float y, float z) {
+        return GRAD3_X[gi] * x + GRAD3_Y[gi] * y + GRAD3_Z[gi] * z;
     }
 
-    private static float dot(Grad g, float x, float y, float z, float w) {
-        return g.x * x + g.y * y + g.z * z + g.w * w;
+    private static float dot4(int gi, float x, float y, float z, float w) {
+        return GRAD4_X[gi] * x + GRAD4_Y[gi] * y + GRAD4_Z[gi] * z + GRAD4_W[gi] * w;
     }
 
     /**
@@ -125,6 +128,23 @@ private static float dot(Grad g, float x, float y, float z, float w) {
      */
     @Override
     public float noise(float xin, float yin) {
+        return simplex2D(xin, yin);
+    }
+
+    /**
+     * Fills the grid with 2D simplex noise, calling the noise function directly rather than through the interface.
+     */
+    @Override
+    public void noiseGrid(float[] xs, float[] ys, float[] result) {
+        int index = 0;
+        for (float y : ys) {
+            for (float x : xs) {
+                result[index++] = simplex2D(x, y);
+            }
+        }
+    }
+
+    private float simplex2D(float xin, float yin) {
         float n0;
         float n1;
         float n2; // Noise contributions from the three corners
@@ -172,21 +192,21 @@ public float noise(float xin, float yin) {
             n0 = 0.0f;
         } else {
             t0 *= t0;
-            n0 = t0 * t0 * dot(grad3[gi0], x0, y0); // (x,y) of grad3 used for 2D gradient
+            n0 = t0 * t0 * dot(gi0, x0, y0); // (x,y) of grad3 used for 2D gradient
         }
         float t1 = 0.5f - x1 * x1 - y1 * y1;
         if (t1 < 0) {
             n1 = 0.0f;
         } else {
             t1 *= t1;
-            n1 = t1 * t1 * dot(grad3[gi1], x1, y1);
+            n1 = t1 * t1 * dot(gi1, x1, y1);
         }
         float t2 = 0.5f - x2 * x2 - y2 * y2;
         if (t2 < 0) {
             n2 = 0.0f;
         } else {
             t2 *= t2;
-            n2 = t2 * t2 * dot(grad3[gi2], x2, y2);
+            n2 = t2 * t2 * dot(gi2, x2, y2);
         }
 
         // Add contributions from each corner to get the final noise value.
@@ -204,6 +224,25 @@ public float noise(float xin, float yin) {
      */
     @Override
     public float noise(float xin, float yin, float zin) {
+        return simplex3D(xin, yin, zin);
+    }
+
+    /**
+     * Fills the grid with 3D simplex noise, calling the noise function directly rather than through the interface.
+     */
+    @Override
+    public void noiseGrid(float[] xs, float[] ys, float[] zs, float[] result) {
+        int index = 0;
+        for (float z : zs) {
+            for (float y : ys) {
+                for (float x : xs) {
+                    result[index++] = simplex3D(x, y, z);
+                }
+            }
+        }
+    }
+
+    private float simplex3D(float xin, float yin, float zin) {
         float n0;
         float n1;
         float n2;
@@ -308,28 +347,28 @@ public float noise(float xin, float yin, float zin) {
             n0 = 0.0f;
         } else {
             t0 *= t0;
-            n0 = t0 * t0 * dot(grad3[gi0], x0, y0, z0);
+            n0 = t0 * t0 * dot(gi0, x0, y0, z0);
         }
         float t1 = 0.6f - x1 * x1 - y1 * y1 - z1 * z1;
         if (t1 < 0) {
             n1 = 0.0f;
         } else {
             t1 *= t1;
-            n1 = t1 * t1 * dot(grad3[gi1], x1, y1, z1);
+            n1 = t1 * t1 * dot(gi1, x1, y1, z1);
         }
         float t2 = 0.6f - x2 * x2 - y2 * y2 - z2 * z2;
         if (t2 < 0) {
             n2 = 0.0f;
         } else {
             t2 *= t2;
-            n2 = t2 * t2 * dot(grad3[gi2], x2, y2, z2);
+            n2 = t2 * t2 * dot(gi2, x2, y2, z2);
         }
         float t3 = 0.6f - x3 * x3 - y3 * y3 - z3 * z3;
         if (t3 < 0) {
             n3 = 0.0f;
         } else {
             t3 *= t3;
-            n3 = t3 * t3 * dot(grad3[gi3], x3, y3, z3);
+            n3 = t3 * t3 * dot(gi3, x3, y3, z3);
         }
 
         // Add contributions from each corner to get the final noise value.
@@ -480,59 +519,37 @@ public float noise(float xin, float yin, float zin, float win) {
             n0 = 0.0f;
         } else {
             t0 *= t0;
-            n0 = t0 * t0 * dot(grad4[gi0], x0, y0, z0, w0);
+            n0 = t0 * t0 * dot4(gi0, x0, y0, z0, w0);
         }
         float t1 = 0.6f - x1 * x1 - y1 * y1 - z1 * z1 - w1 * w1;
         if (t1 < 0) {
             n1 = 0.0f;
         } else {
             t1 *= t1;
-            n1 = t1 * t1 * dot(grad4[gi1], x1, y1, z1, w1);
+            n1 = t1 * t1 * dot4(gi1, x1, y1, z1, w1);
         }
         float t2 = 0.6f - x2 * x2 - y2 * y2 - z2 * z2 - w2 * w2;
         if (t2 < 0) {
             n2 = 0.f;
         } else {
             t2 *= t2;
-            n2 = t2 * t2 * dot(grad4[gi2], x2, y2, z2, w2);
+            n2 = t2 * t2 * dot4(gi2, x2, y2, z2, w2);
         }
         float t3 = 0.6f - x3 * x3 - y3 * y3 - z3 * z3 - w3 * w3;
         if (t3 < 0) {
             n3 = 0.0f;
         } else {
             t3 *= t3;
-            n3 = t3 * t3 * dot(grad4[gi3], x3, y3, z3, w3);
+            n3 = t3 * t3 * dot4(gi3, x3, y3, z3, w3);
         }
         float t4 = 0.6f - x4 * x4 - y4 * y4 - z4 * z4 - w4 * w4;
         if (t4 < 0) {
             n4 = 0.0f;
         } else {
             t4 *= t4;
-            n4 = t4 * t4 * dot(grad4[gi4], x4, y4, z4, w4);
+            n4 = t4 * t4 * dot4(gi4, x4, y4, z4, w4);
         }
         // Sum up and scale the result to cover the range [-1,1]
         return 27.0f * (n0 + n1 + n2 + n3 + n4);
     }
-
-    // Inner class to speed up gradient computations
-    // (array access is a lot slower than member access)
-    private static class Grad {
-        float x;
-        float y;
-        float z;
-        float w;
-
-        Grad(float x, float y, float z) {
-            this.x = x;
-            this.y = y;
-            this.z = z;
-        }
-
-        Grad(float x, float y, float z, float w) {
-            this.x = x;
-            this.y = y;
-            this.z = z;
-            this.w = w;
-        }
-    }
 }
@@ -98,17 +98,10 @@ private float[] mapExpand(float[] keyData, BlockAreac fullRegion) {
     }
 
     private float[] getKeyValues(BlockAreac fullRegion, float scale) {
-        int xDim = fullRegion.getSizeX() / sampleRate + 1;
-        int yDim = fullRegion.getSizeY() / sampleRate + 1;
-        float[] fullData = new float[xDim * yDim];
-        for (int y = 0; y < yDim; y++) {
-            for (int x = 0; x < xDim; x++) {
-                int actualX = x * sampleRate + fullRegion.minX();
-                int actualY = y * sampleRate + fullRegion.minY();
-                fullData[x + y * xDim] = source.noise(zoom.x * scale * actualX, zoom.y * scale * actualY);
-            }
-        }
-
+        float[] xs = getKeyPositions(fullRegion.minX(), fullRegion.getSizeX(), zoom.x * scale);
+        float[] ys = getKeyPositions(fullRegion.minY(), fullRegion.getSizeY(), zoom.y * scale);
+        float[] fullData = new float[xs.length * ys.length];
+        source.noiseGrid(xs, ys, fullData);
         return fullData;
     }
 
@@ -210,25 +203,25 @@ private float[] mapExpand(float[] keyData, BlockRegion fullRegion) {
     }
 
     private float[] getKeyValues(BlockRegion fullRegion, float scale) {
-        int xDim = fullRegion.getSizeX() / sampleRate + 1;
-        int yDim = fullRegion.getSizeY() / sampleRate + 1;
-        int zDim = fullRegion.getSizeZ() / sampleRate + 1;
-        float[] fullData = new float[xDim * yDim * zDim];
-        for (int z = 0; z < zDim; z++) {
-            for (int y = 0; y < yDim; y++) {
-                for (int x = 0; x < xDim; x++) {
-                    int actualX = x * sampleRate + fullRegion.minX();
-                    int actualY = y * sampleRate + fullRegion.minY();
-                    int actualZ = z * sampleRate + fullRegion.minZ();
-                    fullData[x + xDim * (y + yDim * z)] = source.noise(zoom.x * scale * actualX,
-                            zoom.y * scale * actualY,
-                            zoom.z * scale * actualZ);
-                }
-            }
-        }
+        float[] xs = getKeyPositions(fullRegion.minX(), fullRegion.getSizeX(), zoom.x * scale);
+        float[] ys = getKeyPositions(fullRegion.minY(), fullRegion.getSizeY(), zoom.y * scale);
+        float[] zs = getKeyPositions(fullRegion.minZ(), fullRegion.getSizeZ(), zoom.z * scale);
+        float[] fullData = new float[xs.length * ys.length * zs.length];
+        source.noiseGrid(xs, ys, zs, fullData);
         return fullData;
     }
 
+    /**
+     * @return the scaled positions of the key values along one axis, so the source can evaluate them as a grid
+     */
+    private float[] getKeyPositions(int min, int size, float factor) {
+        float[] positions = new float[size / sampleRate + 1];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = factor * (i * sampleRate + min);
+        }
+        return positions;
+    }
+
     private BlockRegion determineRequiredRegion(BlockRegion region) {
         int newMinX = region.minX() - IntMath.mod(region.minX(), sampleRate);
         int newMinY = region.minY() - IntMath.mod(region.minY(), sampleRate);
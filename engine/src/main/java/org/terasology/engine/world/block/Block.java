@@ -48,6 +48,7 @@ public final class Block {
     private int hardness = 3;
     private boolean supportRequired;
     private final boolean[] fullSide = new boolean[Side.values().length];
+    private final boolean[] uniformTexture = new boolean[Side.values().length];
     private BlockSounds sounds;
 
     // Special rendering flags (TODO: clean this up)
@@ -551,6 +552,18 @@ public void setFullSide(Side side, boolean full) {
         fullSide[side.ordinal()] = full;
     }
 
+    /**
+     * @return Whether the texture of the given side of the block has a single colour, so that the faces of several
+     *         blocks can be drawn as one stretched face
+     */
+    public boolean isUniformTexture(Side side) {
+        return uniformTexture[side.ordinal()];
+    }
+
+    public void setUniformTexture(Side side, boolean uniform) {
+        uniformTexture[side.ordinal()] = uniform;
+    }
+
     /**
      * Set the collision box for the block
      *
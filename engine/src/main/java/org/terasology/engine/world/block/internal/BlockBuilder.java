@@ -124,6 +124,7 @@ public Block constructCustomBlock(String defaultName, BlockShape shape, Rotation
         block.setRotation(rotation);
         block.setPrimaryAppearance(createAppearance(shape, section.getBlockTiles(), rotation));
         setBlockFullSides(block, shape, rotation);
+        setBlockUniformTextures(block, section.getBlockTiles(), rotation);
         block.setCollision(shape.getCollisionOffset(rotation), shape.getCollisionShape(rotation));
 
         for (BlockPart part : BlockPart.values()) {
@@ -221,6 +222,14 @@ private void setBlockFullSides(Block block, BlockShape shape, Rotation rot) {
         }
     }
 
+    private void setBlockUniformTextures(Block block, Map<BlockPart, BlockTile> tiles, Rotation rot) {
+        for (Side side : Side.values()) {
+            BlockPart part = BlockPart.fromSide(side);
+            BlockTile tile = tiles.get(part);
+            block.setUniformTexture(part.rotate(rot).getSide(), tile != null && tile.isUniform());
+        }
+    }
+
     private void applyLiquidShapes(Block block, Map<BlockPart, BlockTile> tiles) {
         for (Side side : Side.values()) {
             BlockPart part = BlockPart.fromSide(side);
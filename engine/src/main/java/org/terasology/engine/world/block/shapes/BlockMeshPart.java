@@ -23,6 +23,11 @@
  */
 public class BlockMeshPart {
     private static final float BORDER = 1f / 128f;
+    /**
+     * The offsets of the light samples around a vertex, along the two axes in the plane of its face.
+     */
+    private static final float[] SAMPLE_U = {0.1f, 0.1f, -0.1f, -0.1f};
+    private static final float[] SAMPLE_V = {0.1f, -0.1f, -0.1f, 0.1f};
 
     private Vector3f[] vertices;
     private Vector3f[] normals;
@@ -82,6 +87,20 @@ public BlockMeshPart mapTexCoords(Vector2f offset, float width, int frames) {
 
     public void appendTo(ChunkMesh chunk, ChunkView chunkView, int offsetX, int offsetY, int offsetZ,
                          ChunkMesh.RenderType renderType, Colorc colorOffset, ChunkVertexFlag flags) {
+        appendTo(chunk, chunkView, offsetX, offsetY, offsetZ, renderType, colorOffset, flags, new Vector3f(),
+                new float[3]);
+    }
+
+    /**
+     * Appends the part like {@link #appendTo(ChunkMesh, ChunkView, int, int, int, ChunkMesh.RenderType, Colorc,
+     * ChunkVertexFlag)}, in the scratch objects of the caller, so that nothing is allocated per face.
+     *
+     * @param vertexPos receives the positions of the vertices
+     * @param lighting receives the lighting of the vertices, and has to hold three values
+     */
+    public void appendTo(ChunkMesh chunk, ChunkView chunkView, int offsetX, int offsetY, int offsetZ,
+                         ChunkMesh.RenderType renderType, Colorc colorOffset, ChunkVertexFlag flags,
+                         Vector3f vertexPos, float[] lighting) {
         ChunkMesh.VertexElements elements = chunk.getVertexElements(renderType);
         for (Vector2f texCoord : texCoords) {
             elements.uv0.put(texCoord);
@@ -89,18 +108,17 @@ public void appendTo(ChunkMesh chunk, ChunkView chunkView, int offsetX, int offs
 
         int nextIndex = elements.vertexCount;
         elements.buffer.reserveElements(nextIndex + vertices.length);
-        Vector3f pos = new Vector3f();
         for (int vIdx = 0; vIdx < vertices.length; ++vIdx) {
+            vertexPos.set(vertices[vIdx]).add(offsetX, offsetY, offsetZ);
             elements.color.put(colorOffset);
-            elements.position.put(pos.set(vertices[vIdx]).add(offsetX, offsetY, offsetZ));
+            elements.position.put(vertexPos);
             elements.normals.put(normals[vIdx]);
             elements.flags.put((byte) (flags.getValue()));
             elements.frames.put((byte) (texFrames - 1));
-            float[] lightingData = calcLightingValuesForVertexPos(chunkView, vertices[vIdx].add(offsetX, offsetY, offsetZ,
-                    new Vector3f()), normals[vIdx]);
-            elements.sunlight.put(lightingData[0]);
-            elements.blockLight.put(lightingData[1]);
-            elements.ambientOcclusion.put(lightingData[2]);
+            calcLightingValuesForVertexPos(chunkView, vertexPos, normals[vIdx], lighting);
+            elements.sunlight.put(lighting[0]);
+            elements.blockLight.put(lighting[1]);
+            elements.ambientOcclusion.put(lighting[2]);
         }
         elements.vertexCount += vertices.length;
 
@@ -109,6 +127,20 @@ public void appendTo(ChunkMesh chunk, ChunkView chunkView, int offsetX, int offs
         }
     }
 
+    /**
+     * Calculates the lighting of a vertex as {@link #appendTo} does.
+     *
+     * @param vertexPos receives the position of the vertex
+     * @param output receives the sunlight, block light and ambient occlusion of the vertex
+     * @return the output array
+     */
+    public float[] getVertexLighting(ChunkView chunkView, int vertex, int offsetX, int offsetY, int offsetZ,
+                                     Vector3f vertexPos, float[] output) {
+        calcLightingValuesForVertexPos(chunkView, vertices[vertex].add(offsetX, offsetY, offsetZ, vertexPos),
+                normals[vertex], output);
+        return output;
+    }
+
     public BlockMeshPart rotate(Quaternionf rotation) {
         Vector3f[] newVertices = new Vector3f[vertices.length];
         Vector3f[] newNormals = new Vector3f[normals.length];
@@ -122,57 +154,14 @@ public BlockMeshPart rotate(Quaternionf rotation) {
         return new BlockMeshPart(newVertices, newNormals, texCoords, indices, texFrames);
     }
 
-    private float[] calcLightingValuesForVertexPos(ChunkView chunkView, Vector3f vertexPos, Vector3f normal) {
+    /**
+     * Samples the light around a vertex and the blocks in front of its corner.
+     *
+     * @param output receives the sunlight, block light and ambient occlusion of the vertex
+     */
+    private static void calcLightingValuesForVertexPos(ChunkView chunkView, Vector3f vertexPos, Vector3f normal,
+                                                       float[] output) {
         PerformanceMonitor.startActivity("calcLighting");
-        float[] lights = new float[8];
-        float[] blockLights = new float[8];
-        Block[] blocks = new Block[4];
-
-        PerformanceMonitor.startActivity("gatherLightInfo");
-        Direction dir = Direction.inDirection(normal);
-        switch (dir) {
-            case LEFT:
-            case RIGHT:
-                blocks[0] = chunkView.getBlock((vertexPos.x + 0.8f * normal.x), (vertexPos.y + 0.1f), (vertexPos.z + 0.1f));
-                blocks[1] = chunkView.getBlock((vertexPos.x + 0.8f * normal.x), (vertexPos.y + 0.1f), (vertexPos.z - 0.1f));
-                blocks[2] = chunkView.getBlock((vertexPos.x + 0.8f * normal.x), (vertexPos.y - 0.1f), (vertexPos.z - 0.1f));
-                blocks[3] = chunkView.getBlock((vertexPos.x + 0.8f * normal.x), (vertexPos.y - 0.1f), (vertexPos.z + 0.1f));
-                break;
-            case FORWARD:
-            case BACKWARD:
-                blocks[0] = chunkView.getBlock((vertexPos.x + 0.1f), (vertexPos.y + 0.1f), (vertexPos.z + 0.8f * normal.z));
-                blocks[1] = chunkView.getBlock((vertexPos.x + 0.1f), (vertexPos.y - 0.1f), (vertexPos.z + 0.8f * normal.z));
-                blocks[2] = chunkView.getBlock((vertexPos.x - 0.1f), (vertexPos.y - 0.1f), (vertexPos.z + 0.8f * normal.z));
-                blocks[3] = chunkView.getBlock((vertexPos.x - 0.1f), (vertexPos.y + 0.1f), (vertexPos.z + 0.8f * normal.z));
-                break;
-            default:
-                blocks[0] = chunkView.getBlock((vertexPos.x + 0.1f), (vertexPos.y + 0.8f * normal.y), (vertexPos.z + 0.1f));
-                blocks[1] = chunkView.getBlock((vertexPos.x + 0.1f), (vertexPos.y + 0.8f * normal.y), (vertexPos.z - 0.1f));
-                blocks[2] = chunkView.getBlock((vertexPos.x - 0.1f), (vertexPos.y + 0.8f * normal.y), (vertexPos.z - 0.1f));
-                blocks[3] = chunkView.getBlock((vertexPos.x - 0.1f), (vertexPos.y + 0.8f * normal.y), (vertexPos.z + 0.1f));
-        }
-
-        lights[0] = chunkView.getSunlight((vertexPos.x + 0.1f), (vertexPos.y + 0.8f), (vertexPos.z + 0.1f));
-        lights[1] = chunkView.getSunlight((vertexPos.x + 0.1f), (vertexPos.y + 0.8f), (vertexPos.z - 0.1f));
-        lights[2] = chunkView.getSunlight((vertexPos.x - 0.1f), (vertexPos.y + 0.8f), (vertexPos.z - 0.1f));
-        lights[3] = chunkView.getSunlight((vertexPos.x - 0.1f), (vertexPos.y + 0.8f), (vertexPos.z + 0.1f));
-
-        lights[4] = chunkView.getSunlight((vertexPos.x + 0.1f), (vertexPos.y - 0.1f), (vertexPos.z + 0.1f));
-        lights[5] = chunkView.getSunlight((vertexPos.x + 0.1f), (vertexPos.y - 0.1f), (vertexPos.z - 0.1f));
-        lights[6] = chunkView.getSunlight((vertexPos.x - 0.1f), (vertexPos.y - 0.1f), (vertexPos.z - 0.1f));
-        lights[7] = chunkView.getSunlight((vertexPos.x - 0.1f), (vertexPos.y - 0.1f), (vertexPos.z + 0.1f));
-
-        blockLights[0] = chunkView.getLight((vertexPos.x + 0.1f), (vertexPos.y + 0.8f), (vertexPos.z + 0.1f));
-        blockLights[1] = chunkView.getLight((vertexPos.x + 0.1f), (vertexPos.y + 0.8f), (vertexPos.z - 0.1f));
-        blockLights[2] = chunkView.getLight((vertexPos.x - 0.1f), (vertexPos.y + 0.8f), (vertexPos.z - 0.1f));
-        blockLights[3] = chunkView.getLight((vertexPos.x - 0.1f), (vertexPos.y + 0.8f), (vertexPos.z + 0.1f));
-
-        blockLights[4] = chunkView.getLight((vertexPos.x + 0.1f), (vertexPos.y - 0.1f), (vertexPos.z + 0.1f));
-        blockLights[5] = chunkView.getLight((vertexPos.x + 0.1f), (vertexPos.y - 0.1f), (vertexPos.z - 0.1f));
-        blockLights[6] = chunkView.getLight((vertexPos.x - 0.1f), (vertexPos.y - 0.1f), (vertexPos.z - 0.1f));
-        blockLights[7] = chunkView.getLight((vertexPos.x - 0.1f), (vertexPos.y - 0.1f), (vertexPos.z + 0.1f));
-        PerformanceMonitor.endActivity();
-
         float resultLight = 0;
         float resultBlockLight = 0;
         int counterLight = 0;
@@ -180,30 +169,50 @@ private float[] calcLightingValuesForVertexPos(ChunkView chunkView, Vector3f ver
 
         int occCounter = 0;
         int occCounterBillboard = 0;
+
+        PerformanceMonitor.startActivity("gatherLightInfo");
+        Direction dir = Direction.inDirection(normal);
+        for (int i = 0; i < 4; i++) {
+            Block b;
+            switch (dir) {
+                case LEFT:
+                case RIGHT:
+                    b = chunkView.getBlock((vertexPos.x + 0.8f * normal.x), (vertexPos.y + SAMPLE_U[i]), (vertexPos.z + SAMPLE_V[i]));
+                    break;
+                case FORWARD:
+                case BACKWARD:
+                    b = chunkView.getBlock((vertexPos.x + SAMPLE_U[i]), (vertexPos.y + SAMPLE_V[i]), (vertexPos.z + 0.8f * normal.z));
+                    break;
+                default:
+                    b = chunkView.getBlock((vertexPos.x + SAMPLE_U[i]), (vertexPos.y + 0.8f * normal.y), (vertexPos.z + SAMPLE_V[i]));
+            }
+            if (b.isShadowCasting() && !b.isTranslucent()) {
+                occCounter++;
+            } else if (b.isShadowCasting()) {
+                occCounterBillboard++;
+            }
+        }
+
+        // the four samples above the vertex, then the four below it
         for (int i = 0; i < 8; i++) {
-            if (lights[i] > 0) {
-                resultLight += lights[i];
+            float x = vertexPos.x + SAMPLE_U[i % 4];
+            float y = vertexPos.y + (i < 4 ? 0.8f : -0.1f);
+            float z = vertexPos.z + SAMPLE_V[i % 4];
+            byte light = chunkView.getSunlight(x, y, z);
+            if (light > 0) {
+                resultLight += light;
                 counterLight++;
             }
-            if (blockLights[i] > 0) {
-                resultBlockLight += blockLights[i];
+            byte blockLight = chunkView.getLight(x, y, z);
+            if (blockLight > 0) {
+                resultBlockLight += blockLight;
                 counterBlockLight++;
             }
-
-            if (i < 4) {
-                Block b = blocks[i];
-
-                if (b.isShadowCasting() && !b.isTranslucent()) {
-                    occCounter++;
-                } else if (b.isShadowCasting()) {
-                    occCounterBillboard++;
-                }
-            }
         }
+        PerformanceMonitor.endActivity();
 
         double resultAmbientOcclusion = (TeraMath.pow(0.40, occCounter) + TeraMath.pow(0.80, occCounterBillboard)) / 2.0;
 
-        float[] output = new float[3];
         if (counterLight == 0) {
             output[0] = 0;
         } else {
@@ -218,6 +227,5 @@ private float[] calcLightingValuesForVertexPos(ChunkView chunkView, Vector3f ver
 
         output[2] = (float) resultAmbientOcclusion;
         PerformanceMonitor.endActivity();
-        return output;
     }
 }
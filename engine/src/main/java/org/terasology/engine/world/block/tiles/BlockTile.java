@@ -17,6 +17,7 @@
 public class BlockTile extends Asset<TileData> {
     private BufferedImage[] images;
     private boolean autoBlock;
+    private boolean uniform;
     private List<Consumer<BlockTile>> reloadListeners = Collections.synchronizedList(Lists.newArrayList());
 
     public BlockTile(ResourceUrn urn, AssetType<?, TileData> assetType, TileData data) {
@@ -40,6 +41,14 @@ public boolean isAutoBlock() {
         return autoBlock;
     }
 
+    /**
+     * @return whether every pixel of every frame of the tile has the same colour, so that any part of the tile can be
+     *         stretched over any area without changing how it looks
+     */
+    public boolean isUniform() {
+        return uniform;
+    }
+
     public synchronized void subscribe(Consumer<BlockTile> reloadListener) {
         this.reloadListeners.add(reloadListener);
     }
@@ -52,9 +61,26 @@ public synchronized void unsubscribe(Consumer<BlockTile> reloadListener) {
     protected void doReload(TileData tileData) {
         this.images = tileData.getImages();
         this.autoBlock = tileData.isAutoBlock();
+        this.uniform = isUniform(images);
         for (Consumer<BlockTile> listener : reloadListeners) {
             listener.accept(this);
         }
     }
 
+    private static boolean isUniform(BufferedImage[] images) {
+        if (images.length == 0) {
+            return false;
+        }
+        int color = images[0].getRGB(0, 0);
+        for (BufferedImage image : images) {
+            for (int y = 0; y < image.getHeight(); y++) {
+                for (int x = 0; x < image.getWidth(); x++) {
+                    if (image.getRGB(x, y) != color) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
 }
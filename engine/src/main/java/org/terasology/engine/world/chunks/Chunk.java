@@ -10,6 +10,8 @@
 import org.terasology.context.annotation.API;
 import org.terasology.protobuf.EntityData;
 
+import java.util.function.Supplier;
+
 /**
  * Chunks are a box-shaped logical grouping of Terasology's blocks, for performance reasons.
  *
@@ -383,6 +385,25 @@ default boolean setLight(Vector3ic pos, byte amount) {
     // TODO: Expose appropriate iterators, remove this method
     EntityData.ChunkStore.Builder encode();
 
+    /**
+     * Captures the current blocks and extra data so they can be encoded on another thread while the chunk keeps
+     * changing. Has to be called on the thread changing the chunk.
+     *
+     * @return the encoding of the chunk as it was when this method got called
+     */
+    default Supplier<EntityData.ChunkStore.Builder> copyForEncoding() {
+        EntityData.ChunkStore.Builder encoded = encode();
+        return () -> encoded;
+    }
+
+    /**
+     * @return a version of the blocks and extra data which changes whenever one of them gets changed, or always 0 if
+     *         the chunk doesn't track its changes.
+     */
+    default int getChangeVersion() {
+        return 0;
+    }
+
     boolean isDirty();
 
     void setDirty(boolean dirty);
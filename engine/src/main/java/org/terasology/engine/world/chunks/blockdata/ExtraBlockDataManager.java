@@ -217,6 +217,13 @@ public int getSlotNumber(String name) {
         return index;
     }
 
+    /**
+     * @return the number of extra-data fields, which are numbered from 0
+     */
+    public int getSlotCount() {
+        return slotFactories.length;
+    }
+
     public TeraArray[] makeDataArrays(int sizeX, int sizeY, int sizeZ) {
         TeraArray[] extraData = new TeraArray[slotFactories.length];
         for (int i = 0; i < extraData.length; i++) {
@@ -0,0 +1,452 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.engine.world.chunks.blockdata;
+
+import com.google.common.base.Preconditions;
+import gnu.trove.map.hash.TShortIntHashMap;
+import org.terasology.engine.world.chunks.deflate.TeraVisitingDeflator;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * TeraPaletteArray implements an array with elements of 16 bit size, which stores a palette of the distinct values
+ * it contains and only the palette index per element.
+ * Its elements are in the range -32'768 through +32'767, like the ones of {@link TeraDenseArray16Bit}.
+ * <br><br>
+ * The indices take 0, 1, 2, 4, 8 or 16 bits, depending on the size of the palette, and are packed into longs. Writing
+ * a value which is not in the palette yet grows the palette, and the index width if the palette is full. Values
+ * which are no longer used stay in the palette until the array gets deflated. With 16 bits per entry the values are
+ * stored directly and the palette is dropped.
+ * <br><br>
+ * Neighbouring elements share a long and all elements share the palette, so writes lock the array and run one at a
+ * time. Unlike with {@link TeraDenseArray16Bit}, writing different elements from several threads therefore doesn't
+ * lose updates. Reads don't lock.
+ */
+public class TeraPaletteArray extends TeraArray {
+
+    private static final int DIRECT_BITS = 16;
+    private static final int LOOKUP_MIN_PALETTE_SIZE = 16;
+
+    private volatile Storage storage;
+
+    public TeraPaletteArray() {
+        super();
+    }
+
+    public TeraPaletteArray(int sizeX, int sizeY, int sizeZ) {
+        super(sizeX, sizeY, sizeZ, true);
+    }
+
+    public TeraPaletteArray(int sizeX, int sizeY, int sizeZ, short fill) {
+        super(sizeX, sizeY, sizeZ, false);
+        this.storage = new Storage(0, getSizeXYZ());
+        storage.add(fill);
+    }
+
+    public TeraPaletteArray(int sizeX, int sizeY, int sizeZ, short[] data) {
+        super(sizeX, sizeY, sizeZ, false);
+        Preconditions.checkNotNull(data);
+        Preconditions.checkArgument(data.length == getSizeXYZ(),
+                "The length of parameter 'data' has to be " + getSizeXYZ() + " but is " + data.length);
+        Storage s = new Storage(getRequiredBitsPerEntry(countDistinctValues(data)), data.length);
+        for (int pos = 0; pos < data.length; pos++) {
+            s.setValue(pos, data[pos]);
+        }
+        this.storage = s;
+    }
+
+    /**
+     * Creates a copy of the given array which uses as few bits per entry as possible.
+     */
+    public TeraPaletteArray(TeraArray in) {
+        super(Preconditions.checkNotNull(in).getSizeX(), in.getSizeY(), in.getSizeZ(), false);
+        short[] data = new short[getSizeXYZ()];
+        for (int y = 0; y < getSizeY(); y++) {
+            for (int z = 0; z < getSizeZ(); z++) {
+                for (int x = 0; x < getSizeX(); x++) {
+                    data[pos(x, y, z)] = (short) in.get(x, y, z);
+                }
+            }
+        }
+        Storage s = new Storage(getRequiredBitsPerEntry(countDistinctValues(data)), data.length);
+        for (int pos = 0; pos < data.length; pos++) {
+            s.setValue(pos, data[pos]);
+        }
+        this.storage = s;
+    }
+
+    private TeraPaletteArray(int sizeX, int sizeY, int sizeZ, Storage storage) {
+        super(sizeX, sizeY, sizeZ, false);
+        this.storage = storage;
+    }
+
+    /**
+     * @return the number of bits needed per entry to index the given number of distinct values.
+     */
+    public static int getRequiredBitsPerEntry(int distinctValues) {
+        Preconditions.checkArgument(distinctValues > 0 && distinctValues <= 1 << DIRECT_BITS,
+                "The parameter 'distinctValues' has to be in the range 1 through 65536 but is " + distinctValues);
+        int bits = 0;
+        while (1 << bits < distinctValues) {
+            bits = bits == 0 ? 1 : bits * 2;
+        }
+        return bits;
+    }
+
+    public static int countDistinctValues(short[] data) {
+        long[] seen = new long[(1 << DIRECT_BITS) / Long.SIZE];
+        int count = 0;
+        for (short value : data) {
+            int index = value & 0xFFFF;
+            long bit = 1L << index;
+            if ((seen[index >>> 6] & bit) == 0) {
+                seen[index >>> 6] |= bit;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the estimated memory consumption of a palette array with the given number of elements and bits per
+     *         entry, see {@link #getEstimatedMemoryConsumptionInBytes()}.
+     */
+    public static int estimateMemoryConsumptionInBytes(int size, int bitsPerEntry) {
+        int words = bitsPerEntry == 0 ? 0 : (size * bitsPerEntry + Long.SIZE - 1) / Long.SIZE;
+        int paletteCapacity = bitsPerEntry == DIRECT_BITS ? 0 : 1 << bitsPerEntry;
+        return 32 + words * 8 + paletteCapacity * 2;
+    }
+
+    @Override
+    protected void initialize() {
+        this.storage = new Storage(0, getSizeXYZ());
+        storage.add((short) 0);
+    }
+
+    @Override
+    public boolean isSparse() {
+        return false;
+    }
+
+    @Override
+    public TeraArray copy() {
+        return new TeraPaletteArray(getSizeX(), getSizeY(), getSizeZ(), storage.copy());
+    }
+
+    @Override
+    public TeraArray deflate(TeraVisitingDeflator deflator) {
+        return Preconditions.checkNotNull(deflator).deflatePaletteArray(this);
+    }
+
+    @Override
+    public int getEstimatedMemoryConsumptionInBytes() {
+        Storage s = storage;
+        if (s == null) {
+            return 4;
+        }
+        return estimateMemoryConsumptionInBytes(getSizeXYZ(), s.bits) + (s.lookup == null ? 0 : s.paletteSize * 8);
+    }
+
+    /**
+     * @return the range of the values, which is always 16 bits. See {@link #getBitsPerEntry()} for the space the
+     *         elements actually take.
+     */
+    @Override
+    public int getElementSizeInBits() {
+        return DIRECT_BITS;
+    }
+
+    /**
+     * @return the number of bits currently used per element, one of 0, 1, 2, 4, 8 and 16.
+     */
+    public int getBitsPerEntry() {
+        return storage.bits;
+    }
+
+    /**
+     * @return the number of values in the palette, including the ones which are no longer used. Zero if the values
+     *         are stored directly.
+     */
+    public int getPaletteSize() {
+        return storage.paletteSize;
+    }
+
+    /**
+     * @return the number of distinct values the array contains.
+     */
+    public int countDistinctValues() {
+        Storage s = storage;
+        if (s.palette == null) {
+            short[] data = new short[getSizeXYZ()];
+            for (int pos = 0; pos < data.length; pos++) {
+                data[pos] = s.getValue(pos);
+            }
+            return countDistinctValues(data);
+        }
+        boolean[] used = new boolean[s.paletteSize];
+        int count = 0;
+        for (int pos = 0; pos < getSizeXYZ() && count < s.paletteSize; pos++) {
+            int entry = s.getEntry(pos);
+            if (!used[entry]) {
+                used[entry] = true;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int get(int x, int y, int z) {
+        return storage.getValue(pos(x, y, z));
+    }
+
+    @Override
+    public synchronized int set(int x, int y, int z, int value) {
+        int pos = pos(x, y, z);
+        Storage s = storage;
+        short old = s.getValue(pos);
+        if (old != (short) value) {
+            setValue(s, pos, (short) value);
+        }
+        return old;
+    }
+
+    @Override
+    public synchronized boolean set(int x, int y, int z, int value, int expected) {
+        int pos = pos(x, y, z);
+        Storage s = storage;
+        short old = s.getValue(pos);
+        if (old == expected) {
+            if (old != (short) value) {
+                setValue(s, pos, (short) value);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void setValue(Storage s, int pos, short value) {
+        Storage target = s;
+        int index = target.indexOf(value);
+        if (index < 0) {
+            index = target.add(value);
+            if (index < 0) {
+                target = grow(target);
+                index = target.indexOf(value);
+                if (index < 0) {
+                    index = target.add(value);
+                }
+            }
+        }
+        target.setEntry(pos, index);
+    }
+
+    private Storage grow(Storage s) {
+        Storage grown = new Storage(s.bits == 0 ? 1 : s.bits * 2, getSizeXYZ());
+        for (int i = 0; i < s.paletteSize && grown.palette != null; i++) {
+            grown.add(s.palette[i]);
+        }
+        for (int pos = 0; pos < getSizeXYZ(); pos++) {
+            int entry = s.getEntry(pos);
+            grown.setEntry(pos, grown.palette == null ? s.palette[entry] & 0xFFFF : entry);
+        }
+        storage = grown;
+        return grown;
+    }
+
+    /**
+     * The packed entries and the palette, replaced as a whole when the array grows so that concurrent readers always
+     * see matching entries and palette.
+     */
+    private static final class Storage {
+        private final int bits;
+        private final int bitsLog;
+        private final int entryMask;
+        private final long[] words;
+        private final short[] palette;
+        private int paletteSize;
+        private TShortIntHashMap lookup;
+
+        Storage(int bits, int size) {
+            this(bits, bits == 0 ? null : new long[(size * bits + Long.SIZE - 1) / Long.SIZE],
+                    bits == DIRECT_BITS ? null : new short[1 << bits], 0);
+        }
+
+        Storage(int bits, long[] words, short[] palette, int paletteSize) {
+            this.bits = bits;
+            this.bitsLog = Integer.numberOfTrailingZeros(bits);
+            this.entryMask = (1 << bits) - 1;
+            this.words = words;
+            this.palette = palette;
+            this.paletteSize = paletteSize;
+            if (palette != null && palette.length > LOOKUP_MIN_PALETTE_SIZE) {
+                lookup = new TShortIntHashMap(palette.length, 0.5f, (short) 0, -1);
+                for (int i = 0; i < paletteSize; i++) {
+                    lookup.put(palette[i], i);
+                }
+            }
+        }
+
+        int getEntry(int pos) {
+            if (bits == 0) {
+                return 0;
+            }
+            int bitIndex = pos << bitsLog;
+            return (int) (words[bitIndex >>> 6] >>> (bitIndex & 63)) & entryMask;
+        }
+
+        /**
+         * Replaces the bits of an entry in its long, which also holds other entries. Only called while holding the
+         * lock of the array, or before the storage gets published.
+         */
+        void setEntry(int pos, int entry) {
+            int bitIndex = pos << bitsLog;
+            int word = bitIndex >>> 6;
+            int shift = bitIndex & 63;
+            words[word] = words[word] & ~((long) entryMask << shift) | (long) entry << shift;
+        }
+
+        short getValue(int pos) {
+            int entry = getEntry(pos);
+            return palette == null ? (short) entry : palette[entry];
+        }
+
+        /**
+         * Sets the value of an element, the value has to fit into the palette.
+         */
+        void setValue(int pos, short value) {
+            int index = indexOf(value);
+            if (index < 0) {
+                index = add(value);
+            }
+            if (bits > 0) {
+                setEntry(pos, index);
+            }
+        }
+
+        int indexOf(short value) {
+            if (palette == null) {
+                return value & 0xFFFF;
+            }
+            if (lookup != null) {
+                return lookup.get(value);
+            }
+            for (int i = 0; i < paletteSize; i++) {
+                if (palette[i] == value) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * @return the index of the added value, or -1 if the palette is full.
+         */
+        int add(short value) {
+            if (paletteSize == palette.length) {
+                return -1;
+            }
+            palette[paletteSize] = value;
+            if (lookup != null) {
+                lookup.put(value, paletteSize);
+            }
+            return paletteSize++;
+        }
+
+        Storage copy() {
+            return new Storage(bits, words == null ? null : words.clone(), palette == null ? null : palette.clone(),
+                    paletteSize);
+        }
+    }
+
+    public static class SerializationHandler extends TeraArray.BasicSerializationHandler<TeraPaletteArray> {
+
+        @Override
+        public boolean canHandle(Class<?> clazz) {
+            return TeraPaletteArray.class.equals(clazz);
+        }
+
+        @Override
+        protected int internalComputeMinimumBufferSize(TeraPaletteArray array) {
+            final Storage storage = array.storage;
+            if (storage == null) {
+                return 4;
+            }
+            return 12 + storage.paletteSize * 2 + (storage.words == null ? 0 : storage.words.length * 8);
+        }
+
+        @Override
+        protected void internalSerialize(TeraPaletteArray array, ByteBuffer buffer) {
+            final Storage storage = array.storage;
+            if (storage == null) {
+                buffer.putInt(-1);
+                return;
+            }
+            buffer.putInt(storage.bits);
+            buffer.putInt(storage.paletteSize);
+            if (storage.paletteSize > 0) {
+                final ShortBuffer sbuffer = buffer.asShortBuffer();
+                sbuffer.put(storage.palette, 0, storage.paletteSize);
+                buffer.position(buffer.position() + storage.paletteSize * 2);
+            }
+            if (storage.words == null) {
+                buffer.putInt(0);
+            } else {
+                buffer.putInt(storage.words.length);
+                final LongBuffer lbuffer = buffer.asLongBuffer();
+                lbuffer.put(storage.words);
+                buffer.position(buffer.position() + storage.words.length * 8);
+            }
+        }
+
+        @Override
+        protected TeraPaletteArray internalDeserialize(int sizeX, int sizeY, int sizeZ, ByteBuffer buffer) {
+            final int bits = buffer.getInt();
+            if (bits < 0) {
+                return new TeraPaletteArray(sizeX, sizeY, sizeZ);
+            }
+            final int paletteSize = buffer.getInt();
+            final short[] palette = bits == DIRECT_BITS ? null : new short[1 << bits];
+            if (paletteSize > 0) {
+                final ShortBuffer sbuffer = buffer.asShortBuffer();
+                sbuffer.get(palette, 0, paletteSize);
+                buffer.position(buffer.position() + paletteSize * 2);
+            }
+            final int length = buffer.getInt();
+            long[] words = null;
+            if (length > 0) {
+                words = new long[length];
+                final LongBuffer lbuffer = buffer.asLongBuffer();
+                lbuffer.get(words);
+                buffer.position(buffer.position() + length * 8);
+            }
+            return new TeraPaletteArray(sizeX, sizeY, sizeZ, new Storage(bits, words, palette, paletteSize));
+        }
+    }
+
+    public static class Factory implements TeraArray.Factory<TeraPaletteArray> {
+
+        @Override
+        public Class<TeraPaletteArray> getArrayClass() {
+            return TeraPaletteArray.class;
+        }
+
+        @Override
+        public SerializationHandler createSerializationHandler() {
+            return new SerializationHandler();
+        }
+
+        @Override
+        public TeraPaletteArray create() {
+            return new TeraPaletteArray();
+        }
+
+        @Override
+        public TeraPaletteArray create(int sizeX, int sizeY, int sizeZ) {
+            return new TeraPaletteArray(sizeX, sizeY, sizeZ);
+        }
+    }
+}
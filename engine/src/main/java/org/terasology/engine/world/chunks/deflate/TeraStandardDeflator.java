@@ -4,12 +4,15 @@
 package org.terasology.engine.world.chunks.deflate;
 
 import org.terasology.engine.world.chunks.blockdata.TeraArray;
+import org.terasology.engine.world.chunks.blockdata.TeraPaletteArray;
 import org.terasology.engine.world.chunks.blockdata.TeraSparseArray16Bit;
 import org.terasology.engine.world.chunks.blockdata.TeraSparseArray4Bit;
 import org.terasology.engine.world.chunks.blockdata.TeraSparseArray8Bit;
 
 /**
  * TeraStandardDeflator implements a simple deflation algorithm for 4, 8 and 16-bit dense and sparse arrays.<br>
+ * Dense 16-bit arrays with few distinct values are turned into {@link TeraPaletteArray}s if that takes less memory than
+ * the sparse array, and palette arrays get repacked once they use more bits per entry than they need.<br>
  * <b>NOTE:</b> Currently it is optimized for chunks of size 16x256x16 blocks.<br>
  * TODO: Implement deflation for sparse array 4bit.
  */
@@ -93,10 +96,17 @@ public TeraArray deflateDenseArray16Bit(short[] data,
                 return new TeraSparseArray16Bit(sizeX, sizeY, sizeZ, first);
             }
         }
+        TeraArray result = null;
         if (packed > DEFLATE_MINIMUM_16BIT) {
-            return new TeraSparseArray16Bit(sizeX, sizeY, sizeZ, inflated, deflated);
+            result = new TeraSparseArray16Bit(sizeX, sizeY, sizeZ, inflated, deflated);
         }
-        return null;
+        int paletteMemory = TeraPaletteArray.estimateMemoryConsumptionInBytes(data.length,
+                TeraPaletteArray.getRequiredBitsPerEntry(TeraPaletteArray.countDistinctValues(data)));
+        int currentMemory = result == null ? 16 + data.length * 2 : result.getEstimatedMemoryConsumptionInBytes();
+        if (paletteMemory < currentMemory) {
+            return new TeraPaletteArray(sizeX, sizeY, sizeZ, data);
+        }
+        return result;
     }
 
     @Override
@@ -292,4 +302,13 @@ public TeraArray deflateSparseArray4Bit(final byte[][] inflated,
         return null;
     }
 
+    @Override
+    public TeraArray deflatePaletteArray(TeraPaletteArray array) {
+        int requiredBits = TeraPaletteArray.getRequiredBitsPerEntry(array.countDistinctValues());
+        if (requiredBits < array.getBitsPerEntry()) {
+            return new TeraPaletteArray(array);
+        }
+        return null;
+    }
+
 }
@@ -29,6 +29,7 @@
 
 import java.text.DecimalFormat;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 /**
  * Chunks are the basic components of the world. Each chunk contains a fixed amount of blocks determined by its
@@ -63,6 +64,9 @@ public class ChunkImpl implements Chunk {
     private boolean disposed;
     private boolean ready;
     private volatile boolean dirty;
+    // Incremented on changes to blocks or extra data, which are only made by one thread at a time
+    private volatile int changeVersion = 1;
+    private volatile int savedVersion;
     private boolean animated;
 
     // Rendering
@@ -111,6 +115,34 @@ public void setDirty(boolean dirty) {
         this.dirty = dirty;
     }
 
+    /**
+     * @return whether blocks or extra data have been changed since the version marked as saved the last time. New
+     *         chunks always have unsaved changes.
+     */
+    public boolean hasUnsavedChanges() {
+        return changeVersion != savedVersion;
+    }
+
+    @Override
+    public int getChangeVersion() {
+        return changeVersion;
+    }
+
+    /**
+     * Marks the current blocks and extra data as stored, e.g. because the chunk just got loaded from the save game.
+     */
+    public void markSaved() {
+        savedVersion = changeVersion;
+    }
+
+    /**
+     * Marks the given version of the blocks and extra data as stored, once a save that took it has been written.
+     * Changes made after that version remain unsaved.
+     */
+    public void markSaved(int version) {
+        savedVersion = version;
+    }
+
     @Override
     public int getEstimatedMemoryConsumptionInBytes() {
         int extraDataSize = 0;
@@ -140,6 +172,7 @@ public Block setBlock(int x, int y, int z, Block block) {
             blockData = blockData.copy();
         }
         int oldValue = blockData.set(x, y, z, block.getId());
+        changeVersion++;
         return blockManager.getBlock((short) oldValue);
     }
 
@@ -187,6 +220,7 @@ public void setExtraData(int index, int x, int y, int z, int value) {
             extraData[index] = extraData[index].copy();
         }
         extraData[index].set(x, y, z, value);
+        changeVersion++;
     }
 
     @Override
@@ -446,6 +480,20 @@ public EntityData.ChunkStore.Builder encode() {
         return ChunkSerializer.encode(chunkPos, blockData, extraData);
     }
 
+    /**
+     * Copies the blocks and extra data, which are encoded when the returned supplier is called. Unlike
+     * {@link #createSnapshot()}, any number of copies can be in use at the same time.
+     */
+    @Override
+    public Supplier<EntityData.ChunkStore.Builder> copyForEncoding() {
+        TeraArray blockDataCopy = blockData.copy();
+        TeraArray[] extraDataCopies = new TeraArray[extraData.length];
+        for (int i = 0; i < extraData.length; i++) {
+            extraDataCopies[i] = extraData[i].copy();
+        }
+        return () -> ChunkSerializer.encode(chunkPos, blockDataCopy, extraDataCopies);
+    }
+
     /**
      * Calling this method results in a (cheap) snapshot to be taken of the current state of the chunk. This snapshot
      * can then be obtained and rleased by calling {@link #encodeAndReleaseSnapshot()}.
@@ -10,7 +10,7 @@
 import org.terasology.engine.world.chunks.Chunks;
 import org.terasology.engine.world.chunks.blockdata.ExtraBlockDataManager;
 import org.terasology.engine.world.chunks.blockdata.TeraArray;
-import org.terasology.engine.world.chunks.blockdata.TeraDenseArray16Bit;
+import org.terasology.engine.world.chunks.blockdata.TeraPaletteArray;
 import org.terasology.protobuf.EntityData;
 
 public final class ChunkSerializer {
@@ -83,7 +83,7 @@ private static TeraArray runLengthDecode(EntityData.RunLengthEncoding16 data) {
                 decodedData[index++] = value;
             }
         }
-        return new TeraDenseArray16Bit(Chunks.SIZE_X, Chunks.SIZE_Y, Chunks.SIZE_Z, decodedData);
+        return new TeraPaletteArray(Chunks.SIZE_X, Chunks.SIZE_Y, Chunks.SIZE_Z, decodedData);
     }
 
     /**
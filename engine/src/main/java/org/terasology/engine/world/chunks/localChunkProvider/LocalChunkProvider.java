@@ -415,7 +415,7 @@ public void purgeWorld() {
             ChunkTaskProvider.create("Chunk generate internal lightning",
                 (Consumer<Chunk>) InternalLightProcessor::generateInternalLighting))
             .addStage(ChunkTaskProvider.create("Chunk deflate", Chunk::deflate))
-            .addStage(ChunkTaskProvider.createMulti("Light merging",
+            .addStage(ChunkTaskProvider.createMultiWriting("Light merging",
                 chunks -> {
                     Chunk[] localChunks = chunks.toArray(new Chunk[0]);
                     return LightMerger.merge(localChunks);
@@ -451,7 +451,7 @@ public void setRelevanceSystem(RelevanceSystem relevanceSystem) {
                         ChunkTaskProvider.create("Chunk generate internal lightning",
                                 (Consumer<Chunk>) InternalLightProcessor::generateInternalLighting))
                 .addStage(ChunkTaskProvider.create("Chunk deflate", Chunk::deflate))
-                .addStage(ChunkTaskProvider.createMulti("Light merging",
+                .addStage(ChunkTaskProvider.createMultiWriting("Light merging",
                         chunks -> {
                             Chunk[] localChunks = chunks.toArray(new Chunk[0]);
                             return LightMerger.merge(localChunks);
@@ -0,0 +1,166 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.engine.world.chunks.pipeline;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs chunk tasks on the workers of a {@link ForkJoinPool}, starting as many workers as the number of queued tasks
+ * and the available processors call for.
+ * <p>
+ * The tasks themselves are kept in a priority queue, so they still run in the order of the comparator of the
+ * pipeline, e.g. nearest chunks first. Every worker takes tasks from that queue until it is empty or there are more
+ * workers than needed. As the tasks run on fork join workers, fork join tasks started by them are spread over the
+ * idle workers of the pool by work stealing.
+ */
+class AdaptiveChunkExecutor extends AbstractExecutorService {
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveChunkExecutor.class);
+    /**
+     * Queued tasks per worker at which another worker is started.
+     */
+    private static final int TASKS_PER_WORKER = 4;
+    private static final long PROCESSOR_CHECK_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final PriorityBlockingQueue<Runnable> queue;
+    private final ForkJoinPool pool;
+    private final int configuredMaxWorkers;
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private final AtomicInteger threadIndex = new AtomicInteger();
+
+    private volatile int maxWorkers;
+    private volatile long nextProcessorCheck;
+    private volatile boolean shutdown;
+
+    /**
+     * @param maxWorkers the maximum number of workers, or 0 to use all but two of the available processors, which
+     *         are left for the main and rendering threads.
+     */
+    @SuppressWarnings("unchecked")
+    AdaptiveChunkExecutor(int maxWorkers, Comparator<?> comparator) {
+        this.queue = new PriorityBlockingQueue<>(800, (Comparator<Runnable>) comparator);
+        this.configuredMaxWorkers = maxWorkers;
+        this.maxWorkers = computeMaxWorkers();
+        this.pool = new ForkJoinPool(Math.max(this.maxWorkers, Runtime.getRuntime().availableProcessors()),
+                this::newWorkerThread, this::uncaughtException, true);
+    }
+
+    BlockingQueue<Runnable> getQueue() {
+        return queue;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (shutdown) {
+            throw new RejectedExecutionException("Chunk executor has been shut down");
+        }
+        queue.add(command);
+        startWorkers();
+    }
+
+    private void startWorkers() {
+        int target = getTargetWorkers();
+        while (!shutdown) {
+            int active = activeWorkers.get();
+            if (active >= target) {
+                return;
+            }
+            if (activeWorkers.compareAndSet(active, active + 1)) {
+                pool.execute(this::runWorker);
+            }
+        }
+    }
+
+    private int getTargetWorkers() {
+        if (System.nanoTime() - nextProcessorCheck >= 0) {
+            // the processors available to the JVM can change, e.g. with the CPU quota of a container
+            maxWorkers = computeMaxWorkers();
+            nextProcessorCheck = System.nanoTime() + PROCESSOR_CHECK_INTERVAL_NANOS;
+        }
+        int queued = queue.size();
+        return Math.min(maxWorkers, (queued + TASKS_PER_WORKER - 1) / TASKS_PER_WORKER);
+    }
+
+    private int computeMaxWorkers() {
+        if (configuredMaxWorkers > 0) {
+            return configuredMaxWorkers;
+        }
+        return Math.max(1, Runtime.getRuntime().availableProcessors() - 2);
+    }
+
+    private void runWorker() {
+        try {
+            Runnable task;
+            while (!shutdown && (task = queue.poll()) != null) {
+                task.run();
+                if (activeWorkers.get() > maxWorkers) {
+                    break;
+                }
+            }
+        } finally {
+            activeWorkers.decrementAndGet();
+        }
+        // a task might have been queued while this worker was about to stop
+        if (!queue.isEmpty()) {
+            startWorkers();
+        }
+    }
+
+    private ForkJoinWorkerThread newWorkerThread(ForkJoinPool forkJoinPool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+        thread.setDaemon(true);
+        thread.setName("Chunk-Processing-" + threadIndex.getAndIncrement());
+        return thread;
+    }
+
+    private void uncaughtException(Thread thread, Throwable e) {
+        logger.error("Uncaught exception in chunk processing thread {}", thread.getName(), e);
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        pool.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        List<Runnable> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        pool.shutdownNow();
+        return remaining;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    /**
+     * @return whether the executor has been shut down and no task is running anymore. The idle threads of the fork
+     *         join pool may still be alive for a moment.
+     */
+    @Override
+    public boolean isTerminated() {
+        return shutdown && activeWorkers.get() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return pool.awaitTermination(timeout, unit);
+    }
+}
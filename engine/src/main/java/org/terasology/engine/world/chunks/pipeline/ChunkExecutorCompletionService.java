@@ -10,9 +10,9 @@
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletionService;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 import java.util.concurrent.RunnableFuture;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -24,10 +24,10 @@
  */
 public class ChunkExecutorCompletionService implements CompletionService<Chunk> {
     private static final Vector3ic EMPTY_VECTOR3I = new Vector3i();
-    private final ThreadPoolExecutor threadPoolExecutor;
+    private final Executor threadPoolExecutor;
     private final BlockingQueue<Future<Chunk>> completionQueue;
 
-    public ChunkExecutorCompletionService(ThreadPoolExecutor threadPoolExecutor, BlockingQueue<Future<Chunk>> completionQueue) {
+    public ChunkExecutorCompletionService(Executor threadPoolExecutor, BlockingQueue<Future<Chunk>> completionQueue) {
         this.threadPoolExecutor = threadPoolExecutor;
         this.completionQueue = completionQueue;
     }
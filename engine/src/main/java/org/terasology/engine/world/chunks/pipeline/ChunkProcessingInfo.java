@@ -22,6 +22,9 @@ public final class ChunkProcessingInfo {
     private Future<Chunk> currentFuture;
     private org.terasology.engine.world.chunks.pipeline.stages.ChunkTask chunkTask;
 
+    private long stageStartTime = System.nanoTime();
+    private long submitTime = stageStartTime;
+
     public ChunkProcessingInfo(Vector3ic position, SettableFuture<Chunk> externalFuture) {
         this.position = position;
         this.externalFuture = externalFuture;
@@ -67,6 +70,24 @@ public void setChunkTask(ChunkTask chunkTask) {
         this.chunkTask = chunkTask;
     }
 
+    /**
+     * @return the {@link System#nanoTime()} at which the chunk entered its current stage.
+     */
+    long getStageStartTime() {
+        return stageStartTime;
+    }
+
+    /**
+     * @return the {@link System#nanoTime()} at which the current task got submitted.
+     */
+    long getSubmitTime() {
+        return submitTime;
+    }
+
+    void markSubmitted() {
+        submitTime = System.nanoTime();
+    }
+
     boolean hasNextStage(List<ChunkTaskProvider> stages) {
         if (chunkTaskProvider == null) {
             return true;
@@ -81,6 +102,7 @@ void nextStage(List<ChunkTaskProvider> stages) {
                         ? 0
                         : stages.indexOf(chunkTaskProvider) + 1;
         chunkTaskProvider = stages.get(nextStageIndex);
+        stageStartTime = System.nanoTime();
     }
 
     void endProcessing() {
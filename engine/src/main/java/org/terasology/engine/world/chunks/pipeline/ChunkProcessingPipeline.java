@@ -6,6 +6,7 @@
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import org.joml.Vector3ic;
@@ -20,12 +21,19 @@
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -35,20 +43,57 @@
  * Manages execution of chunk processing.
  * <p>
  * {@link Chunk}s will processing on stages {@link ChunkProcessingPipeline#addStage}
+ * <p>
+ * A chunk task whose required chunks aren't available yet gets registered as waiting on the first missing position,
+ * and is only checked again once the chunk at that position advances to its next stage. Required chunks can also
+ * become available through the chunk provider, which doesn't notify the pipeline, so all waiting tasks are checked
+ * again every 100 milliseconds as well.
+ * <p>
+ * Tasks which write into their required chunks, like merging light, lock those chunks while they run. A task which
+ * needs a locked chunk waits for it like for a missing chunk, so the tasks of chunks whose neighbourhoods don't overlap
+ * run at the same time, and the others run in the following batches. The chunks stay locked until the task has
+ * exited, even if it got cancelled while running, since it may still be writing into them.
  */
 public class ChunkProcessingPipeline {
 
+    /**
+     * System property which switches chunk processing to an {@link AdaptiveChunkExecutor}, whose number of threads
+     * grows with the number of queued chunk tasks up to the configured chunk threads, or up to all but two of the
+     * processors if no chunk threads are configured.
+     */
+    public static final String ADAPTIVE_CHUNK_THREADS_PROPERTY = "org.terasology.adaptiveChunkThreads";
+
     @SuppressWarnings("UnstableApiUsage")
     private static final int DEFAULT_TASK_THREADS = constrainToRange(
             Runtime.getRuntime().availableProcessors() - 2, 1, 4);
     private static final Logger logger = LoggerFactory.getLogger(ChunkProcessingPipeline.class);
+    private static final String GENERATION_STAGE_NAME = "Generation or Loading";
+    private static final long RESCAN_INTERVAL_MS = 100;
+    private static final String THROUGHPUT_NAME = "Chunks processed";
 
     private final List<ChunkTaskProvider> stages = Lists.newArrayList();
     private final Thread reactor;
     private final ChunkExecutorCompletionService chunkProcessor;
-    private final ThreadPoolExecutor executor;
+    private final ExecutorService executor;
+    private final BlockingQueue<Runnable> taskQueue;
     private final Function<Vector3ic, Chunk> chunkProvider;
     private final Map<Vector3ic, ChunkProcessingInfo> chunkProcessingInfoMap = Maps.newConcurrentMap();
+    /**
+     * Chunks waiting for their task to be run, by the position of the required chunk they wait for. Only accessed by
+     * the reactor thread.
+     */
+    private final Map<Vector3ic, List<ChunkProcessingInfo>> waitingChunks = Maps.newHashMap();
+    /**
+     * Positions of the chunks written by running tasks, and the positions locked by each of these tasks. Only accessed
+     * by the reactor thread.
+     */
+    private final Set<Vector3ic> lockedChunks = Sets.newHashSet();
+    private final Map<Future<Chunk>, ChunkLocks> lockingTasks = Maps.newHashMap();
+    /**
+     * Locks of tasks which have exited, released by the reactor thread.
+     */
+    private final Queue<ChunkLocks> exitedLockingTasks = new ConcurrentLinkedQueue<>();
+    private final Map<String, StageStatistics> stageStatistics = Maps.newConcurrentMap();
     private int threadIndex;
 
     /**
@@ -57,15 +102,24 @@ public class ChunkProcessingPipeline {
     public ChunkProcessingPipeline(int chunkThreads, Function<Vector3ic, Chunk> chunkProvider, Comparator<Future<Chunk>> comparable) {
         this.chunkProvider = chunkProvider;
 
-        int taskThreads = (chunkThreads == 0) ? DEFAULT_TASK_THREADS : chunkThreads;
-        executor = new ThreadPoolExecutor(
-                taskThreads,
-                taskThreads, 0L,
-                TimeUnit.MILLISECONDS,
-                new PriorityBlockingQueue(800, comparable),
-                this::threadFactory,
-                this::rejectQueueHandler);
-        logger.debug("allocated {} threads", taskThreads);
+        if (Boolean.getBoolean(ADAPTIVE_CHUNK_THREADS_PROPERTY)) {
+            AdaptiveChunkExecutor adaptiveExecutor = new AdaptiveChunkExecutor(chunkThreads, comparable);
+            executor = adaptiveExecutor;
+            taskQueue = adaptiveExecutor.getQueue();
+            logger.debug("using adaptive chunk threads");
+        } else {
+            int taskThreads = (chunkThreads == 0) ? DEFAULT_TASK_THREADS : chunkThreads;
+            ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(
+                    taskThreads,
+                    taskThreads, 0L,
+                    TimeUnit.MILLISECONDS,
+                    new PriorityBlockingQueue(800, comparable),
+                    this::threadFactory,
+                    this::rejectQueueHandler);
+            executor = threadPoolExecutor;
+            taskQueue = threadPoolExecutor.getQueue();
+            logger.debug("allocated {} threads", taskThreads);
+        }
         chunkProcessor = new ChunkExecutorCompletionService(executor,
                 new PriorityBlockingQueue<>(800, comparable));
         reactor = new Thread(this::chunkTaskHandler);
@@ -79,13 +133,27 @@ public ChunkProcessingPipeline(int chunkThreads, Function<Vector3ic, Chunk> chun
      */
     private void chunkTaskHandler() {
         try {
+            long nextRescan = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(RESCAN_INTERVAL_MS);
             while (!executor.isTerminated()) {
-                PositionFuture<Chunk> future = (PositionFuture<Chunk>) chunkProcessor.take();
-                ChunkProcessingInfo chunkProcessingInfo = chunkProcessingInfoMap.get(future.getPosition());
-                if (chunkProcessingInfo == null) {
-                    continue; // chunk processing was cancelled.
+                PositionFuture<Chunk> future =
+                        (PositionFuture<Chunk>) chunkProcessor.poll(RESCAN_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                releaseExitedLocks();
+                if (future != null) {
+                    ChunkLocks locks = lockingTasks.remove(future);
+                    if (locks != null && locks.abandon()) {
+                        // cancelled before it started
+                        releaseLocks(locks);
+                    }
+                    ChunkProcessingInfo chunkProcessingInfo = chunkProcessingInfoMap.get(future.getPosition());
+                    // a missing info means that the chunk processing was cancelled.
+                    if (chunkProcessingInfo != null) {
+                        onStageDone(future, chunkProcessingInfo);
+                    }
+                }
+                if (System.nanoTime() - nextRescan >= 0) {
+                    processChunkTasks();
+                    nextRescan = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(RESCAN_INTERVAL_MS);
                 }
-                onStageDone(future, chunkProcessingInfo);
             }
         } catch (InterruptedException e) {
             if (!executor.isTerminated()) {
@@ -97,24 +165,33 @@ private void chunkTaskHandler() {
 
     private void onStageDone(PositionFuture<Chunk> future, ChunkProcessingInfo chunkProcessingInfo) throws InterruptedException {
         try {
-            chunkProcessingInfo.resetTaskState();
+            synchronized (chunkProcessingInfo) {
+                // waits for invokeGeneratorTask to have set the generator future
+                chunkProcessingInfo.resetTaskState();
+            }
             chunkProcessingInfo.setChunk(future.get());
+            getStageStatistics(chunkProcessingInfo.getChunkTaskProvider())
+                    .recordCompleted(System.nanoTime() - chunkProcessingInfo.getSubmitTime());
 
             //Move by stage.
             if (chunkProcessingInfo.hasNextStage(stages)) {
                 chunkProcessingInfo.nextStage(stages);
                 chunkProcessingInfo.makeChunkTask();
+                processChunkInfo(chunkProcessingInfo);
+                processWaitingChunks(chunkProcessingInfo.getPosition());
             } else {
                 // haven't next stage
                 chunkProcessingInfo.endProcessing();
+                ThreadMonitor.addThroughput(THROUGHPUT_NAME, 1);
+                // the chunks waiting for this one have to be checked while it is still known to the pipeline
+                processWaitingChunks(chunkProcessingInfo.getPosition());
                 cleanup(chunkProcessingInfo);
             }
-            processChunkTasks();
 
         } catch (ExecutionException e) {
             String stageName =
                     chunkProcessingInfo.getChunkTaskProvider() == null
-                            ? "Generation or Loading"
+                            ? GENERATION_STAGE_NAME
                             : chunkProcessingInfo.getChunkTaskProvider().getName();
 logger.error("ChunkTask at position {} and stage [{}] catch error: ", chunkProcessingInfo.getPosition(), stageName, e); //NOPMD
             chunkProcessingInfo.getExternalFuture().setException(e);
@@ -122,12 +199,32 @@ private void onStageDone(PositionFuture<Chunk> future, ChunkProcessingInfo chunk
         }
     }
 
+    /**
+     * Checks the tasks of all chunks in the pipeline, and rebuilds the waiting chunks from scratch.
+     */
     private void processChunkTasks() {
+        waitingChunks.clear();
         for (ChunkProcessingInfo info : chunkProcessingInfoMap.values()) {
             processChunkInfo(info);
         }
     }
 
+    /**
+     * Checks the tasks of the chunks waiting for the chunk at the given position.
+     */
+    private void processWaitingChunks(Vector3ic position) {
+        List<ChunkProcessingInfo> waiting = waitingChunks.remove(position);
+        if (waiting == null) {
+            return;
+        }
+        for (ChunkProcessingInfo info : waiting) {
+            // skip chunks whose processing got stopped in the meantime
+            if (chunkProcessingInfoMap.get(info.getPosition()) == info) {
+                processChunkInfo(info);
+            }
+        }
+    }
+
     private void processChunkInfo(ChunkProcessingInfo info) {
         if (info.getChunkTask() == null) {
             return;
@@ -143,10 +240,45 @@ private void processChunkInfo(ChunkProcessingInfo info) {
             if (chunk != null) {
                 requiredChunks.add(chunk);
             } else {
+                waitingChunks.computeIfAbsent(pos, k -> Lists.newArrayList()).add(info);
                 return;
             }
         }
-        info.setCurrentFuture(runTask(chunkTask, requiredChunks));
+        ChunkLocks locks = null;
+        if (chunkTask.writesRequirements()) {
+            for (Vector3ic pos : requirements) {
+                if (lockedChunks.contains(pos)) {
+                    waitingChunks.computeIfAbsent(pos, k -> Lists.newArrayList()).add(info);
+                    return;
+                }
+            }
+            lockedChunks.addAll(requirements);
+            locks = new ChunkLocks(requirements);
+        }
+        info.markSubmitted();
+        getStageStatistics(info.getChunkTaskProvider()).recordSubmitted(info.getSubmitTime() - info.getStageStartTime());
+        Future<Chunk> future = runTask(chunkTask, requiredChunks, locks);
+        if (locks != null) {
+            lockingTasks.put(future, locks);
+        }
+        info.setCurrentFuture(future);
+    }
+
+    private void releaseExitedLocks() {
+        ChunkLocks locks;
+        while ((locks = exitedLockingTasks.poll()) != null) {
+            releaseLocks(locks);
+        }
+    }
+
+    /**
+     * Releases the chunks locked by a task and checks the tasks waiting for them.
+     */
+    private void releaseLocks(ChunkLocks locks) {
+        lockedChunks.removeAll(locks.positions);
+        for (Vector3ic pos : locks.positions) {
+            processWaitingChunks(pos);
+        }
     }
 
     private Chunk getChunkBy(ChunkTaskProvider requiredStage, Vector3ic position) {
@@ -164,14 +296,30 @@ private Chunk getChunkBy(ChunkTaskProvider requiredStage, Vector3ic position) {
         return chunk;
     }
 
-    private Future<Chunk> runTask(ChunkTask task, List<Chunk> chunks) {
+    /**
+     * @param locks the chunks locked by the task, handed back to the reactor thread once the task exits
+     */
+    private Future<Chunk> runTask(ChunkTask task, List<Chunk> chunks, ChunkLocks locks) {
         return chunkProcessor.submit(() -> {
+            if (locks != null && !locks.start()) {
+                // cancelled, and the reactor already released the locks
+                return null;
+            }
             try (ThreadActivity ignored = ThreadMonitor.startThreadActivity(task.getName())) {
                 return task.apply(chunks);
+            } finally {
+                if (locks != null) {
+                    exitedLockingTasks.add(locks);
+                }
             }
         }, task.getPosition());
     }
 
+    private StageStatistics getStageStatistics(ChunkTaskProvider stage) {
+        return stageStatistics.computeIfAbsent(stage == null ? GENERATION_STAGE_NAME : stage.getName(),
+                k -> new StageStatistics());
+    }
+
     private Thread threadFactory(Runnable runnable) {
         Thread thread = new Thread(runnable);
         thread.setDaemon(true);
@@ -211,8 +359,12 @@ public ListenableFuture<Chunk> invokeGeneratorTask(Vector3ic position, Supplier<
         } else {
             SettableFuture<Chunk> exitFuture = SettableFuture.create();
             chunkProcessingInfo = new ChunkProcessingInfo(position, exitFuture);
-            chunkProcessingInfoMap.put(position, chunkProcessingInfo);
-            chunkProcessingInfo.setCurrentFuture(chunkProcessor.submit(generatorTask::get, position));
+            // the generator task can complete before submit returns, the reactor must not move the chunk on before
+            // the generator future is set, or it would be mistaken for the future of the next stage
+            synchronized (chunkProcessingInfo) {
+                chunkProcessingInfoMap.put(position, chunkProcessingInfo);
+                chunkProcessingInfo.setCurrentFuture(chunkProcessor.submit(generatorTask::get, position));
+            }
             return exitFuture;
         }
     }
@@ -231,13 +383,13 @@ public void shutdown() {
         executor.shutdown();
         chunkProcessingInfoMap.keySet().forEach(this::stopProcessingAt);
         chunkProcessingInfoMap.clear();
-        executor.getQueue().clear();
+        taskQueue.clear();
         reactor.interrupt();
     }
 
     public void restart() {
         chunkProcessingInfoMap.clear();
-        executor.getQueue().clear();
+        taskQueue.clear();
         chunkProcessingInfoMap.keySet().forEach(this::stopProcessingAt);
     }
 
@@ -292,4 +444,92 @@ public boolean isPositionProcessing(Vector3ic pos) {
     public Iterable<Vector3ic> getProcessingPosition() {
         return chunkProcessingInfoMap.keySet();
     }
+
+    /**
+     * Get the queue depth and latencies of the stages, starting with the generation or loading of the chunks.
+     * <p>
+     * The queue depth is determined by going over all chunks in the pipeline, so this shouldn't be called every frame.
+     *
+     * @return snapshot of the metrics of every stage
+     */
+    public List<ChunkStageMetrics> getStageMetrics() {
+        List<String> stageNames = Lists.newArrayList(GENERATION_STAGE_NAME);
+        for (ChunkTaskProvider stage : stages) {
+            if (!stageNames.contains(stage.getName())) {
+                stageNames.add(stage.getName());
+            }
+        }
+        Map<String, int[]> queueDepths = Maps.newHashMap();
+        for (ChunkProcessingInfo info : chunkProcessingInfoMap.values()) {
+            ChunkTaskProvider stage = info.getChunkTaskProvider();
+            int[] depth = queueDepths.computeIfAbsent(stage == null ? GENERATION_STAGE_NAME : stage.getName(),
+                    k -> new int[2]);
+            if (stage != null && info.getCurrentFuture() == null) {
+                depth[0]++;
+            } else {
+                depth[1]++;
+            }
+        }
+        List<ChunkStageMetrics> metrics = Lists.newArrayListWithCapacity(stageNames.size());
+        for (String stageName : stageNames) {
+            int[] depth = queueDepths.getOrDefault(stageName, new int[2]);
+            StageStatistics statistics = stageStatistics.getOrDefault(stageName, new StageStatistics());
+            metrics.add(statistics.createMetrics(stageName, depth[0], depth[1]));
+        }
+        return metrics;
+    }
+
+    /**
+     * Accumulated latencies of a stage. Only written by the reactor thread.
+     */
+    private static final class StageStatistics {
+        private final LongAdder submitted = new LongAdder();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final LongAdder processingNanos = new LongAdder();
+
+        void recordSubmitted(long waitTime) {
+            submitted.increment();
+            waitNanos.add(waitTime);
+        }
+
+        void recordCompleted(long processingTime) {
+            completed.increment();
+            processingNanos.add(processingTime);
+        }
+
+        ChunkStageMetrics createMetrics(String stageName, int waitingCount, int scheduledCount) {
+            long submittedCount = submitted.sum();
+            long completedCount = completed.sum();
+            return new ChunkStageMetrics(stageName, waitingCount, scheduledCount, completedCount,
+                    submittedCount == 0 ? 0 : waitNanos.sum() / 1e6 / submittedCount,
+                    completedCount == 0 ? 0 : processingNanos.sum() / 1e6 / completedCount);
+        }
+    }
+
+    /**
+     * The chunks locked by a task writing into its required chunks. Either the task starts and hands the locks back
+     * when it exits, or the reactor thread abandons it after it got cancelled before starting and releases the locks
+     * itself.
+     */
+    private static final class ChunkLocks {
+        private static final int PENDING = 0;
+        private static final int STARTED = 1;
+        private static final int ABANDONED = 2;
+
+        private final List<Vector3ic> positions;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+
+        ChunkLocks(List<Vector3ic> positions) {
+            this.positions = positions;
+        }
+
+        boolean start() {
+            return state.compareAndSet(PENDING, STARTED);
+        }
+
+        boolean abandon() {
+            return state.compareAndSet(PENDING, ABANDONED);
+        }
+    }
 }
@@ -0,0 +1,83 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+
+package org.terasology.engine.world.chunks.pipeline;
+
+import java.util.Locale;
+
+/**
+ * Snapshot of the queue depth and latencies of one stage of a {@link ChunkProcessingPipeline}.
+ *
+ * @see ChunkProcessingPipeline#getStageMetrics()
+ */
+public final class ChunkStageMetrics {
+    private final String stageName;
+    private final int waitingCount;
+    private final int scheduledCount;
+    private final long completedCount;
+    private final double averageWaitMillis;
+    private final double averageProcessingMillis;
+
+    ChunkStageMetrics(String stageName, int waitingCount, int scheduledCount, long completedCount,
+                      double averageWaitMillis, double averageProcessingMillis) {
+        this.stageName = stageName;
+        this.waitingCount = waitingCount;
+        this.scheduledCount = scheduledCount;
+        this.completedCount = completedCount;
+        this.averageWaitMillis = averageWaitMillis;
+        this.averageProcessingMillis = averageProcessingMillis;
+    }
+
+    public String getStageName() {
+        return stageName;
+    }
+
+    /**
+     * @return the number of chunks in this stage whose task waits for required chunks.
+     */
+    public int getWaitingCount() {
+        return waitingCount;
+    }
+
+    /**
+     * @return the number of chunks in this stage whose task has been submitted and is queued or running.
+     */
+    public int getScheduledCount() {
+        return scheduledCount;
+    }
+
+    /**
+     * @return the number of chunks currently in this stage.
+     */
+    public int getQueueDepth() {
+        return waitingCount + scheduledCount;
+    }
+
+    /**
+     * @return the number of chunks which completed this stage since the pipeline got created.
+     */
+    public long getCompletedCount() {
+        return completedCount;
+    }
+
+    /**
+     * @return the average time between a chunk entering this stage and its task getting submitted.
+     */
+    public double getAverageWaitMillis() {
+        return averageWaitMillis;
+    }
+
+    /**
+     * @return the average time between the task of a chunk getting submitted and its completion, including the time
+     *         spent in the executor queue.
+     */
+    public double getAverageProcessingMillis() {
+        return averageProcessingMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s: %d waiting, %d scheduled, %d completed, %.2fms wait, %.2fms processing",
+                stageName, waitingCount, scheduledCount, completedCount, averageWaitMillis, averageProcessingMillis);
+    }
+}
@@ -37,4 +37,14 @@ public interface ChunkTask extends Function<Collection<Chunk>, Chunk> {
     default List<Vector3ic> getRequirements() {
         return Lists.newArrayList(getPosition());
     }
+
+    /**
+     * Whether the task writes into its required chunks, like merging light across chunk borders. Tasks which write
+     * into their required chunks are never run at the same time as another such task with an overlapping requirement.
+     *
+     * @return true if the task writes into its required chunks.
+     */
+    default boolean writesRequirements() {
+        return false;
+    }
 }
@@ -52,6 +52,20 @@ public static ChunkTaskProvider createMulti(String name, Function<Collection<Chu
         );
     }
 
+    /**
+     * Creates a stage whose tasks write into their required chunks, like merging light across chunk borders.
+     * <p>
+     * The tasks of chunks whose requirements don't overlap run at the same time, while the others wait for the chunks
+     * they share to be released.
+     */
+    public static ChunkTaskProvider createMultiWriting(String name, Function<Collection<Chunk>, Chunk> processing,
+                                                       Function<Vector3ic, List<Vector3ic>> requirementCalculator) {
+        return new ChunkTaskProvider(
+                name,
+                pos -> new MultiplyRequirementChunkTask(name, pos, processing, requirementCalculator.apply(pos), true)
+        );
+    }
+
     public String getName() {
         return name;
     }
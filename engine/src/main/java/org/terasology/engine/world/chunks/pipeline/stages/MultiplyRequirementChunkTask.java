@@ -18,13 +18,20 @@ public class MultiplyRequirementChunkTask implements ChunkTask {
     private final Vector3ic position;
     private final Function<Collection<Chunk>, Chunk> function;
     private final List<Vector3ic> requirements;
+    private final boolean writesRequirements;
 
     public MultiplyRequirementChunkTask(String name, Vector3ic position, Function<Collection<Chunk>, Chunk> function,
                                         List<Vector3ic> requirements) {
+        this(name, position, function, requirements, false);
+    }
+
+    public MultiplyRequirementChunkTask(String name, Vector3ic position, Function<Collection<Chunk>, Chunk> function,
+                                        List<Vector3ic> requirements, boolean writesRequirements) {
         this.name = name;
         this.position = position;
         this.function = function;
         this.requirements = requirements;
+        this.writesRequirements = writesRequirements;
     }
 
     @Override
@@ -32,6 +39,11 @@ public List<Vector3ic> getRequirements() {
         return requirements;
     }
 
+    @Override
+    public boolean writesRequirements() {
+        return writesRequirements;
+    }
+
     @Override
     public String getName() {
         return name;
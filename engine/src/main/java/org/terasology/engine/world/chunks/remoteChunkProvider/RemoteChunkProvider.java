@@ -66,7 +66,7 @@ public RemoteChunkProvider(BlockManager blockManager, LocalPlayer localPlayer, C
             ChunkTaskProvider.create("Chunk generate internal lightning",
                 (Consumer<Chunk>) InternalLightProcessor::generateInternalLighting))
             .addStage(ChunkTaskProvider.create("Chunk deflate", Chunk::deflate))
-            .addStage(ChunkTaskProvider.createMulti("Light merging",
+            .addStage(ChunkTaskProvider.createMultiWriting("Light merging",
                 chunks -> {
                     Chunk[] localchunks = chunks.toArray(new Chunk[0]);
                     return LightMerger.merge(localchunks);
@@ -0,0 +1,235 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.world.generation;
+
+import com.google.common.collect.ClassToInstanceMap;
+import com.google.common.collect.ImmutableClassToInstanceMap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Sets;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.terasology.engine.world.block.BlockRegion;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Shares the 2D facets generated for a region with the other regions covering the same area, like the regions of the
+ * chunks in a column, so they are generated once per column instead of once per chunk.
+ * <br><br>
+ * Only facets which are generated from 2D facets alone are cached, and a facet is only cached if every facet produced,
+ * updated or required by the providers of its chain is cached too. The providers of the cached facets are assumed not
+ * to depend on the height of the region. All cached facets of an area are generated together, so these providers
+ * never run on a region which got some of their facets from the cache, and never change a shared facet.
+ * <br><br>
+ * The cache keeps the facets of a bounded number of areas, dropping the least recently used ones. It is safe to use
+ * from multiple threads, two threads missing the same area both generate its facets.
+ */
+public final class FacetCache {
+    /**
+     * System property with the number of areas whose 2D facets are kept by the facet cache of a world, or 0 to disable
+     * the cache.
+     */
+    public static final String MAX_SIZE_PROPERTY = "org.terasology.facetCacheSize";
+
+    private static final Logger logger = LoggerFactory.getLogger(FacetCache.class);
+
+    private static final int DEFAULT_MAX_SIZE = 512;
+
+    private final Set<Class<? extends WorldFacet>> cachedFacets;
+    private final Set<FacetProvider> cachedProviders;
+    private final Map<Key, ClassToInstanceMap<WorldFacet>> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param facetProviderChains the provider chains of the facets, as determined by the {@link WorldBuilder}
+     * @param maxSize the maximum number of areas whose facets are kept
+     */
+    public FacetCache(ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetProviderChains, int maxSize) {
+        this.cachedFacets = determineCachedFacets(facetProviderChains);
+        this.cachedProviders = Sets.newHashSet();
+        for (Class<? extends WorldFacet> facet : cachedFacets) {
+            cachedProviders.addAll(facetProviderChains.get(facet));
+        }
+        this.entries = new LinkedHashMap<Key, ClassToInstanceMap<WorldFacet>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, ClassToInstanceMap<WorldFacet>> eldest) {
+                return size() > maxSize;
+            }
+        };
+        logger.debug("Caching facets {}", cachedFacets);
+    }
+
+    /**
+     * Creates the facet cache for the provider chains, with the size configured by {@link #MAX_SIZE_PROPERTY}.
+     *
+     * @return the cache, or null if it is disabled or no facet can be cached
+     */
+    public static FacetCache create(ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetProviderChains) {
+        int maxSize = Integer.getInteger(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE);
+        if (maxSize <= 0) {
+            return null;
+        }
+        FacetCache cache = new FacetCache(facetProviderChains, maxSize);
+        return cache.cachedFacets.isEmpty() ? null : cache;
+    }
+
+    /**
+     * Determines the facets which can be cached: 2D facets whose chain only contains providers producing, updating and
+     * requiring cached facets.
+     */
+    private static Set<Class<? extends WorldFacet>> determineCachedFacets(
+            ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetProviderChains) {
+        Set<Class<? extends WorldFacet>> facets = Sets.newLinkedHashSet();
+        for (Class<? extends WorldFacet> facet : facetProviderChains.keySet()) {
+            if (WorldFacet2D.class.isAssignableFrom(facet)) {
+                facets.add(facet);
+            }
+        }
+        // dropping a facet can rule out others depending on it, so repeat until nothing changes
+        boolean changed = true;
+        while (changed) {
+            changed = facets.removeIf(facet -> !facetProviderChains.get(facet).stream()
+                    .allMatch(provider -> facets.containsAll(getFacets(provider))));
+        }
+        return facets;
+    }
+
+    private static Set<Class<? extends WorldFacet>> getFacets(FacetProvider provider) {
+        Set<Class<? extends WorldFacet>> facets = Sets.newHashSet();
+        Produces produces = provider.getClass().getAnnotation(Produces.class);
+        if (produces != null) {
+            facets.addAll(Arrays.asList(produces.value()));
+        }
+        Updates updates = provider.getClass().getAnnotation(Updates.class);
+        if (updates != null) {
+            for (Facet facet : updates.value()) {
+                facets.add(facet.value());
+            }
+        }
+        Requires requires = provider.getClass().getAnnotation(Requires.class);
+        if (requires != null) {
+            for (Facet facet : requires.value()) {
+                facets.add(facet.value());
+            }
+        }
+        return facets;
+    }
+
+    /**
+     * @return the facets which are cached
+     */
+    public Set<Class<? extends WorldFacet>> getCachedFacets() {
+        return cachedFacets;
+    }
+
+    /**
+     * @return whether the provider only generates cached facets, so it doesn't have to run for regions which got their
+     *         facets from the cache
+     */
+    public boolean isCached(FacetProvider provider) {
+        return cachedProviders.contains(provider);
+    }
+
+    /**
+     * Gets the cached facets for the area of the region, generating them if they aren't cached yet.
+     *
+     * @param region the region whose area the facets cover, the height of the region doesn't matter
+     * @param scale the scale the facets are generated at
+     * @param generator generates all cached facets for the region
+     * @return the cached facets for the area of the region
+     */
+    public ClassToInstanceMap<WorldFacet> get(BlockRegion region, float scale,
+                                              Supplier<ClassToInstanceMap<WorldFacet>> generator) {
+        Key key = new Key(region, scale);
+        ClassToInstanceMap<WorldFacet> facets;
+        synchronized (entries) {
+            facets = entries.get(key);
+        }
+        if (facets != null) {
+            hits.increment();
+            return facets;
+        }
+        misses.increment();
+        facets = ImmutableClassToInstanceMap.copyOf(generator.get());
+        synchronized (entries) {
+            entries.put(key, facets);
+        }
+        return facets;
+    }
+
+    /**
+     * @return the number of regions which got their facets from the cache
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of regions which had to generate their facets
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the share of regions which got their facets from the cache, or 0 if there were none yet
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * @return the number of areas whose facets are cached
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static final class Key {
+        private final int minX;
+        private final int minZ;
+        private final int maxX;
+        private final int maxZ;
+        private final float scale;
+
+        Key(BlockRegion region, float scale) {
+            this.minX = region.minX();
+            this.minZ = region.minZ();
+            this.maxX = region.maxX();
+            this.maxZ = region.maxZ();
+            this.scale = scale;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return minX == other.minX && minZ == other.minZ && maxX == other.maxX && maxZ == other.maxZ
+                    && Float.compare(scale, other.scale) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = minX;
+            result = 31 * result + minZ;
+            result = 31 * result + maxX;
+            result = 31 * result + maxZ;
+            return 31 * result + Float.floatToIntBits(scale);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.world.generation;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Runs the facet providers of a region concurrently, as a graph derived from the provider chains of the
+ * {@link WorldBuilder}.
+ * <br><br>
+ * The providers are given in the order they would run one after another. A provider waits for the providers before it
+ * which write a facet it reads or writes, or read a facet it writes, so every facet sees the same sequence of changes
+ * as in the sequential order. Independent providers, like the ones of elevation and humidity, run at the same time.
+ * <br><br>
+ * The providers run on a pool shared by all worlds rather than on the chunk threads, since a chunk thread waits for
+ * them to finish. Providers have to declare every facet they access, and must not share unsynchronized state with
+ * other providers.
+ */
+public final class FacetProviderExecutor {
+    /**
+     * System property with the number of threads running facet providers concurrently, or 0 to run them one after
+     * another on the thread generating the region.
+     */
+    public static final String THREADS_PROPERTY = "org.terasology.facetProviderThreads";
+
+    private static ExecutorService sharedPool;
+
+    private final ExecutorService pool;
+    private final Map<FacetProvider, Set<Class<? extends WorldFacet>>> readFacets = new HashMap<>();
+    private final Map<FacetProvider, Set<Class<? extends WorldFacet>>> writtenFacets = new HashMap<>();
+
+    /**
+     * @param providers the providers which are run, all others are treated as conflicting with every provider
+     * @param pool the threads to run the providers on
+     */
+    public FacetProviderExecutor(Collection<FacetProvider> providers, ExecutorService pool) {
+        this.pool = pool;
+        for (FacetProvider provider : providers) {
+            Set<Class<? extends WorldFacet>> reads = Sets.newHashSet();
+            Set<Class<? extends WorldFacet>> writes = Sets.newHashSet();
+            Produces produces = provider.getClass().getAnnotation(Produces.class);
+            if (produces != null) {
+                writes.addAll(Arrays.asList(produces.value()));
+            }
+            Updates updates = provider.getClass().getAnnotation(Updates.class);
+            if (updates != null) {
+                for (Facet facet : updates.value()) {
+                    reads.add(facet.value());
+                    writes.add(facet.value());
+                }
+            }
+            Requires requires = provider.getClass().getAnnotation(Requires.class);
+            if (requires != null) {
+                for (Facet facet : requires.value()) {
+                    reads.add(facet.value());
+                }
+            }
+            readFacets.put(provider, reads);
+            writtenFacets.put(provider, writes);
+        }
+    }
+
+    /**
+     * Creates the executor for the provider chains, with the number of threads configured by
+     * {@link #THREADS_PROPERTY}.
+     *
+     * @return the executor, or null if the providers run one after another
+     */
+    public static FacetProviderExecutor create(
+            ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetProviderChains) {
+        int threads = Integer.getInteger(THREADS_PROPERTY, 0);
+        if (threads <= 0) {
+            return null;
+        }
+        return new FacetProviderExecutor(Sets.newLinkedHashSet(facetProviderChains.values()), getSharedPool(threads));
+    }
+
+    private static synchronized ExecutorService getSharedPool(int threads) {
+        if (sharedPool == null) {
+            sharedPool = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+                    .setNameFormat("Facet-Provider-%d")
+                    .setDaemon(true)
+                    .build());
+        }
+        return sharedPool;
+    }
+
+    /**
+     * Runs the action for every provider, concurrently where the providers don't conflict, and waits for all of them.
+     * If an action fails, the providers depending on it are skipped and its exception is rethrown once the others are
+     * done.
+     *
+     * @param providers the providers in the order they would run one after another
+     * @param action processes a provider
+     */
+    public void process(List<FacetProvider> providers, Consumer<FacetProvider> action) {
+        if (providers.size() < 2) {
+            providers.forEach(action);
+            return;
+        }
+        CompletableFuture<?>[] tasks = new CompletableFuture[providers.size()];
+        for (int i = 0; i < providers.size(); i++) {
+            FacetProvider provider = providers.get(i);
+            List<CompletableFuture<?>> dependencies = new ArrayList<>();
+            for (int j = 0; j < i; j++) {
+                if (conflicts(providers.get(j), provider)) {
+                    dependencies.add(tasks[j]);
+                }
+            }
+            Runnable task = () -> action.accept(provider);
+            if (dependencies.isEmpty()) {
+                tasks[i] = CompletableFuture.runAsync(task, pool);
+            } else {
+                tasks[i] = CompletableFuture.allOf(dependencies.toArray(new CompletableFuture[0]))
+                        .thenRunAsync(task, pool);
+            }
+        }
+        try {
+            CompletableFuture.allOf(tasks).join();
+        } catch (CompletionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw e;
+        }
+    }
+
+    /**
+     * @return whether the providers have to run in their given order, because one of them writes a facet the other
+     *         one accesses
+     */
+    boolean conflicts(FacetProvider earlier, FacetProvider later) {
+        Set<Class<? extends WorldFacet>> earlierWrites = writtenFacets.get(earlier);
+        Set<Class<? extends WorldFacet>> laterWrites = writtenFacets.get(later);
+        if (earlierWrites == null || laterWrites == null) {
+            return true;
+        }
+        return !Collections.disjoint(earlierWrites, laterWrites)
+                || !Collections.disjoint(earlierWrites, readFacets.get(later))
+                || !Collections.disjoint(readFacets.get(earlier), laterWrites);
+    }
+}
@@ -4,10 +4,15 @@
 
 import com.google.common.collect.ClassToInstanceMap;
 import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Lists;
 import com.google.common.collect.MutableClassToInstanceMap;
 import com.google.common.collect.Sets;
 import org.terasology.engine.world.block.BlockRegion;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -17,38 +22,130 @@ public class RegionImpl implements Region, GeneratingRegion {
     private final ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetProviderChains;
     private final Map<Class<? extends WorldFacet>, Border3D> borders;
     private final float scale;
+    private final FacetCache facetCache;
+    private final FacetProviderExecutor providerExecutor;
 
-    private final ClassToInstanceMap<WorldFacet> generatingFacets = MutableClassToInstanceMap.create();
+    // providers running concurrently access the facets at the same time
+    private final ClassToInstanceMap<WorldFacet> generatingFacets =
+            MutableClassToInstanceMap.create(Collections.synchronizedMap(new HashMap<>()));
     private final Set<FacetProvider> processedProviders = Sets.newHashSet();
     private final ClassToInstanceMap<WorldFacet> generatedFacets = MutableClassToInstanceMap.create();
+    private boolean cachedFacetsLoaded;
 
     public RegionImpl(BlockRegion region,
                       ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetProviderChains, Map<Class<?
             extends WorldFacet>, Border3D> borders, float scale) {
+        this(region, facetProviderChains, borders, scale, null);
+    }
+
+    /**
+     * @param facetCache the cache to share the 2D facets of the region with other regions of the same area, or null
+     */
+    public RegionImpl(BlockRegion region,
+                      ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetProviderChains, Map<Class<?
+            extends WorldFacet>, Border3D> borders, float scale, FacetCache facetCache) {
+        this(region, facetProviderChains, borders, scale, facetCache, null);
+    }
+
+    /**
+     * @param facetCache the cache to share the 2D facets of the region with other regions of the same area, or null
+     * @param providerExecutor runs the facet providers concurrently, or null to run them one after another
+     */
+    public RegionImpl(BlockRegion region,
+                      ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetProviderChains, Map<Class<?
+            extends WorldFacet>, Border3D> borders, float scale, FacetCache facetCache,
+                      FacetProviderExecutor providerExecutor) {
         this.region = region;
         this.facetProviderChains = facetProviderChains;
         this.borders = borders;
         this.scale = scale;
+        this.facetCache = facetCache;
+        this.providerExecutor = providerExecutor;
     }
 
     @Override
     public <T extends WorldFacet> T getFacet(Class<T> dataType) {
         T facet = generatedFacets.getInstance(dataType);
         if (facet == null) {
-            for (FacetProvider provider : facetProviderChains.get(dataType)) {
+            processProviders(facetProviderChains.get(dataType));
+            facet = generatingFacets.getInstance(dataType);
+            generatedFacets.put(dataType, facet);
+        }
+        return facet;
+    }
+
+    /**
+     * Runs the providers of all the facets together, so independent providers run concurrently if there is a
+     * {@link FacetProviderExecutor}, rather than one chain at a time as the facets are requested.
+     *
+     * @param dataTypes the facets which will be requested from the region
+     */
+    public void prepareFacets(Collection<Class<? extends WorldFacet>> dataTypes) {
+        Set<FacetProvider> providers = Sets.newLinkedHashSet();
+        for (Class<? extends WorldFacet> dataType : dataTypes) {
+            providers.addAll(facetProviderChains.get(dataType));
+        }
+        processProviders(providers);
+    }
+
+    private void processProviders(Collection<FacetProvider> providers) {
+        if (providerExecutor == null) {
+            for (FacetProvider provider : providers) {
+                if (facetCache != null && !cachedFacetsLoaded && facetCache.isCached(provider)) {
+                    loadCachedFacets();
+                }
                 if (!processedProviders.contains(provider)) {
-                    if (scale == 1) {
-                        provider.process(this);
-                    } else {
-                        ((ScalableFacetProvider) provider).process(this, scale);
-                    }
+                    process(provider);
                     processedProviders.add(provider);
                 }
             }
-            facet = generatingFacets.getInstance(dataType);
-            generatedFacets.put(dataType, facet);
+        } else {
+            if (facetCache != null && !cachedFacetsLoaded && providers.stream().anyMatch(facetCache::isCached)) {
+                loadCachedFacets();
+            }
+            List<FacetProvider> pending = Lists.newArrayList();
+            for (FacetProvider provider : providers) {
+                if (!processedProviders.contains(provider)) {
+                    pending.add(provider);
+                }
+            }
+            providerExecutor.process(pending, this::process);
+            processedProviders.addAll(pending);
+        }
+    }
+
+    private void process(FacetProvider provider) {
+        if (scale == 1) {
+            provider.process(this);
+        } else {
+            ((ScalableFacetProvider) provider).process(this, scale);
+        }
+    }
+
+    /**
+     * Takes all cached facets from the cache, generating them on a miss, and skips the providers which generate them.
+     */
+    private void loadCachedFacets() {
+        cachedFacetsLoaded = true;
+        ClassToInstanceMap<WorldFacet> cachedFacets = facetCache.get(region, scale, () -> {
+            ClassToInstanceMap<WorldFacet> facets = MutableClassToInstanceMap.create();
+            for (Class<? extends WorldFacet> type : facetCache.getCachedFacets()) {
+                WorldFacet facet = getFacet(type);
+                if (facet != null) {
+                    facets.put(type, facet);
+                }
+            }
+            return facets;
+        });
+        for (Map.Entry<Class<? extends WorldFacet>, WorldFacet> entry : cachedFacets.entrySet()) {
+            generatingFacets.put(entry.getKey(), entry.getValue());
+            generatedFacets.put(entry.getKey(), entry.getValue());
+        }
+        for (FacetProvider provider : facetProviderChains.values()) {
+            if (facetCache.isCached(provider)) {
+                processedProviders.add(provider);
+            }
         }
-        return facet;
     }
 
     @Override
@@ -8,6 +8,7 @@
 import org.terasology.engine.world.chunks.Chunk;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -21,6 +22,12 @@ public class WorldImpl implements World {
     private final List<EntityProvider> entityProviders;
     private final Map<Class<? extends WorldFacet>, Border3D> borders;
     private final int seaLevel;
+    private final FacetCache facetCache;
+    private final FacetCache scalableFacetCache;
+    private final FacetProviderExecutor providerExecutor;
+    private final FacetProviderExecutor scalableProviderExecutor;
+    private final Set<Class<? extends WorldFacet>> rasterizedFacets;
+    private final Set<Class<? extends WorldFacet>> scalableRasterizedFacets;
 
     public WorldImpl(ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetProviderChains,
                      ListMultimap<Class<? extends WorldFacet>, FacetProvider> scalableFacetProviderChains,
@@ -36,11 +43,47 @@ public WorldImpl(ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetP
         this.entityProviders = entityProviders;
         this.borders = borders;
         this.seaLevel = seaLevel;
+        this.facetCache = FacetCache.create(facetProviderChains);
+        this.scalableFacetCache = FacetCache.create(scalableFacetProviderChains);
+        this.providerExecutor = FacetProviderExecutor.create(facetProviderChains);
+        this.scalableProviderExecutor = FacetProviderExecutor.create(scalableFacetProviderChains);
+        Set<Object> consumers = new LinkedHashSet<>(worldRasterizers);
+        consumers.addAll(entityProviders);
+        this.rasterizedFacets = requiredFacets(consumers, facetProviderChains);
+        this.scalableRasterizedFacets = requiredFacets(scalableWorldRasterizers, scalableFacetProviderChains);
+    }
+
+    /**
+     * @return the facets required by the rasterizers or entity providers which have providers
+     */
+    private static Set<Class<? extends WorldFacet>> requiredFacets(Collection<?> consumers,
+            ListMultimap<Class<? extends WorldFacet>, FacetProvider> facetProviderChains) {
+        Set<Class<? extends WorldFacet>> facets = new LinkedHashSet<>();
+        for (Object consumer : consumers) {
+            Requires requires = consumer.getClass().getAnnotation(Requires.class);
+            if (requires != null) {
+                for (Facet facet : requires.value()) {
+                    if (facetProviderChains.containsKey(facet.value())) {
+                        facets.add(facet.value());
+                    }
+                }
+            }
+        }
+        return Collections.unmodifiableSet(facets);
     }
 
     @Override
     public Region getWorldData(BlockRegion region, float scale) {
-        return new RegionImpl(region, scale == 1 ? facetProviderChains : scalableFacetProviderChains, borders, scale);
+        return scale == 1
+                ? new RegionImpl(region, facetProviderChains, borders, scale, null, providerExecutor)
+                : new RegionImpl(region, scalableFacetProviderChains, borders, scale, null, scalableProviderExecutor);
+    }
+
+    /**
+     * @return the cache sharing 2D facets between the chunks in a column, or null if it is disabled
+     */
+    public FacetCache getFacetCache() {
+        return facetCache;
     }
 
     @Override
@@ -50,7 +93,11 @@ public int getSeaLevel() {
 
     @Override
     public void rasterizeChunk(Chunk chunk, EntityBuffer buffer) {
-        Region chunkRegion = getWorldData(new BlockRegion(chunk.getRegion()), 1);
+        RegionImpl chunkRegion = new RegionImpl(new BlockRegion(chunk.getRegion()), facetProviderChains, borders, 1,
+                facetCache, providerExecutor);
+        if (providerExecutor != null) {
+            chunkRegion.prepareFacets(rasterizedFacets);
+        }
         for (WorldRasterizer rasterizer : worldRasterizers) {
             rasterizer.generateChunk(chunk, chunkRegion);
         }
@@ -61,7 +108,11 @@ public void rasterizeChunk(Chunk chunk, EntityBuffer buffer) {
 
     @Override
     public void rasterizeChunk(Chunk chunk, float scale) {
-        Region chunkRegion = getWorldData(new BlockRegion(chunk.getRegion()), scale);
+        RegionImpl chunkRegion = new RegionImpl(new BlockRegion(chunk.getRegion()), scalableFacetProviderChains,
+                borders, scale, scalableFacetCache, scalableProviderExecutor);
+        if (scalableProviderExecutor != null) {
+            chunkRegion.prepareFacets(scalableRasterizedFacets);
+        }
         for (WorldRasterizer rasterizer : scalableWorldRasterizers) {
             ((ScalableWorldRasterizer) rasterizer).generateChunk(chunk, chunkRegion, scale);
         }
@@ -23,9 +23,9 @@
 import org.terasology.engine.world.chunks.Chunks;
 import org.terasology.engine.world.propagation.BatchPropagator;
 import org.terasology.engine.world.propagation.BlockChange;
+import org.terasology.engine.world.propagation.PackedBatchPropagator;
 import org.terasology.engine.world.propagation.PropagationRules;
 import org.terasology.engine.world.propagation.PropagatorWorldView;
-import org.terasology.engine.world.propagation.StandardBatchPropagator;
 import org.terasology.engine.world.propagation.SunlightRegenBatchPropagator;
 import org.terasology.engine.world.propagation.light.LightPropagationRules;
 import org.terasology.engine.world.propagation.light.LightWorldView;
@@ -75,11 +75,11 @@ public WorldProviderCoreImpl(String title, String seed, long time, SimpleUri wor
         this.worldTime = new WorldTimeImpl();
         worldTime.setMilliseconds(time);
 
-        propagators.add(new StandardBatchPropagator(new LightPropagationRules(), new LightWorldView(chunkProvider)));
+        propagators.add(new PackedBatchPropagator(new LightPropagationRules(), new LightWorldView(chunkProvider)));
         PropagatorWorldView regenWorldView = new SunlightRegenWorldView(chunkProvider);
         PropagationRules sunlightRules = new SunlightPropagationRules(regenWorldView);
         PropagatorWorldView sunlightWorldView = new SunlightWorldView(chunkProvider);
-        BatchPropagator sunlightPropagator = new StandardBatchPropagator(sunlightRules, sunlightWorldView);
+        BatchPropagator sunlightPropagator = new PackedBatchPropagator(sunlightRules, sunlightWorldView);
         propagators.add(new SunlightRegenBatchPropagator(new SunlightRegenPropagationRules(), regenWorldView,
                 sunlightPropagator, sunlightWorldView));
         propagators.add(sunlightPropagator);
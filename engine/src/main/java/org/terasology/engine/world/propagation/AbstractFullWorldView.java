@@ -5,7 +5,6 @@
 import org.joml.Vector3i;
 import org.joml.Vector3ic;
 import org.terasology.engine.world.block.Block;
-import org.terasology.engine.world.block.BlockRegion;
 import org.terasology.engine.world.chunks.Chunk;
 import org.terasology.engine.world.chunks.ChunkProvider;
 import org.terasology.engine.world.chunks.Chunks;
@@ -28,7 +27,7 @@ public AbstractFullWorldView(ChunkProvider chunkProvider) {
      * @return The chunk for that position
      */
     private Chunk getChunk(Vector3ic pos) {
-        return chunkProvider.getChunk(Chunks.toChunkPos(pos, new Vector3i()));
+        return chunkProvider.getChunk(Chunks.toChunkPosX(pos.x()), Chunks.toChunkPosY(pos.y()), Chunks.toChunkPosZ(pos.z()));
     }
 
     @Override
@@ -52,11 +51,15 @@ public byte getValueAt(Vector3ic pos) {
     @Override
     public void setValueAt(Vector3ic pos, byte value) {
         setValueAt(getChunk(pos), Chunks.toRelative(pos, new Vector3i()), value);
-        BlockRegion chunkRegion = new BlockRegion(pos).expand(1, 1, 1);
-        for (Vector3ic affectedChunkPos : Chunks.toChunkRegion(chunkRegion, chunkRegion)) {
-            Chunk dirtiedChunk = chunkProvider.getChunk(affectedChunkPos);
-            if (dirtiedChunk != null) {
-                dirtiedChunk.setDirty(true);
+        /* Dirty every chunk touching the block, as their meshes depend on its value */
+        for (int x = Chunks.toChunkPosX(pos.x() - 1); x <= Chunks.toChunkPosX(pos.x() + 1); x++) {
+            for (int y = Chunks.toChunkPosY(pos.y() - 1); y <= Chunks.toChunkPosY(pos.y() + 1); y++) {
+                for (int z = Chunks.toChunkPosZ(pos.z() - 1); z <= Chunks.toChunkPosZ(pos.z() + 1); z++) {
+                    Chunk dirtiedChunk = chunkProvider.getChunk(x, y, z);
+                    if (dirtiedChunk != null) {
+                        dirtiedChunk.setDirty(true);
+                    }
+                }
             }
         }
     }
@@ -72,9 +75,9 @@ public void setValueAt(Vector3ic pos, byte value) {
 
     @Override
     public Block getBlockAt(Vector3ic pos) {
-       Chunk chunk = chunkProvider.getChunk(Chunks.toChunkPos(pos, new Vector3i()));
+        Chunk chunk = getChunk(pos);
         if (chunk != null) {
-            return chunk.getBlock(Chunks.toRelative(pos, new Vector3i()));
+            return chunk.getBlock(Chunks.toRelativeX(pos.x()), Chunks.toRelativeY(pos.y()), Chunks.toRelativeZ(pos.z()));
         }
         return null;
     }
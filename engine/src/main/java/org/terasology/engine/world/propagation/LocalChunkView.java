@@ -44,7 +44,8 @@ public byte getValueAt(Vector3ic pos) {
         }
         Chunk chunk = chunks[index];
         if (chunk != null) {
-            return rules.getValue(chunk, Chunks.toRelative(pos, new Vector3i()));
+            return rules.getValue(chunk, Chunks.toRelativeX(pos.x()), Chunks.toRelativeY(pos.y()),
+                    Chunks.toRelativeZ(pos.z()));
         }
         return UNAVAILABLE;
     }
@@ -62,7 +63,7 @@ public Block getBlockAt(Vector3ic pos) {
         int index = chunkIndexOf(pos);
         Chunk chunk = chunks[index];
         if (chunk != null) {
-            return chunk.getBlock(Chunks.toRelative(pos, new Vector3i()));
+            return chunk.getBlock(Chunks.toRelativeX(pos.x()), Chunks.toRelativeY(pos.y()), Chunks.toRelativeZ(pos.z()));
         }
         return null;
     }
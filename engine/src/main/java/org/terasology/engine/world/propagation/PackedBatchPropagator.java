@@ -0,0 +1,587 @@
+// Copyright 2021 The Terasology Foundation
+// SPDX-License-Identifier: Apache-2.0
+package org.terasology.engine.world.propagation;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import gnu.trove.map.TLongIntMap;
+import gnu.trove.map.hash.TLongIntHashMap;
+import org.joml.Vector3i;
+import org.joml.Vector3ic;
+import org.terasology.engine.math.Side;
+import org.terasology.engine.world.block.Block;
+import org.terasology.engine.world.chunks.Chunk;
+import org.terasology.engine.world.chunks.Chunks;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batch propagator that works on a set of changed blocks, for a single given propagation ruleset.
+ * <p>
+ * Produces the same values as {@link StandardBatchPropagator}, visiting positions in the same order, but keeps its
+ * queues as ring buffers of positions packed into longs instead of sets of vectors, so queueing a position does not
+ * allocate. Positions are packed relative to the first position queued in a batch, which leaves 2^20 blocks in each
+ * horizontal direction and 2^19 blocks in each vertical direction. The rare position further away from it is kept in a
+ * list instead, and packed as its index in the list.
+ */
+public class PackedBatchPropagator implements BatchPropagator {
+
+    private static final byte NO_VALUE = 0;
+
+    private static final int BITS_XZ = 21;
+    private static final int BITS_Y = 20;
+    private static final int BITS = 2 * BITS_XZ + BITS_Y;
+    private static final long MASK_XZ = (1L << BITS_XZ) - 1;
+    private static final long MASK_Y = (1L << BITS_Y) - 1;
+    /* Set in packed positions which are an index into the list of positions out of the range of the origin */
+    private static final long OUT_OF_RANGE = Long.MIN_VALUE;
+
+    private final PropagationRules rules;
+    private final PropagatorWorldView world;
+    private final int scale;
+
+    /* Queues are stored in reverse order. Ie, strongest light is 0. */
+    private final PositionQueue[] reduceQueues;
+    private final PositionQueue[] increaseQueues;
+
+    private final Vector3ic[] chunkEdgeDeltas = new Vector3ic[Side.values().length];
+
+    /* Scratch positions of the position being processed and its neighbour */
+    private final Vector3i pos = new Vector3i();
+    private final Vector3i adjPos = new Vector3i();
+
+    /* The position the queued positions are packed relative to, set while any queue is not empty */
+    private final Vector3i origin = new Vector3i();
+    private boolean hasOrigin;
+    private final List<Vector3i> outOfRangePositions = Lists.newArrayList();
+    private final Map<Vector3i, Long> outOfRangeIndices = Maps.newHashMap();
+
+    public PackedBatchPropagator(PropagationRules rules, PropagatorWorldView world) {
+        this(rules, world, 1);
+    }
+
+    public PackedBatchPropagator(PropagationRules rules, PropagatorWorldView world, int scale) {
+        this.world = world;
+        this.rules = rules;
+        this.scale = scale;
+
+        for (Side side : Side.values()) {
+            Vector3i delta = new Vector3i(side.direction());
+            delta.x -= Integer.signum(delta.x) * Chunks.SIZE_X;
+            delta.y -= Integer.signum(delta.y) * Chunks.SIZE_Y;
+            delta.z -= Integer.signum(delta.z) * Chunks.SIZE_Z;
+            chunkEdgeDeltas[side.ordinal()] = delta;
+        }
+
+        increaseQueues = new PositionQueue[rules.getMaxValue()];
+        reduceQueues = new PositionQueue[rules.getMaxValue()];
+        for (int i = 0; i < rules.getMaxValue(); ++i) {
+            increaseQueues[i] = new PositionQueue();
+            reduceQueues[i] = new PositionQueue();
+        }
+    }
+
+    /**
+     * Packs a position relative to the origin, which has to be in the range of {@link #isInRange(long, long, long)}.
+     */
+    static long pack(int x, int y, int z) {
+        return (x & MASK_XZ) << (BITS_Y + BITS_XZ) | (y & MASK_Y) << BITS_XZ | (z & MASK_XZ);
+    }
+
+    static boolean isInRange(long x, long y, long z) {
+        return x >= -(1L << (BITS_XZ - 1)) && x < 1L << (BITS_XZ - 1)
+                && y >= -(1L << (BITS_Y - 1)) && y < 1L << (BITS_Y - 1)
+                && z >= -(1L << (BITS_XZ - 1)) && z < 1L << (BITS_XZ - 1);
+    }
+
+    static int unpackX(long packed) {
+        return (int) (packed << (Long.SIZE - BITS) >> (Long.SIZE - BITS_XZ));
+    }
+
+    static int unpackY(long packed) {
+        return (int) (packed << (Long.SIZE - BITS_Y - BITS_XZ) >> (Long.SIZE - BITS_Y));
+    }
+
+    static int unpackZ(long packed) {
+        return (int) (packed << (Long.SIZE - BITS_XZ) >> (Long.SIZE - BITS_XZ));
+    }
+
+    private long pack(Vector3ic position) {
+        if (!hasOrigin) {
+            origin.set(position);
+            hasOrigin = true;
+        }
+        long x = (long) position.x() - origin.x;
+        long y = (long) position.y() - origin.y;
+        long z = (long) position.z() - origin.z;
+        if (isInRange(x, y, z)) {
+            return pack((int) x, (int) y, (int) z);
+        }
+        Long index = outOfRangeIndices.get(new Vector3i(position));
+        if (index == null) {
+            Vector3i outOfRangePosition = new Vector3i(position);
+            index = OUT_OF_RANGE | outOfRangePositions.size();
+            outOfRangePositions.add(outOfRangePosition);
+            outOfRangeIndices.put(outOfRangePosition, index);
+        }
+        return index;
+    }
+
+    private Vector3i unpack(long packed, Vector3i dest) {
+        if ((packed & OUT_OF_RANGE) != 0) {
+            return dest.set(outOfRangePositions.get((int) (packed & ~OUT_OF_RANGE)));
+        }
+        return dest.set(origin).add(unpackX(packed), unpackY(packed), unpackZ(packed));
+    }
+
+    @Override
+    public void process(BlockChange... changes) {
+        process(Arrays.asList(changes));
+    }
+
+    @Override
+    public void process(Iterable<BlockChange> blockChanges) {
+        for (BlockChange blockChange : blockChanges) {
+            reviewChange(blockChange);
+        }
+
+        processReduction();
+        processIncrease();
+        cleanUp();
+    }
+
+    /**
+     * Handles a single block being changed to a different type.
+     *
+     * @param blockChange The change that was made
+     */
+    private void reviewChange(BlockChange blockChange) {
+        Vector3ic blockChangePosition = blockChange.getPosition();
+        byte newValue = rules.getFixedValue(blockChange.getTo(), blockChangePosition);
+        byte existingValue = world.getValueAt(blockChangePosition);
+
+        /* Handle if the block has an higher fixed value */
+        if (newValue > existingValue) {
+            increase(blockChangePosition, newValue);
+        }
+
+        /* Handle if the block has a lower fixed value */
+        byte oldValue = rules.getFixedValue(blockChange.getFrom(), blockChangePosition);
+        if (newValue < oldValue) {
+            reduce(blockChangePosition, oldValue);
+        }
+
+        /* Process propagation out to other blocks */
+        for (Side side : Side.values()) {
+            PropagationComparison comparison = rules.comparePropagation(blockChange.getTo(), blockChange.getFrom(),
+                    side);
+
+            if (comparison.isRestricting() && existingValue > 0) {
+                /* If the propagation of the new value is going to be lower/reduced */
+                reduce(blockChangePosition, existingValue);
+                side.getAdjacentPos(blockChangePosition, adjPos);
+                byte adjValue = world.getValueAt(adjPos);
+                if (adjValue == rules.propagateValue(existingValue, side, blockChange.getFrom(), scale)) {
+                    reduce(adjPos, adjValue);
+                }
+
+            } else if (comparison.isPermitting()) {
+                /* If the propagation of the new value is going to be more allowing */
+                if (existingValue > 0) {
+                    /* Spread this potentially higher value out */
+                    queueSpreadValue(blockChangePosition, existingValue);
+                }
+                /* Spread it out to the block on the side */
+                side.getAdjacentPos(blockChangePosition, adjPos);
+                byte adjValue = world.getValueAt(adjPos);
+                if (adjValue != PropagatorWorldView.UNAVAILABLE) {
+                    queueSpreadValue(adjPos, adjValue);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reset the position in {@link #pos} to only it's fixed values
+     *
+     * @param packedPos The packed position to reset
+     * @param oldValue The value present before reset
+     */
+    private void purge(long packedPos, byte oldValue) {
+        increaseQueues[rules.getMaxValue() - oldValue].remove(packedPos);
+
+        /* Clear the value and re-propagate it if it's a positive value */
+        Block block = world.getBlockAt(pos);
+        byte fixedValue = rules.getFixedValue(block, pos);
+        if (fixedValue > 0) {
+            increase(pos, fixedValue);
+        } else {
+            world.setValueAt(pos, NO_VALUE);
+        }
+
+        for (Side side : Side.values()) {
+            /* Handle this value being reset to the default by updating sides as needed */
+            byte expectedValue = rules.propagateValue(oldValue, side, block, scale);
+            if (rules.canSpreadOutOf(block, side)) {
+                side.getAdjacentPos(pos, adjPos);
+                byte adjValue = world.getValueAt(adjPos);
+                if (adjValue == expectedValue) {
+                    Block adjBlock = world.getBlockAt(adjPos);
+                    if (rules.canSpreadInto(adjBlock, side.reverse())) {
+                        reduce(adjPos, expectedValue);
+                    }
+                } else if (adjValue > 0) {
+                    queueSpreadValue(adjPos, adjValue);
+                }
+            }
+        }
+    }
+
+    /**
+     * Process all reducing propagation requests This is done from the largest value through the smallest.
+     */
+    private void processReduction() {
+        for (int depth = 0; depth < rules.getMaxValue(); depth++) {
+            byte oldValue = (byte) (rules.getMaxValue() - depth);
+            PositionQueue queue = reduceQueues[depth];
+
+            while (!queue.isEmpty()) {
+                /* This step will add any new reductions to the next round of the queues */
+                int roundEnd = queue.beginRound();
+                while (queue.next(roundEnd)) {
+                    long packedPos = queue.current();
+                    unpack(packedPos, pos);
+                    purge(packedPos, oldValue);
+                }
+            }
+        }
+    }
+
+    /**
+     * Process all increasing propagation requests This is done from the strongest through to the weakest.
+     */
+    private void processIncrease() {
+        for (int depth = 0; depth < rules.getMaxValue() - 1; depth++) {
+            byte value = (byte) (rules.getMaxValue() - depth);
+            PositionQueue queue = increaseQueues[depth];
+
+            while (!queue.isEmpty()) {
+                /* This step will add any new values to the next round of the queues */
+                int roundEnd = queue.beginRound();
+                while (queue.next(roundEnd)) {
+                    push(unpack(queue.current(), pos), value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Propagates a value from a position out into all adjacent blocks.
+     * <p>
+     * If the value spreading into a block is larger than the current value there, set it and queue it for propagating
+     * again If the value is smaller than the current value, do nothing
+     *
+     * @param position The initial position
+     * @param value The value to propagate
+     */
+    private void push(Vector3ic position, byte value) {
+        Block block = world.getBlockAt(position);
+        for (Side side : Side.values()) {
+            byte propagatedValue = rules.propagateValue(value, side, block, scale);
+
+            if (rules.canSpreadOutOf(block, side)) {
+                side.getAdjacentPos(position, adjPos);
+                byte adjValue = world.getValueAt(adjPos);
+
+                if (adjValue < propagatedValue && adjValue != PropagatorWorldView.UNAVAILABLE) {
+                    Block adjBlock = world.getBlockAt(adjPos);
+
+                    if (rules.canSpreadInto(adjBlock, side.reverse())) {
+                        increase(adjPos, propagatedValue);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Set the value at a position to a new value. This should be larger than the prior value
+     * <p>
+     * Queues up this new higher value to be propagated out
+     *
+     * @param position The position to set at
+     * @param value The value to set the position to
+     */
+    private void increase(Vector3ic position, byte value) {
+        world.setValueAt(position, value);
+        queueSpreadValue(position, value);
+    }
+
+    /**
+     * Set the value at the position as having been lowered to a smaller value
+     *
+     * @param position The position to set at
+     * @param oldValue The original value at the position
+     */
+    private void reduce(Vector3ic position, byte oldValue) {
+        if (oldValue > 0) {
+            reduceQueues[rules.getMaxValue() - oldValue].add(pack(position));
+        }
+    }
+
+    /**
+     * Queues up a propagation from a given position. Propagation is placed into a queue for the given level.
+     *
+     * @param position The position to propagate form
+     * @param value The value to propagate out
+     */
+    private void queueSpreadValue(Vector3ic position, byte value) {
+        if (value > 1) {
+            increaseQueues[rules.getMaxValue() - value].add(pack(position));
+        }
+    }
+
+    /**
+     * Clears all the queues and cleans up the object
+     */
+    private void cleanUp() {
+        for (PositionQueue queue : increaseQueues) {
+            queue.clear();
+        }
+        hasOrigin = false;
+        outOfRangePositions.clear();
+        outOfRangeIndices.clear();
+    }
+
+    @Override
+    public void propagateBetween(Chunk chunk, Chunk adjChunk, Side side, boolean propagateExternal) {
+        int dimA = (side == Side.LEFT || side == Side.RIGHT) ? Chunks.SIZE_Y : Chunks.SIZE_X;
+        int dimB = (side == Side.FRONT || side == Side.BACK) ? Chunks.SIZE_Y : Chunks.SIZE_Z;
+        int[] depth = new int[dimA * dimB];
+
+        propagateSide(chunk, adjChunk, side, depth);
+        propagateDepth(adjChunk, side, propagateExternal, dimA, dimB, depth);
+    }
+
+    private void propagateDepth(Chunk adjChunk, Side side, boolean propagateExternal, int dimA, int dimB,
+                                int[] depths) {
+        int[] adjDepth = new int[depths.length];
+        BatchPropagator.populateMinAdjacent2D(depths, adjDepth, dimA, dimB, !propagateExternal);
+
+        if (propagateExternal) {
+            for (int y = 0; y < dimB; ++y) {
+                adjDepth[y * dimA] = 0;
+                adjDepth[dimA - 1 + y * dimA] = 0;
+            }
+            for (int x = 0; x < dimA; ++x) {
+                adjDepth[x] = 0;
+                adjDepth[x + dimA * (dimB - 1)] = 0;
+            }
+        }
+
+        Vector3ic direction = side.direction();
+        Vector3ic edgeDelta = chunkEdgeDeltas[side.ordinal()];
+        Vector3i worldPos = new Vector3i();
+        int minX = edgeMin(direction.x(), Chunks.SIZE_X);
+        int minY = edgeMin(direction.y(), Chunks.SIZE_Y);
+        int minZ = edgeMin(direction.z(), Chunks.SIZE_Z);
+        int maxX = edgeMax(direction.x(), Chunks.SIZE_X);
+        int maxY = edgeMax(direction.y(), Chunks.SIZE_Y);
+        int maxZ = edgeMax(direction.z(), Chunks.SIZE_Z);
+        /* Same iteration order as the edge region of the standard propagator, which decides the order of the queue */
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    int depthIndex = depthIndex(side, x, y, z);
+                    for (int i = adjDepth[depthIndex]; i < depths[depthIndex]; ++i) {
+                        adjPos.set(direction).mul(i + 1).add(x, y, z).add(edgeDelta);
+                        byte value = rules.getValue(adjChunk, adjPos);
+                        if (value > 1) {
+                            queueSpreadValue(adjChunk.chunkToWorldPosition(adjPos, worldPos), value);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void propagateSide(Chunk chunk, Chunk adjChunk, Side side, int[] depths) {
+        Vector3ic direction = side.direction();
+        Vector3ic edgeDelta = chunkEdgeDeltas[side.ordinal()];
+        int minX = edgeMin(direction.x(), Chunks.SIZE_X);
+        int minY = edgeMin(direction.y(), Chunks.SIZE_Y);
+        int minZ = edgeMin(direction.z(), Chunks.SIZE_Z);
+        int maxX = edgeMax(direction.x(), Chunks.SIZE_X);
+        int maxY = edgeMax(direction.y(), Chunks.SIZE_Y);
+        int maxZ = edgeMax(direction.z(), Chunks.SIZE_Z);
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    byte expectedValue = (byte) (rules.getValue(chunk, x, y, z) - 1);
+                    if (expectedValue < 1) {
+                        continue;
+                    }
+
+                    pos.set(x, y, z).add(edgeDelta, adjPos);
+
+                    int depthIndex = depthIndex(side, x, y, z);
+                    int depth = 0;
+                    Block lastBlock = chunk.getBlock(x, y, z);
+                    byte adjValue = rules.getValue(adjChunk, adjPos);
+                    while (expectedValue > adjValue && adjValue != PropagatorWorldView.UNAVAILABLE
+                            && rules.canSpreadOutOf(lastBlock, side)) {
+                        lastBlock = adjChunk.getBlock(adjPos);
+                        if (rules.canSpreadInto(lastBlock, side.reverse())) {
+                            rules.setValue(adjChunk, adjPos, expectedValue);
+                            adjPos.add(direction);
+                            depth++;
+                            expectedValue--;
+                            adjValue = rules.getValue(adjChunk, adjPos);
+                        } else {
+                            break;
+                        }
+                    }
+                    depths[depthIndex] = depth;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the lowest coordinate of the face of the chunk in the given direction along one axis
+     */
+    private static int edgeMin(int direction, int size) {
+        return direction > 0 ? size - 1 : 0;
+    }
+
+    /**
+     * @return the highest coordinate of the face of the chunk in the given direction along one axis
+     */
+    private static int edgeMax(int direction, int size) {
+        return direction < 0 ? 0 : size - 1;
+    }
+
+    /**
+     * Gets the index of a position in the face of the chunk on the given side.
+     */
+    private static int depthIndex(Side side, int x, int y, int z) {
+        switch (side) {
+            case TOP:
+            case BOTTOM:
+                return x + Chunks.SIZE_X * z;
+            case LEFT:
+            case RIGHT:
+                return y + Chunks.SIZE_Y * z;
+            default:
+                return x + Chunks.SIZE_X * y;
+        }
+    }
+
+    @Override
+    public void propagateFrom(Vector3ic position, Block block) {
+        queueSpreadValue(position, rules.getFixedValue(block, position));
+    }
+
+    @Override
+    public void propagateFrom(Vector3ic position, byte value) {
+        queueSpreadValue(position, value);
+    }
+
+    @Override
+    public void regenerate(Vector3ic position, byte value) {
+        reduce(position, value);
+    }
+
+    /**
+     * A queue of packed positions which contains each position at most once and keeps them in insertion order, like a
+     * {@link java.util.LinkedHashSet}.
+     * <p>
+     * The queue is processed in rounds. A round covers the positions queued before it began, and positions queued
+     * during a round go into the next one, even if they are still waiting in the current round.
+     */
+    private static final class PositionQueue {
+        private static final int NO_ENTRY = -1;
+
+        private long[] ring = new long[64];
+        /* Sequence numbers of the first and after the last position in the ring, the slot is the number modulo the size */
+        private int head;
+        private int tail;
+        /* The sequence number of the valid entry of each queued position */
+        private TLongIntMap entries = new TLongIntHashMap(64, 0.5f, 0, NO_ENTRY);
+        private TLongIntMap roundEntries = new TLongIntHashMap(64, 0.5f, 0, NO_ENTRY);
+        private long current;
+
+        boolean isEmpty() {
+            return entries.isEmpty();
+        }
+
+        void add(long position) {
+            if (entries.containsKey(position)) {
+                return;
+            }
+            if (tail - head == ring.length) {
+                grow();
+            }
+            ring[tail & (ring.length - 1)] = position;
+            entries.put(position, tail);
+            tail++;
+        }
+
+        void remove(long position) {
+            entries.remove(position);
+        }
+
+        /**
+         * @return the end of the round, to pass to {@link #next(int)}
+         */
+        int beginRound() {
+            TLongIntMap queued = entries;
+            entries = roundEntries;
+            roundEntries = queued;
+            return tail;
+        }
+
+        /**
+         * Moves to the next position of the round, skipping positions which were removed or queued again since.
+         *
+         * @return false if the round is over
+         */
+        boolean next(int roundEnd) {
+            while (head != roundEnd) {
+                int sequence = head++;
+                long position = ring[sequence & (ring.length - 1)];
+                if (roundEntries.get(position) == sequence) {
+                    current = position;
+                    return true;
+                }
+            }
+            roundEntries.clear();
+            if (head == tail) {
+                head = 0;
+                tail = 0;
+            }
+            return false;
+        }
+
+        long current() {
+            return current;
+        }
+
+        void clear() {
+            entries.clear();
+            roundEntries.clear();
+            head = 0;
+            tail = 0;
+        }
+
+        private void grow() {
+            long[] grown = new long[ring.length * 2];
+            for (int sequence = head; sequence != tail; sequence++) {
+                grown[sequence & (grown.length - 1)] = ring[sequence & (ring.length - 1)];
+            }
+            ring = grown;
+        }
+    }
+}
@@ -23,7 +23,7 @@ public SingleChunkView(PropagationRules rules, Chunk chunk) {
     @Override
     public byte getValueAt(Vector3ic pos) {
         if (Chunks.CHUNK_REGION.contains(pos)) {
-            return rules.getValue(chunk, pos);
+            return rules.getValue(chunk, pos.x(), pos.y(), pos.z());
         }
         return UNAVAILABLE;
     }
@@ -36,7 +36,7 @@ public void setValueAt(Vector3ic pos, byte value) {
     @Override
     public Block getBlockAt(Vector3ic pos) {
         if (Chunks.CHUNK_REGION.contains(pos)) {
-            return chunk.getBlock(pos);
+            return chunk.getBlock(pos.x(), pos.y(), pos.z());
         }
         return null;
     }
@@ -9,9 +9,9 @@
 import org.terasology.engine.world.chunks.Chunk;
 import org.terasology.engine.world.chunks.Chunks;
 import org.terasology.engine.world.propagation.BatchPropagator;
+import org.terasology.engine.world.propagation.PackedBatchPropagator;
 import org.terasology.engine.world.propagation.PropagationRules;
 import org.terasology.engine.world.propagation.SingleChunkView;
-import org.terasology.engine.world.propagation.StandardBatchPropagator;
 
 /**
  * For doing an initial lighting sweep during chunk generation - bound to the chunk and assumed blank slate
@@ -21,6 +21,8 @@ public final class InternalLightProcessor {
 
     private static final PropagationRules LIGHT_RULES = new LightPropagationRules();
     private static final PropagationRules SUNLIGHT_REGEN_RULES = new SunlightRegenPropagationRules();
+    private static final ThreadLocal<byte[]> SUNLIGHT_BUFFERS =
+            ThreadLocal.withInitial(() -> new byte[Chunks.SIZE_X * Chunks.SIZE_Y * Chunks.SIZE_Z]);
 
     private InternalLightProcessor() {
     }
@@ -41,7 +43,7 @@ public static void generateInternalLighting(Chunk chunk, int scale) {
      * @param chunk The chunk to populate through
      */
     private static void populateLight(Chunk chunk, int scale) {
-        BatchPropagator lightPropagator = new StandardBatchPropagator(LIGHT_RULES, new SingleChunkView(LIGHT_RULES, chunk), scale);
+        BatchPropagator lightPropagator = new PackedBatchPropagator(LIGHT_RULES, new SingleChunkView(LIGHT_RULES, chunk), scale);
         Vector3i pos = new Vector3i();
         for (int x = 0; x < Chunks.SIZE_X; x++) {
             for (int z = 0; z < Chunks.SIZE_Z; z++) {
@@ -59,13 +61,18 @@ private static void populateLight(Chunk chunk, int scale) {
 
     /**
      * Propagate the initial sunlight values out
+     * <p>
+     * The fixed sunlight values are first worked out column by column into a flat array. Propagation is then only
+     * started from the positions which can raise the sunlight of a neighbour, which are the few positions at the edges
+     * of lit areas instead of every lit position.
      *
      * @param chunk The chunk to set in
      */
     private static void populateSunlight(Chunk chunk, int scale) {
         PropagationRules sunlightRules = new SunlightPropagationRules(chunk);
-        BatchPropagator lightPropagator = new StandardBatchPropagator(sunlightRules, new SingleChunkView(sunlightRules, chunk), scale);
+        BatchPropagator lightPropagator = new PackedBatchPropagator(sunlightRules, new SingleChunkView(sunlightRules, chunk), scale);
 
+        byte[] sunlight = SUNLIGHT_BUFFERS.get();
         Vector3i pos = new Vector3i();
         for (int x = 0; x < Chunks.SIZE_X; x++) {
             for (int z = 0; z < Chunks.SIZE_Z; z++) {
@@ -74,9 +81,20 @@ private static void populateSunlight(Chunk chunk, int scale) {
                     pos.set(x, y, z);
                     Block block = chunk.getBlock(x, y, z);
                     byte light = sunlightRules.getFixedValue(block, pos);
+                    sunlight[index(x, y, z)] = light;
                     if (light > 0) {
                         chunk.setSunlight(x, y, z, light);
-                        lightPropagator.propagateFrom(pos, light);
+                    }
+                }
+            }
+        }
+
+        for (int x = 0; x < Chunks.SIZE_X; x++) {
+            for (int z = 0; z < Chunks.SIZE_Z; z++) {
+                for (int y = 0; y < Chunks.SIZE_Y; y++) {
+                    byte light = sunlight[index(x, y, z)];
+                    if (light > scale && canRaiseNeighbour(sunlight, x, y, z, (byte) (light - scale))) {
+                        lightPropagator.propagateFrom(pos.set(x, y, z), light);
                     }
                 }
             }
@@ -84,6 +102,22 @@ private static void populateSunlight(Chunk chunk, int scale) {
         lightPropagator.process();
     }
 
+    private static int index(int x, int y, int z) {
+        return x + Chunks.SIZE_X * (z + Chunks.SIZE_Z * y);
+    }
+
+    /**
+     * @return whether any neighbour in the chunk has a lower fixed sunlight than the value spread to it
+     */
+    private static boolean canRaiseNeighbour(byte[] sunlight, int x, int y, int z, byte spreadValue) {
+        return x > 0 && sunlight[index(x - 1, y, z)] < spreadValue
+                || x < Chunks.SIZE_X - 1 && sunlight[index(x + 1, y, z)] < spreadValue
+                || y > 0 && sunlight[index(x, y - 1, z)] < spreadValue
+                || y < Chunks.SIZE_Y - 1 && sunlight[index(x, y + 1, z)] < spreadValue
+                || z > 0 && sunlight[index(x, y, z - 1)] < spreadValue
+                || z < Chunks.SIZE_Z - 1 && sunlight[index(x, y, z + 1)] < spreadValue;
+    }
+
     /**
      * Sets the initial values for the sunlight regeneration
      *
@@ -10,9 +10,9 @@
 import org.terasology.engine.world.chunks.Chunk;
 import org.terasology.engine.world.propagation.BatchPropagator;
 import org.terasology.engine.world.propagation.LocalChunkView;
+import org.terasology.engine.world.propagation.PackedBatchPropagator;
 import org.terasology.engine.world.propagation.PropagationRules;
 import org.terasology.engine.world.propagation.PropagatorWorldView;
-import org.terasology.engine.world.propagation.StandardBatchPropagator;
 import org.terasology.engine.world.propagation.SunlightRegenBatchPropagator;
 
 import java.util.Arrays;
@@ -79,12 +79,12 @@ public static Chunk merge(Chunk[] localChunks) {
         Chunk chunk = localChunks[CENTER_INDEX];
 
         List<BatchPropagator> propagators = Lists.newArrayList();
-        propagators.add(new StandardBatchPropagator(new LightPropagationRules(), new LocalChunkView(localChunks,
+        propagators.add(new PackedBatchPropagator(new LightPropagationRules(), new LocalChunkView(localChunks,
                 LIGHT_RULES)));
         PropagatorWorldView regenWorldView = new LocalChunkView(localChunks, SUNLIGHT_REGEN_RULES);
         PropagationRules sunlightRules = new SunlightPropagationRules(regenWorldView);
         PropagatorWorldView sunlightWorldView = new LocalChunkView(localChunks, sunlightRules);
-        BatchPropagator sunlightPropagator = new StandardBatchPropagator(sunlightRules, sunlightWorldView);
+        BatchPropagator sunlightPropagator = new PackedBatchPropagator(sunlightRules, sunlightWorldView);
         propagators.add(new SunlightRegenBatchPropagator(SUNLIGHT_REGEN_RULES, regenWorldView, sunlightPropagator,
                 sunlightWorldView));
         propagators.add(sunlightPropagator);
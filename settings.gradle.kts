@@ -26,6 +26,7 @@ dependencyResolutionManagement {
             library("slf4j-api", "org.slf4j", "slf4j-api").versionRef(slf4j)
             library("slf4j-jul", "org.slf4j", "jul-to-slf4j").versionRef(slf4j)
             library("slf4j-simple", "org.slf4j", "slf4j-simple").versionRef("slf4j")
+            library("netty-all", "io.netty:netty-all:4.1.77.Final")
             val nui = version("nui", "4.0.0-SNAPSHOT")
             library("terasology-nui", "org.terasology.nui", "nui").versionRef(nui)
             library("terasology-nuigestalt", "org.terasology.nui", "nui-gestalt").versionRef(nui)